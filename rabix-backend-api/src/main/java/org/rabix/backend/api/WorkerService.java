@@ -30,4 +30,10 @@ public interface WorkerService {
   
   String getType();
 
+  /**
+   * Releases threads of a worker started in the same process as the engine, jobs are not aborted
+   */
+  default void stop() {
+  }
+
 }
@@ -0,0 +1,10 @@
+package org.rabix.backend.api.app;
+
+/**
+ * Loads application JSON for an application hash issued by the Engine
+ */
+public interface AppFetcher {
+
+  String fetch(String appHash) throws AppResolverException;
+  
+}
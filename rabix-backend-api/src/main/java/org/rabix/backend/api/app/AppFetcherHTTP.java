@@ -0,0 +1,35 @@
+package org.rabix.backend.api.app;
+
+import java.io.IOException;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.helper.URIHelper;
+
+/**
+ * Fetches applications from the Engine REST API (GET /v0/engine/apps/{hash})
+ */
+public class AppFetcherHTTP implements AppFetcher {
+
+  private final static String APPS_PATH = "/v0/engine/apps/";
+  
+  private final String engineUrl;
+  
+  public AppFetcherHTTP(Configuration configuration) {
+    String engineHost = configuration.getString("engine.url", null);
+    Integer enginePort = configuration.getInteger("engine.port", null);
+    this.engineUrl = engineHost != null && enginePort != null ? engineHost + ":" + enginePort : engineHost;
+  }
+  
+  @Override
+  public String fetch(String appHash) throws AppResolverException {
+    if (engineUrl == null) {
+      throw new AppResolverException("Cannot fetch application " + appHash + ". Engine URL is not configured.");
+    }
+    try {
+      return URIHelper.getData(engineUrl + APPS_PATH + appHash);
+    } catch (IOException e) {
+      throw new AppResolverException("Failed to fetch application " + appHash, e);
+    }
+  }
+
+}
@@ -0,0 +1,58 @@
+package org.rabix.backend.api.app;
+
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.helper.URIHelper;
+import org.rabix.bindings.model.Job;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Replaces application references (app:{hash}) with inlined applications.
+ * Jobs that already carry the whole application are passed through, so older Engines keep working.
+ */
+public class AppResolver {
+
+  public final static String CACHE_SIZE_KEY = "executor.app_cache.size";
+  
+  private final static int DEFAULT_CACHE_SIZE = 64;
+  
+  private final AppFetcher appFetcher;
+  
+  private final Cache<String, String> apps;
+  
+  public AppResolver(AppFetcher appFetcher, Configuration configuration) {
+    int cacheSize = configuration.getInt(CACHE_SIZE_KEY, DEFAULT_CACHE_SIZE);
+    this.appFetcher = appFetcher;
+    this.apps = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+  }
+  
+  public Job resolve(Job job) throws AppResolverException {
+    if (!URIHelper.isApp(job.getApp())) {
+      return job;
+    }
+    if (appFetcher == null) {
+      throw new AppResolverException("Job " + job.getId() + " references application " + job.getApp() + " but there is no way to fetch it.");
+    }
+    String appHash = URIHelper.getURIInfo(job.getApp());
+    try {
+      String encodedApp = apps.get(appHash, () -> URIHelper.createDataURI(appFetcher.fetch(appHash)));
+      return Job.cloneWithApp(job, encodedApp, appHash);
+    } catch (ExecutionException e) {
+      throw new AppResolverException("Failed to resolve application " + job.getApp(), e.getCause());
+    }
+  }
+  
+  /**
+   * Puts the reference back for jobs that are sent to the Engine, jobs keep the hash of an application they got by reference
+   */
+  public Job reference(Job job) {
+    if (job.getAppHash() == null || job.getApp() == null || URIHelper.isApp(job.getApp())) {
+      return job;
+    }
+    return Job.cloneWithApp(job, URIHelper.createAppURI(job.getAppHash()));
+  }
+  
+}
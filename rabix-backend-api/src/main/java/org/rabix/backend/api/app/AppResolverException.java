@@ -0,0 +1,22 @@
+package org.rabix.backend.api.app;
+
+public class AppResolverException extends Exception {
+
+  /**
+   * 
+   */
+  private static final long serialVersionUID = 3190518251823460113L;
+
+  public AppResolverException(Throwable t) {
+    super(t);
+  }
+  
+  public AppResolverException(String message) {
+    super(message);
+  }
+
+  public AppResolverException(String message, Throwable t) {
+    super(message, t);
+  }
+
+}
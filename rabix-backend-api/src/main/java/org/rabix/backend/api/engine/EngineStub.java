@@ -1,7 +1,10 @@
 package org.rabix.backend.api.engine;
 
 import org.rabix.backend.api.WorkerService;
+import org.rabix.backend.api.app.AppResolver;
+import org.rabix.backend.api.app.AppResolverException;
 import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
 import org.rabix.common.engine.control.EngineControlFreeMessage;
 import org.rabix.common.engine.control.EngineControlMessage;
 import org.rabix.common.engine.control.EngineControlStopMessage;
@@ -38,10 +41,12 @@ public abstract class EngineStub<Q extends TransportQueue, B extends Backend, T
   protected Long heartbeatTimeMills;
 
   protected WorkerService executorService;
+  
+  protected AppResolver appResolver;
 
   public void start() {
     transportPlugin.startReceiver(sendToBackendQueue, Job.class,
-            (job, onHandled) -> executorService.submit(job, job.getRootId()),
+            (job, onHandled) -> submit(job),
             error -> logger.error("Failed to receive message.", error));
 
     transportPlugin.startReceiver(sendToBackendControlQueue, EngineControlMessage.class, (controlMessage, onHandled) -> {
@@ -66,10 +71,24 @@ public abstract class EngineStub<Q extends TransportQueue, B extends Backend, T
 
   public void stop() {
     scheduledHeartbeatService.shutdown();
+    transportPlugin.stopReceiver(sendToBackendQueue);
+    transportPlugin.stopReceiver(sendToBackendControlQueue);
+  }
+
+  private void submit(Job job) {
+    Job resolved;
+    try {
+      resolved = appResolver.resolve(job);
+    } catch (AppResolverException e) {
+      logger.error("Failed to resolve application for Job " + job.getId(), e);
+      send(Job.cloneWithMessage(Job.cloneWithStatus(job, JobStatus.FAILED), e.getMessage()));
+      return;
+    }
+    executorService.submit(resolved, resolved.getRootId());
   }
 
   public void send(Job job) {
-    transportPlugin.send(receiveFromBackendQueue, job);
+    transportPlugin.send(receiveFromBackendQueue, appResolver.reference(job));
   }
 
 }
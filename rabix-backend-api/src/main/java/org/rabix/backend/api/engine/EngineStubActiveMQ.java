@@ -2,6 +2,8 @@ package org.rabix.backend.api.engine;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.backend.api.WorkerService;
+import org.rabix.backend.api.app.AppFetcherHTTP;
+import org.rabix.backend.api.app.AppResolver;
 import org.rabix.transport.backend.impl.BackendActiveMQ;
 import org.rabix.transport.mechanism.TransportPluginException;
 import org.rabix.transport.mechanism.impl.activemq.TransportPluginActiveMQ;
@@ -12,6 +14,7 @@ public class EngineStubActiveMQ extends EngineStub<TransportQueueActiveMQ, Backe
   public EngineStubActiveMQ(BackendActiveMQ backendActiveMQ, WorkerService executorService, Configuration configuration) throws TransportPluginException {
     this.backend = backendActiveMQ;
     this.executorService = executorService;
+    this.appResolver = new AppResolver(new AppFetcherHTTP(configuration), configuration);
     this.transportPlugin = new TransportPluginActiveMQ(configuration);
     
     this.heartbeatTimeMills = configuration.getLong("rabbitmq.backend.heartbeatTimeMills", DEFAULT_HEARTBEAT_TIME);
@@ -2,6 +2,8 @@ package org.rabix.backend.api.engine;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.backend.api.WorkerService;
+import org.rabix.backend.api.app.AppResolver;
+import org.rabix.bindings.model.Job;
 import org.rabix.transport.backend.impl.BackendLocal;
 import org.rabix.transport.mechanism.TransportPluginException;
 import org.rabix.transport.mechanism.impl.local.TransportPluginLocal;
@@ -14,7 +16,9 @@ public class EngineStubLocal extends EngineStub<TransportQueueLocal, BackendLoca
   public EngineStubLocal(BackendLocal backendLocal, WorkerService executorService, Configuration configuration) throws TransportPluginException {
     this.backend = backendLocal;
     this.executorService = executorService;
+    this.appResolver = new AppResolver(null, configuration); // embedded Engine sends inlined applications
     this.transportPlugin = new TransportPluginLocal(configuration);
+    this.transportPlugin.partitionBy(Job.class, Job::getRootId);
     
     this.heartbeatTimeMills = LOCAL_HEARTBEAT_TIME_MILLS;
     
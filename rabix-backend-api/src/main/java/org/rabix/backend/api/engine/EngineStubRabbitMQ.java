@@ -2,6 +2,8 @@ package org.rabix.backend.api.engine;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.backend.api.WorkerService;
+import org.rabix.backend.api.app.AppFetcherHTTP;
+import org.rabix.backend.api.app.AppResolver;
 import org.rabix.transport.backend.impl.BackendRabbitMQ;
 import org.rabix.transport.backend.impl.BackendRabbitMQ.BackendConfiguration;
 import org.rabix.transport.backend.impl.BackendRabbitMQ.EngineConfiguration;
@@ -14,6 +16,7 @@ public class EngineStubRabbitMQ extends EngineStub<TransportQueueRabbitMQ, Backe
   public EngineStubRabbitMQ(BackendRabbitMQ backendRabbitMQ, WorkerService executorService, Configuration configuration) throws TransportPluginException {
     this.backend = backendRabbitMQ;
     this.executorService = executorService;
+    this.appResolver = new AppResolver(new AppFetcherHTTP(configuration), configuration);
     this.transportPlugin = new TransportPluginRabbitMQ(configuration);
     
     this.heartbeatTimeMills = configuration.getLong("rabbitmq.backend.heartbeatTimeMills", DEFAULT_HEARTBEAT_TIME);
@@ -40,5 +43,11 @@ public class EngineStubRabbitMQ extends EngineStub<TransportQueueRabbitMQ, Backe
       // do nothing
     }
   }
-  
+
+  @Override
+  public void stop() {
+    super.stop();
+    transportPlugin.stop();
+  }
+
 }
@@ -0,0 +1,70 @@
+package org.rabix.backend.api.app;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.rabix.bindings.helper.URIHelper;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.common.helper.JSONHelper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class AppResolverTest {
+
+  private static final String APP = "{\"class\":\"CommandLineTool\",\"baseCommand\":\"echo\"}";
+  private static final String APP_HASH = "6b1f2d0e";
+
+  @Test
+  public void testResolveAndReference() throws AppResolverException {
+    AtomicInteger fetches = new AtomicInteger();
+    AppResolver resolver = new AppResolver(hash -> {
+      fetches.incrementAndGet();
+      Assert.assertEquals(hash, APP_HASH);
+      return APP;
+    }, new BaseConfiguration());
+
+    Job job = job(URIHelper.createAppURI(APP_HASH));
+    Assert.assertEquals(job.getAppHash(), APP_HASH);
+
+    Job resolved = resolver.resolve(job);
+    Assert.assertEquals(resolved.getApp(), URIHelper.createDataURI(APP));
+    Assert.assertEquals(resolved.getAppHash(), APP_HASH);
+    resolver.resolve(job(URIHelper.createAppURI(APP_HASH)));
+    Assert.assertEquals(fetches.get(), 1);
+
+    // the executor reports a clone of the resolved job, the hash survives it and serialization
+    Job completed = Job.cloneWithStatus(Job.cloneWithOutputs(resolved, Collections.emptyMap()), JobStatus.COMPLETED);
+    completed = JSONHelper.readObject(JSONHelper.writeCompact(completed), Job.class);
+    Job referenced = resolver.reference(completed);
+    Assert.assertEquals(referenced.getApp(), URIHelper.createAppURI(APP_HASH));
+    Assert.assertEquals(referenced.getStatus(), JobStatus.COMPLETED);
+  }
+
+  @Test
+  public void testInlinedAppsPassThrough() throws AppResolverException {
+    AppResolver resolver = new AppResolver(null, new BaseConfiguration());
+
+    Job job = job(URIHelper.createDataURI(APP));
+    Assert.assertNull(job.getAppHash());
+    Assert.assertSame(resolver.resolve(job), job);
+    Assert.assertSame(resolver.reference(job), job);
+
+    // replacing the application drops a hash that no longer matches it
+    Job replaced = Job.cloneWithApp(Job.cloneWithApp(job, URIHelper.createDataURI(APP), APP_HASH), URIHelper.createDataURI("{}"));
+    Assert.assertNull(replaced.getAppHash());
+  }
+
+  @Test(expectedExceptions = AppResolverException.class)
+  public void testReferenceWithoutFetcher() throws AppResolverException {
+    new AppResolver(null, new BaseConfiguration()).resolve(job(URIHelper.createAppURI(APP_HASH)));
+  }
+
+  private Job job(String app) {
+    return new Job(UUID.randomUUID(), null, UUID.randomUUID(), "root.step", app, JobStatus.READY, null, Collections.emptyMap(), null, null, null, null);
+  }
+
+}
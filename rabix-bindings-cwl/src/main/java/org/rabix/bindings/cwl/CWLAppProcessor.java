@@ -18,7 +18,7 @@ public class CWLAppProcessor implements ProtocolAppProcessor {
 
   @Override
   public String loadApp(String uri) throws BindingException {
-    return CWLDocumentResolver.resolve(uri);
+    return CWLDocumentResolver.getInstance().resolve(uri);
   }
   
   @Override
@@ -16,6 +16,7 @@ import org.rabix.bindings.cwl.bean.CWLStepInputs;
 import org.rabix.bindings.cwl.bean.CWLWorkflow;
 import org.rabix.bindings.cwl.helper.CWLJobHelper;
 import org.rabix.bindings.cwl.helper.CWLSchemaHelper;
+import org.rabix.bindings.helper.DAGHashHelper;
 import org.rabix.bindings.helper.DAGValidationHelper;
 import org.rabix.bindings.model.ApplicationPort;
 import org.rabix.bindings.model.Job;
@@ -37,6 +38,7 @@ public class CWLTranslator implements ProtocolTranslator {
     DAGValidationHelper.detectLoop(dagNode);
     DAGValidationHelper.detectUnconnectedOutputs(dagNode);
     processPorts(dagNode);
+    DAGHashHelper.hash(dagNode);
     return dagNode;
   }
   
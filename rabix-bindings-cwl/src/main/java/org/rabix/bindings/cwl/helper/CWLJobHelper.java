@@ -17,7 +17,7 @@ public class CWLJobHelper {
 
   @SuppressWarnings("unchecked")
   public static CWLJob getCWLJob(Job job) throws BindingException {
-    String resolvedAppStr = CWLDocumentResolver.resolve(job.getApp());
+    String resolvedAppStr = CWLDocumentResolver.getInstance().resolve(job.getApp());
     CWLJobApp app = BeanSerializer.deserialize(resolvedAppStr, CWLJobApp.class);
 
     Map<String, Object> nativeInputs = (Map<String, Object>) CWLValueTranslator.translateToSpecific(job.getInputs());
@@ -0,0 +1,42 @@
+package org.rabix.bindings.cwl.resolver;
+
+import java.nio.charset.StandardCharsets;
+
+import org.rabix.common.helper.JSONHelper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+/**
+ * Bounded cache of parsed documents shared by resolutions. Entries are keyed by absolute URI and digest of the
+ * contents, so a changed document is parsed again. Resolution modifies the tree, every caller gets its own copy.
+ */
+public class CWLDocumentCache {
+
+  private final Cache<String, JsonNode> documents;
+
+  public CWLDocumentCache(long maximumSize) {
+    this.documents = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  public JsonNode get(String uri, String contents) {
+    String key = digest(uri) + ":" + digest(contents);
+    JsonNode document = documents.getIfPresent(key);
+    if (document == null) {
+      document = JSONHelper.readJsonNode(contents);
+      documents.put(key, document);
+    }
+    return document.deepCopy();
+  }
+
+  public long size() {
+    return documents.size();
+  }
+
+  private static String digest(String value) {
+    return Hashing.sha256().hashString(value, StandardCharsets.UTF_8).toString();
+  }
+
+}
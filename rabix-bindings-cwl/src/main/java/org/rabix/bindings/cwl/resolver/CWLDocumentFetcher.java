@@ -0,0 +1,153 @@
+package org.rabix.bindings.cwl.resolver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Fetches documents over HTTP. If a cache directory is set, responses are kept on disk and revalidated with
+ * If-None-Match/If-Modified-Since, the cached copy is also used when the server can't be reached. The directory is
+ * created readable by the owner only.
+ */
+public class CWLDocumentFetcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(CWLDocumentFetcher.class);
+
+  private static final int TIMEOUT = 30000;
+
+  private final Path cacheDirectory;
+
+  public CWLDocumentFetcher(Path cacheDirectory) {
+    this.cacheDirectory = cacheDirectory;
+  }
+
+  public String fetch(String url) throws IOException {
+    Path cached = null;
+    CachedResponse cachedResponse = null;
+    if (cacheDirectory != null) {
+      cached = cacheDirectory.resolve(Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString());
+      cachedResponse = read(cached);
+    }
+
+    URLConnection connection = new URL(url).openConnection();
+    connection.setConnectTimeout(TIMEOUT);
+    connection.setReadTimeout(TIMEOUT);
+    try {
+      if (!(connection instanceof HttpURLConnection)) {
+        return new String(readFully(connection.getInputStream()), StandardCharsets.UTF_8);
+      }
+      HttpURLConnection httpConnection = (HttpURLConnection) connection;
+      if (cachedResponse != null) {
+        if (!cachedResponse.etag.isEmpty()) {
+          httpConnection.setRequestProperty("If-None-Match", cachedResponse.etag);
+        }
+        if (!cachedResponse.lastModified.isEmpty()) {
+          httpConnection.setRequestProperty("If-Modified-Since", cachedResponse.lastModified);
+        }
+      }
+      int status;
+      try {
+        status = httpConnection.getResponseCode();
+      } catch (ConnectException | NoRouteToHostException | UnknownHostException | SocketTimeoutException e) {
+        if (cachedResponse != null) {
+          logger.warn("Failed to reach {}, using cached copy: {}", url, e.getMessage());
+          return cachedResponse.body;
+        }
+        throw e;
+      }
+      if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cachedResponse != null) {
+        return cachedResponse.body;
+      }
+      if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+        throw new IOException("Server returned " + status + " for " + url);
+      }
+      String body = new String(readFully(httpConnection.getInputStream()), StandardCharsets.UTF_8);
+      if (cached != null) {
+        write(cached, StringUtils.defaultString(httpConnection.getHeaderField("ETag")), StringUtils.defaultString(httpConnection.getHeaderField("Last-Modified")), body);
+      }
+      return body;
+    } finally {
+      if (connection instanceof HttpURLConnection) {
+        ((HttpURLConnection) connection).disconnect();
+      }
+    }
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    try (InputStream in = inputStream) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  /**
+   * Cached responses are stored as ETag and Last-Modified lines followed by the body
+   */
+  private static CachedResponse read(Path cached) {
+    if (!Files.isRegularFile(cached)) {
+      return null;
+    }
+    try {
+      String contents = new String(Files.readAllBytes(cached), StandardCharsets.UTF_8);
+      int etagEnd = contents.indexOf('\n');
+      int lastModifiedEnd = contents.indexOf('\n', etagEnd + 1);
+      if (etagEnd < 0 || lastModifiedEnd < 0) {
+        return null;
+      }
+      return new CachedResponse(contents.substring(0, etagEnd), contents.substring(etagEnd + 1, lastModifiedEnd), contents.substring(lastModifiedEnd + 1));
+    } catch (IOException e) {
+      logger.warn("Failed to read cached document {}: {}", cached, e.getMessage());
+      return null;
+    }
+  }
+
+  private void write(Path cached, String etag, String lastModified, String body) {
+    try {
+      if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+        Files.createDirectories(cacheDirectory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+      } else {
+        Files.createDirectories(cacheDirectory);
+      }
+      Path temporary = Files.createTempFile(cacheDirectory, cached.getFileName().toString(), ".tmp");
+      ByteArrayOutputStream contents = new ByteArrayOutputStream();
+      contents.write((etag + "\n" + lastModified + "\n").getBytes(StandardCharsets.UTF_8));
+      contents.write(body.getBytes(StandardCharsets.UTF_8));
+      Files.write(temporary, contents.toByteArray());
+      Files.move(temporary, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.warn("Failed to cache document {}: {}", cached, e.getMessage());
+    }
+  }
+
+  private static class CachedResponse {
+    final String etag;
+    final String lastModified;
+    final String body;
+
+    CachedResponse(String etag, String lastModified, String body) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.body = body;
+    }
+  }
+
+}
@@ -1,12 +1,8 @@
 package org.rabix.bindings.cwl.resolver;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URI;
-import java.net.URL;
-import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -34,8 +30,21 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import com.google.common.base.Preconditions;
 
+/**
+ * Resolves $import, $include, run and type references of a CWL document. An instance can be used by many threads,
+ * state of a single resolution is kept in {@link Resolution}. Referenced documents are parsed once and kept in a
+ * shared {@link CWLDocumentCache}, documents fetched over HTTP can be cached on disk.
+ * <p>
+ * The shared instance is configured with system properties {@value #CACHE_SIZE_PROPERTY} (parsed documents, default
+ * {@value #DEFAULT_CACHE_SIZE}) and {@value #CACHE_DIRECTORY_PROPERTY} (directory of the disk cache, not set by
+ * default).
+ */
 public class CWLDocumentResolver {
 
+  public static final String CACHE_SIZE_PROPERTY = "rabix.cwl.resolver.cache.size";
+  public static final String CACHE_DIRECTORY_PROPERTY = "rabix.cwl.resolver.cache.directory";
+  public static final long DEFAULT_CACHE_SIZE = 512;
+
   public static Set<String> types = new HashSet<String>();
 
   static {
@@ -89,102 +98,401 @@ public class CWLDocumentResolver {
 
   public static final String DOCUMENT_FRAGMENT_SEPARATOR = "#";
 
-  private static boolean graphResolve = false;
+  private static volatile CWLDocumentResolver instance;
+
+  private final CWLDocumentCache documentCache;
+  private final CWLDocumentFetcher documentFetcher;
 
-  private static Map<String, String> namespaces = new HashMap<String, String>();
-  private static Map<String, Map<String, CWLDocumentResolverReference>> referenceCache = new HashMap<>();
-  private static Map<String, List<CWLDocumentResolverReplacement>> replacements = new HashMap<>();
+  public CWLDocumentResolver(CWLDocumentCache documentCache, CWLDocumentFetcher documentFetcher) {
+    this.documentCache = documentCache;
+    this.documentFetcher = documentFetcher;
+  }
 
-  public static String resolve(String appUrl) throws BindingException {
-    String appUrlBase = appUrl;
-    if (appUrlBase.startsWith(URIHelper.DATA_URI_SCHEME)) {
-      appUrlBase = URIHelper.extractBase(appUrl);
+  /**
+   * Instance shared by the protocol processors
+   */
+  public static CWLDocumentResolver getInstance() {
+    if (instance == null) {
+      synchronized (CWLDocumentResolver.class) {
+        if (instance == null) {
+          long cacheSize = Long.getLong(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+          String cacheDirectory = System.getProperty(CACHE_DIRECTORY_PROPERTY, "");
+          instance = new CWLDocumentResolver(new CWLDocumentCache(cacheSize), new CWLDocumentFetcher(cacheDirectory.isEmpty() ? null : Paths.get(cacheDirectory)));
+        }
+      }
     }
+    return instance;
+  }
 
-    boolean rewriteDefaultPaths = false;
+  public String resolve(String appUrl) throws BindingException {
+    return new Resolution(appUrl).resolve();
+  }
 
-    Path file = null;
-    JsonNode root = null;
-    try {
-      boolean isFile = URIHelper.isFile(appUrlBase);
-      if (isFile) {
-        rewriteDefaultPaths = true;
-        file = Paths.get(appUrlBase.substring(appUrlBase.indexOf(":") + 1));
-      } else {
-        file = Paths.get(".");
+  /**
+   * Loads a document, parsed documents come from the shared cache
+   */
+  private JsonNode loadDocument(String uri, String contents) {
+    return documentCache.get(uri, contents);
+  }
+
+  private String loadContents(Path file, String path) throws BindingException {
+    if (path.startsWith("http")) {
+      try {
+        return documentFetcher.fetch(path);
+      } catch (Exception e) {
+        throw new BindingException("Couldn't fetch contents from " + path);
       }
-      String input = URIHelper.getData(appUrlBase);
-      root = JSONHelper.readJsonNode(input);
-      if (isFile) {
-        addAppLocation(root, appUrl, StringUtils.EMPTY);
+    } else {
+      try {
+       return new String(Files.readAllBytes(file.resolveSibling(Paths.get(path))));
+      } catch (IOException e) {
+        throw new BindingException("Couldn't fetch contents from " + path);
       }
-    } catch (IOException e) {
-      throw new BindingException(e);
     }
+  }
 
-    if (root.has(GRAPH_KEY)) {
-      graphResolve = true;
+  private static String absoluteUri(Path file, String path) {
+    if (path.startsWith("http")) {
+      return path;
     }
+    return file.resolveSibling(Paths.get(path)).toAbsolutePath().normalize().toUri().toString();
+  }
 
-    if (root.has(NAMESPACES_KEY)) {
-      populateNamespaces(root);
-//      ((ObjectNode) root).remove(NAMESPACES_KEY);
-    }
-    
+  /**
+   * State of resolving one document
+   */
+  private class Resolution {
+
+    private final String appUrl;
+    private boolean graphResolve = false;
 
-    JsonNode cwlVersion = root.get(CWL_VERSION_KEY);
-    if (cwlVersion==null || !(cwlVersion.asText().equals(ProtocolType.CWL.appVersion))) {
-      clearReplacements(appUrl);
-      clearReferenceCache(appUrl);
-      throw new BindingWrongVersionException("Document version is not " + ProtocolType.CWL.appVersion);
+    private final Map<String, String> namespaces = new HashMap<String, String>();
+    private final Map<String, CWLDocumentResolverReference> referenceCache = new HashMap<>();
+    private final List<CWLDocumentResolverReplacement> replacements = new LinkedList<>();
+
+    Resolution(String appUrl) {
+      this.appUrl = appUrl;
     }
-    
-    traverse(appUrl, root, file, null, root, false);
 
-    for (CWLDocumentResolverReplacement replacement : getReplacements(appUrl)) {
-      if (replacement.getParentNode().isArray()) {
-        replaceArrayItem(appUrl, root, replacement);
-      } else if (replacement.getParentNode().isObject()) {
-        replaceObjectItem(appUrl, root, replacement);
+
+    String resolve() throws BindingException {
+      String appUrlBase = appUrl;
+      if (appUrlBase.startsWith(URIHelper.DATA_URI_SCHEME)) {
+        appUrlBase = URIHelper.extractBase(appUrl);
       }
-    }
 
-    if (graphResolve) {
-      String fragment = URIHelper.extractFragment(appUrl).substring(1);
+      boolean rewriteDefaultPaths = false;
+
+      Path file = null;
+      JsonNode root = null;
+      try {
+        boolean isFile = URIHelper.isFile(appUrlBase);
+        if (isFile) {
+          rewriteDefaultPaths = true;
+          file = Paths.get(appUrlBase.substring(appUrlBase.indexOf(":") + 1));
+        } else {
+          file = Paths.get(".");
+        }
+        String input = URIHelper.isHTTP(appUrlBase) ? documentFetcher.fetch(URIHelper.extractBase(appUrlBase)) : URIHelper.getData(appUrlBase);
+        root = loadDocument(appUrlBase, input);
+        if (isFile) {
+          addAppLocation(root, appUrl, StringUtils.EMPTY);
+        }
+      } catch (IOException e) {
+        throw new BindingException(e);
+      }
 
-      clearReplacements(appUrl);
-      clearReferenceCache(appUrl);
+      if (root.has(GRAPH_KEY)) {
+        graphResolve = true;
+      }
 
-      removeFragmentIdentifier(appUrl, root, file, null, root, fragment);
-      
-      for (CWLDocumentResolverReplacement replacement : getReplacements(appUrl)) {
+      if (root.has(NAMESPACES_KEY)) {
+        populateNamespaces(root);
+  //      ((ObjectNode) root).remove(NAMESPACES_KEY);
+      }
+    
+
+      JsonNode cwlVersion = root.get(CWL_VERSION_KEY);
+      if (cwlVersion==null || !(cwlVersion.asText().equals(ProtocolType.CWL.appVersion))) {
+        replacements.clear();
+        referenceCache.clear();
+        throw new BindingWrongVersionException("Document version is not " + ProtocolType.CWL.appVersion);
+      }
+    
+      traverse(appUrl, root, file, null, root, false);
+
+      for (CWLDocumentResolverReplacement replacement : replacements) {
         if (replacement.getParentNode().isArray()) {
           replaceArrayItem(appUrl, root, replacement);
         } else if (replacement.getParentNode().isObject()) {
           replaceObjectItem(appUrl, root, replacement);
         }
       }
+
+      if (graphResolve) {
+        String fragment = URIHelper.extractFragment(appUrl).substring(1);
+
+        replacements.clear();
+        referenceCache.clear();
+
+        removeFragmentIdentifier(appUrl, root, file, null, root, fragment);
+      
+        for (CWLDocumentResolverReplacement replacement : replacements) {
+          if (replacement.getParentNode().isArray()) {
+            replaceArrayItem(appUrl, root, replacement);
+          } else if (replacement.getParentNode().isObject()) {
+            replaceObjectItem(appUrl, root, replacement);
+          }
+        }
       
-      removeFragmentIdentifierIDs(appUrl, root, file, null, root);
+        removeFragmentIdentifierIDs(appUrl, root, file, null, root);
       
-      for (final JsonNode elem : root.get(GRAPH_KEY)) {
-        if (CWLSchemaHelper.normalizeId(elem.get(ID_KEY).asText()).equals(fragment)) {
-          Map<String, Object> result = JSONHelper.readMap(elem);
-          result.put(CWL_VERSION_KEY, cwlVersion);
-          root = JSONHelper.convertToJsonNode(result);
-          break;
+        for (final JsonNode elem : root.get(GRAPH_KEY)) {
+          if (CWLSchemaHelper.normalizeId(elem.get(ID_KEY).asText()).equals(fragment)) {
+            Map<String, Object> result = JSONHelper.readMap(elem);
+            result.put(CWL_VERSION_KEY, cwlVersion);
+            root = JSONHelper.convertToJsonNode(result);
+            break;
+          }
         }
+        graphResolve = false;
       }
-      graphResolve = false;
+    
+      replacements.clear();
+      referenceCache.clear();
+
+      if (rewriteDefaultPaths) {
+        addAppLocations(root, appUrl);
+      }
+      return JSONHelper.writeObject(root);
     }
+
+    private void populateNamespaces(JsonNode root) {
+      Iterator<Entry<String, JsonNode>> fieldIterator = root.get(NAMESPACES_KEY).fields();
+      while (fieldIterator.hasNext()) {
+        Entry<String, JsonNode> fieldEntry = fieldIterator.next();
+        namespaces.put(fieldEntry.getKey(), fieldEntry.getValue().asText());
+      }
+    }
+
+    private JsonNode traverse(String appUrl, JsonNode root, Path file, JsonNode parentNode, JsonNode currentNode,
+        boolean inputsOrOutputs) throws BindingException {
+      Preconditions.checkNotNull(currentNode, "current node id is null");
+
+      JsonNode typeNode = null;
+      boolean isInclude = currentNode.has(RESOLVER_REFERENCE_INCLUDE_KEY);
+
+      if (isInclude) {
+        String path = currentNode.get(RESOLVER_REFERENCE_INCLUDE_KEY).textValue();
+        String content = loadContents(file, path);
+
+        CWLDocumentResolverReference reference = new CWLDocumentResolverReference(false, new TextNode(content));
+        referenceCache.put(path, reference);
+        replacements.add(new CWLDocumentResolverReplacement(parentNode, currentNode, path));
+        return null;
+      }
+    
+      if(!namespaces.isEmpty())
+        namespace(currentNode);
+
+      boolean isReference = currentNode.has(RESOLVER_REFERENCE_KEY);
+      boolean appReference = currentNode.has(APP_STEP_KEY) && currentNode.get(APP_STEP_KEY).isTextual();
+      boolean typeReference = currentNode.has(TYPE_KEY) && currentNode.get(TYPE_KEY).isTextual()
+          && isTypeReference(currentNode.get(TYPE_KEY).textValue());
+      boolean isJsonPointer = currentNode.has(RESOLVER_JSON_POINTER_KEY) && parentNode != null; // we skip the first level
+                                                                                                // $job
+      String referencePath = null;
+      boolean typeReplace = false;
+      if (inputsOrOutputs) {
+        if (currentNode.isContainerNode()) {
+          for (JsonNode subnode : currentNode) {
+            if (currentNode.size() == 1 && subnode.isTextual()) {
+              referencePath = subnode.asText();
+              if (isTypeReference(referencePath)) {
+                typeNode = subnode;
+                typeReplace = true;
+              }
+            }
+          }
+        }
+      }
     
-    clearReplacements(appUrl);
-    clearReferenceCache(appUrl);
+      if (isReference || isJsonPointer || typeReference || appReference || typeReplace) {
+        if (isReference) {
+          referencePath = currentNode.get(RESOLVER_REFERENCE_KEY).textValue();
+        } else if (appReference) {
+          referencePath = currentNode.get(APP_STEP_KEY).textValue();
+        } else if (typeReference) {
+          referencePath = currentNode.get(TYPE_KEY).textValue();
+        } else if (isJsonPointer) {
+          referencePath = currentNode.get(RESOLVER_JSON_POINTER_KEY).textValue();
+        }
 
-    if (rewriteDefaultPaths) {
-      addAppLocations(root, appUrl);
+        CWLDocumentResolverReference reference = referenceCache.get(referencePath);
+        if (reference != null) {
+          if (reference.isResolving()) {
+            throw new BindingException("Circular dependency detected!");
+          }
+        } else {
+          reference = new CWLDocumentResolverReference();
+          reference.setResolving(true);
+          referenceCache.put(referencePath, reference);
+
+          JsonNode referenceDocumentRoot = findDocumentRoot(root, file, referencePath, isJsonPointer);
+          ParentChild parentChild = findReferencedNode(referenceDocumentRoot, referencePath);
+
+          Path parentPath = file.getParent() != null ? file.getParent() : Paths.get(".");
+          JsonNode resolvedNode = traverse(appUrl, root, parentPath.resolve(referencePath), parentChild.parent, parentChild.child, false);
+          if (resolvedNode == null) {
+            return null;
+          }
+
+          reference.setResolvedNode(resolvedNode);
+          reference.setResolving(false);
+          referenceCache.put(referencePath, reference);
+        }
+        if (appReference) {
+          replacements.add(new CWLDocumentResolverReplacement(currentNode, currentNode.get(APP_STEP_KEY), referencePath));
+        } else if (typeReference) {
+          replacements.add(new CWLDocumentResolverReplacement(currentNode, currentNode.get(TYPE_KEY), referencePath));
+        } else if (typeReplace && !(isReference || isJsonPointer || typeReference || appReference)) {
+          replacements.add(new CWLDocumentResolverReplacement(currentNode, typeNode, referencePath));
+        } else {
+          replacements.add(new CWLDocumentResolverReplacement(parentNode, currentNode, referencePath));
+        }
+        return reference.getResolvedNode();
+      } else if (currentNode.isContainerNode()) {
+        for (JsonNode subnode : currentNode) {
+          inputsOrOutputs = checkIsItInputsOrOutputs(currentNode, subnode, inputsOrOutputs);
+          traverse(appUrl, root, file, currentNode, subnode, inputsOrOutputs);
+        }
+      }
+      return currentNode;
+    }
+
+    private void namespace(JsonNode currentNode) {
+      Iterator<Entry<String, JsonNode>> fieldIterator = currentNode.fields();
+      while (fieldIterator.hasNext()) {
+        Entry<String, JsonNode> fieldEntry = fieldIterator.next();
+        if (fieldEntry.getValue().isTextual()
+            && namespaces.keySet().contains(fieldEntry.getValue().asText().split(":")[0])) {
+          String prefix = namespaces.get(fieldEntry.getValue().asText().split(":")[0]);
+          String namespacedValue = fieldEntry.getValue().asText()
+              .replace(fieldEntry.getValue().asText().split(":")[0] + ":", prefix);
+          ((ObjectNode) currentNode).put(fieldEntry.getKey(), namespacedValue);
+        }
+      }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void replaceObjectItem(String appURL, JsonNode root, CWLDocumentResolverReplacement replacement)
+        throws BindingException {
+      JsonNode parent = replacement.getParentNode() == null ? root : replacement.getParentNode();
+
+      Iterator<Entry<String, JsonNode>> fieldIterator = parent.fields();
+      String fieldName = null;
+      while (fieldIterator.hasNext()) {
+        Entry<String, JsonNode> fieldEntry = fieldIterator.next();
+        if (fieldEntry.getValue().equals(replacement.getReferenceNode())) {
+          fieldName = fieldEntry.getKey();
+          fieldIterator.remove();
+          break;
+        }
+      }
+      CWLDocumentResolverReference reference = referenceCache.get(replacement.getNormalizedReferencePath());
+      addAppLocation(reference.getResolvedNode(), appURL, replacement.getNormalizedReferencePath());
+
+      if (reference != null) {
+        ((ObjectNode) parent).put(fieldName, reference.getResolvedNode());
+      }
+    }
+
+    private void replaceArrayItem(String appURL, JsonNode root, CWLDocumentResolverReplacement replacement)
+        throws BindingException {
+      JsonNode parent = replacement.getParentNode() == null ? root : replacement.getParentNode();
+
+      Iterator<JsonNode> nodeIterator = parent.elements();
+      while (nodeIterator.hasNext()) {
+        JsonNode subnode = nodeIterator.next();
+        if (subnode.equals(replacement.getReferenceNode())) {
+          nodeIterator.remove();
+          break;
+        }
+      }
+      if (parent.isArray()) {
+        CWLDocumentResolverReference reference = referenceCache.get(replacement.getNormalizedReferencePath());
+        addAppLocation(reference.getResolvedNode(), appURL, replacement.getNormalizedReferencePath());
+
+        if (reference != null) {
+          ((ArrayNode) parent).add(reference.getResolvedNode());
+        }
+      }
+    }
+
+    private JsonNode findDocumentRoot(JsonNode root, Path file, String reference, boolean isJsonPointer)
+        throws BindingException {
+      JsonNode startNode = root;
+      if (isJsonPointer) {
+        startNode = startNode.get(RESOLVER_JSON_POINTER_KEY);
+      }
+      int start = reference.indexOf(DOCUMENT_FRAGMENT_SEPARATOR);
+
+      if (start == 0) {
+        return startNode;
+      } else {
+        String[] parts = reference.split(DOCUMENT_FRAGMENT_SEPARATOR);
+        if (parts.length > 2) {
+          throw new BindingException("Invalid reference " + reference);
+        }
+        String contents = loadContents(file, parts[0]);     
+        try {
+          return loadDocument(absoluteUri(file, parts[0]), contents);
+        } catch (Exception e) {
+          throw new BindingException(e);
+        }
+      }
+    }
+
+    private JsonNode removeFragmentIdentifier(String appUrl, JsonNode root, Path file, JsonNode parentNode,
+        JsonNode currentNode, String fragment) throws BindingException {
+      Preconditions.checkNotNull(currentNode, "current node id is null");
+    
+      if (currentNode.isTextual() && currentNode.asText().startsWith(DOCUMENT_FRAGMENT_SEPARATOR)) {
+        CWLDocumentResolverReference reference = new CWLDocumentResolverReference();
+        reference.setResolvedNode(JsonNodeFactory.instance.textNode(currentNode.asText().replace(fragment + "/", "")));
+        referenceCache.put(currentNode.asText(), reference);
+        replacements.add(new CWLDocumentResolverReplacement(parentNode, currentNode, currentNode.asText()));
+      } else if (currentNode.isContainerNode()) {
+        for (JsonNode subnode : currentNode) {
+          removeFragmentIdentifier(appUrl, root, file, currentNode, subnode, fragment);
+        }
+      }
+      return currentNode;
+    }
+  
+    private JsonNode removeFragmentIdentifierIDs(String appUrl, JsonNode root, Path file, JsonNode parentNode, JsonNode currentNode) throws BindingException {
+      Preconditions.checkNotNull(currentNode, "current node id is null");
+      if (currentNode.isTextual() && parentNode.has(ID_KEY) && currentNode.asText().equals(parentNode.get(ID_KEY).textValue()) && currentNode.asText().contains("/")) {
+        Iterator<Entry<String, JsonNode>> fieldIterator = parentNode.fields();
+        String fieldName = null;
+        String newValue = null;
+        while (fieldIterator.hasNext()) {
+          Entry<String, JsonNode> fieldEntry = fieldIterator.next();
+          if (fieldEntry.getValue().equals(currentNode)) {
+            fieldName = fieldEntry.getKey();
+            newValue = normalizeId(currentNode.textValue());
+            fieldIterator.remove();
+            break;
+          }
+        }
+        ((ObjectNode) parentNode).put(fieldName, newValue);
+      } else if (currentNode.isContainerNode()) {
+        for (JsonNode subnode : currentNode) {
+          removeFragmentIdentifierIDs(appUrl, root, file, currentNode, subnode);
+        }
+      }
+      return currentNode;
     }
-    return JSONHelper.writeObject(root);
   }
 
   private static void addAppLocations(JsonNode node, String previous) {
@@ -244,109 +552,6 @@ public class CWLDocumentResolver {
     return true;
   }
 
-  private static void populateNamespaces(JsonNode root) {
-    Iterator<Entry<String, JsonNode>> fieldIterator = root.get(NAMESPACES_KEY).fields();
-    while (fieldIterator.hasNext()) {
-      Entry<String, JsonNode> fieldEntry = fieldIterator.next();
-      namespaces.put(fieldEntry.getKey(), fieldEntry.getValue().asText());
-    }
-  }
-
-  private static JsonNode traverse(String appUrl, JsonNode root, Path file, JsonNode parentNode, JsonNode currentNode,
-      boolean inputsOrOutputs) throws BindingException {
-    Preconditions.checkNotNull(currentNode, "current node id is null");
-
-    JsonNode typeNode = null;
-    boolean isInclude = currentNode.has(RESOLVER_REFERENCE_INCLUDE_KEY);
-
-    if (isInclude) {
-      String path = currentNode.get(RESOLVER_REFERENCE_INCLUDE_KEY).textValue();
-      String content = loadContents(file, path);
-
-      CWLDocumentResolverReference reference = new CWLDocumentResolverReference(false, new TextNode(content));
-      getReferenceCache(appUrl).put(path, reference);
-      getReplacements(appUrl).add(new CWLDocumentResolverReplacement(parentNode, currentNode, path));
-      return null;
-    }
-    
-    if(!namespaces.isEmpty())
-      namespace(currentNode);
-
-    boolean isReference = currentNode.has(RESOLVER_REFERENCE_KEY);
-    boolean appReference = currentNode.has(APP_STEP_KEY) && currentNode.get(APP_STEP_KEY).isTextual();
-    boolean typeReference = currentNode.has(TYPE_KEY) && currentNode.get(TYPE_KEY).isTextual()
-        && isTypeReference(currentNode.get(TYPE_KEY).textValue());
-    boolean isJsonPointer = currentNode.has(RESOLVER_JSON_POINTER_KEY) && parentNode != null; // we skip the first level
-                                                                                              // $job
-    String referencePath = null;
-    boolean typeReplace = false;
-    if (inputsOrOutputs) {
-      if (currentNode.isContainerNode()) {
-        for (JsonNode subnode : currentNode) {
-          if (currentNode.size() == 1 && subnode.isTextual()) {
-            referencePath = subnode.asText();
-            if (isTypeReference(referencePath)) {
-              typeNode = subnode;
-              typeReplace = true;
-            }
-          }
-        }
-      }
-    }
-    
-    if (isReference || isJsonPointer || typeReference || appReference || typeReplace) {
-      if (isReference) {
-        referencePath = currentNode.get(RESOLVER_REFERENCE_KEY).textValue();
-      } else if (appReference) {
-        referencePath = currentNode.get(APP_STEP_KEY).textValue();
-      } else if (typeReference) {
-        referencePath = currentNode.get(TYPE_KEY).textValue();
-      } else if (isJsonPointer) {
-        referencePath = currentNode.get(RESOLVER_JSON_POINTER_KEY).textValue();
-      }
-
-      CWLDocumentResolverReference reference = getReferenceCache(appUrl).get(referencePath);
-      if (reference != null) {
-        if (reference.isResolving()) {
-          throw new BindingException("Circular dependency detected!");
-        }
-      } else {
-        reference = new CWLDocumentResolverReference();
-        reference.setResolving(true);
-        getReferenceCache(appUrl).put(referencePath, reference);
-
-        JsonNode referenceDocumentRoot = findDocumentRoot(root, file, referencePath, isJsonPointer);
-        ParentChild parentChild = findReferencedNode(referenceDocumentRoot, referencePath);
-
-        Path parentPath = file.getParent() != null ? file.getParent() : Paths.get(".");
-        JsonNode resolvedNode = traverse(appUrl, root, parentPath.resolve(referencePath), parentChild.parent, parentChild.child, false);
-        if (resolvedNode == null) {
-          return null;
-        }
-
-        reference.setResolvedNode(resolvedNode);
-        reference.setResolving(false);
-        getReferenceCache(appUrl).put(referencePath, reference);
-      }
-      if (appReference) {
-        getReplacements(appUrl).add(new CWLDocumentResolverReplacement(currentNode, currentNode.get(APP_STEP_KEY), referencePath));
-      } else if (typeReference) {
-        getReplacements(appUrl).add(new CWLDocumentResolverReplacement(currentNode, currentNode.get(TYPE_KEY), referencePath));
-      } else if (typeReplace && !(isReference || isJsonPointer || typeReference || appReference)) {
-        getReplacements(appUrl).add(new CWLDocumentResolverReplacement(currentNode, typeNode, referencePath));
-      } else {
-        getReplacements(appUrl).add(new CWLDocumentResolverReplacement(parentNode, currentNode, referencePath));
-      }
-      return reference.getResolvedNode();
-    } else if (currentNode.isContainerNode()) {
-      for (JsonNode subnode : currentNode) {
-        inputsOrOutputs = checkIsItInputsOrOutputs(currentNode, subnode, inputsOrOutputs);
-        traverse(appUrl, root, file, currentNode, subnode, inputsOrOutputs);
-      }
-    }
-    return currentNode;
-  }
-
   private static boolean checkIsItInputsOrOutputs(JsonNode currentNode, JsonNode subnode, boolean previous) {
     boolean result = false;
     if(!currentNode.has(APP_STEP_KEY) && currentNode.has(CLASS_KEY)) {
@@ -369,43 +574,6 @@ public class CWLDocumentResolver {
         || node.get(CLASS_KEY).asText().equals(PYTHON_TOOL));
   }
 
-  private static void namespace(JsonNode currentNode) {
-    Iterator<Entry<String, JsonNode>> fieldIterator = currentNode.fields();
-    while (fieldIterator.hasNext()) {
-      Entry<String, JsonNode> fieldEntry = fieldIterator.next();
-      if (fieldEntry.getValue().isTextual()
-          && namespaces.keySet().contains(fieldEntry.getValue().asText().split(":")[0])) {
-        String prefix = namespaces.get(fieldEntry.getValue().asText().split(":")[0]);
-        String namespacedValue = fieldEntry.getValue().asText()
-            .replace(fieldEntry.getValue().asText().split(":")[0] + ":", prefix);
-        ((ObjectNode) currentNode).put(fieldEntry.getKey(), namespacedValue);
-      }
-    }
-  }
-
-  @SuppressWarnings("deprecation")
-  private static void replaceObjectItem(String appURL, JsonNode root, CWLDocumentResolverReplacement replacement)
-      throws BindingException {
-    JsonNode parent = replacement.getParentNode() == null ? root : replacement.getParentNode();
-
-    Iterator<Entry<String, JsonNode>> fieldIterator = parent.fields();
-    String fieldName = null;
-    while (fieldIterator.hasNext()) {
-      Entry<String, JsonNode> fieldEntry = fieldIterator.next();
-      if (fieldEntry.getValue().equals(replacement.getReferenceNode())) {
-        fieldName = fieldEntry.getKey();
-        fieldIterator.remove();
-        break;
-      }
-    }
-    CWLDocumentResolverReference reference = getReferenceCache(appURL).get(replacement.getNormalizedReferencePath());
-    addAppLocation(reference.getResolvedNode(), appURL, replacement.getNormalizedReferencePath());
-
-    if (reference != null) {
-      ((ObjectNode) parent).put(fieldName, reference.getResolvedNode());
-    }
-  }
-
   /**
    * TODO handle non object nodes
    */
@@ -429,85 +597,6 @@ public class CWLDocumentResolver {
     }
   }
 
-  private static void replaceArrayItem(String appURL, JsonNode root, CWLDocumentResolverReplacement replacement)
-      throws BindingException {
-    JsonNode parent = replacement.getParentNode() == null ? root : replacement.getParentNode();
-
-    Iterator<JsonNode> nodeIterator = parent.elements();
-    while (nodeIterator.hasNext()) {
-      JsonNode subnode = nodeIterator.next();
-      if (subnode.equals(replacement.getReferenceNode())) {
-        nodeIterator.remove();
-        break;
-      }
-    }
-    if (parent.isArray()) {
-      CWLDocumentResolverReference reference = getReferenceCache(appURL).get(replacement.getNormalizedReferencePath());
-      addAppLocation(reference.getResolvedNode(), appURL, replacement.getNormalizedReferencePath());
-
-      if (reference != null) {
-        ((ArrayNode) parent).add(reference.getResolvedNode());
-      }
-    }
-  }
-
-  private static JsonNode findDocumentRoot(JsonNode root, Path file, String reference, boolean isJsonPointer)
-      throws BindingException {
-    JsonNode startNode = root;
-    if (isJsonPointer) {
-      startNode = startNode.get(RESOLVER_JSON_POINTER_KEY);
-    }
-    int start = reference.indexOf(DOCUMENT_FRAGMENT_SEPARATOR);
-
-    if (start == 0) {
-      return startNode;
-    } else {
-      String[] parts = reference.split(DOCUMENT_FRAGMENT_SEPARATOR);
-      if (parts.length > 2) {
-        throw new BindingException("Invalid reference " + reference);
-      }
-      String contents = loadContents(file, parts[0]);     
-      try {
-        return JSONHelper.readJsonNode(contents);
-      } catch (Exception e) {
-        throw new BindingException(e);
-      }
-    }
-  }
-
-  private static String loadContents(Path file, String path) throws BindingException {
-    if (path.startsWith("http")) {
-      try {
-        URL website = new URL(path);
-        URLConnection connection = website.openConnection();
-        BufferedReader in = null;
-
-        try {
-          in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-
-          StringBuilder response = new StringBuilder();
-          String inputLine;
-          while ((inputLine = in.readLine()) != null) {
-            response.append(inputLine);
-          }
-          return response.toString();
-        } finally {
-          if (in != null) {
-            in.close();
-          }
-        }
-      } catch (Exception e) {
-        throw new BindingException("Couldn't fetch contents from " + path);
-      }
-    } else {
-      try {
-       return new String(Files.readAllBytes(file.resolveSibling(Paths.get(path))));
-      } catch (IOException e) {
-        throw new BindingException("Couldn't fetch contents from " + path);
-      }
-    }
-  }
-
   private static ParentChild findReferencedNode(JsonNode rootNode, String absolutePath) {
     if (!absolutePath.contains(DOCUMENT_FRAGMENT_SEPARATOR)) {
       return new ParentChild(null, rootNode);
@@ -551,47 +640,6 @@ public class CWLDocumentResolver {
     return new ParentChild(parent, child);
   }
 
-  private static JsonNode removeFragmentIdentifier(String appUrl, JsonNode root, Path file, JsonNode parentNode,
-      JsonNode currentNode, String fragment) throws BindingException {
-    Preconditions.checkNotNull(currentNode, "current node id is null");
-    
-    if (currentNode.isTextual() && currentNode.asText().startsWith(DOCUMENT_FRAGMENT_SEPARATOR)) {
-      CWLDocumentResolverReference reference = new CWLDocumentResolverReference();
-      reference.setResolvedNode(JsonNodeFactory.instance.textNode(currentNode.asText().replace(fragment + "/", "")));
-      getReferenceCache(appUrl).put(currentNode.asText(), reference);
-      getReplacements(appUrl).add(new CWLDocumentResolverReplacement(parentNode, currentNode, currentNode.asText()));
-    } else if (currentNode.isContainerNode()) {
-      for (JsonNode subnode : currentNode) {
-        removeFragmentIdentifier(appUrl, root, file, currentNode, subnode, fragment);
-      }
-    }
-    return currentNode;
-  }
-  
-  private static JsonNode removeFragmentIdentifierIDs(String appUrl, JsonNode root, Path file, JsonNode parentNode, JsonNode currentNode) throws BindingException {
-    Preconditions.checkNotNull(currentNode, "current node id is null");
-    if (currentNode.isTextual() && parentNode.has(ID_KEY) && currentNode.asText().equals(parentNode.get(ID_KEY).textValue()) && currentNode.asText().contains("/")) {
-      Iterator<Entry<String, JsonNode>> fieldIterator = parentNode.fields();
-      String fieldName = null;
-      String newValue = null;
-      while (fieldIterator.hasNext()) {
-        Entry<String, JsonNode> fieldEntry = fieldIterator.next();
-        if (fieldEntry.getValue().equals(currentNode)) {
-          fieldName = fieldEntry.getKey();
-          newValue = normalizeId(currentNode.textValue());
-          fieldIterator.remove();
-          break;
-        }
-      }
-      ((ObjectNode) parentNode).put(fieldName, newValue);
-    } else if (currentNode.isContainerNode()) {
-      for (JsonNode subnode : currentNode) {
-        removeFragmentIdentifierIDs(appUrl, root, file, currentNode, subnode);
-      }
-    }
-    return currentNode;
-  }
-  
   private static String normalizeId(String id) {
     id = CWLSchemaHelper.normalizeId(id);
     if(id.contains("/")) {
@@ -600,33 +648,6 @@ public class CWLDocumentResolver {
     return id;
   }
 
-  private synchronized static List<CWLDocumentResolverReplacement> getReplacements(String url) {
-    LinkedList<CWLDocumentResolverReplacement> replacementsPerUrl = (LinkedList<CWLDocumentResolverReplacement>) replacements
-        .get(url);
-    if (replacementsPerUrl == null) {
-      replacementsPerUrl = new LinkedList<CWLDocumentResolverReplacement>();
-      replacements.put(url, replacementsPerUrl);
-    }
-    return replacementsPerUrl;
-  }
-
-  private synchronized static void clearReplacements(String url) {
-    replacements.remove(url);
-  }
-
-  private synchronized static Map<String, CWLDocumentResolverReference> getReferenceCache(String url) {
-    Map<String, CWLDocumentResolverReference> referenceCachePerUrl = referenceCache.get(url);
-    if (referenceCachePerUrl == null) {
-      referenceCachePerUrl = new HashMap<String, CWLDocumentResolverReference>();
-      referenceCache.put(url, referenceCachePerUrl);
-    }
-    return referenceCachePerUrl;
-  }
-
-  private synchronized static void clearReferenceCache(String url) {
-    referenceCache.remove(url);
-  }
-
   private static class ParentChild {
     JsonNode parent;
     JsonNode child;
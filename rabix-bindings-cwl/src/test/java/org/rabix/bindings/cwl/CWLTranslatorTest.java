@@ -0,0 +1,61 @@
+package org.rabix.bindings.cwl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.rabix.bindings.Bindings;
+import org.rabix.bindings.BindingsFactory;
+import org.rabix.bindings.helper.DAGHashHelper;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.dag.DAGContainer;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.common.helper.ResourceHelper;
+import org.rabix.common.json.BeanSerializer;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class CWLTranslatorTest {
+
+  @Test
+  public void testDAGHash() throws Exception {
+    String appURL = "file://" + ResourceHelper.getResourcePath(this.getClass(), "identical-steps-wf.cwl.yml");
+    Bindings b = BindingsFactory.create(appURL);
+    DAGNode node = b.translateToDAG(new Job(appURL, Collections.singletonMap("in", "value")));
+    DAGNode same = b.translateToDAG(new Job(appURL, Collections.singletonMap("in", "value")));
+
+    assertNotNull(node.getHash());
+    assertEquals(same.getHash(), node.getHash());
+
+    List<DAGNode> children = ((DAGContainer) node).getChildren();
+    assertEquals(children.get(0).getAppHash(), children.get(1).getAppHash());
+    // identical steps share a hash, the workflow tells them apart by their ids and links
+    assertEquals(children.get(0).getHash(), children.get(1).getHash());
+    assertNotEquals(children.get(0).getHash(), node.getHash());
+
+    DAGNode deserialized = BeanSerializer.deserialize(BeanSerializer.serializeFull(node), DAGNode.class);
+    assertEquals(deserialized.getHash(), node.getHash());
+    clearHashes(deserialized);
+    assertEquals(DAGHashHelper.hash(deserialized), node.getHash());
+
+    // hashes which were stored on the nodes are computed again
+    deserialized.setHash("stale");
+    children.get(0).setHash("stale");
+    assertEquals(DAGHashHelper.hash(deserialized), node.getHash());
+    assertEquals(DAGHashHelper.hash(node), deserialized.getHash());
+    assertEquals(children.get(0).getHash(), children.get(1).getHash());
+  }
+
+  private void clearHashes(DAGNode node) {
+    node.setHash(null);
+    if (node instanceof DAGContainer) {
+      for (DAGNode child : ((DAGContainer) node).getChildren()) {
+        clearHashes(child);
+      }
+    }
+  }
+
+}
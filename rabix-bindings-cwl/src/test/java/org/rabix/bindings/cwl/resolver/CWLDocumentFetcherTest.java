@@ -0,0 +1,98 @@
+package org.rabix.bindings.cwl.resolver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+@Test(groups = { "functional" })
+public class CWLDocumentFetcherTest {
+
+  private static final String DOCUMENT = "class: CommandLineTool\nbaseCommand: echo\n";
+
+  private Path directory;
+  private HttpServer server;
+  private AtomicInteger status;
+  private AtomicReference<String> ifNoneMatch;
+
+  @BeforeMethod
+  public void start() throws IOException {
+    directory = Files.createTempDirectory("cwl-fetcher");
+    status = new AtomicInteger(200);
+    ifNoneMatch = new AtomicReference<>();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/tool.cwl", exchange -> {
+      ifNoneMatch.set(exchange.getRequestHeaders().getFirst("If-None-Match"));
+      if (status.get() != 200) {
+        exchange.sendResponseHeaders(status.get(), -1);
+        exchange.close();
+        return;
+      }
+      byte[] body = DOCUMENT.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("ETag", "\"v1\"");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+  }
+
+  @AfterMethod
+  public void stop() throws IOException {
+    server.stop(0);
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  public void testCachedCopy() throws IOException {
+    Path cacheDirectory = directory.resolve("cache");
+    CWLDocumentFetcher fetcher = new CWLDocumentFetcher(cacheDirectory);
+    String url = url();
+
+    Assert.assertEquals(fetcher.fetch(url), DOCUMENT);
+    Assert.assertNull(ifNoneMatch.get());
+    Assert.assertEquals(PosixFilePermissions.toString(Files.getPosixFilePermissions(cacheDirectory)), "rwx------");
+
+    status.set(304);
+    Assert.assertEquals(fetcher.fetch(url), DOCUMENT);
+    Assert.assertEquals(ifNoneMatch.get(), "\"v1\"");
+
+    // the server answered, its answer counts
+    status.set(404);
+    try {
+      fetcher.fetch(url);
+      Assert.fail("stale copy returned for a missing document");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("404"), e.getMessage());
+    }
+
+    server.stop(0);
+    Assert.assertEquals(fetcher.fetch(url), DOCUMENT);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testUnreachableWithoutCache() throws IOException {
+    String url = url();
+    server.stop(0);
+    new CWLDocumentFetcher(null).fetch(url);
+  }
+
+  private String url() {
+    return "http://localhost:" + server.getAddress().getPort() + "/tool.cwl";
+  }
+
+}
@@ -0,0 +1,93 @@
+package org.rabix.bindings.cwl.resolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.rabix.common.helper.JSONHelper;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class CWLDocumentResolverTest {
+
+  private static final int WORKFLOWS = 20;
+  private static final int RESOLUTIONS = 200;
+
+  private Path directory;
+
+  @BeforeClass
+  public void createDocuments() throws IOException {
+    directory = Files.createTempDirectory("cwl-resolver");
+    write("shared-tool.cwl", tool("shared"));
+    for (int i = 0; i < WORKFLOWS; i++) {
+      write("tool-" + i + ".cwl", tool("tool-" + i));
+      write("workflow-" + i + ".cwl", workflow(i));
+    }
+  }
+
+  @AfterClass
+  public void deleteDocuments() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  public void testConcurrentResolution() throws Exception {
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < WORKFLOWS; i++) {
+      expected.add(new CWLDocumentResolver(new CWLDocumentCache(1), new CWLDocumentFetcher(null)).resolve(url(i)));
+    }
+
+    CWLDocumentCache cache = new CWLDocumentCache(WORKFLOWS);
+    CWLDocumentResolver resolver = new CWLDocumentResolver(cache, new CWLDocumentFetcher(null));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < RESOLUTIONS; i++) {
+        final int workflow = i % WORKFLOWS;
+        results.add(executor.submit(() -> resolver.resolve(url(workflow))));
+      }
+      for (int i = 0; i < RESOLUTIONS; i++) {
+        Assert.assertEquals(JSONHelper.readJsonNode(results.get(i).get()), JSONHelper.readJsonNode(expected.get(i % WORKFLOWS)));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assert.assertTrue(cache.size() <= WORKFLOWS);
+
+    String resolved = expected.get(0);
+    Assert.assertTrue(resolved.contains("shared-command"));
+    Assert.assertTrue(resolved.contains("tool-0-command"));
+    Assert.assertFalse(resolved.contains("tool-1-command"));
+  }
+
+  private String url(int workflow) {
+    return "file://" + directory.resolve("workflow-" + workflow + ".cwl").toAbsolutePath();
+  }
+
+  private void write(String name, String contents) throws IOException {
+    Files.write(directory.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String tool(String name) {
+    return "{\"cwlVersion\": \"v1.0\", \"class\": \"CommandLineTool\", \"id\": \"" + name + "\", \"baseCommand\": \"" + name + "-command\", "
+        + "\"inputs\": [{\"id\": \"input\", \"type\": \"File\"}], \"outputs\": [{\"id\": \"output\", \"type\": \"File\", \"outputBinding\": {\"glob\": \"*.txt\"}}]}";
+  }
+
+  private static String workflow(int i) {
+    return "{\"cwlVersion\": \"v1.0\", \"class\": \"Workflow\", \"id\": \"workflow-" + i + "\", "
+        + "\"inputs\": [{\"id\": \"input\", \"type\": \"File\"}], \"outputs\": [{\"id\": \"output\", \"type\": \"File\", \"outputSource\": \"second/output\"}], "
+        + "\"steps\": [{\"id\": \"first\", \"run\": \"shared-tool.cwl\", \"in\": [{\"id\": \"input\", \"source\": \"input\"}], \"out\": [\"output\"]}, "
+        + "{\"id\": \"second\", \"run\": {\"$import\": \"tool-" + i + ".cwl\"}, \"in\": [{\"id\": \"input\", \"source\": \"first/output\"}], \"out\": [\"output\"]}]}";
+  }
+
+}
@@ -0,0 +1,218 @@
+package org.rabix.bindings.helper;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.rabix.bindings.model.Application;
+import org.rabix.bindings.model.dag.DAGContainer;
+import org.rabix.bindings.model.dag.DAGLinkPort;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.common.helper.ChecksumHelper;
+import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
+import org.rabix.common.helper.InternalSchemaHelper;
+import org.rabix.common.helper.JSONHelper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Merkle-style hashing of DAGs and applications. A hash combines the canonical content of a node (or application)
+ * with the hashes of its children (or embedded applications), so everything is serialized only once and the hashes
+ * don't depend on the JVM.
+ */
+public class DAGHashHelper {
+
+  private static final String HASHES = "hashes";
+  private static final String HASHED = "hashed";
+
+  private static final ObjectMapper appMapper = new ObjectMapper();
+
+  static {
+    SimpleModule module = new SimpleModule();
+    module.setSerializerModifier(new BeanSerializerModifier() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription description, JsonSerializer<?> serializer) {
+        if (Application.class.isAssignableFrom(description.getBeanClass())) {
+          return new EmbeddedApplicationSerializer((JsonSerializer<Object>) serializer);
+        }
+        return serializer;
+      }
+    });
+    appMapper.registerModule(module);
+  }
+
+  /**
+   * Hashes the node and all of its descendants bottom-up and stores the hashes on the nodes. The hashes are always
+   * computed again, the nodes may have changed since they were hashed last.
+   * <p>
+   * Only the root hash depends on the node's id. Children are hashed without their ids, and node ids in ports and
+   * links are relative to the node, so identical sub-DAGs share a hash wherever they are in the DAG.
+   */
+  public static String hash(DAGNode node) {
+    Map<Application, String> appHashes = new IdentityHashMap<>();
+    Map<String, Object> content = content(node, appHashes);
+    content.put("id", node.getId());
+    node.setHash(checksum(JSONHelper.convertToJsonNode(content)));
+    return node.getHash();
+  }
+
+  /**
+   * Content hash of the application, used as a key in the application store. Embedded applications (workflow steps)
+   * are replaced with their hashes.
+   */
+  public static String hashApp(Application app) {
+    return hashApp(app, new IdentityHashMap<>());
+  }
+
+  private static String hash(DAGNode node, Map<Application, String> appHashes) {
+    node.setHash(checksum(JSONHelper.convertToJsonNode(content(node, appHashes))));
+    return node.getHash();
+  }
+
+  private static Map<String, Object> content(DAGNode node, Map<Application, String> appHashes) {
+    Map<String, Object> content = new LinkedHashMap<>();
+    if (node instanceof DAGContainer) {
+      DAGContainer container = (DAGContainer) node;
+      // children first, their applications are embedded in the container's one
+      Map<String, String> children = new LinkedHashMap<>();
+      for (DAGNode child : container.getChildren()) {
+        children.put(relativeId(child.getId(), node.getId()), hash(child, appHashes));
+      }
+      JsonNode links = JSONHelper.convertToJsonNode(container.getLinks());
+      for (JsonNode link : links) {
+        relativize(link.get("source"), node.getId());
+        relativize(link.get("destination"), node.getId());
+      }
+      content.put("links", links);
+      content.put("children", children);
+    }
+    content.put("type", node.getType());
+    content.put("appHash", appHash(node, appHashes));
+    content.put("scatterMethod", node.getScatterMethod());
+    content.put("inputPorts", relativePorts(node.getInputPorts(), node.getId()));
+    content.put("outputPorts", relativePorts(node.getOutputPorts(), node.getId()));
+    content.put("defaults", node.getDefaults());
+    content.put("protocolType", node.getProtocolType());
+    return content;
+  }
+
+  private static String appHash(DAGNode node, Map<Application, String> appHashes) {
+    if (node.getAppHash() == null && node.getApp() != null) {
+      node.setAppHash(hashApp(node.getApp(), appHashes));
+    }
+    return node.getAppHash();
+  }
+
+  private static String hashApp(Application app, Map<Application, String> appHashes) {
+    String hash = appHashes.get(app);
+    if (hash != null) {
+      return hash;
+    }
+    try {
+      TokenBuffer buffer = new TokenBuffer(appMapper, false);
+      appMapper.writer().withAttribute(HASHES, appHashes).withAttribute(HASHED, app).writeValue(buffer, app);
+      hash = checksum(appMapper.readTree(buffer.asParser()));
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to hash application", e);
+    }
+    appHashes.put(app, hash);
+    return hash;
+  }
+
+  private static JsonNode relativePorts(List<DAGLinkPort> ports, String baseId) {
+    JsonNode relativePorts = JSONHelper.convertToJsonNode(ports);
+    if (relativePorts != null) {
+      for (JsonNode port : relativePorts) {
+        relativize(port, baseId);
+      }
+    }
+    return relativePorts;
+  }
+
+  private static void relativize(JsonNode port, String baseId) {
+    if (port instanceof ObjectNode && port.hasNonNull("dagNodeId")) {
+      ((ObjectNode) port).put("dagNodeId", relativeId(port.get("dagNodeId").asText(), baseId));
+    }
+  }
+
+  private static String relativeId(String id, String baseId) {
+    if (id.equals(baseId)) {
+      return "";
+    }
+    if (id.startsWith(baseId + InternalSchemaHelper.SEPARATOR)) {
+      return id.substring(baseId.length() + InternalSchemaHelper.SEPARATOR.length());
+    }
+    return id;
+  }
+
+  private static String checksum(JsonNode content) {
+    return ChecksumHelper.checksum(JSONHelper.writeSortedWithoutIdentation(content), HashAlgorithm.SHA1);
+  }
+
+  /**
+   * Writes applications embedded in the one being hashed as their own hashes
+   */
+  private static class EmbeddedApplicationSerializer extends JsonSerializer<Object> implements ResolvableSerializer, ContextualSerializer {
+
+    private final JsonSerializer<Object> serializer;
+
+    EmbeddedApplicationSerializer(JsonSerializer<Object> serializer) {
+      this.serializer = serializer;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+      Map<Application, String> appHashes = (Map<Application, String>) provider.getAttribute(HASHES);
+      if (appHashes == null || provider.getAttribute(HASHED) == value) {
+        serializer.serialize(value, gen, provider);
+      } else {
+        gen.writeString(hashApp((Application) value, appHashes));
+      }
+    }
+
+    @Override
+    public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSerializer) throws IOException {
+      if (provider.getAttribute(HASHES) == null || provider.getAttribute(HASHED) == value) {
+        serializer.serializeWithType(value, gen, provider, typeSerializer);
+      } else {
+        serialize(value, gen, provider);
+      }
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+      if (serializer instanceof ResolvableSerializer) {
+        ((ResolvableSerializer) serializer).resolve(provider);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+      if (serializer instanceof ContextualSerializer) {
+        return new EmbeddedApplicationSerializer((JsonSerializer<Object>) ((ContextualSerializer) serializer).createContextual(provider, property));
+      }
+      return this;
+    }
+  }
+
+}
@@ -0,0 +1,104 @@
+package org.rabix.bindings.helper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import org.rabix.bindings.model.dag.DAGContainer;
+import org.rabix.bindings.model.dag.DAGLink;
+import org.rabix.bindings.model.dag.DAGNode;
+
+/**
+ * Critical path priorities of DAG nodes. The priority of a node is the estimated length of the longest path from the
+ * node (including it) to the end of the root DAG, so jobs on long dependency chains can be started before short
+ * independent ones.
+ */
+public class DAGPriorityHelper {
+
+  /**
+   * Sets priorities of the node and all of its descendants. The length of a container is the length of its own critical
+   * path, executable nodes are measured with the given estimate.
+   */
+  public static void prioritize(DAGNode root, ToLongFunction<DAGNode> estimate) {
+    Map<DAGNode, Long> lengths = new IdentityHashMap<>();
+    Map<DAGContainer, Map<String, Long>> remaining = new IdentityHashMap<>();
+    long length = length(root, estimate, lengths, remaining);
+    root.setPriority(length);
+    if (root instanceof DAGContainer) {
+      prioritizeChildren((DAGContainer) root, 0, lengths, remaining);
+    }
+  }
+
+  private static void prioritizeChildren(DAGContainer container, long tail, Map<DAGNode, Long> lengths, Map<DAGContainer, Map<String, Long>> remaining) {
+    Map<String, Long> containerRemaining = remaining.get(container);
+    for (DAGNode child : container.getChildren()) {
+      long priority = containerRemaining.get(child.getId()) + tail;
+      child.setPriority(priority);
+      if (child instanceof DAGContainer) {
+        // everything after the nested container is still ahead of its children
+        prioritizeChildren((DAGContainer) child, priority - lengths.get(child), lengths, remaining);
+      }
+    }
+  }
+
+  private static long length(DAGNode node, ToLongFunction<DAGNode> estimate, Map<DAGNode, Long> lengths, Map<DAGContainer, Map<String, Long>> remaining) {
+    long length = 0;
+    if (node instanceof DAGContainer) {
+      DAGContainer container = (DAGContainer) node;
+      for (DAGNode child : container.getChildren()) {
+        length(child, estimate, lengths, remaining);
+      }
+      Map<String, Long> containerRemaining = remaining(container, lengths);
+      remaining.put(container, containerRemaining);
+      for (Long childRemaining : containerRemaining.values()) {
+        length = Math.max(length, childRemaining);
+      }
+    } else {
+      length = Math.max(0, estimate.applyAsLong(node));
+    }
+    lengths.put(node, length);
+    return length;
+  }
+
+  /**
+   * Longest path from each child to the end of the container
+   */
+  private static Map<String, Long> remaining(DAGContainer container, Map<DAGNode, Long> lengths) {
+    Map<String, DAGNode> children = new HashMap<>();
+    for (DAGNode child : container.getChildren()) {
+      children.put(child.getId(), child);
+    }
+    Map<String, List<String>> successors = new HashMap<>();
+    for (DAGLink link : container.getLinks()) {
+      String source = link.getSource().getDagNodeId();
+      String destination = link.getDestination().getDagNodeId();
+      if (children.containsKey(source) && children.containsKey(destination) && !source.equals(destination)) {
+        successors.computeIfAbsent(source, id -> new ArrayList<>()).add(destination);
+      }
+    }
+    Map<String, Long> remaining = new HashMap<>();
+    for (String id : children.keySet()) {
+      remaining(id, children, successors, lengths, remaining);
+    }
+    return remaining;
+  }
+
+  private static long remaining(String id, Map<String, DAGNode> children, Map<String, List<String>> successors, Map<DAGNode, Long> lengths, Map<String, Long> remaining) {
+    Long known = remaining.get(id);
+    if (known != null) {
+      return known;
+    }
+    remaining.put(id, 0L); // guards against loops, which are rejected by DAGValidationHelper anyway
+    long longestSuccessor = 0;
+    for (String successor : successors.getOrDefault(id, new ArrayList<>())) {
+      longestSuccessor = Math.max(longestSuccessor, remaining(successor, children, successors, lengths, remaining));
+    }
+    long result = lengths.get(children.get(id)) + longestSuccessor;
+    remaining.put(id, result);
+    return result;
+  }
+
+}
@@ -33,6 +33,7 @@ public class URIHelper {
   public final static String HTTP_URI_SCHEME = "http";
   public final static String DATA_URI_SCHEME = "data";
   public final static String FILE_URI_SCHEME = "file:";
+  public final static String APP_URI_SCHEME = "app:";
   
   private final static String DATA_URI_BASE_64 = "base64";
   private final static String DATA_URI_PAYLOAD_SEPARATOR = ",";
@@ -82,6 +83,10 @@ public class URIHelper {
     return DATA_URI_SCHEME + ":" + DATA_URI_MEDIA_TYPE_DEFAULT + ";" + DATA_URI_BASE_64 + "," + EncodingHelper.encodeBase64(payload);
   }
   
+  public static String createAppURI(String appHash) {
+    return APP_URI_SCHEME + appHash;
+  }
+  
   public static boolean isFTP(String uri) {
     return uri.startsWith(FTP_URI_SCHEME);
   }
@@ -98,6 +103,10 @@ public class URIHelper {
     return uri.startsWith(HTTP_URI_SCHEME);
   }
   
+  public static boolean isApp(String uri) {
+    return uri != null && uri.startsWith(APP_URI_SCHEME);
+  }
+  
   public static String getURIInfo(String uri) {
     if (uri == null) {
       return null;
@@ -114,6 +123,9 @@ public class URIHelper {
     if (isHTTP(uri)) {
       return uri.substring(HTTP_URI_SCHEME.length() + 1);
     }
+    if (isApp(uri)) {
+      return uri.substring(APP_URI_SCHEME.length());
+    }
     return null;
   }
 
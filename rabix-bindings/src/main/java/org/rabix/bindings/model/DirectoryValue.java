@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.rabix.common.helper.CloneHelper;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -34,6 +36,14 @@ public class DirectoryValue extends FileValue {
     this.listing = listing;
   }
   
+  @Override
+  @SuppressWarnings("unchecked")
+  public DirectoryValue deepCopy() {
+    return new DirectoryValue(size, path, location, name, dirname, nameroot, nameext, contents, checksum,
+        (List<FileValue>) CloneHelper.deepCopy(secondaryFiles), (Map<String, Object>) CloneHelper.deepCopy(properties),
+        (List<FileValue>) CloneHelper.deepCopy(listing), format);
+  }
+
   public List<FileValue> getListing() {
     return listing;
   }
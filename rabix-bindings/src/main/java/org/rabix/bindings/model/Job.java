@@ -5,8 +5,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.json.JobValuesDeserializer;
 import org.rabix.common.helper.CloneHelper;
+import org.rabix.common.helper.DeepCopyable;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -18,7 +20,7 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 @JsonInclude(Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class Job implements Serializable {
+public class Job implements Serializable, DeepCopyable {
 
   /**
    * 
@@ -62,11 +64,33 @@ public class Job implements Serializable {
   
   @JsonProperty("visiblePorts")
   private Set<String> visiblePorts;
+  /**
+   * Estimated length of the longest path from this job to the end of its root. Longer paths should start first.
+   */
+  @JsonProperty("priority")
+  private final Long priority;
+  /**
+   * Hash of the application when it is known, lets an inlined application be sent back by reference
+   */
+  @JsonProperty("appHash")
+  private final String appHash;
   
   public Job(String app, Map<String, Object> inputs) {
     this(null, null, generateId(), null, app, JobStatus.PENDING, null, inputs, null, null, null, null);
   }
   
+  public Job(UUID id, UUID parentId, UUID rootId, String name, String app, JobStatus status, String message,
+      Map<String, Object> inputs, Map<String, Object> otputs, Map<String, Object> config, Resources resources,
+      Set<String> visiblePorts) {
+    this(id, parentId, rootId, name, app, status, message, inputs, otputs, config, resources, visiblePorts, null);
+  }
+  
+  public Job(UUID id, UUID parentId, UUID rootId, String name, String app, JobStatus status, String message,
+      Map<String, Object> inputs, Map<String, Object> otputs, Map<String, Object> config, Resources resources,
+      Set<String> visiblePorts, Long priority) {
+    this(id, parentId, rootId, name, app, status, message, inputs, otputs, config, resources, visiblePorts, priority, null);
+  }
+  
   @JsonCreator
   public Job(@JsonProperty("id") UUID id,
       @JsonProperty("parentId") UUID parentId,
@@ -79,7 +103,9 @@ public class Job implements Serializable {
       @JsonProperty("outputs") Map<String, Object> otputs,
       @JsonProperty("config") Map<String, Object> config,
       @JsonProperty("resources") Resources resources,
-      @JsonProperty("visiblePorts") Set<String> visiblePorts) {
+      @JsonProperty("visiblePorts") Set<String> visiblePorts,
+      @JsonProperty("priority") Long priority,
+      @JsonProperty("appHash") String appHash) {
     this.id = id;
     this.parentId = parentId;
     this.rootId = rootId;
@@ -92,52 +118,83 @@ public class Job implements Serializable {
     this.resources = resources;
     this.config = config;
     this.visiblePorts = visiblePorts;
+    this.priority = priority;
+    this.appHash = appHash != null ? appHash : (URIHelper.isApp(app) ? URIHelper.getURIInfo(app) : null);
   }
   
+  /**
+   * Copies values, config and visible ports, the rest is immutable and shared
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Job deepCopy() {
+    return new Job(id, parentId, rootId, name, app, status, message, (Map<String, Object>) CloneHelper.deepCopy(inputs),
+        (Map<String, Object>) CloneHelper.deepCopy(outputs), (Map<String, Object>) CloneHelper.deepCopy(config), resources,
+        (Set<String>) CloneHelper.deepCopy(visiblePorts), priority, appHash);
+  }
+
   public static UUID generateId() {
     return UUID.randomUUID();
   }
   
   public static Job cloneWithId(Job job, UUID id) {
-    return new Job(id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
   
   public static Job cloneWithName(Job job, String name) {
-    return new Job(job.id, job.parentId, job.rootId, name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(job.id, job.parentId, job.rootId, name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
 
   public static Job cloneWithIds(Job job, UUID id, UUID rootId) {
-    return new Job(id, job.parentId, rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(id, job.parentId, rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
   
   public static Job cloneWithRootId(Job job, UUID rootId) {
-    return new Job(job.getId(), job.parentId, rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(job.getId(), job.parentId, rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
   
   public static Job cloneWithConfig(Job job, Map<String, Object> config) {
-    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, config, job.resources, job.visiblePorts);
+    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, config, job.resources, job.visiblePorts, job.priority, job.appHash);
+  }
+  
+  /**
+   * The application hash is taken from an app:{hash} reference, it is dropped for any other application
+   */
+  public static Job cloneWithApp(Job job, String app) {
+    return cloneWithApp(job, app, null);
+  }
+  
+  /**
+   * Replaces the application with one whose hash is known, e.g. when a reference is inlined
+   */
+  public static Job cloneWithApp(Job job, String app, String appHash) {
+    return new Job(job.id, job.parentId, job.rootId, job.name, app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, appHash);
   }
   
   public static Job cloneWithStatus(Job job, JobStatus status) {
-    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
   
   public static Job cloneWithMessage(Job job, String message) {
-    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
   
   public static Job cloneWithInputs(Job job, Map<String, Object> inputs) {
-    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, inputs, job.outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, inputs, job.outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
   
   public static Job cloneWithOutputs(Job job, Map<String, Object> outputs) {
-    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, outputs, job.config, job.resources, job.visiblePorts);
+    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, outputs, job.config, job.resources, job.visiblePorts, job.priority, job.appHash);
   }
   
   public static Job cloneWithResources(Job job, Resources resources) {
-    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, resources, job.visiblePorts);
+    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, resources, job.visiblePorts, job.priority, job.appHash);
   }
   
+  public static Job cloneWithPriority(Job job, Long priority) {
+    return new Job(job.id, job.parentId, job.rootId, job.name, job.app, job.status, job.message, job.inputs, job.outputs, job.config, job.resources, job.visiblePorts, priority, job.appHash);
+  }
+
   public static boolean isFinished(Job job) {
     return job.getStatus().equals(JobStatus.COMPLETED) 
         || job.getStatus().equals(JobStatus.ABORTED)
@@ -206,6 +263,14 @@ public class Job implements Serializable {
     return status;
   }
   
+  public Long getPriority() {
+    return priority;
+  }
+
+  public String getAppHash() {
+    return appHash;
+  }
+
   public Map<String, Object> getConfig() {
     return config;
   }
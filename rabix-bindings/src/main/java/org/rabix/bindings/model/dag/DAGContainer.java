@@ -7,6 +7,7 @@ import java.util.Map;
 import org.rabix.bindings.ProtocolType;
 import org.rabix.bindings.model.Application;
 import org.rabix.bindings.model.ScatterMethod;
+import org.rabix.common.helper.CloneHelper;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -29,6 +30,29 @@ public class DAGContainer extends DAGNode {
     this.children = children;
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public DAGContainer deepCopy() {
+    List<DAGLink> linkCopies = null;
+    if (links != null) {
+      linkCopies = new ArrayList<>(links.size());
+      for (DAGLink link : links) {
+        linkCopies.add(link.deepCopy());
+      }
+    }
+    List<DAGNode> childCopies = null;
+    if (children != null) {
+      childCopies = new ArrayList<>(children.size());
+      for (DAGNode child : children) {
+        childCopies.add(child.deepCopy());
+      }
+    }
+    DAGContainer copy = new DAGContainer(id, copyPorts(inputPorts), copyPorts(outputPorts), app, scatterMethod, linkCopies, childCopies,
+        (Map<String, Object>) CloneHelper.deepCopy(defaults), protocolType);
+    copyHashes(copy);
+    return copy;
+  }
+
   public List<DAGNode> getChildren() {
     return children;
   }
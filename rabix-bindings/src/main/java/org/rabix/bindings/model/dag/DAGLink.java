@@ -25,6 +25,10 @@ public class DAGLink {
     this.destination = destination;
   }
 
+  public DAGLink deepCopy() {
+    return new DAGLink(source != null ? source.deepCopy() : null, destination != null ? destination.deepCopy() : null, linkMerge, position);
+  }
+
   public LinkMerge getLinkMerge() {
     return linkMerge;
   }
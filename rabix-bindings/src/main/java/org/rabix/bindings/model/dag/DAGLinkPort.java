@@ -1,6 +1,7 @@
 package org.rabix.bindings.model.dag;
 
 import org.rabix.bindings.model.LinkMerge;
+import org.rabix.common.helper.CloneHelper;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -44,6 +45,10 @@ public class DAGLinkPort {
     this.transform = transform;
   }
   
+  public DAGLinkPort deepCopy() {
+    return new DAGLinkPort(id, dagNodeId, type, linkMerge, scatter, CloneHelper.deepCopy(defaultValue), CloneHelper.deepCopy(transform));
+  }
+
   public String getId() {
     return id;
   }
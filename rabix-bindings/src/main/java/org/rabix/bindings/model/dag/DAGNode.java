@@ -13,6 +13,8 @@ import org.rabix.bindings.model.Application.ApplicationSerializer;
 import org.rabix.bindings.model.LinkMerge;
 import org.rabix.bindings.model.ScatterMethod;
 import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.common.helper.CloneHelper;
+import org.rabix.common.helper.DeepCopyable;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -31,7 +33,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
     @Type(value = DAGContainer.class, name = "CONTAINER")})
 @JsonInclude(Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class DAGNode {
+public class DAGNode implements DeepCopyable {
 
   public static enum DAGNodeType {
     EXECUTABLE,
@@ -46,6 +48,8 @@ public class DAGNode {
   protected Application app;
   @JsonProperty("appHash")
   protected String appHash;
+  @JsonProperty("hash")
+  protected String hash;
   @JsonProperty("scatterMethod")
   protected ScatterMethod scatterMethod;
   @JsonProperty("inputPorts")
@@ -59,6 +63,9 @@ public class DAGNode {
   @JsonProperty("protocolType")
   protected ProtocolType protocolType;
   
+  @JsonProperty("priority")
+  protected Long priority;
+  
   @JsonCreator
   public DAGNode(@JsonProperty("id") String id,
                  @JsonProperty("inputPorts") List<DAGLinkPort> inputPorts,
@@ -77,6 +84,35 @@ public class DAGNode {
     this.protocolType = protocolType;
   }
 
+  /**
+   * Copies the node and its ports, links and children. The application is shared, applications aren't modified once
+   * they are translated.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public DAGNode deepCopy() {
+    DAGNode copy = new DAGNode(id, copyPorts(inputPorts), copyPorts(outputPorts), scatterMethod, app, (Map<String, Object>) CloneHelper.deepCopy(defaults), protocolType);
+    copyHashes(copy);
+    return copy;
+  }
+
+  protected void copyHashes(DAGNode copy) {
+    copy.appHash = appHash;
+    copy.hash = hash;
+    copy.priority = priority;
+  }
+
+  protected static List<DAGLinkPort> copyPorts(List<DAGLinkPort> ports) {
+    if (ports == null) {
+      return null;
+    }
+    List<DAGLinkPort> copies = new ArrayList<>(ports.size());
+    for (DAGLinkPort port : ports) {
+      copies.add(port.deepCopy());
+    }
+    return copies;
+  }
+
   public String getId() {
     return id;
   }
@@ -97,6 +133,22 @@ public class DAGNode {
     this.appHash = appHash;
   }
 
+  public String getHash() {
+    return hash;
+  }
+  
+  public void setHash(String hash) {
+    this.hash = hash;
+  }
+
+  public Long getPriority() {
+    return priority;
+  }
+  
+  public void setPriority(Long priority) {
+    this.priority = priority;
+  }
+
   public List<DAGLinkPort> getInputPorts() {
     return inputPorts;
   }
@@ -0,0 +1,77 @@
+package org.rabix.bindings.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.rabix.common.helper.CloneHelper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the structural copy of job inputs with large file arrays to the copy through Java serialization which
+ * CloneHelper used to do for every value.
+ */
+@Test(groups = { "benchmark" })
+public class CloneHelperBenchmark {
+
+  private static final int FILES = 2000;
+  private static final int ITERATIONS = 50;
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void benchmarkDeepCopy() {
+    Map<String, Object> inputs = inputs();
+
+    Map<String, Object> copy = (Map<String, Object>) CloneHelper.deepCopy(inputs);
+    Assert.assertEquals(copy, inputs);
+    Assert.assertEquals(copy, CloneHelper.serializedCopy(inputs));
+    List<FileValue> files = (List<FileValue>) copy.get("files");
+    Assert.assertNotSame(files.get(0), ((List<FileValue>) inputs.get("files")).get(0));
+    Assert.assertTrue(copy.get("directory") instanceof DirectoryValue);
+
+    long serialized = measure(inputs, CloneHelper::serializedCopy);
+    long structural = measure(inputs, CloneHelper::deepCopy);
+    System.out.println(String.format("%d files: serialization %.2f ms, structural %.2f ms per copy", FILES, serialized / 1e6, structural / 1e6));
+    Assert.assertTrue(structural < serialized);
+  }
+
+  /**
+   * Returns the average time of a copy
+   */
+  private long measure(Map<String, Object> inputs, Function<Object, Object> copier) {
+    long total = 0;
+    for (int i = 0; i <= ITERATIONS; i++) {
+      long start = System.nanoTime();
+      copier.apply(inputs);
+      // the first round warms up
+      if (i > 0) {
+        total += System.nanoTime() - start;
+      }
+    }
+    return total / ITERATIONS;
+  }
+
+  private Map<String, Object> inputs() {
+    List<FileValue> files = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      Map<String, Object> metadata = new HashMap<>();
+      metadata.put("sample", "sample-" + i);
+      metadata.put("lane", i % 8);
+      List<FileValue> secondaryFiles = new ArrayList<>();
+      secondaryFiles.add(new FileValue(100L, "/data/reads-" + i + ".bam.bai", null, null, null, null, null));
+      files.add(new FileValue(1024L * i, "/data/reads-" + i + ".bam", "file:///data/reads-" + i + ".bam",
+          "sha1$" + Integer.toHexString(i), secondaryFiles, metadata, "reads-" + i + ".bam"));
+    }
+    Map<String, Object> inputs = new LinkedHashMap<>();
+    inputs.put("files", files);
+    inputs.put("directory", new DirectoryValue(null, "/data", null, null, new ArrayList<>(files.subList(0, 10)), null, null, "data", null));
+    inputs.put("threads", 8);
+    inputs.put("reference", "GRCh38");
+    return inputs;
+  }
+
+}
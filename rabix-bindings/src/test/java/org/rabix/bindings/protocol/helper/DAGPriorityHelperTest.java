@@ -0,0 +1,175 @@
+package org.rabix.bindings.protocol.helper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.rabix.bindings.helper.DAGPriorityHelper;
+import org.rabix.bindings.model.dag.DAGContainer;
+import org.rabix.bindings.model.dag.DAGLink;
+import org.rabix.bindings.model.dag.DAGLinkPort;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class DAGPriorityHelperTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(DAGPriorityHelperTest.class);
+
+  private static final int CHAIN = 10;
+  private static final long CHAIN_STEP = 10;
+  private static final int SHORT_JOBS = 40;
+  private static final long SHORT_JOB = 1;
+  private static final int WORKERS = 2;
+
+  @Test
+  public void testChainPriorities() {
+    DAGContainer root = workflow();
+    DAGPriorityHelper.prioritize(root, this::duration);
+
+    Assert.assertEquals(root.getPriority().longValue(), CHAIN * CHAIN_STEP);
+    Map<String, DAGNode> nodes = nodes(root);
+    for (int i = 0; i < CHAIN; i++) {
+      Assert.assertEquals(nodes.get("chain" + i).getPriority().longValue(), (CHAIN - i) * CHAIN_STEP);
+    }
+    Assert.assertEquals(nodes.get("short0").getPriority().longValue(), SHORT_JOB);
+  }
+
+  @Test
+  public void testNestedContainerPriorities() {
+    DAGContainer inner = workflow();
+    DAGNode after = node("after");
+    List<DAGLink> links = new ArrayList<>();
+    links.add(link(inner.getId(), after.getId()));
+    DAGContainer outer = new DAGContainer("outer", new ArrayList<>(), new ArrayList<>(), null, null, links, list(inner, after), null, null);
+
+    DAGPriorityHelper.prioritize(outer, this::duration);
+
+    long afterLength = duration(after);
+    Assert.assertEquals(after.getPriority().longValue(), afterLength);
+    Assert.assertEquals(inner.getPriority().longValue(), CHAIN * CHAIN_STEP + afterLength);
+    Assert.assertEquals(nodes(inner).get("chain0").getPriority().longValue(), CHAIN * CHAIN_STEP + afterLength);
+    Assert.assertEquals(outer.getPriority().longValue(), CHAIN * CHAIN_STEP + afterLength);
+  }
+
+  /**
+   * A chain of long dependent steps next to many short independent jobs, listed first. With insertion order the chain
+   * waits behind the short jobs, with critical path order it starts right away.
+   */
+  @Test
+  public void testMakespan() {
+    DAGContainer root = workflow();
+    DAGPriorityHelper.prioritize(root, this::duration);
+
+    long insertionOrder = simulate(root, Comparator.comparing((DAGNode node) -> 0));
+    long criticalPath = simulate(root, Comparator.comparing(DAGNode::getPriority).reversed());
+    logger.info("Makespan with {} workers: insertion order {}, critical path order {}", WORKERS, insertionOrder, criticalPath);
+
+    Assert.assertEquals(criticalPath, CHAIN * CHAIN_STEP);
+    Assert.assertTrue(criticalPath < insertionOrder);
+  }
+
+  /**
+   * List scheduling on {@link #WORKERS} workers. Ready nodes are kept in the order they became ready and picked by the
+   * given order, stable for equal keys.
+   */
+  private long simulate(DAGContainer root, Comparator<DAGNode> order) {
+    Map<String, DAGNode> nodes = new HashMap<>();
+    for (DAGNode child : root.getChildren()) {
+      nodes.put(child.getId(), child);
+    }
+    Map<String, Set<String>> waitingFor = new HashMap<>();
+    Map<String, List<String>> successors = new HashMap<>();
+    for (DAGLink link : root.getLinks()) {
+      String source = link.getSource().getDagNodeId();
+      String destination = link.getDestination().getDagNodeId();
+      waitingFor.computeIfAbsent(destination, id -> new HashSet<>()).add(source);
+      successors.computeIfAbsent(source, id -> new ArrayList<>()).add(destination);
+    }
+    List<DAGNode> ready = new ArrayList<>();
+    for (DAGNode child : root.getChildren()) {
+      if (!waitingFor.containsKey(child.getId())) {
+        ready.add(child);
+      }
+    }
+
+    PriorityQueue<long[]> running = new PriorityQueue<>(Comparator.comparingLong((long[] run) -> run[0]));
+    List<String> runningIds = new ArrayList<>();
+    long time = 0;
+    int completed = 0;
+    while (completed < nodes.size()) {
+      ready.sort(order);
+      while (running.size() < WORKERS && !ready.isEmpty()) {
+        DAGNode next = ready.remove(0);
+        runningIds.add(next.getId());
+        running.add(new long[] { time + duration(next), runningIds.size() - 1 });
+      }
+      long[] finished = running.poll();
+      time = finished[0];
+      completed++;
+      String id = runningIds.get((int) finished[1]);
+      for (String successor : successors.getOrDefault(id, Collections.emptyList())) {
+        Set<String> waiting = waitingFor.get(successor);
+        waiting.remove(id);
+        if (waiting.isEmpty()) {
+          ready.add(nodes.get(successor));
+        }
+      }
+    }
+    return time;
+  }
+
+  private DAGContainer workflow() {
+    List<DAGNode> children = new ArrayList<>();
+    List<DAGLink> links = new ArrayList<>();
+    for (int i = 0; i < SHORT_JOBS; i++) {
+      children.add(node("short" + i));
+    }
+    for (int i = 0; i < CHAIN; i++) {
+      children.add(node("chain" + i));
+      if (i > 0) {
+        links.add(link("chain" + (i - 1), "chain" + i));
+      }
+    }
+    return new DAGContainer("root", new ArrayList<>(), new ArrayList<>(), null, null, links, children, null, null);
+  }
+
+  private long duration(DAGNode node) {
+    return node.getId().startsWith("chain") ? CHAIN_STEP : SHORT_JOB;
+  }
+
+  private static DAGNode node(String id) {
+    return new DAGNode(id, new ArrayList<>(), new ArrayList<>(), null, null, null, null);
+  }
+
+  private static DAGLink link(String source, String destination) {
+    DAGLinkPort sourcePort = new DAGLinkPort("out", source, LinkPortType.OUTPUT, null, false, null, null);
+    DAGLinkPort destinationPort = new DAGLinkPort("in", destination, LinkPortType.INPUT, null, false, null, null);
+    return new DAGLink(sourcePort, destinationPort, null, null);
+  }
+
+  private static List<DAGNode> list(DAGNode... nodes) {
+    List<DAGNode> list = new ArrayList<>();
+    Collections.addAll(list, nodes);
+    return list;
+  }
+
+  private static Map<String, DAGNode> nodes(DAGContainer container) {
+    Map<String, DAGNode> nodes = new HashMap<>();
+    for (DAGNode child : container.getChildren()) {
+      nodes.put(child.getId(), child);
+    }
+    return nodes;
+  }
+
+}
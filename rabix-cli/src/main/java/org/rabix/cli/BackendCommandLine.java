@@ -2,6 +2,8 @@ package org.rabix.cli;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -14,11 +16,11 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -38,6 +40,7 @@ import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
 import org.rabix.bindings.ProtocolType;
 import org.rabix.bindings.helper.FileValueHelper;
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.model.Application;
 import org.rabix.bindings.model.ApplicationPort;
 import org.rabix.bindings.model.DataType;
@@ -45,11 +48,13 @@ import org.rabix.bindings.model.FileValue;
 import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.Resources;
 import org.rabix.cli.service.LocalDownloadServiceImpl;
+import org.rabix.cli.status.BatchEngineStatusCallback;
 import org.rabix.cli.status.LocalBackendEngineStatusCallback;
+import org.rabix.common.SystemEnvironmentHelper;
 import org.rabix.common.config.ConfigModule;
 import org.rabix.common.helper.JSONHelper;
 import org.rabix.common.json.BeanSerializer;
-import org.rabix.common.jvm.ClasspathScanner;
+import org.rabix.common.jvm.PluginIndex;
 import org.rabix.common.logging.VerboseLogger;
 import org.rabix.common.service.download.DownloadService;
 import org.rabix.common.service.upload.UploadService;
@@ -71,6 +76,7 @@ import org.rabix.engine.service.impl.NoOpIntermediaryFilesServiceHandler;
 import org.rabix.engine.status.EngineStatusCallback;
 import org.rabix.engine.stub.BackendStubFactory;
 import org.rabix.engine.stub.impl.BackendStubFactoryImpl;
+import org.rabix.executor.config.impl.LocalStorageConfiguration;
 import org.rabix.transport.mechanism.TransportPlugin.ReceiveCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,11 +95,64 @@ public class BackendCommandLine {
   private static final Logger logger = LoggerFactory.getLogger(BackendCommandLine.class);
   private static String configDir = "/.bunny/config";
 
+  public static final String DAEMON_PORT_ENV = "RABIX_DAEMON_PORT";
+  public static final int DEFAULT_DAEMON_PORT = 8757;
 
-  @SuppressWarnings("unchecked")
   public static void main(String[] commandLineArguments) {
+    String[] options = commandLineArguments;
+    List<String> commandLineArray = Arrays.asList(commandLineArguments);
+    if (commandLineArray.contains("--")) {
+      options = commandLineArray.subList(0, commandLineArray.indexOf("--")).toArray(new String[0]);
+    }
+
+    try {
+      CommandLine commandLine = new DefaultParser().parse(createOptions(), options);
+      if (commandLine.hasOption("daemon")) {
+        int port = Integer.parseInt(commandLine.getOptionValue("daemon-port", Integer.toString(DEFAULT_DAEMON_PORT)));
+        int jobs = Integer.parseInt(commandLine.getOptionValue("daemon-jobs", "1"));
+        new CommandLineDaemon(port, jobs).run();
+        System.exit(0);
+      }
+      String daemonPort = commandLine.getOptionValue("daemon-port", System.getenv(DAEMON_PORT_ENV));
+      if (daemonPort != null && !daemonPort.isEmpty()) {
+        System.exit(CommandLineClient.submit(Integer.parseInt(daemonPort), commandLineArguments));
+      }
+    } catch (ParseException e) {
+      // reported by run
+    } catch (NumberFormatException e) {
+      VerboseLogger.log("Invalid daemon option: " + e.getMessage());
+      System.exit(10);
+    } catch (IOException e) {
+      logger.error("Encountered an error while running the daemon.", e);
+      System.exit(10);
+    }
+
+    CommandLineSession session = new CommandLineSession(Paths.get(""), System.out, System.err);
+    System.exit(run(commandLineArguments, session));
+  }
+
+  /**
+   * Runs one invocation and waits for the root job to finish. Returns the exit status, the JVM isn't exited here.
+   */
+  public static int run(String[] commandLineArguments, CommandLineSession session) {
+    try {
+      start(commandLineArguments, session);
+      return session.awaitStatus();
+    } catch (Exit e) {
+      session.finish(e.status);
+      return e.status;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 10;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void start(String[] commandLineArguments, CommandLineSession session) {
     final CommandLineParser commandLineParser = new DefaultParser();
     final Options posixOptions = createOptions();
+    final PrintStream out = session.getOut();
+    final Path workingDirectory = session.getWorkingDirectory();
 
     CommandLine commandLine;
     List<String> commandLineArray = Arrays.asList(commandLineArguments);
@@ -107,66 +166,80 @@ public class BackendCommandLine {
     try {
       commandLine = commandLineParser.parse(posixOptions, commandLineArguments);
       if (commandLine.hasOption("h")) {
-        printUsageAndExit(posixOptions);
+        printUsageAndExit(posixOptions, out);
       }
       if (commandLine.hasOption("version")) {
-        printVersionAndExit(posixOptions);
+        printVersionAndExit(posixOptions, out);
       }
       if (!checkCommandLine(commandLine)) {
-        printUsageAndExit(posixOptions);
+        printUsageAndExit(posixOptions, out);
       }
 
       final String app = commandLine.getArgList().get(0);
 
       Path filePath = null;
-      File f = new File(app.replace(" ", "%20"));
-      URI appUri = f.toURI();  
+      File f = workingDirectory.resolve(app.replace(" ", "%20")).toFile();
+      URI appUri = f.toURI();
       //URI appUri = URI.create(app.replace(" ", "%20"));
 
       if (appUri.getScheme() == null) {
-        appUri = new URI("file", Paths.get(".").toAbsolutePath().resolve(appUri.getSchemeSpecificPart()).normalize().toString(), appUri.getFragment());
+        appUri = new URI("file", workingDirectory.resolve(appUri.getSchemeSpecificPart()).normalize().toString(), appUri.getFragment());
       }
       filePath = Paths.get(appUri.getPath());
       if (!Files.exists(filePath)) {
         VerboseLogger.log(String.format("Application file %s does not exist.", appUri.toString()));
-        printUsageAndExit(posixOptions);
+        printUsageAndExit(posixOptions, out);
       }
 
 
       String fullUri = appUri.toString();
       if (commandLine.hasOption("resolve-app")) {
-        printResolvedAppAndExit(fullUri);
+        printResolvedAppAndExit(fullUri, out);
       }
 
       Path inputsFile = null;
       if (commandLine.getArgList().size() > 1) {
         String inputsPath = commandLine.getArgList().get(1);
-        inputsFile = Paths.get(".").resolve(inputsPath).toAbsolutePath().normalize();
+        inputsFile = workingDirectory.resolve(inputsPath).normalize();
         if (!Files.exists(inputsFile)) {
           VerboseLogger.log(String.format("Inputs file %s does not exist.", inputsFile.toString()));
-          printUsageAndExit(posixOptions);
+          printUsageAndExit(posixOptions, out);
         }
       }
 
-      File configDir = getConfigDir(commandLine, posixOptions);
+      Path batchPath = null;
+      if (commandLine.hasOption("batch")) {
+        batchPath = workingDirectory.resolve(commandLine.getOptionValue("batch")).normalize();
+        if (!Files.exists(batchPath)) {
+          VerboseLogger.log(String.format("Batch inputs %s do not exist.", batchPath.toString()));
+          printUsageAndExit(posixOptions, out);
+        }
+        if (inputsFile != null) {
+          VerboseLogger.log("An inputs file can't be used together with --batch.");
+          printUsageAndExit(posixOptions, out);
+        }
+      }
+
+      File configDir = getConfigDir(commandLine, posixOptions, session);
 
       if (!configDir.exists() || !configDir.isDirectory()) {
         VerboseLogger.log(String.format("Config directory %s doesn't exist or is not a directory.", configDir.getCanonicalPath()));
-        printUsageAndExit(posixOptions);
+        printUsageAndExit(posixOptions, out);
       }
 
       Map<String, Object> configOverrides = new HashMap<>();
       configOverrides.put("cleaner.backend.period", 5000L);
+      configOverrides.put("engine.job_stats.flush_interval_ms", 0L);
 
       String directoryName = generateDirectoryName(app);
       configOverrides.put("backend.execution.directory.name", directoryName);
 
       String executionDirPath = commandLine.getOptionValue("basedir");
       if (executionDirPath != null) {
-        File executionDir = new File(executionDirPath);
+        File executionDir = workingDirectory.resolve(executionDirPath).toFile();
         if (!executionDir.exists() || !executionDir.isDirectory()) {
           VerboseLogger.log(String.format("Execution directory %s doesn't exist or is not a directory", executionDirPath));
-          System.exit(10);
+          throw new Exit(10);
         } else {
           configOverrides.put("backend.execution.directory", executionDir.getCanonicalPath());
         }
@@ -175,7 +248,7 @@ public class BackendCommandLine {
         try {
           workingDir = inputsFile.getParent().toString();
         } catch (Exception e) {
-          workingDir = new File(".").getCanonicalPath();
+          workingDir = workingDirectory.toFile().getCanonicalPath();
         }
         configOverrides.put("backend.execution.directory", workingDir);
       }
@@ -187,10 +260,10 @@ public class BackendCommandLine {
       }
       if (commandLine.hasOption("cache-dir")) {
         String cacheDir = commandLine.getOptionValue("cache-dir");
-        File cacheDirFile = new File(cacheDir);
+        File cacheDirFile = workingDirectory.resolve(cacheDir).toFile();
         if (!cacheDirFile.exists()) {
           VerboseLogger.log(String.format("Cache directory %s does not exist.", cacheDirFile.getCanonicalPath()));
-          printUsageAndExit(posixOptions);
+          printUsageAndExit(posixOptions, out);
         }
         configOverrides.put("cache.enabled", true);
         configOverrides.put("cache.directory", cacheDirFile.getCanonicalPath());
@@ -200,7 +273,7 @@ public class BackendCommandLine {
       if (tesURL != null) {
         if (tesURL.trim().isEmpty()) {
           VerboseLogger.log("TES URL is empty");
-          System.exit(10);
+          throw new Exit(10);
         }
 
         try {
@@ -219,7 +292,7 @@ public class BackendCommandLine {
           }
         } catch (Exception e) {
           VerboseLogger.log("TES URL is invalid");
-          System.exit(-10);
+          throw new Exit(-10);
         }
       }
       String tesStorageURL = commandLine.getOptionValue("tes-storage");
@@ -229,12 +302,25 @@ public class BackendCommandLine {
 
       final ConfigModule configModule = new ConfigModule(configDir, configOverrides);
       Configuration configuration = configModule.provideConfig();
+
+      final CommandLineBatch batch = batchPath != null ? createBatch(batchPath, commandLine, configuration, directoryName, session) : null;
+
+      List<BackendModule> backendModules = new ArrayList<>();
+      for (Class<BackendModule> backendModuleClass : PluginIndex.load(BackendModule.class)) {
+        try {
+          backendModules.add(backendModuleClass.getConstructor(ConfigModule.class).newInstance(configModule));
+        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+          logger.error("Failed to instantiate BackendModule " + backendModuleClass, e);
+          throw new Exit(33);
+        }
+      }
       Injector injector = Guice.createInjector(
           new EngineModule(configModule),
           new AbstractModule() {
             @Override
             protected void configure() {
               install(configModule);
+              bind(CommandLineSession.class).toInstance(session);
 
               if (configuration.getBoolean("engine.delete_intermediary_files", false)) {
                 bind(IntermediaryFilesHandler.class).to(IntermediaryFilesLocalHandler.class).in(Scopes.SINGLETON);
@@ -243,7 +329,12 @@ public class BackendCommandLine {
               }
               bind(JobService.class).to(JobServiceImpl.class).in(Scopes.SINGLETON);
               bind(BackendService.class).to(BackendServiceImpl.class).in(Scopes.SINGLETON);
-              bind(EngineStatusCallback.class).to(LocalBackendEngineStatusCallback.class).in(Scopes.SINGLETON);
+              if (batch != null) {
+                bind(CommandLineBatch.class).toInstance(batch);
+                bind(EngineStatusCallback.class).to(BatchEngineStatusCallback.class).in(Scopes.SINGLETON);
+              } else {
+                bind(EngineStatusCallback.class).to(LocalBackendEngineStatusCallback.class).in(Scopes.SINGLETON);
+              }
               bind(DownloadService.class).to(LocalDownloadServiceImpl.class).in(Scopes.SINGLETON);
               bind(UploadService.class).to(NoOpUploadServiceImpl.class).in(Scopes.SINGLETON);
               bind(WorkerStatusCallback.class).to(NoOpWorkerStatusCallback.class).in(Scopes.SINGLETON);
@@ -251,14 +342,8 @@ public class BackendCommandLine {
               bind(BackendStubFactory.class).to(BackendStubFactoryImpl.class).in(Scopes.SINGLETON);
               bind(new TypeLiteral<ReceiveCallback<Job>>(){}).to(JobReceiverImpl.class).in(Scopes.SINGLETON);
 
-              Set<Class<BackendModule>> backendModuleClasses = ClasspathScanner.<BackendModule>scanSubclasses(BackendModule.class);
-              for (Class<BackendModule> backendModuleClass : backendModuleClasses) {
-                try {
-                  install(backendModuleClass.getConstructor(ConfigModule.class).newInstance(configModule));
-                } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-                  logger.error("Failed to instantiate BackendModule " + backendModuleClass, e);
-                  System.exit(33);
-                }
+              for (BackendModule backendModule : backendModules) {
+                install(backendModule);
               }
               bind(BootstrapService.class).to(BootstrapServiceImpl.class).in(Scopes.SINGLETON);
             }
@@ -275,14 +360,14 @@ public class BackendCommandLine {
         application = bindings.loadAppObject(fullUri);
       } catch (NotImplementedException e) {
         logger.error("Not implemented feature");
-        System.exit(33);
+        throw new Exit(33);
       } catch (BindingException e) {
         logger.error("Error: " + appUri.toString() + " is not a valid app! {}", e.getMessage());
-        System.exit(10);
+        throw new Exit(10);
       }
       if (application == null) {
         VerboseLogger.log("Error reading the app file");
-        System.exit(10);
+        throw new Exit(10);
       }
       if (application.getRaw().containsKey("$schemas")) {
         LoggerFactory.getLogger(BackendCommandLine.class).error("Unsupported feature: $schemas.");
@@ -302,8 +387,8 @@ public class BackendCommandLine {
       } else {
         inputs = new HashMap<>();
         // No inputs file. If we didn't provide -- at the end, just print app help and exit
-        if (!commandLineArray.contains("--"))
-          printAppUsageAndExit(appInputOptions);
+        if (!commandLineArray.contains("--") && batch == null)
+          printAppUsageAndExit(appInputOptions, out);
       }
 
 
@@ -313,7 +398,7 @@ public class BackendCommandLine {
           CommandLine commandLineInputs = commandLineParser.parse(appInputOptions, inputArguments);
 
           if (commandLineInputs.getArgList().size() > 0) {
-            printAppInvalidUsageAndExit(appInputOptions);
+            printAppInvalidUsageAndExit(appInputOptions, out);
           }
 
           for (ApplicationPort schemaInput : application.getInputs()) {
@@ -332,7 +417,7 @@ public class BackendCommandLine {
 
             if (!schemaInput.getDataType().isArray() && values.length>1) {
               VerboseLogger.log(String.format("Input port %s doesn't accept multiple values", id));
-              System.exit(10);
+              throw new Exit(10);
             }
 
             if (schemaInput.getDataType().isFile() ||
@@ -340,17 +425,17 @@ public class BackendCommandLine {
               String[] remappedValues = new String[values.length];
 
               for (int i = 0; i < values.length; i++) {
-                File file = new File(values[i]);
+                File file = workingDirectory.resolve(values[i]).toFile();
 
                 try {
                   remappedValues[i] = file.getCanonicalPath();
                   if (!file.exists()) {
                     VerboseLogger.log(String.format("File %s doesn't exist", file.getCanonicalPath()));
-                    System.exit(10);
+                    throw new Exit(10);
                   }
                 } catch (IOException e) {
                   VerboseLogger.log(String.format("Can't access file %s.", values[i]));
-                  System.exit(10);
+                  throw new Exit(10);
                 }
               }
               values = remappedValues;
@@ -359,39 +444,18 @@ public class BackendCommandLine {
             inputs.put(id, createInputValue(values, schemaInput.getDataType()));
           }
         } catch (ParseException e) {
-          printAppInvalidUsageAndExit(appInputOptions);
+          printAppInvalidUsageAndExit(appInputOptions, out);
         }
       }
 
-      // Check for required inputs
-      List<String> missingRequiredFields = new ArrayList<>();
-      for (ApplicationPort schemaInput : application.getInputs()) {
-        String id = schemaInput.getId().replaceFirst("^#", "");
-
-        if (schemaInput.isRequired() && schemaInput.getDefaultValue() == null && (!inputs.containsKey(id) || inputs.get(id) == null)) {
-          missingRequiredFields.add(id);
-        }
-      }
+      // Check for required inputs, input sets of a batch are checked when they are started
+      List<String> missingRequiredFields = batch == null ? missingRequiredInputs(application, inputs) : Collections.emptyList();
       if (!missingRequiredFields.isEmpty()) {
         String message = "Required inputs missing: " + StringUtils.join(missingRequiredFields, ", ");
         VerboseLogger.log(message);
         if (configuration.getBoolean("composer.logs.enabled", false))
           logger.info("Composer: {\"status\": \"FAILED\",  \"stepId\": \"root\", \"message\": \"" + message + "\"}");
-        printAppUsageAndExit(appInputOptions);
-      }
-
-      Resources resources = null;
-      Map<String, Object> contextConfig = null;
-
-      resources = extractResources(inputs, bindings.getProtocolType());
-      if (resources != null) {
-        contextConfig = new HashMap<String, Object>();
-        if (resources.getCpu() != null) {
-          contextConfig.put("allocatedResources.cpu", resources.getCpu().toString());
-        }
-        if (resources.getMemMB() != null) {
-          contextConfig.put("allocatedResources.mem", resources.getMemMB().toString());
-        }
+        printAppUsageAndExit(appInputOptions, out);
       }
 
       final BootstrapService bootstrapService = injector.getInstance(BootstrapService.class);
@@ -399,38 +463,136 @@ public class BackendCommandLine {
       final JobService jobService = injector.getInstance(JobService.class);
 
       bootstrapService.start();
+      session.onClose(() -> {
+        bootstrapService.stop();
+        injector.getInstance(BackendService.class).stopEmbedded();
+      });
+
+      if (batch != null) {
+        runBatch(batch, jobService, bindings, application, inputs, directoryName);
+        return;
+      }
+
       Object commonInputs = null;
       try {
-        commonInputs = bindings.translateToCommon(inputs);
-        if (inputsFile != null) {
-          final Path finalInputs = inputsFile;
-          FileValueHelper.updateFileValues(commonInputs, (FileValue f) -> {
-            fixPaths(finalInputs, f);
-            if (f.getSecondaryFiles() != null)
-              for (FileValue sec : f.getSecondaryFiles()) {
-                fixPaths(finalInputs, sec);
-              }
-            return f;
-          });
-        }
+        commonInputs = translateInputs(bindings, inputs, inputsFile);
       } catch (BindingException e1) {
         VerboseLogger.log("Failed to translate inputs to the common Rabix format");
-        System.exit(10);
+        throw new Exit(10);
       }
 
-      jobService.start(new Job(fullUri, (Map<String, Object>) commonInputs), contextConfig);
+      jobService.start(new Job(fullUri, (Map<String, Object>) commonInputs), createContextConfig(inputs, bindings.getProtocolType()));
     } catch (ParseException e) {
       logger.error("Encountered an error while parsing using Posix parser.", e);
-      System.exit(10);
+      throw new Exit(10);
     } catch (IOException e) {
       logger.error("Encountered an error while reading a file.", e);
-      System.exit(10);
+      throw new Exit(10);
     } catch (JobServiceException | BootstrapServiceException | URISyntaxException e) {
       logger.error("Encountered an error while starting local backend.", e);
-      System.exit(10);
+      throw new Exit(10);
+    }
+  }
+
+
+  /**
+   * Reads the input sets of a batch, every set runs in its own directory under the execution directory of the run
+   */
+  private static CommandLineBatch createBatch(Path batchPath, CommandLine commandLine, Configuration configuration, String directoryName, CommandLineSession session) throws IOException {
+    int jobs;
+    try {
+      jobs = Integer.parseInt(commandLine.getOptionValue("batch-jobs", Long.toString(SystemEnvironmentHelper.getNumberOfCores())));
+    } catch (NumberFormatException e) {
+      VerboseLogger.log("Invalid number of batch jobs " + commandLine.getOptionValue("batch-jobs"));
+      throw new Exit(10);
+    }
+    Path directory = Paths.get(configuration.getString("backend.execution.directory"), directoryName);
+    List<CommandLineBatch.InputSet> inputSets = CommandLineBatch.read(batchPath, directory);
+    if (inputSets.isEmpty()) {
+      VerboseLogger.log(String.format("No input sets found in %s.", batchPath.toString()));
+      throw new Exit(10);
+    }
+    VerboseLogger.log(String.format("Running %d input sets, %d at a time.", inputSets.size(), jobs));
+    return new CommandLineBatch(inputSets, Math.max(jobs, 1), session);
+  }
+
+  /**
+   * Starts a root for every input set of the batch. The application is loaded and translated into a DAG once, its
+   * roots are submitted inline so the engine reuses the translation.
+   */
+  @SuppressWarnings("unchecked")
+  private static void runBatch(CommandLineBatch batch, JobService jobService, Bindings bindings, Application application, Map<String, Object> commandLineInputs, String directoryName) {
+    final String app = URIHelper.createDataURI(JSONHelper.writeCompact(application));
+    try {
+      batch.run((inputSet, rootId) -> {
+        Map<String, Object> inputs = new HashMap<>(inputSet.getInputs());
+        inputs.putAll(commandLineInputs);
+
+        List<String> missingRequiredFields = missingRequiredInputs(application, inputs);
+        if (!missingRequiredFields.isEmpty()) {
+          return "Required inputs missing: " + StringUtils.join(missingRequiredFields, ", ");
+        }
+        Object commonInputs = translateInputs(bindings, inputs, inputSet.getSource());
+
+        Map<String, Object> contextConfig = createContextConfig(inputs, bindings.getProtocolType());
+        if (contextConfig == null) {
+          contextConfig = new HashMap<>();
+        }
+        contextConfig.put(LocalStorageConfiguration.ROOT_DIR_NAME, directoryName + File.separator + inputSet.getName());
+        jobService.start(Job.cloneWithRootId(new Job(app, (Map<String, Object>) commonInputs), rootId), contextConfig);
+        return null;
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new Exit(10);
+    }
+  }
+
+  private static List<String> missingRequiredInputs(Application application, Map<String, Object> inputs) {
+    List<String> missingRequiredFields = new ArrayList<>();
+    for (ApplicationPort schemaInput : application.getInputs()) {
+      String id = schemaInput.getId().replaceFirst("^#", "");
+
+      if (schemaInput.isRequired() && schemaInput.getDefaultValue() == null && (!inputs.containsKey(id) || inputs.get(id) == null)) {
+        missingRequiredFields.add(id);
+      }
     }
+    return missingRequiredFields;
   }
 
+  /**
+   * Translates inputs to the common format, relative file paths are resolved against the inputs file
+   */
+  private static Object translateInputs(Bindings bindings, Map<String, Object> inputs, Path inputsFile) throws BindingException {
+    Object commonInputs = bindings.translateToCommon(inputs);
+    if (inputsFile != null) {
+      FileValueHelper.updateFileValues(commonInputs, (FileValue fileValue) -> {
+        fixPaths(inputsFile, fileValue);
+        if (fileValue.getSecondaryFiles() != null)
+          for (FileValue sec : fileValue.getSecondaryFiles()) {
+            fixPaths(inputsFile, sec);
+          }
+        return fileValue;
+      });
+    }
+    return commonInputs;
+  }
+
+  private static Map<String, Object> createContextConfig(Map<String, Object> inputs, ProtocolType protocol) {
+    Map<String, Object> contextConfig = null;
+
+    Resources resources = extractResources(inputs, protocol);
+    if (resources != null) {
+      contextConfig = new HashMap<String, Object>();
+      if (resources.getCpu() != null) {
+        contextConfig.put("allocatedResources.cpu", resources.getCpu().toString());
+      }
+      if (resources.getMemMB() != null) {
+        contextConfig.put("allocatedResources.mem", resources.getMemMB().toString());
+      }
+    }
+    return contextConfig;
+  }
 
   private static void fixPaths(final Path finalInputs, FileValue f) {
     String path = f.getPath();
@@ -447,21 +609,21 @@ public class BackendCommandLine {
   /**
    * Prints resolved application on standard out
    */
-  private static void printResolvedAppAndExit(String appUrl) {
+  private static void printResolvedAppAndExit(String appUrl, PrintStream out) {
     Bindings bindings = null;
     Application application = null;
     try {
       bindings = BindingsFactory.create(appUrl);
       application = bindings.loadAppObject(appUrl);
 
-      System.out.println(BeanSerializer.serializePartial(application));
-      System.exit(0);
+      out.println(BeanSerializer.serializePartial(application));
+      throw new Exit(0);
     } catch (NotImplementedException e) {
       logger.error("Not implemented feature");
-      System.exit(33);
+      throw new Exit(33);
     } catch (BindingException e) {
       logger.error("Error: " + appUrl + " is not a valid app!");
-      System.exit(10);
+      throw new Exit(10);
     }
   }
 
@@ -491,6 +653,11 @@ public class BackendCommandLine {
     options.addOption(null, "tes-url", true, "url of the ga4gh task execution server instance (experimental)");
     options.addOption(null, "tes-storage", true, "path to the storage used by the ga4gh tes server (currently supports locall dirs and google storage cloud paths)");
     options.addOption(null, "enable-composer-logs", false, "enable additional logging required by Composer");
+    options.addOption(null, "batch", true, "run the app once for every input set in a directory of JSON or YAML files, or in a file with a JSON document per line");
+    options.addOption(null, "batch-jobs", true, "number of input sets of a batch run at the same time (default is the number of cores)");
+    options.addOption(null, "daemon", false, "start a warm engine process which runs the invocations submitted with --daemon-port");
+    options.addOption(null, "daemon-port", true, "loopback port of the daemon, the invocation is submitted to it instead of running in this process (also " + DAEMON_PORT_ENV + ")");
+    options.addOption(null, "daemon-jobs", true, "number of invocations the daemon runs at the same time (default 1)");
     // TODO: implement useful cli overrides for config options
 //    options.addOption(null, "set-ownership", false, "");
 //    options.addOption(null, "ownership-uid", true, "");
@@ -518,48 +685,56 @@ public class BackendCommandLine {
   /**
    * Prints command line usage
    */
-  private static void printUsageAndExit(Options options) {
+  private static void printUsageAndExit(Options options, PrintStream out) {
     HelpFormatter hf =new HelpFormatter();
     hf.setWidth(87);
     hf.setSyntaxPrefix("Usage: \n");
     final String usage = "    rabix [OPTIONS]... <app> <inputs> [-- input_parameters...]\n" +
-        "    rabix [OPTIONS]... <app> -- input_parameters...\n\n" +
+        "    rabix [OPTIONS]... <app> -- input_parameters...\n" +
+        "    rabix [OPTIONS]... --batch <input_sets> <app> [-- input_parameters...]\n\n" +
         "where:\n" +
         " <app>               is the path to a CWL document that describes the app.\n" +
         " <inputs>            is the JSON or YAML file that provides the values of app inputs.\n" +
+        " <input_sets>        is a directory of inputs files or a file with a JSON document per line.\n" +
         " input_parameters... are the app input values specified directly from the command line\n\n";
     final String header = "Executes CWL application with provided inputs.\n\nOptions:\n";
     final String footer = "\nInput parameters are specified at the end of the command, after the -- delimiter. You can specify values for each input, using the following format:\n" +
         "  --<input_port_id> <value>\n\n" +
             "Rabix suite homepage: http://rabix.io\n" +
             "Source and issue tracker: https://github.com/rabix/bunny.";
-    hf.printHelp(usage, header, options, footer);
-    System.exit(10);
+    printHelp(hf, out, usage, header, options, footer);
+    throw new Exit(10);
   }
 
-  private static void printAppUsageAndExit(Options options) {
+  private static void printAppUsageAndExit(Options options, PrintStream out) {
     HelpFormatter h = new HelpFormatter();
     h.setSyntaxPrefix("");
-    h.printHelp("Inputs for selected tool are: ", options);
-    System.exit(10);
+    printHelp(h, out, "Inputs for selected tool are: ", null, options, null);
+    throw new Exit(10);
   }
 
-  private static void printVersionAndExit(Options posixOptions) {
-    System.out.println("Rabix 1.0.5");
-    System.exit(0);
+  private static void printVersionAndExit(Options posixOptions, PrintStream out) {
+    out.println("Rabix 1.0.5");
+    throw new Exit(0);
   }
 
-  private static void printAppInvalidUsageAndExit(Options options) {
+  private static void printAppInvalidUsageAndExit(Options options, PrintStream out) {
     HelpFormatter h = new HelpFormatter();
     h.setSyntaxPrefix("");
-    h.printHelp("You have invalid inputs for the tool you provided. Valid inputs are: ", options);
-    System.exit(10);
+    printHelp(h, out, "You have invalid inputs for the tool you provided. Valid inputs are: ", null, options, null);
+    throw new Exit(10);
+  }
+
+  private static void printHelp(HelpFormatter helpFormatter, PrintStream out, String syntax, String header, Options options, String footer) {
+    PrintWriter writer = new PrintWriter(out);
+    helpFormatter.printHelp(writer, helpFormatter.getWidth(), syntax, header, options, helpFormatter.getLeftPadding(), helpFormatter.getDescPadding(), footer);
+    writer.flush();
   }
 
-  private static File getConfigDir(CommandLine commandLine, Options options) throws IOException, URISyntaxException {
+  private static File getConfigDir(CommandLine commandLine, Options options, CommandLineSession session) throws IOException, URISyntaxException {
     String configPath = commandLine.getOptionValue("configuration-dir");
     if (configPath != null) {
-      File config = new File(configPath);
+      File config = session.getWorkingDirectory().resolve(configPath).toFile();
       if (config.exists() && config.isDirectory()) {
         return config;
       } else {
@@ -579,7 +754,7 @@ public class BackendCommandLine {
     config = new File(homeDir, configDir);
     if (!config.exists() || !config.isDirectory()) {
       logger.info("Config directory doesn't exist or is not a directory");
-      printUsageAndExit(options);
+      printUsageAndExit(options, session.getOut());
     }
     return config;
   }
@@ -631,4 +806,19 @@ public class BackendCommandLine {
     return name + "-" + df.format(new Date());
   }
 
+  /**
+   * Ends the invocation with the given exit status
+   */
+  private static class Exit extends RuntimeException {
+
+    private static final long serialVersionUID = -2874510218371094318L;
+
+    private final int status;
+
+    Exit(int status) {
+      super(null, null, false, false);
+      this.status = status;
+    }
+  }
+
 }
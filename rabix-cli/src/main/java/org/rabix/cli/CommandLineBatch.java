@@ -0,0 +1,218 @@
+package org.rabix.cli;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.io.FilenameUtils;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.common.logging.VerboseLogger;
+
+/**
+ * Runs one application over many input sets in a single engine. At most the given number of roots run at the same
+ * time, every input set gets its own execution directory with an outputs.json, and progress is logged as sets finish.
+ */
+public class CommandLineBatch {
+
+  public static final String OUTPUTS_FILE = "outputs.json";
+
+  private final List<InputSet> inputSets;
+  private final Semaphore slots;
+  private final CommandLineSession session;
+
+  private final Map<UUID, InputSet> running = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Object>> results = Collections.synchronizedMap(new LinkedHashMap<>());
+
+  private int finished = 0;
+  private int failed = 0;
+  private boolean submitted = false;
+
+  public CommandLineBatch(List<InputSet> inputSets, int jobs, CommandLineSession session) {
+    this.inputSets = inputSets;
+    this.slots = new Semaphore(jobs);
+    this.session = session;
+    for (InputSet inputSet : inputSets) {
+      results.put(inputSet.getName(), null);
+    }
+  }
+
+  public static interface Starter {
+    /**
+     * Starts the root of an input set, returns the reason if it can't be started
+     */
+    String start(InputSet inputSet, UUID rootId) throws Exception;
+  }
+
+  /**
+   * Starts input sets as slots free up. Returns once every set has been started, the session is finished when the
+   * last one completes.
+   */
+  public void run(Starter starter) throws InterruptedException {
+    for (InputSet inputSet : inputSets) {
+      slots.acquire();
+      UUID rootId = UUID.randomUUID();
+      running.put(rootId, inputSet);
+      String error;
+      try {
+        error = starter.start(inputSet, rootId);
+      } catch (Exception e) {
+        error = e.getMessage() != null ? e.getMessage() : e.toString();
+      }
+      if (error != null) {
+        failed(rootId, error);
+      }
+    }
+    synchronized (this) {
+      submitted = true;
+      finishIfDone();
+    }
+  }
+
+  public boolean contains(UUID rootId) {
+    return running.containsKey(rootId);
+  }
+
+  public void completed(UUID rootId, Map<String, Object> outputs) throws IOException {
+    InputSet inputSet = running.get(rootId);
+    Path outputsFile = inputSet.getDirectory().resolve(OUTPUTS_FILE);
+    Files.createDirectories(inputSet.getDirectory());
+    Files.write(outputsFile, JSONHelper.mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(outputs));
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("status", "COMPLETED");
+    result.put("outputs", outputsFile.toString());
+    finish(rootId, result);
+  }
+
+  public void failed(UUID rootId, String message) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("status", "FAILED");
+    result.put("message", message);
+    finish(rootId, result);
+  }
+
+  private void finish(UUID rootId, Map<String, Object> result) {
+    InputSet inputSet = running.remove(rootId);
+    if (inputSet == null) {
+      return;
+    }
+    result.put("directory", inputSet.getDirectory().toString());
+    results.put(inputSet.getName(), result);
+    slots.release();
+
+    synchronized (this) {
+      finished++;
+      if (!"COMPLETED".equals(result.get("status"))) {
+        failed++;
+      }
+      VerboseLogger.log(String.format("[%d/%d] %s %s", finished, inputSets.size(), inputSet.getName(),
+          result.containsKey("message") ? "failed: " + result.get("message") : "completed"));
+      finishIfDone();
+    }
+  }
+
+  private void finishIfDone() {
+    if (!submitted || finished < inputSets.size()) {
+      return;
+    }
+    VerboseLogger.log(String.format("Batch finished, %d of %d input sets failed.", failed, inputSets.size()));
+    try {
+      session.getOut().println(JSONHelper.mapper.writerWithDefaultPrettyPrinter().writeValueAsString(results));
+    } catch (IOException e) {
+      VerboseLogger.log("Failed to write the batch summary: " + e.getMessage());
+    }
+    session.finish(failed == 0 ? 0 : 1);
+  }
+
+  /**
+   * Reads input sets from a directory of JSON or YAML files, or from a file with a JSON document per line.
+   * Every set runs in a directory named after it under the given directory, so files which differ only in their
+   * extension are rejected.
+   */
+  public static List<InputSet> read(Path path, Path directory) throws IOException {
+    List<InputSet> inputSets = new ArrayList<>();
+    if (Files.isDirectory(path)) {
+      List<Path> files = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.{json,yaml,yml}")) {
+        stream.forEach(files::add);
+      }
+      Collections.sort(files);
+      Map<String, Path> names = new HashMap<>();
+      for (Path file : files) {
+        String name = FilenameUtils.getBaseName(file.toString());
+        Path previous = names.put(name, file);
+        if (previous != null) {
+          throw new IOException(String.format("Input sets %s and %s would both run in %s, rename one of them.", previous.getFileName(), file.getFileName(), directory.resolve(name)));
+        }
+        String text = new String(Files.readAllBytes(file), Charset.defaultCharset());
+        inputSets.add(new InputSet(name, file, parse(text, file.toString()), directory.resolve(name)));
+      }
+    } else {
+      String baseName = FilenameUtils.getBaseName(path.toString());
+      List<String> lines = Files.readAllLines(path, Charset.defaultCharset());
+      for (int i = 0; i < lines.size(); i++) {
+        if (lines.get(i).trim().isEmpty()) {
+          continue;
+        }
+        String name = baseName + "-" + (i + 1);
+        inputSets.add(new InputSet(name, path, parse(lines.get(i), path + ":" + (i + 1)), directory.resolve(name)));
+      }
+    }
+    return inputSets;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> parse(String text, String source) throws IOException {
+    try {
+      return (Map<String, Object>) JSONHelper.transform(JSONHelper.readJsonNode(text), false);
+    } catch (IllegalStateException | ClassCastException e) {
+      throw new IOException("Invalid input set in " + source + ": " + e.getMessage(), e);
+    }
+  }
+
+  public static class InputSet {
+
+    private final String name;
+    private final Path source;
+    private final Map<String, Object> inputs;
+    private final Path directory;
+
+    public InputSet(String name, Path source, Map<String, Object> inputs, Path directory) {
+      this.name = name;
+      this.source = source;
+      this.inputs = inputs;
+      this.directory = directory;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * File the inputs were read from, relative paths in them are resolved against it
+     */
+    public Path getSource() {
+      return source;
+    }
+
+    public Map<String, Object> getInputs() {
+      return inputs;
+    }
+
+    public Path getDirectory() {
+      return directory;
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+package org.rabix.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import org.rabix.common.logging.VerboseLogger;
+
+/**
+ * Submits an invocation to a {@link CommandLineDaemon} and copies what it sends back to standard out and error
+ */
+public class CommandLineClient {
+
+  /**
+   * Returns the exit status of the invocation
+   */
+  public static int submit(int port, String[] arguments) {
+    return submit(port, arguments, System.getenv());
+  }
+
+  /**
+   * The daemon refuses invocations whose variables for finding and running tools differ from its own
+   */
+  static int submit(int port, String[] arguments, Map<String, String> environment) {
+    Path tokenFile = CommandLineDaemon.tokenFile(port);
+    String token;
+    try {
+      token = new String(Files.readAllBytes(tokenFile), StandardCharsets.UTF_8).trim();
+    } catch (IOException e) {
+      VerboseLogger.log(String.format("Rabix daemon is not running on port %d, %s can't be read.", port, tokenFile));
+      return 10;
+    }
+
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeUTF(token);
+      out.writeUTF(Paths.get("").toAbsolutePath().toString());
+      out.writeInt(environment.size());
+      for (Map.Entry<String, String> variable : environment.entrySet()) {
+        out.writeUTF(variable.getKey());
+        out.writeUTF(variable.getValue());
+      }
+      out.writeInt(arguments.length);
+      for (String argument : arguments) {
+        out.writeUTF(argument);
+      }
+      out.flush();
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      while (true) {
+        byte type = in.readByte();
+        if (type == CommandLineDaemon.EXIT) {
+          System.out.flush();
+          return in.readInt();
+        }
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        PrintStream target = type == CommandLineDaemon.OUT ? System.out : System.err;
+        target.write(data);
+        target.flush();
+      }
+    } catch (ConnectException e) {
+      // a killed daemon leaves its token behind
+      deleteStaleToken(tokenFile, token);
+      VerboseLogger.log(String.format("Rabix daemon is not running on port %d.", port));
+      return 10;
+    } catch (EOFException e) {
+      VerboseLogger.log("Rabix daemon closed the connection before the invocation finished.");
+      return 10;
+    } catch (IOException e) {
+      VerboseLogger.log(String.format("Failed to submit to the rabix daemon on port %d: %s", port, e.getMessage()));
+      return 10;
+    }
+  }
+
+  /**
+   * Deletes the token file unless a daemon started since wrote a new token to it
+   */
+  private static void deleteStaleToken(Path tokenFile, String token) {
+    try {
+      if (token.equals(new String(Files.readAllBytes(tokenFile), StandardCharsets.UTF_8).trim())) {
+        Files.deleteIfExists(tokenFile);
+      }
+    } catch (IOException e) {
+      // already deleted or replaced
+    }
+  }
+
+}
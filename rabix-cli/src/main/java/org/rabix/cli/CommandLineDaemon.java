@@ -0,0 +1,326 @@
+package org.rabix.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.rabix.common.retry.RetryMethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Long-lived process which runs command line invocations submitted by {@link CommandLineClient}, so they don't pay
+ * for JVM startup and cold class loading and JIT. It listens on a loopback port and accepts only clients which can read
+ * the token file in the user's home directory.
+ *
+ * Every invocation gets its own {@link CommandLineSession} with the client's working directory and its own injector
+ * and configuration, as a separate process would. Its output and the log lines of the threads it started are sent
+ * back to the client. Tools run with the daemon's environment, so invocations from a client whose
+ * variables for finding and running tools differ are refused.
+ */
+public class CommandLineDaemon {
+
+  private static final Logger logger = LoggerFactory.getLogger(CommandLineDaemon.class);
+
+  static final byte OUT = 'O';
+  static final byte ERR = 'E';
+  static final byte EXIT = 'X';
+
+  private static final String LOG_PATTERN = "[%d{yyyy-MM-dd HH:mm:ss.SSS}] [%level] %msg%n";
+
+  /**
+   * Variables which change how tools are found and run. Others, like the ones batch schedulers and terminals set for
+   * every job, may differ between the client and the daemon.
+   */
+  private static final Set<String> COMPARED_VARIABLES = new HashSet<>(Arrays.asList("PATH", "HOME", "LD_LIBRARY_PATH", "PYTHONPATH",
+      "DOCKER_HOST", "DOCKER_TLS_VERIFY", "DOCKER_CERT_PATH", "DOCKER_CONFIG", "http_proxy", "https_proxy", "no_proxy"));
+
+  private final int port;
+  private final Semaphore slots;
+  private final String token;
+
+  private final AtomicLong invocations = new AtomicLong();
+  private final Map<ThreadGroup, CommandLineSession> sessions = new ConcurrentHashMap<>();
+
+  private volatile ServerSocket serverSocket;
+
+  public CommandLineDaemon(int port, int jobs) {
+    this.port = port;
+    this.slots = new Semaphore(jobs, true);
+
+    byte[] random = new byte[32];
+    new SecureRandom().nextBytes(random);
+    this.token = BaseEncoding.base16().lowerCase().encode(random);
+  }
+
+  /**
+   * Serves invocations until the process is killed or {@link #stop()} is called
+   */
+  public void run() throws IOException {
+    try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+      this.serverSocket = serverSocket;
+      Path tokenFile = writeToken();
+      Thread deleteToken = new Thread(() -> deleteToken(tokenFile), "rabix-daemon-shutdown");
+      Runtime.getRuntime().addShutdownHook(deleteToken);
+      initializeSharedPools();
+      installSessionAppender();
+      logger.info("Rabix daemon listening on {}", serverSocket.getLocalSocketAddress());
+      try {
+        while (!serverSocket.isClosed()) {
+          Socket socket = serverSocket.accept();
+          ThreadGroup group = new ThreadGroup("rabix-invocation-" + invocations.incrementAndGet());
+          Thread thread = new Thread(group, () -> serve(socket, group), group.getName());
+          thread.start();
+        }
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          throw e;
+        }
+      } finally {
+        deleteToken(tokenFile);
+        Runtime.getRuntime().removeShutdownHook(deleteToken);
+      }
+    }
+  }
+
+  /**
+   * Stops accepting invocations, the ones already running aren't interrupted
+   */
+  public void stop() throws IOException {
+    ServerSocket serverSocket = this.serverSocket;
+    if (serverSocket != null) {
+      serverSocket.close();
+    }
+  }
+
+  private void serve(Socket socket, ThreadGroup group) {
+    try (Socket client = socket) {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+
+      if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), in.readUTF().getBytes(StandardCharsets.UTF_8))) {
+        logger.warn("Rejected a connection from {} with an invalid token", client.getRemoteSocketAddress());
+        return;
+      }
+      Path workingDirectory = Paths.get(in.readUTF());
+      Map<String, String> environment = new HashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        environment.put(in.readUTF(), in.readUTF());
+      }
+      String[] arguments = new String[in.readInt()];
+      for (int i = 0; i < arguments.length; i++) {
+        arguments[i] = in.readUTF();
+      }
+
+      Set<String> differences = environmentDifferences(environment, System.getenv());
+      if (!differences.isEmpty()) {
+        logger.warn("Refused {}, environment differs in {}", group.getName(), differences);
+        frames(out, ERR).println("Rabix daemon on port " + port + " runs with a different environment (" + String.join(", ", differences)
+            + "). Restart it from this environment or run without --daemon-port.");
+        exit(out, 10);
+        return;
+      }
+
+      CommandLineSession session = new CommandLineSession(workingDirectory, frames(out, OUT), frames(out, ERR));
+      slots.acquire();
+      try {
+        sessions.put(group, session);
+        logger.info("Running {} in {}", group.getName(), workingDirectory);
+        int status = BackendCommandLine.run(arguments, session);
+        session.getErr().flush();
+        exit(out, status);
+        logger.info("Finished {} with status {}", group.getName(), status);
+      } finally {
+        session.close();
+        slots.release();
+      }
+    } catch (IOException e) {
+      logger.warn("Lost connection to the client of {}", group.getName(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      sessions.remove(group);
+    }
+  }
+
+  private static void exit(DataOutputStream out, int status) throws IOException {
+    synchronized (out) {
+      out.writeByte(EXIT);
+      out.writeInt(status);
+      out.flush();
+    }
+  }
+
+  /**
+   * Names of the compared variables set differently in the client's environment, values aren't reported
+   */
+  static Set<String> environmentDifferences(Map<String, String> client, Map<String, String> daemon) {
+    Set<String> names = new TreeSet<>(COMPARED_VARIABLES);
+    names.removeIf(name -> Objects.equals(client.get(name), daemon.get(name)));
+    return names;
+  }
+
+  /**
+   * Session a log line of the thread belongs to. Threads started by an invocation inherit its thread group. Other
+   * threads, and threads of an invocation which already finished, belong to an invocation only if it's the only one
+   * running, their lines are kept in the daemon's log otherwise.
+   */
+  static CommandLineSession session(Thread thread, Map<ThreadGroup, CommandLineSession> sessions) {
+    for (ThreadGroup group = thread.getThreadGroup(); group != null; group = group.getParent()) {
+      CommandLineSession session = sessions.get(group);
+      if (session != null) {
+        return session;
+      }
+    }
+    Iterator<CommandLineSession> running = sessions.values().iterator();
+    if (running.hasNext()) {
+      CommandLineSession session = running.next();
+      return running.hasNext() ? null : session;
+    }
+    return null;
+  }
+
+  /**
+   * Thread factories of static pools take the group of the thread which created them, pools created here don't join
+   * the group of the first invocation which used them
+   */
+  private static void initializeSharedPools() {
+    try {
+      Class.forName(RetryMethodInterceptor.class.getName(), true, CommandLineDaemon.class.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Token file which a client connecting to the port has to read, only the owner can read it
+   */
+  static Path tokenFile(int port) {
+    return Paths.get(System.getProperty("user.home"), ".bunny", "daemon-" + port + ".token");
+  }
+
+  private Path writeToken() throws IOException {
+    Path tokenFile = tokenFile(port);
+    Files.createDirectories(tokenFile.getParent());
+    Files.deleteIfExists(tokenFile);
+    try {
+      Files.createFile(tokenFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } catch (UnsupportedOperationException e) {
+      Files.createFile(tokenFile);
+    }
+    Files.write(tokenFile, token.getBytes(StandardCharsets.UTF_8));
+    return tokenFile;
+  }
+
+  private static void deleteToken(Path tokenFile) {
+    try {
+      Files.deleteIfExists(tokenFile);
+    } catch (IOException e) {
+      logger.warn("Failed to delete {}", tokenFile, e);
+    }
+  }
+
+  /**
+   * Sends log lines to the session the logging thread belongs to, see {@link #session(Thread, Map)}
+   */
+  private void installSessionAppender() {
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    PatternLayout layout = new PatternLayout();
+    layout.setContext(context);
+    layout.setPattern(LOG_PATTERN);
+    layout.start();
+
+    AppenderBase<ILoggingEvent> appender = new AppenderBase<ILoggingEvent>() {
+      @Override
+      protected void append(ILoggingEvent event) {
+        CommandLineSession session = session(Thread.currentThread(), sessions);
+        if (session != null) {
+          session.getErr().print(layout.doLayout(event));
+        }
+      }
+    };
+    appender.setContext(context);
+    appender.setName("SESSION");
+    appender.start();
+    context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).addAppender(appender);
+  }
+
+  private static PrintStream frames(DataOutputStream out, byte type) {
+    try {
+      return new PrintStream(new FrameOutputStream(out, type), true, StandardCharsets.UTF_8.name());
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Writes every chunk as a frame of the given type, streams of one client share the connection
+   */
+  private static class FrameOutputStream extends OutputStream {
+
+    private final DataOutputStream out;
+    private final byte type;
+    private volatile boolean closed = false;
+
+    FrameOutputStream(DataOutputStream out, byte type) {
+      this.out = out;
+      this.type = type;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (closed || len == 0) {
+        return;
+      }
+      synchronized (out) {
+        try {
+          out.writeByte(type);
+          out.writeInt(len);
+          out.write(b, off, len);
+          out.flush();
+        } catch (IOException e) {
+          // the client went away, the invocation keeps running
+          closed = true;
+        }
+      }
+    }
+  }
+
+}
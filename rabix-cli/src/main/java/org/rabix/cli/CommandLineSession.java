@@ -0,0 +1,83 @@
+package org.rabix.cli;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * One invocation of the command line. Relative paths are resolved against its working directory, results are
+ * printed to its output and the exit status is reported through it instead of exiting the JVM, so several invocations
+ * can be served by a single process.
+ */
+public class CommandLineSession {
+
+  private final Path workingDirectory;
+  private final PrintStream out;
+  private final PrintStream err;
+
+  private final CompletableFuture<Integer> status = new CompletableFuture<>();
+  private final List<Runnable> closeHooks = new CopyOnWriteArrayList<>();
+
+  public CommandLineSession(Path workingDirectory, PrintStream out, PrintStream err) {
+    this.workingDirectory = workingDirectory.toAbsolutePath().normalize();
+    this.out = out;
+    this.err = err;
+  }
+
+  public Path getWorkingDirectory() {
+    return workingDirectory;
+  }
+
+  public PrintStream getOut() {
+    return out;
+  }
+
+  public PrintStream getErr() {
+    return err;
+  }
+
+  /**
+   * Finishes the invocation, only the first status is kept
+   */
+  public void finish(int exitStatus) {
+    out.flush();
+    status.complete(exitStatus);
+  }
+
+  public boolean isFinished() {
+    return status.isDone();
+  }
+
+  /**
+   * Registers cleanup of what the invocation started, run by {@link #close()}
+   */
+  public void onClose(Runnable hook) {
+    closeHooks.add(hook);
+  }
+
+  /**
+   * Stops the threads of a finished invocation, a process serving several invocations must call it after each one
+   */
+  public void close() {
+    for (Runnable hook : closeHooks) {
+      try {
+        hook.run();
+      } catch (RuntimeException e) {
+        err.println("Failed to clean up the invocation: " + e.getMessage());
+      }
+    }
+    closeHooks.clear();
+  }
+
+  public int awaitStatus() throws InterruptedException {
+    try {
+      return status.get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+}
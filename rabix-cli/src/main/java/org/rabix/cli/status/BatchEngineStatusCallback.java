@@ -0,0 +1,66 @@
+package org.rabix.cli.status;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.BindingException;
+import org.rabix.bindings.Bindings;
+import org.rabix.bindings.BindingsFactory;
+import org.rabix.bindings.model.Job;
+import org.rabix.cli.CommandLineBatch;
+import org.rabix.cli.CommandLineSession;
+import org.rabix.engine.service.BackendService;
+import org.rabix.engine.service.JobService;
+import org.rabix.engine.status.EngineStatusCallbackException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reports finished roots of a batch run to the batch instead of ending the invocation
+ */
+public class BatchEngineStatusCallback extends LocalBackendEngineStatusCallback {
+
+    private final Logger logger = LoggerFactory.getLogger(BatchEngineStatusCallback.class);
+
+    private final JobService jobService;
+    private final CommandLineBatch batch;
+
+    @Inject
+    public BatchEngineStatusCallback(BackendService backendService, JobService jobService, Configuration configuration, CommandLineSession session, CommandLineBatch batch) {
+        super(backendService, jobService, configuration, session);
+        this.jobService = jobService;
+        this.batch = batch;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onJobRootCompleted(UUID rootId) throws EngineStatusCallbackException {
+        if (!batch.contains(rootId)) {
+            return;
+        }
+        Job rootJob = jobService.get(rootId);
+        if (!rootJob.getStatus().equals(Job.JobStatus.COMPLETED)) {
+            batch.failed(rootId, "Failed to execute a Job");
+            return;
+        }
+        try {
+            Bindings bindings = BindingsFactory.create(rootJob);
+            batch.completed(rootId, (Map<String, Object>) bindings.translateToSpecific(rootJob.getOutputs()));
+        } catch (BindingException e) {
+            logger.error("Failed to translate common outputs to native", e);
+            batch.failed(rootId, "Failed to translate outputs: " + e.getMessage());
+        } catch (IOException e) {
+            logger.error("Failed to write outputs", e);
+            batch.failed(rootId, "Failed to write outputs: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onJobRootFailed(UUID rootId, String message) throws EngineStatusCallbackException {
+        batch.failed(rootId, message);
+    }
+
+}
@@ -6,6 +6,7 @@ import org.rabix.bindings.BindingException;
 import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
 import org.rabix.bindings.model.Job;
+import org.rabix.cli.CommandLineSession;
 import org.rabix.common.helper.JSONHelper;
 import org.rabix.common.logging.VerboseLogger;
 import org.rabix.engine.service.BackendService;
@@ -26,12 +27,14 @@ public class LocalBackendEngineStatusCallback extends DefaultEngineStatusCallbac
 
     private final JobService jobService;
     private final Configuration configuration;
+    private final CommandLineSession session;
 
     @Inject
-    public LocalBackendEngineStatusCallback(BackendService backendService, JobService jobService, Configuration configuration) {
+    public LocalBackendEngineStatusCallback(BackendService backendService, JobService jobService, Configuration configuration, CommandLineSession session) {
         super(backendService);
         this.jobService = jobService;
         this.configuration = configuration;
+        this.session = session;
     }
 
     @Override
@@ -43,26 +46,27 @@ public class LocalBackendEngineStatusCallback extends DefaultEngineStatusCallbac
                 try {
                     Bindings bindings = BindingsFactory.create(rootJob);
                     Map<String, Object> outputs = (Map<String, Object>) bindings.translateToSpecific(rootJob.getOutputs());
-                    System.out.println(JSONHelper.mapper.writerWithDefaultPrettyPrinter().writeValueAsString(outputs));
-                    System.exit(0);
+                    session.getOut().println(JSONHelper.mapper.writerWithDefaultPrettyPrinter().writeValueAsString(outputs));
+                    session.finish(0);
                 } catch (BindingException e) {
                     logger.error("Failed to translate common outputs to native", e);
+                    session.finish(10);
                     throw new RuntimeException(e);
                 }
             } catch (JsonProcessingException e) {
                 logger.error("Failed to write outputs to standard out", e);
-                System.exit(10);
+                session.finish(10);
             }
         } else {
             VerboseLogger.log("Failed to execute a Job");
-            System.exit(10);
+            session.finish(10);
         }
     }
     
     @Override
     public void onJobRootFailed(UUID rootId, String message) throws EngineStatusCallbackException {
-      System.out.println(message);
-      System.exit(1);
+      session.getOut().println(message);
+      session.finish(1);
     }
 
     @Override public void onJobReady(Job job) throws EngineStatusCallbackException {
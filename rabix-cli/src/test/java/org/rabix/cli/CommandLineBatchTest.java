@@ -0,0 +1,89 @@
+package org.rabix.cli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.rabix.cli.CommandLineBatch.InputSet;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class CommandLineBatchTest {
+
+  private Path directory;
+  private Path executions;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("rabix-batch");
+    executions = directory.resolve("executions");
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  public void testReadDirectory() throws IOException {
+    Path sets = Files.createDirectory(directory.resolve("sets"));
+    write(sets.resolve("b.yaml"), "x: 2\n");
+    write(sets.resolve("a.json"), "{\"x\": 1}");
+    write(sets.resolve("notes.txt"), "not an input set");
+
+    List<InputSet> inputSets = CommandLineBatch.read(sets, executions);
+    Assert.assertEquals(inputSets.size(), 2);
+    Assert.assertEquals(inputSets.get(0).getName(), "a");
+    Assert.assertEquals(inputSets.get(0).getInputs(), Collections.singletonMap("x", 1));
+    Assert.assertEquals(inputSets.get(0).getSource(), sets.resolve("a.json"));
+    Assert.assertEquals(inputSets.get(0).getDirectory(), executions.resolve("a"));
+    Assert.assertEquals(inputSets.get(1).getName(), "b");
+    Assert.assertEquals(inputSets.get(1).getInputs(), Collections.singletonMap("x", 2));
+  }
+
+  @Test
+  public void testReadLines() throws IOException {
+    Path sets = directory.resolve("sets.jsonl");
+    write(sets, "{\"x\": 1}\n\n{\"x\": 3}\n");
+
+    List<InputSet> inputSets = CommandLineBatch.read(sets, executions);
+    Assert.assertEquals(inputSets.size(), 2);
+    Assert.assertEquals(inputSets.get(0).getName(), "sets-1");
+    // names follow line numbers, blank lines included
+    Assert.assertEquals(inputSets.get(1).getName(), "sets-3");
+    Assert.assertEquals(inputSets.get(1).getInputs(), Collections.singletonMap("x", 3));
+    Assert.assertEquals(inputSets.get(1).getDirectory(), executions.resolve("sets-3"));
+  }
+
+  @Test
+  public void testSameNameIsRejected() throws IOException {
+    Path sets = Files.createDirectory(directory.resolve("sets"));
+    write(sets.resolve("a.json"), "{\"x\": 1}");
+    write(sets.resolve("a.yaml"), "x: 2\n");
+    try {
+      CommandLineBatch.read(sets, executions);
+      Assert.fail("input sets with the same name were read");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("a.json and a.yaml"), e.getMessage());
+    }
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testInvalidInputSet() throws IOException {
+    Path sets = directory.resolve("sets.jsonl");
+    write(sets, "[1, 2]\n");
+    CommandLineBatch.read(sets, executions);
+  }
+
+  private static void write(Path file, String text) throws IOException {
+    Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
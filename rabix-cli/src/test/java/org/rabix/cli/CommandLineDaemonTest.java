@@ -0,0 +1,159 @@
+package org.rabix.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class CommandLineDaemonTest {
+
+  private String home;
+  private Path directory;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    home = System.getProperty("user.home");
+    directory = Files.createTempDirectory("rabix-daemon");
+    System.setProperty("user.home", directory.toString());
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    System.setProperty("user.home", home);
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  public void testEnvironmentDifferences() {
+    Map<String, String> daemon = new HashMap<>();
+    daemon.put("PATH", "/usr/bin");
+    daemon.put("HOME", "/home/user");
+    daemon.put("PWD", "/home/user");
+    daemon.put("TMPDIR", "/tmp");
+    Map<String, String> client = new HashMap<>(daemon);
+    // set per job by batch schedulers, terminals and ssh
+    client.put("PWD", "/data");
+    client.put("TMPDIR", "/scratch/job-42");
+    client.put("PBS_JOBID", "42");
+    client.put("TERM_SESSION_ID", "w0t0p0");
+    client.put("SSH_CONNECTION", "10.0.0.1 50000 10.0.0.2 22");
+    client.put(BackendCommandLine.DAEMON_PORT_ENV, "8757");
+    Assert.assertTrue(CommandLineDaemon.environmentDifferences(client, daemon).isEmpty());
+
+    client.put("PATH", "/opt/tool/bin:/usr/bin");
+    client.remove("HOME");
+    client.put("DOCKER_HOST", "tcp://localhost:2375");
+    Assert.assertEquals(CommandLineDaemon.environmentDifferences(client, daemon).toString(), "[DOCKER_HOST, HOME, PATH]");
+  }
+
+  @Test
+  public void testSessionOfThread() throws InterruptedException {
+    Map<ThreadGroup, CommandLineSession> sessions = new ConcurrentHashMap<>();
+    ThreadGroup first = new ThreadGroup("rabix-invocation-1");
+    ThreadGroup second = new ThreadGroup("rabix-invocation-2");
+    CommandLineSession firstSession = session();
+    CommandLineSession secondSession = session();
+    sessions.put(first, firstSession);
+
+    // threads started by an invocation, directly or not, belong to it
+    Assert.assertSame(sessionOf(new ThreadGroup(first, "executor"), sessions), firstSession);
+    // a pooled thread which isn't part of any invocation reaches the only one running
+    Assert.assertSame(CommandLineDaemon.session(Thread.currentThread(), sessions), firstSession);
+
+    sessions.put(second, secondSession);
+    Assert.assertSame(sessionOf(second, sessions), secondSession);
+    Assert.assertNull(CommandLineDaemon.session(Thread.currentThread(), sessions));
+
+    // threads left over from a finished invocation are shared threads now
+    sessions.remove(first);
+    Assert.assertSame(sessionOf(first, sessions), secondSession);
+    sessions.remove(second);
+    Assert.assertNull(sessionOf(first, sessions));
+  }
+
+  @Test
+  public void testStaleTokenIsDeleted() throws IOException {
+    int port = freePort();
+    Path tokenFile = CommandLineDaemon.tokenFile(port);
+    Files.createDirectories(tokenFile.getParent());
+    Files.write(tokenFile, "stale".getBytes(StandardCharsets.UTF_8));
+
+    Assert.assertEquals(CommandLineClient.submit(port, new String[] { "--version" }), 10);
+    Assert.assertFalse(Files.exists(tokenFile));
+  }
+
+  @Test
+  public void testDifferentEnvironmentIsRefused() throws Exception {
+    int port = freePort();
+    CommandLineDaemon daemon = new CommandLineDaemon(port, 1);
+    Thread thread = new Thread(() -> {
+      try {
+        daemon.run();
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    thread.start();
+    Path tokenFile = CommandLineDaemon.tokenFile(port);
+    for (int i = 0; i < 100 && !Files.exists(tokenFile); i++) {
+      Thread.sleep(50);
+    }
+
+    Map<String, String> environment = new HashMap<>(System.getenv());
+    environment.put("DOCKER_CONFIG", environment.getOrDefault("DOCKER_CONFIG", "") + "/client");
+    PrintStream err = System.err;
+    ByteArrayOutputStream refusal = new ByteArrayOutputStream();
+    System.setErr(new PrintStream(refusal, true));
+    try {
+      Assert.assertEquals(CommandLineClient.submit(port, new String[] { "--version" }, environment), 10);
+    } finally {
+      System.setErr(err);
+    }
+    Assert.assertTrue(refusal.toString().contains("(DOCKER_CONFIG)"), refusal.toString());
+    Assert.assertFalse(refusal.toString().contains("client"), refusal.toString());
+
+    daemon.stop();
+    thread.join(5000);
+    Assert.assertFalse(thread.isAlive());
+    Assert.assertFalse(Files.exists(tokenFile));
+  }
+
+  private static CommandLineSession sessionOf(ThreadGroup group, Map<ThreadGroup, CommandLineSession> sessions) throws InterruptedException {
+    AtomicReference<CommandLineSession> session = new AtomicReference<>();
+    CountDownLatch done = new CountDownLatch(1);
+    new Thread(group, () -> {
+      session.set(CommandLineDaemon.session(Thread.currentThread(), sessions));
+      done.countDown();
+    }).start();
+    done.await();
+    return session.get();
+  }
+
+  private static CommandLineSession session() {
+    PrintStream stream = new PrintStream(new ByteArrayOutputStream());
+    return new CommandLineSession(Paths.get(""), stream, stream);
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+}
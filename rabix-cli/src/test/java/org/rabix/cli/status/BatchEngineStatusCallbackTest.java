@@ -0,0 +1,128 @@
+package org.rabix.cli.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.configuration.MapConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.cli.CommandLineBatch;
+import org.rabix.cli.CommandLineBatch.InputSet;
+import org.rabix.cli.CommandLineSession;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.service.JobService;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+@Test(groups = { "functional" })
+public class BatchEngineStatusCallbackTest {
+
+  private static final String TOOL = "cwlVersion: v1.0\nclass: CommandLineTool\nbaseCommand: echo\ninputs: []\noutputs:\n  out:\n    type: string\n";
+
+  private Path directory;
+  private Map<UUID, Job> jobs;
+  private ByteArrayOutputStream out;
+  private CommandLineSession session;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("rabix-batch");
+    jobs = new HashMap<>();
+    out = new ByteArrayOutputStream();
+    session = new CommandLineSession(directory, new PrintStream(out, true), new PrintStream(new ByteArrayOutputStream()));
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  @Test
+  public void testFinishedRootsAreCounted() throws Exception {
+    Path tool = directory.resolve("tool.cwl");
+    Files.write(tool, TOOL.getBytes(StandardCharsets.UTF_8));
+    List<InputSet> inputSets = new ArrayList<>();
+    for (String name : Arrays.asList("completed", "failed", "aborted", "rejected")) {
+      inputSets.add(new InputSet(name, tool, Collections.emptyMap(), directory.resolve(name)));
+    }
+    CommandLineBatch batch = new CommandLineBatch(inputSets, inputSets.size(), session);
+    Map<String, UUID> roots = new HashMap<>();
+    batch.run((inputSet, rootId) -> {
+      roots.put(inputSet.getName(), rootId);
+      return inputSet.getName().equals("rejected") ? "Missing inputs" : null;
+    });
+    Assert.assertFalse(session.isFinished());
+
+    BatchEngineStatusCallback callback = new BatchEngineStatusCallback(null, jobService(), new MapConfiguration(new HashMap<>()), session, batch);
+    root(roots.get("completed"), tool, JobStatus.COMPLETED, Collections.singletonMap("out", "value"));
+    root(roots.get("failed"), tool, JobStatus.FAILED, null);
+    // roots of other invocations and roots reported twice aren't counted
+    callback.onJobRootCompleted(UUID.randomUUID());
+    callback.onJobRootCompleted(roots.get("completed"));
+    callback.onJobRootFailed(roots.get("completed"), "Reported again");
+    callback.onJobRootCompleted(roots.get("failed"));
+    Assert.assertFalse(session.isFinished());
+    callback.onJobRootFailed(roots.get("aborted"), "Aborted");
+
+    Assert.assertTrue(session.isFinished());
+    Assert.assertEquals(session.awaitStatus(), 1);
+    Path outputs = directory.resolve("completed").resolve(CommandLineBatch.OUTPUTS_FILE);
+    Assert.assertEquals(JSONHelper.readMap(new String(Files.readAllBytes(outputs), StandardCharsets.UTF_8)), Collections.singletonMap("out", "value"));
+
+    JsonNode summary = JSONHelper.readJsonNode(out.toString());
+    Assert.assertEquals(summary.size(), 4);
+    Assert.assertEquals(summary.get("completed").get("status").asText(), "COMPLETED");
+    Assert.assertEquals(summary.get("completed").get("outputs").asText(), outputs.toString());
+    Assert.assertEquals(summary.get("failed").get("status").asText(), "FAILED");
+    Assert.assertEquals(summary.get("aborted").get("message").asText(), "Aborted");
+    Assert.assertEquals(summary.get("rejected").get("message").asText(), "Missing inputs");
+  }
+
+  @Test
+  public void testCompletedBatch() throws Exception {
+    Path tool = directory.resolve("tool.cwl");
+    Files.write(tool, TOOL.getBytes(StandardCharsets.UTF_8));
+    InputSet inputSet = new InputSet("only", tool, Collections.emptyMap(), directory.resolve("only"));
+    CommandLineBatch batch = new CommandLineBatch(Collections.singletonList(inputSet), 1, session);
+    List<UUID> roots = new ArrayList<>();
+    batch.run((started, rootId) -> {
+      roots.add(rootId);
+      return null;
+    });
+
+    root(roots.get(0), tool, JobStatus.COMPLETED, Collections.singletonMap("out", "value"));
+    new BatchEngineStatusCallback(null, jobService(), new MapConfiguration(new HashMap<>()), session, batch).onJobRootCompleted(roots.get(0));
+    Assert.assertEquals(session.awaitStatus(), 0);
+  }
+
+  private void root(UUID rootId, Path tool, JobStatus status, Map<String, Object> outputs) {
+    jobs.put(rootId, new Job(rootId, null, rootId, "root", tool.toUri().toString(), status, null, Collections.emptyMap(), outputs, null, null, null));
+  }
+
+  private JobService jobService() {
+    return (JobService) Proxy.newProxyInstance(JobService.class.getClassLoader(), new Class<?>[] { JobService.class }, (proxy, method, args) -> {
+      if (method.getName().equals("get")) {
+        return jobs.get(args[0]);
+      }
+      throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+}
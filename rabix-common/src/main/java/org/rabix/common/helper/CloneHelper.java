@@ -5,6 +5,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +28,44 @@ public class CloneHelper {
   private CloneHelper() {
   }
 
+  /**
+   * Copies maps, lists and sets of the common JDK types and {@link DeepCopyable} values structurally and shares
+   * immutable leaves (strings, boxed primitives, enums, UUIDs). Other types are copied by Java serialization.
+   * Values are copied as trees, an object referenced twice is copied twice.
+   */
   public static Object deepCopy(Object oldObj) {
+    if (oldObj == null || isImmutable(oldObj)) {
+      return oldObj;
+    }
+    if (oldObj instanceof DeepCopyable) {
+      return ((DeepCopyable) oldObj).deepCopy();
+    }
+    Class<?> clazz = oldObj.getClass();
+    if (clazz == LinkedHashMap.class) {
+      return copyMap((Map<?, ?>) oldObj, new LinkedHashMap<>(capacity(((Map<?, ?>) oldObj).size())));
+    }
+    if (clazz == HashMap.class) {
+      return copyMap((Map<?, ?>) oldObj, new HashMap<>(capacity(((Map<?, ?>) oldObj).size())));
+    }
+    if (clazz == ArrayList.class) {
+      return copyCollection((Collection<?>) oldObj, new ArrayList<>(((Collection<?>) oldObj).size()));
+    }
+    if (clazz == LinkedList.class) {
+      return copyCollection((Collection<?>) oldObj, new LinkedList<>());
+    }
+    if (clazz == HashSet.class) {
+      return copyCollection((Collection<?>) oldObj, new HashSet<>(capacity(((Collection<?>) oldObj).size())));
+    }
+    if (clazz == LinkedHashSet.class) {
+      return copyCollection((Collection<?>) oldObj, new LinkedHashSet<>(capacity(((Collection<?>) oldObj).size())));
+    }
+    return serializedCopy(oldObj);
+  }
+
+  /**
+   * Copies the value through Java serialization
+   */
+  public static Object serializedCopy(Object oldObj) {
     ObjectOutputStream oos = null;
     ObjectInputStream ois = null;
     try {
@@ -48,4 +97,30 @@ public class CloneHelper {
     }
   }
 
+  private static boolean isImmutable(Object value) {
+    Class<?> clazz = value.getClass();
+    return clazz == String.class || clazz == Integer.class || clazz == Long.class || clazz == Boolean.class
+        || clazz == Double.class || clazz == Float.class || clazz == Short.class || clazz == Byte.class
+        || clazz == Character.class || clazz == BigInteger.class || clazz == BigDecimal.class || clazz == UUID.class
+        || value instanceof Enum<?>;
+  }
+
+  private static Map<Object, Object> copyMap(Map<?, ?> source, Map<Object, Object> target) {
+    for (Entry<?, ?> entry : source.entrySet()) {
+      target.put(deepCopy(entry.getKey()), deepCopy(entry.getValue()));
+    }
+    return target;
+  }
+
+  private static Collection<Object> copyCollection(Collection<?> source, Collection<Object> target) {
+    for (Object element : source) {
+      target.add(deepCopy(element));
+    }
+    return target;
+  }
+
+  private static int capacity(int size) {
+    return size < 3 ? size + 1 : (int) (size / 0.75f) + 1;
+  }
+
 }
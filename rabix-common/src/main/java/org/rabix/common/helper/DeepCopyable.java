@@ -0,0 +1,11 @@
+package org.rabix.common.helper;
+
+/**
+ * Value which {@link CloneHelper#deepCopy(Object)} copies by calling it instead of serializing it. Implementations copy
+ * their mutable fields with {@link CloneHelper#deepCopy(Object)}.
+ */
+public interface DeepCopyable {
+
+  Object deepCopy();
+
+}
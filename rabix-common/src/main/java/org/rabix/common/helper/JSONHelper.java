@@ -1,11 +1,13 @@
 package org.rabix.common.helper;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -15,6 +17,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.BigIntegerNode;
@@ -38,6 +42,9 @@ public class JSONHelper {
   public static final ObjectMapper mapper = new ObjectMapper();
   public static final ObjectMapper mapperWithoutNulls = new ObjectMapper();
   public static final ObjectMapper mapperWithoutIdentation = new ObjectMapper();
+
+  private static final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  private static final ObjectWriter compactWriter;
   
   static {
     mapper.enable(SerializationFeature.INDENT_OUTPUT);
@@ -45,6 +52,14 @@ public class JSONHelper {
     mapperWithoutNulls.enable(SerializationFeature.INDENT_OUTPUT);
     mapperWithoutNulls.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false).setSerializationInclusion(Include.NON_NULL).configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
     mapperWithoutIdentation.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    compactWriter = mapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+  }
+
+  /**
+   * Reader bound to the type, built once per type
+   */
+  public static ObjectReader reader(Class<?> clazz) {
+    return readers.computeIfAbsent(clazz, type -> mapper.reader(type));
   }
 
   @SuppressWarnings("unchecked")
@@ -80,15 +95,38 @@ public class JSONHelper {
   }
 
   public static <T> Map<String, T> readMap(JsonNode node, Class<T> valueClass) {
-    return readMap(writeObject(node), valueClass);
+    return readMap(writeCompact(node), valueClass);
   }
 
+  @SuppressWarnings("unchecked")
+  public static Map<String, Object> readMap(byte[] json) {
+    return readObject(json, (Class<Map<String, Object>>) (Class<?>) Map.class);
+  }
+
+  /**
+   * Binds JSON straight into the type. YAML and input which can't be bound go through {@link #readJsonNode(String)},
+   * which reports errors as before.
+   */
   public static <T> T readObject(String json, Class<T> clazz) {
     if (json == null) {
       return null;
     }
-    JsonNode node = readJsonNode(json);
-    return readObject(node, clazz);
+    try {
+      return reader(clazz).readValue(json);
+    } catch (IOException e) {
+      return readObject(readJsonNode(json), clazz);
+    }
+  }
+
+  public static <T> T readObject(byte[] json, Class<T> clazz) {
+    if (json == null) {
+      return null;
+    }
+    try {
+      return reader(clazz).readValue(json);
+    } catch (IOException e) {
+      return readObject(readJsonNode(new String(json, StandardCharsets.UTF_8)), clazz);
+    }
   }
 
   public static <T> T readObject(String json, TypeReference<T> valueTypeRef) {
@@ -127,6 +165,28 @@ public class JSONHelper {
       throw new IllegalStateException(e);
     }
   }
+
+  /**
+   * Writes without indentation, for payloads which are stored or sent rather than read by people
+   */
+  public static String writeCompact(Object value) {
+    try {
+      return compactWriter.writeValueAsString(value);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Writes UTF-8 without indentation, {@link #readObject(byte[], Class)} reads it back
+   */
+  public static byte[] writeCompactBytes(Object value) {
+    try {
+      return compactWriter.writeValueAsBytes(value);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
   
   public static JsonNode readJsonNode(String data) {
     try {
@@ -4,6 +4,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.rabix.common.helper.JSONHelper;
 import org.rabix.common.json.processor.BeanProcessor;
@@ -13,12 +15,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.base.Preconditions;
 
 public class BeanSerializer {
 
   private static Logger logger = LoggerFactory.getLogger(BeanSerializer.class);
 
+  private static final Map<Class<? extends BeanPropertyView>, ObjectWriter> writers = new ConcurrentHashMap<>();
+  private static final ObjectWriter compactWriter = JSONHelper.mapper.writerWithView(BeanPropertyView.Full.class).without(SerializationFeature.INDENT_OUTPUT);
+
   /**
    * Load bean and process it if there is a processor
    */
@@ -48,6 +54,21 @@ public class BeanSerializer {
     return serialize(data, BeanPropertyView.Partial.class);
   }
 
+  /**
+   * Save bean without indentation and use {@link BeanPropertyView.Full} for filtering, for payloads sent between
+   * services
+   */
+  public static String serializeCompact(Object data) {
+    Preconditions.checkNotNull(data);
+
+    try {
+      return compactWriter.writeValueAsString(data);
+    } catch (IOException e) {
+      logger.error("Failed to serialize object " + data, e);
+      throw new IllegalStateException(e);
+    }
+  }
+
   /**
    * Save bean and use custom {@link BeanPropertyView} for filtering
    */
@@ -56,8 +77,7 @@ public class BeanSerializer {
 
     try {
       if (clazz != null) {
-        ObjectWriter writer = JSONHelper.mapper.writerWithView(clazz);
-        return writer.withDefaultPrettyPrinter().writeValueAsString(data);
+        return writer(clazz).writeValueAsString(data);
       }
       return JSONHelper.mapper.writeValueAsString(data);
     } catch (IOException e) {
@@ -92,7 +112,7 @@ public class BeanSerializer {
    * Save bean to file and use custom {@link BeanPropertyView} for filtering
    */
   public static void serialize(File file, Object data, Class<? extends BeanPropertyView> clazz) {
-    serialize(file.toPath(), clazz);
+    serialize(file.toPath(), data, clazz);
   }
   
   public static void serialize(Path file, Object data, Class<? extends BeanPropertyView> clazz) {
@@ -100,8 +120,7 @@ public class BeanSerializer {
 
     try {
       if (clazz != null) {
-        ObjectWriter writer = JSONHelper.mapper.writerWithView(clazz);
-        writer.withDefaultPrettyPrinter().writeValue(Files.newOutputStream(file), data);
+        writer(clazz).writeValue(Files.newOutputStream(file), data);
         return;
       }
       JSONHelper.mapper.writerWithDefaultPrettyPrinter().writeValue(Files.newOutputStream(file), data);
@@ -111,4 +130,8 @@ public class BeanSerializer {
     }
   }
 
+  private static ObjectWriter writer(Class<? extends BeanPropertyView> view) {
+    return writers.computeIfAbsent(view, type -> JSONHelper.mapper.writerWithView(type).withDefaultPrettyPrinter());
+  }
+
 }
@@ -0,0 +1,86 @@
+package org.rabix.common.jvm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds plugin classes listed in META-INF/services/&lt;plugin type&gt; files which are packaged with the modules. Unlike
+ * {@link java.util.ServiceLoader} the classes aren't instantiated, callers construct them as they need.
+ *
+ * Classpath scanning is used instead only if {@value #SCAN_PROPERTY} is set.
+ */
+public class PluginIndex {
+
+  private final static Logger logger = LoggerFactory.getLogger(PluginIndex.class);
+
+  public final static String SCAN_PROPERTY = "rabix.plugins.scan";
+
+  private final static String INDEX_LOCATION = "META-INF/services/";
+
+  public static <T> Set<Class<T>> load(Class<T> pluginType) {
+    if (Boolean.getBoolean(SCAN_PROPERTY)) {
+      return scan(pluginType);
+    }
+    Set<Class<T>> plugins = index(pluginType);
+    if (plugins.isEmpty()) {
+      logger.warn("No {} found in {}, set -D{}=true to scan the classpath", pluginType.getName(), INDEX_LOCATION, SCAN_PROPERTY);
+    }
+    return plugins;
+  }
+
+  public static <T> Set<Class<T>> scan(Class<T> pluginType) {
+    if (pluginType.isInterface()) {
+      return ClasspathScanner.scanInterfaceImplementations(pluginType);
+    }
+    return ClasspathScanner.scanSubclasses(pluginType);
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <T> Set<Class<T>> index(Class<T> pluginType) {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    if (classLoader == null) {
+      classLoader = PluginIndex.class.getClassLoader();
+    }
+    Set<Class<T>> plugins = new LinkedHashSet<>();
+    try {
+      Enumeration<URL> indexes = classLoader.getResources(INDEX_LOCATION + pluginType.getName());
+      while (indexes.hasMoreElements()) {
+        URL index = indexes.nextElement();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            int comment = line.indexOf('#');
+            String className = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (className.isEmpty()) {
+              continue;
+            }
+            try {
+              Class<?> clazz = Class.forName(className, false, classLoader);
+              if (!pluginType.isAssignableFrom(clazz) || Modifier.isAbstract(clazz.getModifiers())) {
+                logger.warn("Ignoring {} listed in {}, it is not a concrete {}", className, index, pluginType.getName());
+                continue;
+              }
+              plugins.add((Class<T>) clazz);
+            } catch (ClassNotFoundException | LinkageError e) {
+              logger.warn("Failed to load {} listed in {}", className, index, e);
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      logger.error("Failed to read index of {}", pluginType.getName(), e);
+    }
+    return plugins;
+  }
+
+}
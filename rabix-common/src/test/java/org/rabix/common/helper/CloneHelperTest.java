@@ -0,0 +1,54 @@
+package org.rabix.common.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class CloneHelperTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStructuralCopy() {
+    Map<String, Object> file = new LinkedHashMap<>();
+    file.put("path", "/data/a.txt");
+    file.put("size", 10L);
+    List<Object> files = new ArrayList<>();
+    files.add(file);
+    Map<String, Object> inputs = new LinkedHashMap<>();
+    inputs.put("files", files);
+    inputs.put("id", UUID.randomUUID());
+    inputs.put("flag", true);
+
+    Map<String, Object> copy = (Map<String, Object>) CloneHelper.deepCopy(inputs);
+    Assert.assertEquals(copy, inputs);
+    Assert.assertEquals(copy.getClass(), LinkedHashMap.class);
+    Assert.assertEquals(new ArrayList<>(copy.keySet()), new ArrayList<>(inputs.keySet()));
+    Assert.assertSame(copy.get("id"), inputs.get("id"));
+
+    List<Object> copiedFiles = (List<Object>) copy.get("files");
+    Assert.assertNotSame(copiedFiles, files);
+    Assert.assertNotSame(copiedFiles.get(0), file);
+    ((Map<String, Object>) copiedFiles.get(0)).put("path", "/data/b.txt");
+    Assert.assertEquals(file.get("path"), "/data/a.txt");
+  }
+
+  @Test
+  public void testUnknownTypesAreSerialized() {
+    List<Integer> fixed = Arrays.asList(1, 2, 3);
+    Object copy = CloneHelper.deepCopy(fixed);
+    Assert.assertEquals(copy, fixed);
+    Assert.assertNotSame(copy, fixed);
+    Assert.assertEquals(copy.getClass(), fixed.getClass());
+
+    Assert.assertEquals(CloneHelper.deepCopy(Collections.emptyMap()), Collections.emptyMap());
+  }
+
+}
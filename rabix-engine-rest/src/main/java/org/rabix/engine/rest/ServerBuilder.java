@@ -22,6 +22,8 @@ import org.eclipse.jetty.server.handler.ResourceHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.component.AbstractLifeCycle.AbstractLifeCycleListener;
+import org.eclipse.jetty.util.component.LifeCycle;
 import org.glassfish.hk2.api.ServiceLocator;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.servlet.ServletContainer;
@@ -30,16 +32,20 @@ import org.rabix.backend.api.callback.WorkerStatusCallback;
 import org.rabix.backend.api.callback.impl.NoOpWorkerStatusCallback;
 import org.rabix.bindings.model.Job;
 import org.rabix.common.config.ConfigModule;
-import org.rabix.common.jvm.ClasspathScanner;
+import org.rabix.common.jvm.PluginIndex;
 import org.rabix.common.service.download.DownloadService;
 import org.rabix.common.service.download.impl.NoOpDownloadServiceImpl;
 import org.rabix.common.service.upload.UploadService;
 import org.rabix.common.service.upload.impl.NoOpUploadServiceImpl;
 import org.rabix.engine.EngineModule;
+import org.rabix.engine.rest.api.AppHTTPService;
 import org.rabix.engine.rest.api.BackendHTTPService;
 import org.rabix.engine.rest.api.JobHTTPService;
+import org.rabix.engine.rest.api.impl.AppHTTPServiceImpl;
 import org.rabix.engine.rest.api.impl.BackendHTTPServiceImpl;
 import org.rabix.engine.rest.api.impl.JobHTTPServiceImpl;
+import org.rabix.engine.rest.status.RootStatusFeed;
+import org.rabix.engine.rest.status.RootStatusFeedEngineStatusCallback;
 import org.rabix.engine.service.BackendService;
 import org.rabix.engine.service.BootstrapService;
 import org.rabix.engine.service.BootstrapServiceException;
@@ -51,7 +57,6 @@ import org.rabix.engine.service.impl.JobReceiverImpl;
 import org.rabix.engine.service.impl.JobServiceImpl;
 import org.rabix.engine.service.impl.NoOpIntermediaryFilesServiceHandler;
 import org.rabix.engine.status.EngineStatusCallback;
-import org.rabix.engine.status.impl.DefaultEngineStatusCallback;
 import org.rabix.engine.stub.BackendStubFactory;
 import org.rabix.engine.stub.impl.BackendStubFactoryImpl;
 import org.rabix.transport.mechanism.TransportPlugin.ReceiveCallback;
@@ -86,18 +91,20 @@ public class ServerBuilder {
           @Override
           protected void configure() {
             bind(JobService.class).to(JobServiceImpl.class).in(Scopes.SINGLETON);
-            bind(EngineStatusCallback.class).to(DefaultEngineStatusCallback.class).in(Scopes.SINGLETON);
+            bind(RootStatusFeed.class).in(Scopes.SINGLETON);
+            bind(EngineStatusCallback.class).to(RootStatusFeedEngineStatusCallback.class).in(Scopes.SINGLETON);
             bind(BootstrapService.class).to(BootstrapServiceImpl.class).in(Scopes.SINGLETON);
             bind(BackendService.class).to(BackendServiceImpl.class).in(Scopes.SINGLETON);
             bind(BackendStubFactory.class).to(BackendStubFactoryImpl.class).in(Scopes.SINGLETON);
             bind(DownloadService.class).to(NoOpDownloadServiceImpl.class).in(Scopes.SINGLETON);
             bind(UploadService.class).to(NoOpUploadServiceImpl.class).in(Scopes.SINGLETON);
-            bind(JobHTTPService.class).to(JobHTTPServiceImpl.class);
+            bind(JobHTTPService.class).to(JobHTTPServiceImpl.class).in(Scopes.SINGLETON);
             bind(IntermediaryFilesHandler.class).to(NoOpIntermediaryFilesServiceHandler.class).in(Scopes.SINGLETON);
             bind(BackendHTTPService.class).to(BackendHTTPServiceImpl.class).in(Scopes.SINGLETON);
+            bind(AppHTTPService.class).to(AppHTTPServiceImpl.class).in(Scopes.SINGLETON);
             bind(new TypeLiteral<ReceiveCallback<Job>>(){}).to(JobReceiverImpl.class).in(Scopes.SINGLETON);             
             bind(WorkerStatusCallback.class).to(NoOpWorkerStatusCallback.class).in(Scopes.SINGLETON);
-            Set<Class<BackendModule>> backendModuleClasses = ClasspathScanner.<BackendModule>scanSubclasses(BackendModule.class);
+            Set<Class<BackendModule>> backendModuleClasses = PluginIndex.load(BackendModule.class);
             for (Class<BackendModule> backendModuleClass : backendModuleClasses) {
               try {
                 install(backendModuleClass.getConstructor(ConfigModule.class).newInstance(configModule));
@@ -123,6 +130,13 @@ public class ServerBuilder {
     
     int enginePort = configuration.getInt(ENGINE_PORT_KEY);
     Server server = new Server(enginePort);
+    server.setStopAtShutdown(true);
+    server.addLifeCycleListener(new AbstractLifeCycleListener() {
+      @Override
+      public void lifeCycleStopped(LifeCycle event) {
+        bootstrapService.stop();
+      }
+    });
 
     ResourceConfig config = ResourceConfig.forApplication(new Application());
     config.register(CORSResponseFilter.class);
@@ -130,10 +144,13 @@ public class ServerBuilder {
     ServletContainer servletContainer = new ServletContainer(config);
     
     ServletHolder sh = new ServletHolder(servletContainer);
+    // status long-polls are suspended
+    sh.setAsyncSupported(true);
     ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
     context.setContextPath("/");
 
     FilterHolder filterHolder = new FilterHolder(GuiceFilter.class);
+    filterHolder.setAsyncSupported(true);
     context.addFilter(filterHolder, "/*", EnumSet.allOf(DispatcherType.class));
 
     context.addServlet(sh, "/*");
@@ -0,0 +1,9 @@
+package org.rabix.engine.rest.api;
+
+import javax.ws.rs.core.Response;
+
+public interface AppHTTPService {
+
+  Response get(String hash);
+
+}
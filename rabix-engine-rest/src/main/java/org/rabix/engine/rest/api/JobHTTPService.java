@@ -1,7 +1,9 @@
 package org.rabix.engine.rest.api;
 
+import java.util.List;
 import java.util.UUID;
 
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.Response;
 
 import org.rabix.bindings.model.Job;
@@ -11,6 +13,10 @@ public interface JobHTTPService {
 
   public Response create(Job job, Integer batch);
   
+  public Response create(List<Job> jobs);
+  
+  public void status(AsyncResponse response, List<UUID> rootIds, long since, long timeout);
+  
   public Response save(UUID id, Job job);
   
   public Response get(UUID id);
@@ -0,0 +1,43 @@
+package org.rabix.engine.rest.api.impl;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.rabix.bindings.model.Application;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.rest.api.AppHTTPService;
+import org.rabix.engine.service.AppService;
+
+import com.google.inject.Inject;
+
+/**
+ * Serves applications referenced by hash (app:{hash}) in Jobs sent to remote backends
+ */
+@Produces(MediaType.APPLICATION_JSON)
+@Path("/v0/engine/apps")
+public class AppHTTPServiceImpl implements AppHTTPService {
+
+  private final AppService appService;
+
+  @Inject
+  public AppHTTPServiceImpl(AppService appService) {
+    this.appService = appService;
+  }
+
+  @Override
+  @GET
+  @Path("/{hash}")
+  public Response get(@PathParam("hash") String hash) {
+    Application app = appService.get(hash);
+    if (app == null) {
+      return Response.status(Status.NOT_FOUND).build();
+    }
+    return Response.ok().entity(JSONHelper.writeObject(app)).build();
+  }
+
+}
@@ -1,8 +1,19 @@
 package org.rabix.engine.rest.api.impl;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
@@ -10,13 +21,18 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
+import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.Job.JobStatus;
 import org.rabix.engine.rest.api.JobHTTPService;
+import org.rabix.engine.rest.status.RootStatusFeed;
 import org.rabix.engine.service.JobService;
 import org.rabix.engine.service.JobServiceException;
 
@@ -26,11 +42,22 @@ import com.google.inject.Inject;
 @Path("/v0/engine/jobs")
 public class JobHTTPServiceImpl implements JobHTTPService {
 
+  private final static long MAX_POLL_TIMEOUT = 60;
+  private final static int DEFAULT_BULK_START_THREADS = 4;
+
   private final JobService jobService;
+  private final RootStatusFeed rootStatusFeed;
+  private final ExecutorService bulkStartExecutor;
 
   @Inject
-  public JobHTTPServiceImpl(JobService jobService) {
+  public JobHTTPServiceImpl(JobService jobService, RootStatusFeed rootStatusFeed, Configuration configuration) {
     this.jobService = jobService;
+    this.rootStatusFeed = rootStatusFeed;
+    this.bulkStartExecutor = Executors.newFixedThreadPool(configuration.getInt("engine.bulk_start.threads", DEFAULT_BULK_START_THREADS), runnable -> {
+      Thread thread = new Thread(runnable, "bulk-start");
+      thread.setDaemon(true);
+      return thread;
+    });
   }
 
   @Override
@@ -49,6 +76,53 @@ public class JobHTTPServiceImpl implements JobHTTPService {
     }
   }
   
+  /**
+   * Starts the jobs in parallel, results are in the order of the jobs
+   */
+  @Override
+  @POST
+  @Path("/bulk")
+  public Response create(List<Job> jobs) {
+    List<Future<Map<String, Object>>> futures = new ArrayList<>();
+    for (Job job : jobs) {
+      futures.add(bulkStartExecutor.submit(() -> start(job)));
+    }
+    List<Map<String, Object>> results = new ArrayList<>();
+    try {
+      for (Future<Map<String, Object>> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return error();
+    } catch (ExecutionException e) {
+      return error();
+    }
+    return ok(results);
+  }
+
+  private Map<String, Object> start(Job job) {
+    Map<String, Object> result = new LinkedHashMap<>();
+    try {
+      result.put("id", jobService.start(job, null).getId());
+    } catch (Exception e) {
+      result.put("error", e.getCause() != null ? e.getMessage() + ": " + e.getCause().getMessage() : e.getMessage());
+    }
+    return result;
+  }
+  
+  /**
+   * Long-polls root status changes newer than the given sequence number. Timeout is in seconds.
+   * The request is suspended while it waits, it doesn't hold a server thread.
+   */
+  @Override
+  @GET
+  @Path("/status")
+  public void status(@Suspended AsyncResponse response, @QueryParam("rootId") List<UUID> rootIds, @QueryParam("since") @DefaultValue("0") long since, @QueryParam("timeout") @DefaultValue("30") long timeout) {
+    long timeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(0, Math.min(timeout, MAX_POLL_TIMEOUT)));
+    rootStatusFeed.poll(new HashSet<>(rootIds), since, timeoutMillis, poll -> response.resume(ok(poll)));
+  }
+  
   @Override
   @GET
   @Path("/{id}")
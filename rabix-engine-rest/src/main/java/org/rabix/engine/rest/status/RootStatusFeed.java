@@ -0,0 +1,258 @@
+package org.rabix.engine.rest.status;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.engine.store.repository.JobRepository;
+import org.rabix.engine.store.repository.JobStatusFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.inject.Inject;
+
+/**
+ * Bounded in-memory log of root status changes, published by the engine status callback and read by long-polling clients.
+ * Pollers wait registered under the roots they asked for, so a change wakes up only the pollers interested in it.
+ * Changes of roots run by other engines sharing the store come from the {@link JobStatusFeed}.
+ */
+public class RootStatusFeed {
+
+  private final static Logger logger = LoggerFactory.getLogger(RootStatusFeed.class);
+
+  private final static int DEFAULT_CAPACITY = 100000;
+
+  private final int capacity;
+  private final Deque<RootStatusChange> changes = new ArrayDeque<>();
+  private long sequence = 0;
+
+  private final Map<UUID, Set<Waiter>> waiters = new HashMap<>();
+  private final Set<Waiter> allRootsWaiters = new HashSet<>();
+  private final ScheduledThreadPoolExecutor timeouts;
+
+  private final JobRepository jobRepository;
+
+  @Inject
+  public RootStatusFeed(Configuration configuration, JobStatusFeed jobStatusFeed, JobRepository jobRepository) {
+    this.capacity = configuration.getInt("engine.status_feed.size", DEFAULT_CAPACITY);
+    this.jobRepository = jobRepository;
+    this.timeouts = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "root-status-feed-timeouts");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.timeouts.setRemoveOnCancelPolicy(true);
+    if (configuration.getBoolean("engine.status_feed.shared", true)) {
+      jobStatusFeed.subscribe(this::onJobStatusChanged);
+    }
+  }
+
+  /**
+   * Local changes are already published by the engine status callback
+   */
+  private void onJobStatusChanged(UUID id, UUID rootId, JobStatus status, boolean local) {
+    if (local || !id.equals(rootId)) {
+      return;
+    }
+    switch (status) {
+    case RUNNING:
+    case COMPLETED:
+    case ABORTED:
+      publish(rootId, status, null);
+      break;
+    case FAILED:
+      Job root = jobRepository.get(rootId);
+      publish(rootId, status, root != null ? root.getMessage() : null);
+      break;
+    default:
+      break;
+    }
+  }
+
+  public void publish(UUID rootId, JobStatus status, String message) {
+    List<Waiter> woken = new ArrayList<>();
+    List<RootStatusPoll> results = new ArrayList<>();
+    synchronized (this) {
+      if (changes.size() == capacity) {
+        changes.removeFirst();
+      }
+      changes.addLast(new RootStatusChange(++sequence, rootId, status, message));
+
+      Set<Waiter> rootWaiters = waiters.remove(rootId);
+      if (rootWaiters != null) {
+        woken.addAll(rootWaiters);
+      }
+      woken.addAll(allRootsWaiters);
+      allRootsWaiters.clear();
+      for (Waiter waiter : woken) {
+        unregister(waiter);
+        results.add(result(waiter.rootIds, waiter.since));
+      }
+    }
+    for (int i = 0; i < woken.size(); i++) {
+      woken.get(i).complete(results.get(i));
+    }
+  }
+
+  /**
+   * Hands changes newer than the given sequence number for the given roots (all roots if empty) to the callback.
+   * When there are none yet the callback is registered for these roots and called by the first matching
+   * {@link #publish(UUID, JobStatus, String)}, or with no changes after timeout milliseconds. The caller's thread is
+   * never blocked.
+   */
+  public void poll(Set<UUID> rootIds, long since, long timeout, Consumer<RootStatusPoll> callback) {
+    RootStatusPoll result;
+    synchronized (this) {
+      result = result(rootIds, since);
+      if (result.changes.isEmpty() && timeout > 0) {
+        Waiter waiter = new Waiter(rootIds, since, callback);
+        register(waiter);
+        waiter.timeout = timeouts.schedule(() -> expire(waiter), timeout, TimeUnit.MILLISECONDS);
+        return;
+      }
+    }
+    callback.accept(result);
+  }
+
+  private void expire(Waiter waiter) {
+    RootStatusPoll result;
+    synchronized (this) {
+      if (!unregister(waiter)) {
+        return;
+      }
+      result = result(waiter.rootIds, waiter.since);
+    }
+    waiter.complete(result);
+  }
+
+  private void register(Waiter waiter) {
+    if (waiter.rootIds.isEmpty()) {
+      allRootsWaiters.add(waiter);
+      return;
+    }
+    for (UUID rootId : waiter.rootIds) {
+      waiters.computeIfAbsent(rootId, id -> new HashSet<>()).add(waiter);
+    }
+  }
+
+  /**
+   * @return false if the waiter was already woken up
+   */
+  private boolean unregister(Waiter waiter) {
+    if (waiter.rootIds.isEmpty()) {
+      return allRootsWaiters.remove(waiter);
+    }
+    boolean registered = false;
+    for (UUID rootId : waiter.rootIds) {
+      Set<Waiter> rootWaiters = waiters.get(rootId);
+      if (rootWaiters != null && rootWaiters.remove(waiter)) {
+        registered = true;
+        if (rootWaiters.isEmpty()) {
+          waiters.remove(rootId);
+        }
+      }
+    }
+    return registered;
+  }
+
+  synchronized int waiting() {
+    Set<Waiter> all = new HashSet<>(allRootsWaiters);
+    waiters.values().forEach(all::addAll);
+    return all.size();
+  }
+
+  private RootStatusPoll result(Set<UUID> rootIds, long since) {
+    boolean truncated = !changes.isEmpty() && since < changes.getFirst().sequence - 1;
+    return new RootStatusPoll(sequence, truncated, collect(rootIds, since));
+  }
+
+  private List<RootStatusChange> collect(Set<UUID> rootIds, long since) {
+    List<RootStatusChange> result = new ArrayList<>();
+    Iterator<RootStatusChange> iterator = changes.descendingIterator();
+    while (iterator.hasNext()) {
+      RootStatusChange change = iterator.next();
+      if (change.sequence <= since) {
+        break;
+      }
+      if (rootIds.isEmpty() || rootIds.contains(change.rootId)) {
+        result.add(change);
+      }
+    }
+    Collections.reverse(result);
+    return result;
+  }
+
+  private static class Waiter {
+    private final Set<UUID> rootIds;
+    private final long since;
+    private final Consumer<RootStatusPoll> callback;
+    private ScheduledFuture<?> timeout;
+
+    private Waiter(Set<UUID> rootIds, long since, Consumer<RootStatusPoll> callback) {
+      this.rootIds = rootIds;
+      this.since = since;
+      this.callback = callback;
+    }
+
+    private void complete(RootStatusPoll result) {
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+      try {
+        callback.accept(result);
+      } catch (Exception e) {
+        logger.warn("Failed to hand root status changes to a poller", e);
+      }
+    }
+  }
+
+  public static class RootStatusChange {
+    @JsonProperty("sequence")
+    private final long sequence;
+    @JsonProperty("rootId")
+    private final UUID rootId;
+    @JsonProperty("status")
+    private final JobStatus status;
+    @JsonProperty("message")
+    private final String message;
+
+    public RootStatusChange(long sequence, UUID rootId, JobStatus status, String message) {
+      this.sequence = sequence;
+      this.rootId = rootId;
+      this.status = status;
+      this.message = message;
+    }
+  }
+
+  public static class RootStatusPoll {
+    @JsonProperty("sequence")
+    private final long sequence;
+    @JsonProperty("truncated")
+    private final boolean truncated;
+    @JsonProperty("changes")
+    private final List<RootStatusChange> changes;
+
+    public RootStatusPoll(long sequence, boolean truncated, List<RootStatusChange> changes) {
+      this.sequence = sequence;
+      this.truncated = truncated;
+      this.changes = changes;
+    }
+  }
+
+}
@@ -0,0 +1,63 @@
+package org.rabix.engine.rest.status;
+
+import java.util.Set;
+import java.util.UUID;
+
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.engine.service.BackendService;
+import org.rabix.engine.status.EngineStatusCallbackException;
+import org.rabix.engine.status.impl.DefaultEngineStatusCallback;
+
+import com.google.inject.Inject;
+
+/**
+ * Publishes root status changes to the {@link RootStatusFeed}
+ */
+public class RootStatusFeedEngineStatusCallback extends DefaultEngineStatusCallback {
+
+  private final RootStatusFeed rootStatusFeed;
+
+  @Inject
+  public RootStatusFeedEngineStatusCallback(BackendService backendService, RootStatusFeed rootStatusFeed) {
+    super(backendService);
+    this.rootStatusFeed = rootStatusFeed;
+  }
+
+  @Override
+  public void onJobsReady(Set<Job> jobs, UUID rootId, UUID producedByNode) throws EngineStatusCallbackException {
+    super.onJobsReady(jobs, rootId, producedByNode);
+    for (Job job : jobs) {
+      if (job.isRoot()) {
+        rootStatusFeed.publish(rootId, JobStatus.RUNNING, null);
+      }
+    }
+  }
+
+  @Override
+  public void onJobContainerReady(UUID id, UUID rootId) throws EngineStatusCallbackException {
+    super.onJobContainerReady(id, rootId);
+    if (id.equals(rootId)) {
+      rootStatusFeed.publish(rootId, JobStatus.RUNNING, null);
+    }
+  }
+
+  @Override
+  public void onJobRootCompleted(UUID rootId) throws EngineStatusCallbackException {
+    super.onJobRootCompleted(rootId);
+    rootStatusFeed.publish(rootId, JobStatus.COMPLETED, null);
+  }
+
+  @Override
+  public void onJobRootFailed(UUID rootId, String message) throws EngineStatusCallbackException {
+    super.onJobRootFailed(rootId, message);
+    rootStatusFeed.publish(rootId, JobStatus.FAILED, message);
+  }
+
+  @Override
+  public void onJobRootAborted(UUID rootId) throws EngineStatusCallbackException {
+    super.onJobRootAborted(rootId);
+    rootStatusFeed.publish(rootId, JobStatus.ABORTED, null);
+  }
+
+}
@@ -0,0 +1,64 @@
+package org.rabix.engine.rest.api.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+import org.rabix.bindings.model.Application;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.common.json.BeanSerializer;
+import org.rabix.engine.service.AppService;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class AppHTTPServiceImplTest {
+
+  private static final String APP = "{\"class\":\"CommandLineTool\",\"id\":\"echo\",\"baseCommand\":\"echo\",\"inputs\":[],\"outputs\":[]}";
+
+  @Test
+  public void testGet() {
+    Map<String, Application> apps = new HashMap<>();
+    apps.put("known", BeanSerializer.deserialize(APP, Application.class));
+    AppHTTPServiceImpl service = new AppHTTPServiceImpl(new StubAppService(apps));
+
+    Response found = service.get("known");
+    Assert.assertEquals(found.getStatus(), Status.OK.getStatusCode());
+    Application served = BeanSerializer.deserialize((String) found.getEntity(), Application.class);
+    Assert.assertEquals(JSONHelper.writeObject(served), JSONHelper.writeObject(apps.get("known")));
+
+    Assert.assertEquals(service.get("unknown").getStatus(), Status.NOT_FOUND.getStatusCode());
+  }
+
+  private static class StubAppService implements AppService {
+
+    private final Map<String, Application> apps;
+
+    StubAppService(Map<String, Application> apps) {
+      this.apps = apps;
+    }
+
+    @Override
+    public Application get(String id) {
+      return apps.get(id);
+    }
+
+    @Override
+    public void loadDB(DAGNode node) {
+    }
+
+    @Override
+    public void loadApp(DAGNode node) {
+    }
+
+    @Override
+    public Job inlineApp(Job job) {
+      return job;
+    }
+  }
+
+}
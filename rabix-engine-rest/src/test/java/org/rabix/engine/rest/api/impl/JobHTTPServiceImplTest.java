@@ -0,0 +1,115 @@
+package org.rabix.engine.rest.api.impl;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.rabix.bindings.helper.URIHelper;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.rest.status.RootStatusFeed;
+import org.rabix.engine.service.JobService;
+import org.rabix.engine.service.JobServiceException;
+import org.rabix.engine.store.memory.impl.InMemoryJobStatusFeed;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class JobHTTPServiceImplTest {
+
+  private static final long TIMEOUT = 10;
+
+  @Test
+  public void testBulkStartIsParallel() {
+    int jobs = 3;
+    CountDownLatch started = new CountDownLatch(jobs);
+    JobService jobService = jobService((job, config) -> {
+      started.countDown();
+      // every start waits for the others, sequential starts would fail
+      if (!started.await(TIMEOUT, TimeUnit.SECONDS)) {
+        throw new JobServiceException("Starts didn't overlap", null);
+      }
+      if (job.getName().equals("broken")) {
+        throw new JobServiceException("Failed to start", null);
+      }
+      return Job.cloneWithIds(job, UUID.randomUUID(), null);
+    });
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.setProperty("engine.bulk_start.threads", jobs);
+    JobHTTPServiceImpl service = new JobHTTPServiceImpl(jobService, feed(), configuration);
+
+    List<Job> submitted = new ArrayList<>();
+    submitted.add(job("first"));
+    submitted.add(job("broken"));
+    submitted.add(job("third"));
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> results = (List<Map<String, Object>>) service.create(submitted).getEntity();
+    Assert.assertEquals(results.size(), jobs);
+    Assert.assertNotNull(results.get(0).get("id"));
+    Assert.assertEquals(results.get(1).get("error"), "Failed to start");
+    Assert.assertNotNull(results.get(2).get("id"));
+  }
+
+  @Test
+  public void testStatusIsResumedByPublish() throws InterruptedException {
+    RootStatusFeed feed = feed();
+    JobHTTPServiceImpl service = new JobHTTPServiceImpl(jobService(null), feed, new BaseConfiguration());
+    UUID rootId = UUID.randomUUID();
+
+    BlockingQueue<Object> resumed = new LinkedBlockingQueue<>();
+    service.status(asyncResponse(resumed), Collections.singletonList(rootId), 0, TIMEOUT);
+    Assert.assertTrue(resumed.isEmpty());
+
+    feed.publish(rootId, JobStatus.COMPLETED, null);
+    Response response = (Response) resumed.poll(TIMEOUT, TimeUnit.SECONDS);
+    String poll = JSONHelper.writeObject(response.getEntity());
+    Assert.assertTrue(poll.contains(rootId.toString()) && poll.contains("COMPLETED"), poll);
+  }
+
+  private interface Start {
+    Job start(Job job, Map<String, Object> config) throws Exception;
+  }
+
+  @SuppressWarnings("unchecked")
+  private JobService jobService(Start start) {
+    return (JobService) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { JobService.class }, (proxy, method, args) -> {
+      if (method.getName().equals("start")) {
+        return start.start((Job) args[0], (Map<String, Object>) args[1]);
+      }
+      throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+  private AsyncResponse asyncResponse(BlockingQueue<Object> resumed) {
+    return (AsyncResponse) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { AsyncResponse.class }, (proxy, method, args) -> {
+      if (method.getName().equals("resume")) {
+        resumed.add(args[0]);
+        return true;
+      }
+      throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+  private RootStatusFeed feed() {
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.setProperty("engine.status_feed.shared", false);
+    return new RootStatusFeed(configuration, new InMemoryJobStatusFeed(), null);
+  }
+
+  private Job job(String name) {
+    return new Job(null, null, null, name, URIHelper.createDataURI("{}"), JobStatus.PENDING, null, Collections.emptyMap(), null, null, null, null);
+  }
+
+}
@@ -0,0 +1,128 @@
+package org.rabix.engine.rest.status;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.rest.status.RootStatusFeed.RootStatusPoll;
+import org.rabix.engine.store.memory.impl.InMemoryJobStatusFeed;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class RootStatusFeedTest {
+
+  private static final long TIMEOUT = 10000;
+
+  @Test
+  public void testPendingChangesAreReturnedAtOnce() {
+    RootStatusFeed feed = feed(100);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    feed.publish(first, JobStatus.RUNNING, null);
+    feed.publish(second, JobStatus.RUNNING, null);
+    feed.publish(first, JobStatus.FAILED, "broken");
+
+    BlockingQueue<RootStatusPoll> polls = new LinkedBlockingQueue<>();
+    feed.poll(Collections.singleton(first), 0, TIMEOUT, polls::add);
+    String poll = JSONHelper.writeCompact(polls.poll());
+    Assert.assertTrue(poll.contains("\"sequence\":3"), poll);
+    Assert.assertTrue(poll.contains("broken"), poll);
+    Assert.assertFalse(poll.contains(second.toString()), poll);
+    Assert.assertEquals(feed.waiting(), 0);
+  }
+
+  @Test
+  public void testWaitersAreWokenByTheirRootsOnly() throws InterruptedException {
+    RootStatusFeed feed = feed(100);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+
+    BlockingQueue<RootStatusPoll> firstPolls = new LinkedBlockingQueue<>();
+    BlockingQueue<RootStatusPoll> secondPolls = new LinkedBlockingQueue<>();
+    BlockingQueue<RootStatusPoll> allPolls = new LinkedBlockingQueue<>();
+    feed.poll(Collections.singleton(first), 0, TIMEOUT, firstPolls::add);
+    feed.poll(Collections.singleton(second), 0, TIMEOUT, secondPolls::add);
+    feed.poll(Collections.emptySet(), 0, TIMEOUT, allPolls::add);
+    Assert.assertEquals(feed.waiting(), 3);
+
+    feed.publish(first, JobStatus.COMPLETED, null);
+    Assert.assertNotNull(firstPolls.poll());
+    Assert.assertNotNull(allPolls.poll());
+    Assert.assertTrue(secondPolls.isEmpty());
+    Assert.assertEquals(feed.waiting(), 1);
+
+    feed.publish(second, JobStatus.ABORTED, null);
+    String poll = JSONHelper.writeCompact(secondPolls.poll());
+    Assert.assertTrue(poll.contains("ABORTED"), poll);
+    Assert.assertFalse(poll.contains(first.toString()), poll);
+    Assert.assertEquals(feed.waiting(), 0);
+  }
+
+  @Test
+  public void testWaiterOnManyRootsIsWokenOnce() {
+    RootStatusFeed feed = feed(100);
+    Set<UUID> roots = new HashSet<>();
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    roots.add(first);
+    roots.add(second);
+
+    BlockingQueue<RootStatusPoll> polls = new LinkedBlockingQueue<>();
+    feed.poll(roots, 0, TIMEOUT, polls::add);
+    feed.publish(first, JobStatus.COMPLETED, null);
+    feed.publish(second, JobStatus.COMPLETED, null);
+    Assert.assertEquals(polls.size(), 1);
+    Assert.assertEquals(feed.waiting(), 0);
+  }
+
+  @Test
+  public void testTimeout() throws InterruptedException {
+    RootStatusFeed feed = feed(100);
+    UUID root = UUID.randomUUID();
+    feed.publish(root, JobStatus.RUNNING, null);
+
+    BlockingQueue<RootStatusPoll> polls = new LinkedBlockingQueue<>();
+    long start = System.currentTimeMillis();
+    feed.poll(Collections.singleton(root), 1, 200, polls::add);
+    RootStatusPoll poll = polls.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+    Assert.assertTrue(System.currentTimeMillis() - start >= 200);
+    String json = JSONHelper.writeCompact(poll);
+    Assert.assertTrue(json.contains("\"changes\":[]"), json);
+    Assert.assertTrue(json.contains("\"sequence\":1"), json);
+    Assert.assertEquals(feed.waiting(), 0);
+
+    // a change after the timeout doesn't reach the expired poller
+    feed.publish(root, JobStatus.COMPLETED, null);
+    Assert.assertTrue(polls.isEmpty());
+  }
+
+  @Test
+  public void testTruncated() {
+    RootStatusFeed feed = feed(2);
+    UUID root = UUID.randomUUID();
+    for (int i = 0; i < 4; i++) {
+      feed.publish(root, JobStatus.RUNNING, null);
+    }
+    BlockingQueue<RootStatusPoll> polls = new LinkedBlockingQueue<>();
+    feed.poll(Collections.emptySet(), 1, 0, polls::add);
+    Assert.assertTrue(JSONHelper.writeCompact(polls.poll()).contains("\"truncated\":true"));
+    feed.poll(Collections.emptySet(), 2, 0, polls::add);
+    Assert.assertTrue(JSONHelper.writeCompact(polls.poll()).contains("\"truncated\":false"));
+  }
+
+  private RootStatusFeed feed(int capacity) {
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.setProperty("engine.status_feed.size", capacity);
+    configuration.setProperty("engine.status_feed.shared", false);
+    return new RootStatusFeed(configuration, new InMemoryJobStatusFeed(), null);
+  }
+
+}
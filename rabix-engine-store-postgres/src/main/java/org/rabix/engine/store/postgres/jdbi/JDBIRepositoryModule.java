@@ -10,6 +10,9 @@ import liquibase.exception.LiquibaseException;
 import liquibase.resource.ClassLoaderResourceAccessor;
 import org.apache.commons.configuration.Configuration;
 import org.postgresql.jdbc3.Jdbc3PoolingDataSource;
+import org.rabix.engine.store.postgres.jdbi.impl.EventCodec;
+import org.rabix.engine.store.postgres.jdbi.impl.JDBIEventRepository;
+import org.rabix.engine.store.postgres.jdbi.impl.JDBIJobStatusFeed;
 import org.rabix.engine.store.repository.*;
 import org.skife.jdbi.v2.DBI;
 import org.skife.jdbi.v2.logging.SLF4JLog;
@@ -17,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
+import java.util.UUID;
 
 public class JDBIRepositoryModule extends AbstractModule {
 
@@ -33,7 +37,14 @@ public class JDBIRepositoryModule extends AbstractModule {
 
   @Singleton
   @Provides
-  public DBI provideDBI(Configuration configuration) {
+  public EventCodec provideEventCodec(Configuration configuration) {
+    return new EventCodec(EventCodec.Format.valueOf(configuration.getString("postgres.event.format", "smile").toUpperCase()),
+        configuration.getBoolean("postgres.event.compression", false));
+  }
+
+  @Singleton
+  @Provides
+  public DBI provideDBI(Configuration configuration, EventCodec eventCodec) {
     Jdbc3PoolingDataSource source = new Jdbc3PoolingDataSource();
     source.setDataSourceName("Data Source");
     source.setServerName(configuration.getString("postgres.server"));
@@ -43,6 +54,8 @@ public class JDBIRepositoryModule extends AbstractModule {
     source.setUser(configuration.getString("postgres.user"));
     source.setPassword(configuration.getString("postgres.password"));
     source.setMaxConnections(configuration.getInt("postgres.pool_max_connections"));
+    // unique per store, job status notifications carry it so the feed can tell local changes apart
+    source.setApplicationName(configuration.getString("postgres.application_name", "rabix") + "-" + UUID.randomUUID());
 
     try {
       JdbcConnection dbcon = new JdbcConnection(source.getConnection());
@@ -55,6 +68,8 @@ public class JDBIRepositoryModule extends AbstractModule {
 
     DBI dbi = new DBI(source);
     dbi.setSQLLog(new SLF4JLog());
+    dbi.registerMapper(new JDBIEventRepository.EventMapper(eventCodec));
+    dbi.registerArgumentFactory(new JDBIEventRepository.EventArgumentFactory(eventCodec));
     return dbi;
   }
 
@@ -129,4 +144,11 @@ public class JDBIRepositoryModule extends AbstractModule {
   public IntermediaryFilesRepository provideIntermediaryFilesRepository(JDBIRepositoryRegistry repositoryRegistry) {
     return repositoryRegistry.intermediaryFilesRepository();
   }
+
+  @Provides
+  @Singleton
+  public JobStatusFeed provideJobStatusFeed(DBI dbi, Configuration configuration) {
+    return new JDBIJobStatusFeed(dbi, configuration.getLong("postgres.notify.check_interval_ms", 100),
+        configuration.getLong("postgres.notify.validate_interval_ms", 30000));
+  }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package org.rabix.engine.store.postgres.jdbi.bindings;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.sql.Array;
+import java.util.Collection;
+
+import org.skife.jdbi.v2.SQLStatement;
+import org.skife.jdbi.v2.sqlobject.Binder;
+import org.skife.jdbi.v2.sqlobject.BinderFactory;
+import org.skife.jdbi.v2.sqlobject.BindingAnnotation;
+
+/**
+ * Binds a collection as a single SQL array (e.g. {@code where id = ANY(:ids)}), so the statement doesn't change with the
+ * number of elements
+ */
+@BindingAnnotation(BindArray.ArrayBinderFactory.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.PARAMETER })
+public @interface BindArray {
+  String value();
+
+  /**
+   * SQL type of the elements
+   */
+  String type();
+
+  public static class ArrayBinderFactory implements BinderFactory<Annotation> {
+
+    public Binder<BindArray, Collection<?>> build(Annotation annotation) {
+      return new Binder<BindArray, Collection<?>>() {
+        public void bind(SQLStatement<?> q, BindArray bind, Collection<?> values) {
+          q.bind(bind.value(), (position, statement, ctx) -> {
+            Array array = ctx.getConnection().createArrayOf(bind.type(), values.toArray());
+            statement.setArray(position, array);
+          });
+        }
+      };
+    }
+
+  }
+}
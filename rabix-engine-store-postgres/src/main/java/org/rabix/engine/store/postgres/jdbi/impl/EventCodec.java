@@ -0,0 +1,135 @@
+package org.rabix.engine.store.postgres.jdbi.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.rabix.common.helper.JSONHelper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Encoding of events stored in the event table. Encoded events start with a zero byte, a version and flags, followed by
+ * the event in Smile (binary JSON), deflated if compression is on and the event is large enough. Rows written as JSON
+ * text by older versions start with '{' and are still read, whatever the codec writes.
+ */
+public class EventCodec {
+
+  public enum Format {
+    JSON,
+    SMILE
+  }
+
+  private static final byte MARKER = 0;
+  private static final byte VERSION = 1;
+  private static final byte FLAG_DEFLATE = 1;
+  private static final int HEADER_LENGTH = 3;
+  private static final int COMPRESSION_THRESHOLD = 1024;
+
+  private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+  private static final ObjectMapper smileMapper;
+
+  static {
+    SmileFactory smileFactory = new SmileFactory();
+    smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+    smileMapper = new ObjectMapper(smileFactory);
+  }
+
+  private final Format format;
+  private final boolean compress;
+
+  public EventCodec(Format format, boolean compress) {
+    this.format = format;
+    this.compress = compress;
+  }
+
+  public byte[] encode(Map<String, ?> event) {
+    if (format == Format.JSON) {
+      return JSONHelper.writeCompactBytes(event);
+    }
+    byte[] payload;
+    try {
+      payload = smileMapper.writeValueAsBytes(event);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    byte flags = 0;
+    if (compress && payload.length >= COMPRESSION_THRESHOLD) {
+      byte[] deflated = deflate(payload);
+      if (deflated.length < payload.length) {
+        payload = deflated;
+        flags |= FLAG_DEFLATE;
+      }
+    }
+    byte[] encoded = new byte[HEADER_LENGTH + payload.length];
+    encoded[0] = MARKER;
+    encoded[1] = VERSION;
+    encoded[2] = flags;
+    System.arraycopy(payload, 0, encoded, HEADER_LENGTH, payload.length);
+    return encoded;
+  }
+
+  public Map<String, Object> decode(byte[] encoded) {
+    if (encoded.length == 0 || encoded[0] != MARKER) {
+      return JSONHelper.readMap(encoded);
+    }
+    if (encoded.length < HEADER_LENGTH || encoded[1] != VERSION) {
+      throw new IllegalStateException("Unsupported event encoding version " + (encoded.length > 1 ? encoded[1] : -1));
+    }
+    byte[] payload = Arrays.copyOfRange(encoded, HEADER_LENGTH, encoded.length);
+    if ((encoded[2] & FLAG_DEFLATE) != 0) {
+      payload = inflate(payload);
+    }
+    try {
+      return smileMapper.readValue(payload, MAP_TYPE);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+      byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] data) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+      byte[] buffer = new byte[8192];
+      while (!inflater.finished()) {
+        int length = inflater.inflate(buffer);
+        if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalStateException("Truncated compressed event");
+        }
+        out.write(buffer, 0, length);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+}
@@ -51,7 +51,7 @@ public interface JDBIContextRecordRepository extends ContextRecordRepository {
             try {
               PGobject data = new PGobject();
               data.setType("jsonb");
-              data.setValue(JSONHelper.writeObject(contextRecord.getConfig()));
+              data.setValue(JSONHelper.writeCompact(contextRecord.getConfig()));
               q.bind("config", data);
             } catch (SQLException ex) {
               throw new IllegalStateException("Error Binding config", ex);
@@ -1,15 +1,15 @@
 package org.rabix.engine.store.postgres.jdbi.impl;
 
-import org.rabix.common.helper.JSONHelper;
 import org.rabix.engine.store.model.EventRecord;
+import org.rabix.engine.store.postgres.jdbi.bindings.BindArray;
 import org.rabix.engine.store.repository.EventRepository;
 import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.sqlobject.*;
-import org.skife.jdbi.v2.sqlobject.customizers.RegisterMapper;
 import org.skife.jdbi.v2.sqlobject.stringtemplate.UseStringTemplate3StatementLocator;
+import org.skife.jdbi.v2.tweak.Argument;
+import org.skife.jdbi.v2.tweak.ArgumentFactory;
 import org.skife.jdbi.v2.tweak.ResultSetMapper;
-import org.skife.jdbi.v2.unstable.BindIn;
 
 import java.lang.annotation.*;
 import java.sql.ResultSet;
@@ -19,7 +19,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
-@RegisterMapper(value = JDBIEventRepository.EventMapper.class)
+/**
+ * Events are encoded by the {@link EventCodec} of the store, the DBI gets its {@link EventMapper} and
+ * {@link EventArgumentFactory}
+ */
 @UseStringTemplate3StatementLocator
 public interface JDBIEventRepository extends EventRepository {
 
@@ -37,8 +40,8 @@ public interface JDBIEventRepository extends EventRepository {
   void deleteByRootId(@Bind("root_id") UUID rootId);
 
   @Override
-  @SqlUpdate("delete from event where root_id=:root_id and id in (<ids>)")
-  void deleteByGroupIds(@Bind("root_id") UUID rootId, @BindIn("ids") Set<UUID> groupIds);
+  @SqlUpdate("delete from event where root_id=:root_id and id = ANY(:ids)")
+  void deleteByGroupIds(@Bind("root_id") UUID rootId, @BindArray(value = "ids", type = "uuid") Set<UUID> groupIds);
 
   @Override
   @SqlUpdate("update event set status=:status::event_status where id=:id")
@@ -49,15 +52,45 @@ public interface JDBIEventRepository extends EventRepository {
   List<EventRecord> getPendingEvents();
 
   public static class EventMapper implements ResultSetMapper<EventRecord> {
+
+    private final EventCodec eventCodec;
+
+    public EventMapper(EventCodec eventCodec) {
+      this.eventCodec = eventCodec;
+    }
+
     public EventRecord map(int index, ResultSet r, StatementContext ctx) throws SQLException {
       EventRecord.Status status = EventRecord.Status.valueOf(r.getString("status"));
-      Map<String, ?> event = JSONHelper.readMap(new String(r.getBytes("event")));
+      Map<String, ?> event = eventCodec.decode(r.getBytes("event"));
 
       UUID rootId = r.getString("root_id") != null ? UUID.fromString(r.getString("root_id")) : null;
       return new EventRecord(rootId, UUID.fromString(r.getString("id")), status, event);
     }
   }
 
+  /**
+   * Binds the encoded event of an {@link EventRecord}
+   */
+  public static class EventArgumentFactory implements ArgumentFactory<EventRecord> {
+
+    private final EventCodec eventCodec;
+
+    public EventArgumentFactory(EventCodec eventCodec) {
+      this.eventCodec = eventCodec;
+    }
+
+    @Override
+    public boolean accepts(Class<?> expectedType, Object value, StatementContext ctx) {
+      return value instanceof EventRecord;
+    }
+
+    @Override
+    public Argument build(Class<?> expectedType, EventRecord value, StatementContext ctx) {
+      byte[] encoded = eventCodec.encode(value.getEvent());
+      return (position, statement, context) -> statement.setBytes(position, encoded);
+    }
+  }
+
   @BindingAnnotation(JDBIEventRepository.BindEvent.EventBinderFactory.class)
   @Retention(RetentionPolicy.RUNTIME)
   @Target({ ElementType.PARAMETER })
@@ -67,7 +100,7 @@ public interface JDBIEventRepository extends EventRepository {
         return new Binder<JDBIEventRepository.BindEvent, EventRecord>() {
           public void bind(SQLStatement<?> q, JDBIEventRepository.BindEvent bind, EventRecord event) {
             q.bind("id", event.getGroupId());
-            q.bind("event", JSONHelper.writeObject(event.getEvent()).getBytes());
+            q.bind("event", event);
             q.bind("status", event.getStatus().toString());
             q.bind("root_id", event.getRootId());
           }
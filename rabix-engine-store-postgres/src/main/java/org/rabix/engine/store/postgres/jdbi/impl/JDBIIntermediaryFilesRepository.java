@@ -13,6 +13,7 @@ import org.skife.jdbi.v2.unstable.BindIn;
 import java.lang.annotation.*;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -40,6 +41,14 @@ public interface JDBIIntermediaryFilesRepository extends IntermediaryFilesReposi
   @SqlUpdate("delete from intermediary_files where root_id=:root_id and filename=:filename")
   void delete(@Bind("root_id") UUID rootId, @Bind("filename") String filename);
 
+  @Override
+  @SqlUpdate("delete from intermediary_files where root_id=:root_id and filename in (<filenames>)")
+  void delete(@Bind("root_id") UUID rootId, @BindIn("filenames") Set<String> filenames);
+
+  @Override
+  @SqlBatch("insert into intermediary_files (root_id,filename,count) values (:root_id,:filename,:count) on conflict (root_id, filename) do update set count=excluded.count")
+  void upsert(@BindIntermediaryFileEntity Iterator<IntermediaryFileEntity> entities);
+
   @SqlUpdate("delete from intermediary_files where root_id=:root_id")
   void delete(@Bind("root_id") UUID root_id);
 
@@ -6,9 +6,12 @@ import org.rabix.common.helper.JSONHelper;
 import org.rabix.engine.store.model.JobRecord;
 import org.rabix.engine.store.model.JobRecord.JobIdRootIdPair;
 import org.rabix.engine.store.model.JobRecord.PortCounter;
+import org.rabix.engine.store.model.scatter.ScatterElement;
 import org.rabix.engine.store.model.scatter.ScatterStrategy;
 import org.rabix.engine.store.postgres.jdbi.impl.JDBIJobRecordRepository.JobRecordMapper;
+import org.rabix.engine.store.postgres.jdbi.impl.JDBIJobRecordRepository.ScatterElementMapper;
 import org.rabix.engine.store.repository.JobRecordRepository;
+import org.rabix.engine.store.postgres.jdbi.bindings.BindArray;
 import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.sqlobject.*;
@@ -22,30 +25,137 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
-@RegisterMapper(JobRecordMapper.class)
+@RegisterMapper({ JobRecordMapper.class, ScatterElementMapper.class })
 @UseStringTemplate3StatementLocator
 public abstract class JDBIJobRecordRepository extends JobRecordRepository {
 
   @Override
-  @SqlUpdate("insert into job_record (id,external_id,root_id,parent_id,blocking,job_state,input_counters,output_counters,is_scattered,is_container,is_scatter_wrapper,global_inputs_count,global_outputs_count,scatter_strategy,dag_hash,created_at,modified_at) values (:id,:external_id,:root_id,:parent_id,:blocking,:job_state::job_record_state,:input_counters,:output_counters,:is_scattered,:is_container,:is_scatter_wrapper,:global_inputs_count,:global_outputs_count,:scatter_strategy,:dag_hash, :created_at,:modified_at)")
-  public abstract int insert(@BindJobRecord JobRecord jobRecord);
+  public int insert(JobRecord jobRecord) {
+    int count = insertRecord(jobRecord);
+    insertScatterElements(jobRecord);
+    return count;
+  }
+
+  @Override
+  public int update(JobRecord jobRecord) {
+    int count = updateRecord(jobRecord);
+    insertScatterElements(jobRecord);
+    return count;
+  }
+
+  @Override
+  public void insertBatch(Iterator<JobRecord> records) {
+    List<JobRecord> recordList = toList(records);
+    insertRecords(recordList.iterator());
+    recordList.forEach(this::insertScatterElements);
+  }
+
+  @Override
+  public void updateBatch(Iterator<JobRecord> records) {
+    List<JobRecord> recordList = toList(records);
+    updateRecords(recordList.iterator());
+    recordList.forEach(this::insertScatterElements);
+  }
+
+  @Override
+  public List<JobRecord> get(UUID rootId) {
+    return load(getRecords(rootId));
+  }
+
+  @Override
+  public JobRecord getRoot(UUID rootId) {
+    return load(getRootRecord(rootId));
+  }
+
+  @Override
+  public JobRecord get(String id, UUID rootId) {
+    return load(getRecord(id, rootId));
+  }
 
   @Override
-  @SqlUpdate("update job_record set id=:id,external_id=:external_id,root_id=:root_id,parent_id=:parent_id,blocking=:blocking,job_state=:job_state::job_record_state,input_counters=:input_counters,output_counters=:output_counters,is_scattered=:is_scattered,is_container=:is_container,is_scatter_wrapper=:is_scatter_wrapper,global_inputs_count=:global_inputs_count,global_outputs_count=:global_outputs_count,scatter_strategy=:scatter_strategy,dag_hash=:dag_hash,modified_at='now'::timestamp where id=:id and root_id=:root_id")
-  public abstract int update(@BindJobRecord JobRecord jobRecord);
+  public List<JobRecord> getByParent(UUID parentId, UUID rootId) {
+    return load(getRecordsByParent(parentId, rootId));
+  }
 
   @Override
-  @SqlBatch("insert into job_record (id,external_id,root_id,parent_id,blocking,job_state,input_counters,output_counters,is_scattered,is_container,is_scatter_wrapper,global_inputs_count,global_outputs_count,scatter_strategy,dag_hash,created_at,modified_at) values (:id,:external_id,:root_id,:parent_id,:blocking,:job_state::job_record_state,:input_counters,:output_counters,:is_scattered,:is_container,:is_scatter_wrapper,:global_inputs_count,:global_outputs_count,:scatter_strategy,:dag_hash,:created_at,:modified_at)")
-  public abstract void insertBatch(@BindJobRecord Iterator<JobRecord> records);
+  public List<JobRecord> getReady(UUID rootId) {
+    return load(getReadyRecords(rootId));
+  }
 
   @Override
-  @SqlBatch("update job_record set id=:id,external_id=:external_id,root_id=:root_id,parent_id=:parent_id,blocking=:blocking,job_state=:job_state::job_record_state,input_counters=:input_counters,output_counters=:output_counters,is_scattered=:is_scattered,is_container=:is_container,is_scatter_wrapper=:is_scatter_wrapper,global_inputs_count=:global_inputs_count,global_outputs_count=:global_outputs_count,scatter_strategy=:scatter_strategy,dag_hash=:dag_hash,modified_at='now'::timestamp where id=:id and root_id=:root_id")
-  public abstract void updateBatch(@BindJobRecord Iterator<JobRecord> records);
+  public List<JobRecord> get(UUID rootId, Set<JobRecord.JobState> states) {
+    return load(getRecords(rootId, states));
+  }
+
+  @Override
+  public List<JobRecord> getNotScattered(UUID rootId, Set<JobRecord.JobState> states) {
+    return load(getNotScatteredRecords(rootId, states));
+  }
+
+  /**
+   * Scatter values and combinations of stored strategies are read on first use
+   */
+  private JobRecord load(StoredJobRecord stored) {
+    if (stored == null) {
+      return null;
+    }
+    JobRecord jobRecord = stored.jobRecord;
+    if (stored.scatterElements && jobRecord.getScatterStrategy() != null) {
+      UUID externalId = jobRecord.getExternalId();
+      jobRecord.getScatterStrategy().restoreElements(() -> getScatterElements(externalId));
+    }
+    return jobRecord;
+  }
+
+  private List<JobRecord> load(List<StoredJobRecord> stored) {
+    List<JobRecord> jobRecords = new ArrayList<>(stored.size());
+    stored.forEach(record -> jobRecords.add(load(record)));
+    return jobRecords;
+  }
+
+  /**
+   * Writes scatter values and combinations changed since the record was last written over the stored ones. Records
+   * written before elements were kept apart have all of them written on their first write.
+   */
+  private void insertScatterElements(JobRecord jobRecord) {
+    if (jobRecord.getScatterStrategy() == null) {
+      return;
+    }
+    List<ScatterElement> elements = jobRecord.getScatterStrategy().drainElements();
+    if (!elements.isEmpty()) {
+      insertScatterElements(jobRecord.getExternalId(), elements.iterator());
+    }
+  }
+
+  private static List<JobRecord> toList(Iterator<JobRecord> records) {
+    List<JobRecord> recordList = new ArrayList<>();
+    records.forEachRemaining(recordList::add);
+    return recordList;
+  }
+
+  @SqlBatch("insert into job_record_scatter (external_id,element_type,port_id,position,value,indexes,enabled) values (:external_id,:element_type,:port_id,:position,:value,:indexes,:enabled) on conflict (external_id,element_type,coalesce(port_id, ''),position) do update set value=excluded.value,indexes=excluded.indexes,enabled=excluded.enabled")
+  public abstract void insertScatterElements(@Bind("external_id") UUID externalId, @BindScatterElement Iterator<ScatterElement> elements);
+
+  @SqlQuery("select * from job_record_scatter where external_id=:external_id order by seq")
+  public abstract List<ScatterElement> getScatterElements(@Bind("external_id") UUID externalId);
+
+  @SqlUpdate("insert into job_record (id,external_id,root_id,parent_id,blocking,job_state,input_counters,output_counters,is_scattered,is_container,is_scatter_wrapper,global_inputs_count,global_outputs_count,scatter_strategy,scatter_elements,dag_hash,created_at,modified_at) values (:id,:external_id,:root_id,:parent_id,:blocking,:job_state::job_record_state,:input_counters,:output_counters,:is_scattered,:is_container,:is_scatter_wrapper,:global_inputs_count,:global_outputs_count,:scatter_strategy,:scatter_elements,:dag_hash, :created_at,:modified_at)")
+  public abstract int insertRecord(@BindJobRecord JobRecord jobRecord);
+
+  @SqlUpdate("update job_record set id=:id,external_id=:external_id,root_id=:root_id,parent_id=:parent_id,blocking=:blocking,job_state=:job_state::job_record_state,input_counters=:input_counters,output_counters=:output_counters,is_scattered=:is_scattered,is_container=:is_container,is_scatter_wrapper=:is_scatter_wrapper,global_inputs_count=:global_inputs_count,global_outputs_count=:global_outputs_count,scatter_strategy=:scatter_strategy,scatter_elements=:scatter_elements,dag_hash=:dag_hash,modified_at='now'::timestamp where id=:id and root_id=:root_id")
+  public abstract int updateRecord(@BindJobRecord JobRecord jobRecord);
+
+  @SqlBatch("insert into job_record  (id,external_id,root_id,parent_id,blocking,job_state,input_counters,output_counters,is_scattered,is_container,is_scatter_wrapper,global_inputs_count,global_outputs_count,scatter_strategy,scatter_elements,dag_hash,created_at,modified_at) values (:id,:external_id,:root_id,:parent_id,:blocking,:job_state::job_record_state,:input_counters,:output_counters,:is_scattered,:is_container,:is_scatter_wrapper,:global_inputs_count,:global_outputs_count,:scatter_strategy,:scatter_elements,:dag_hash,:created_at,:modified_at)")
+  public abstract void insertRecords(@BindJobRecord Iterator<JobRecord> records);
+
+  @SqlBatch("update job_record set id=:id,external_id=:external_id,root_id=:root_id,parent_id=:parent_id,blocking=:blocking,job_state=:job_state::job_record_state,input_counters=:input_counters,output_counters=:output_counters,is_scattered=:is_scattered,is_container=:is_container,is_scatter_wrapper=:is_scatter_wrapper,global_inputs_count=:global_inputs_count,global_outputs_count=:global_outputs_count,scatter_strategy=:scatter_strategy,scatter_elements=:scatter_elements,dag_hash=:dag_hash,modified_at='now'::timestamp where id=:id and root_id=:root_id")
+  public abstract void updateRecords(@BindJobRecord Iterator<JobRecord> records);
 
   @Override
   @SqlUpdate("update job_record set job_state=:state::job_record_state where root_id=:root_id and job_state::text in (<states>)")
@@ -56,28 +166,33 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
   public abstract void delete(@Bind("external_id") UUID externalId, @Bind("root_id") UUID rootId);
 
   @Override
-  @SqlQuery("select * from job_record where root_id=:root_id")
-  public abstract List<JobRecord> get(@Bind("root_id") UUID rootId);
+  @SqlUpdate("delete from job_record where root_id=:root_id and external_id = ANY(:external_ids)")
+  public abstract void delete(@BindArray(value = "external_ids", type = "uuid") Set<UUID> externalIds, @Bind("root_id") UUID rootId);
 
   @Override
+  @SqlUpdate("delete from job_record where root_id=:root_id")
+  public abstract void deleteByRootId(@Bind("root_id") UUID rootId);
+
+  @SqlQuery("select * from job_record where root_id=:root_id")
+  public abstract List<StoredJobRecord> getRecords(@Bind("root_id") UUID rootId);
+
   @SqlQuery("select * from job_record where id='root' and root_id=:root_id")
-  public abstract JobRecord getRoot(@Bind("root_id") UUID rootId);
+  public abstract StoredJobRecord getRootRecord(@Bind("root_id") UUID rootId);
 
-  @Override
   @SqlQuery("select * from job_record where id=:id and root_id=:root_id")
-  public abstract JobRecord get(@Bind("id") String id, @Bind("root_id") UUID rootId);
+  public abstract StoredJobRecord getRecord(@Bind("id") String id, @Bind("root_id") UUID rootId);
 
-  @Override
   @SqlQuery("select * from job_record where parent_id=:parent_id and root_id=:root_id")
-  public abstract List<JobRecord> getByParent(@Bind("parent_id") UUID parentId, @Bind("root_id") UUID rootId);
+  public abstract List<StoredJobRecord> getRecordsByParent(@Bind("parent_id") UUID parentId, @Bind("root_id") UUID rootId);
 
-  @Override
   @SqlQuery("select * from job_record where job_state='READY'::job_record_state and root_id=:root_id")
-  public abstract List<JobRecord> getReady(@Bind("root_id") UUID rootId);
+  public abstract List<StoredJobRecord> getReadyRecords(@Bind("root_id") UUID rootId);
 
-  @Override
   @SqlQuery("select * from job_record where job_state::text in (<states>) and root_id=:root_id")
-  public abstract List<JobRecord> get(@Bind("root_id") UUID rootId, @BindIn("states") Set<JobRecord.JobState> states);
+  public abstract List<StoredJobRecord> getRecords(@Bind("root_id") UUID rootId, @BindIn("states") Set<JobRecord.JobState> states);
+
+  @SqlQuery("select * from job_record where job_state::text in (<states>) and root_id=:root_id and not is_scattered")
+  public abstract List<StoredJobRecord> getNotScatteredRecords(@Bind("root_id") UUID rootId, @BindIn("states") Set<JobRecord.JobState> states);
 
   @BindingAnnotation(BindJobRecord.JobBinderFactory.class)
   @Retention(RetentionPolicy.RUNTIME)
@@ -97,7 +212,7 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
             try {
               PGobject data = new PGobject();
               data.setType("jsonb");
-              data.setValue(JSONHelper.writeObject(jobRecord.getInputCounters()));
+              data.setValue(JSONHelper.writeCompact(jobRecord.getInputCounters()));
               q.bind("input_counters", data);
             } catch (SQLException ex) {
               throw new IllegalStateException("Error Binding input counters", ex);
@@ -106,7 +221,7 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
             try {
               PGobject data = new PGobject();
               data.setType("jsonb");
-              data.setValue(JSONHelper.writeObject(jobRecord.getOutputCounters()));
+              data.setValue(JSONHelper.writeCompact(jobRecord.getOutputCounters()));
               q.bind("output_counters", data);
             } catch (SQLException ex) {
               throw new IllegalStateException("Error Binding output counters", ex);
@@ -118,14 +233,17 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
             q.bind("global_inputs_count", jobRecord.getNumberOfGlobalInputs());
             q.bind("global_outputs_count", jobRecord.getNumberOfGlobalOutputs());
 
+            // values and combinations are kept in job_record_scatter
+            ScatterStrategy scatterStrategy = jobRecord.getScatterStrategy();
             try {
               PGobject data = new PGobject();
               data.setType("jsonb");
-              data.setValue(JSONHelper.writeObject(jobRecord.getScatterStrategy()));
+              data.setValue(JSONHelper.writeCompact(scatterStrategy != null ? scatterStrategy.withoutElements() : null));
               q.bind("scatter_strategy", data);
             } catch (SQLException ex) {
               throw new IllegalStateException("Error Binding output counters", ex);
             }
+            q.bind("scatter_elements", scatterStrategy != null);
 
             q.bind("dag_hash", jobRecord.getDagHash());
             q.bind("modified_at", Timestamp.valueOf(jobRecord.getModifiedAt()));
@@ -137,6 +255,37 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
     }
   }
 
+  @BindingAnnotation(BindScatterElement.ScatterElementBinderFactory.class)
+  @Retention(RetentionPolicy.RUNTIME)
+  @Target({ ElementType.PARAMETER })
+  public static @interface BindScatterElement {
+    public static class ScatterElementBinderFactory implements BinderFactory<Annotation> {
+      public Binder<BindScatterElement, ScatterElement> build(Annotation annotation) {
+        return new Binder<BindScatterElement, ScatterElement>() {
+          public void bind(SQLStatement<?> q, BindScatterElement bind, ScatterElement element) {
+            q.bind("element_type", element.getType().name());
+            q.bind("port_id", element.getPortId());
+            q.bind("position", element.getPosition());
+            q.bind("enabled", element.isEnabled());
+            try {
+              PGobject value = new PGobject();
+              value.setType("jsonb");
+              value.setValue(element.getType() == ScatterElement.Type.VALUE ? JSONHelper.writeCompact(element.getValue()) : null);
+              q.bind("value", value);
+
+              PGobject indexes = new PGobject();
+              indexes.setType("jsonb");
+              indexes.setValue(element.getIndexes() != null ? JSONHelper.writeCompact(element.getIndexes()) : null);
+              q.bind("indexes", indexes);
+            } catch (SQLException ex) {
+              throw new IllegalStateException("Error Binding scatter element", ex);
+            }
+          }
+        };
+      }
+    }
+  }
+
   @BindingAnnotation(BindJobIdRootId.JobBinderFactory.class)
   @Retention(RetentionPolicy.RUNTIME)
   @Target({ ElementType.PARAMETER })
@@ -153,8 +302,21 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
     }
   }
 
-  public static class JobRecordMapper implements ResultSetMapper<JobRecord> {
-    public JobRecord map(int index, ResultSet resultSet, StatementContext ctx) throws SQLException {
+  /**
+   * Mapped row of job_record, scatter elements of the strategy are kept in job_record_scatter when the flag is set
+   */
+  public static class StoredJobRecord {
+    final JobRecord jobRecord;
+    final boolean scatterElements;
+
+    StoredJobRecord(JobRecord jobRecord, boolean scatterElements) {
+      this.jobRecord = jobRecord;
+      this.scatterElements = scatterElements;
+    }
+  }
+
+  public static class JobRecordMapper implements ResultSetMapper<StoredJobRecord> {
+    public StoredJobRecord map(int index, ResultSet resultSet, StatementContext ctx) throws SQLException {
       String id = resultSet.getString("id");
       UUID externalId = resultSet.getObject("external_id", UUID.class);
       UUID rootId = resultSet.getObject("root_id", UUID.class);
@@ -169,6 +331,7 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
       Integer globalInputsCount = resultSet.getInt("global_inputs_count");
       Integer globalOutputsCount = resultSet.getInt("global_outputs_count");
       String scatterStrategy = resultSet.getString("scatter_strategy");
+      Boolean scatterElements = resultSet.getBoolean("scatter_elements");
       String dagHash = resultSet.getString("dag_hash");
       LocalDateTime createdAt = resultSet.getTimestamp("created_at").toLocalDateTime();
       LocalDateTime modifiedAt = resultSet.getTimestamp("modified_at").toLocalDateTime();
@@ -180,7 +343,19 @@ public abstract class JDBIJobRecordRepository extends JobRecordRepository {
       jobRecord.setScatterStrategy(JSONHelper.readObject(scatterStrategy, ScatterStrategy.class));
       jobRecord.setInputCounters(JSONHelper.readObject(inputCounters, new TypeReference<List<PortCounter>>() {}));
       jobRecord.setOutputCounters(JSONHelper.readObject(outputCounters, new TypeReference<List<PortCounter>>() {}));
-      return jobRecord;
+      return new StoredJobRecord(jobRecord, scatterElements);
+    }
+  }
+
+  public static class ScatterElementMapper implements ResultSetMapper<ScatterElement> {
+    public ScatterElement map(int index, ResultSet resultSet, StatementContext ctx) throws SQLException {
+      String portId = resultSet.getString("port_id");
+      int position = resultSet.getInt("position");
+      if (ScatterElement.Type.valueOf(resultSet.getString("element_type")) == ScatterElement.Type.VALUE) {
+        return ScatterElement.value(portId, position, JSONHelper.readObject(resultSet.getString("value"), Object.class));
+      }
+      String indexes = resultSet.getString("indexes");
+      return ScatterElement.combination(position, indexes != null ? JSONHelper.readObject(indexes, new TypeReference<List<Integer>>() {}) : null, resultSet.getBoolean("enabled"));
     }
   }
 
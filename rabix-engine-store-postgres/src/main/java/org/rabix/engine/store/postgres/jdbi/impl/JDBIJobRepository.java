@@ -1,5 +1,6 @@
 package org.rabix.engine.store.postgres.jdbi.impl;
 
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.model.FileValue;
 import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.Job.JobStatus;
@@ -9,6 +10,7 @@ import org.rabix.engine.store.postgres.jdbi.impl.JDBIJobRepository.BackendIDMapp
 import org.rabix.engine.store.postgres.jdbi.impl.JDBIJobRepository.JobEntityMapper;
 import org.rabix.engine.store.postgres.jdbi.impl.JDBIJobRepository.JobMapper;
 import org.rabix.engine.store.repository.JobRepository;
+import org.rabix.engine.store.postgres.jdbi.bindings.BindArray;
 import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.sqlobject.*;
@@ -28,15 +30,15 @@ import java.util.*;
 public interface JDBIJobRepository extends JobRepository {
 
   @Override
-  @SqlUpdate("insert into job (id,root_id,name, parent_id, status, message, inputs, outputs, resources, group_id, produced_by_node, app, config) values (:id,:root_id,:name,:parent_id,:status::job_status,:message,:inputs,:outputs,:resources::jsonb,:group_id,:produced_by_node,:app,:config::jsonb)")
+  @SqlUpdate("insert into job (id,root_id,name, parent_id, status, message, inputs, outputs, resources, group_id, produced_by_node, app, app_hash, config, priority) values (:id,:root_id,:name,:parent_id,:status::job_status,:message,:inputs,:outputs,:resources::jsonb,:group_id,:produced_by_node,:app,:app_hash,:config::jsonb,:priority)")
   void insert(@BindJob Job job, @Bind("group_id") UUID groupId, @Bind("produced_by_node") String producedByNode);
 
   @Override
-  @SqlUpdate("update job set root_id=:root_id,name=:name, parent_id=:parent_id, status=:status::job_status, message=:message, inputs=:inputs, outputs=:outputs, resources=:resources::jsonb,app=:app,config=:config::jsonb,modified_at='now' where id=:id")
+  @SqlUpdate("update job set root_id=:root_id,name=:name, parent_id=:parent_id, status=:status::job_status, message=:message, inputs=:inputs, outputs=:outputs, resources=:resources::jsonb,config=:config::jsonb,modified_at='now' where id=:id")
   void update(@BindJob Job job);
 
   @Override
-  @SqlBatch("update job set root_id=:root_id,name=:name, parent_id=:parent_id, status=:status::job_status, message=:message, inputs=:inputs, outputs=:outputs, resources=:resources::jsonb,app=:app,config=:config::jsonb,modified_at='now' where id=:id")
+  @SqlBatch("update job set root_id=:root_id,name=:name, parent_id=:parent_id, status=:status::job_status, message=:message, inputs=:inputs, outputs=:outputs, resources=:resources::jsonb,config=:config::jsonb,modified_at='now' where id=:id")
   void update(@BindJob Iterator<Job> jobs);
 
   @Override
@@ -76,8 +78,8 @@ public interface JDBIJobRepository extends JobRepository {
   Set<Job> get(@Bind("root_id") UUID rootID, @BindIn("statuses") Set<JobStatus> whereStatuses);
 
   @Override
-  @SqlUpdate("delete from job where root_id=:root_id and id in (<ids>)")
-  void delete(@Bind("root_id") UUID rootId, @BindIn("ids") Set<UUID> ids);
+  @SqlUpdate("delete from job where root_id=:root_id and id = ANY(:ids)")
+  void delete(@Bind("root_id") UUID rootId, @BindArray(value = "ids", type = "uuid") Set<UUID> ids);
 
   @Override
   @SqlQuery("select backend_id from job where root_id=:root_id")
@@ -107,17 +109,39 @@ public interface JDBIJobRepository extends JobRepository {
   @SqlQuery("select * from job where status=:status::job_status")
   Set<JobEntity> getByStatus(@Bind("status") JobStatus status);
 
+  /**
+   * Child jobs reference the application table by hash (app:{hash}) and the application is loaded lazily by AppService.
+   * Root jobs and legacy rows keep the application inline.
+   */
+  public static String readApp(ResultSet r) throws SQLException {
+    String appHash = r.getString("app_hash");
+    if (appHash != null) {
+      return URIHelper.createAppURI(appHash);
+    }
+    return r.getString("app");
+  }
+
+  public static void bindApp(SQLStatement<?> q, Job job) {
+    if (URIHelper.isApp(job.getApp())) {
+      q.bind("app", (String) null);
+      q.bind("app_hash", URIHelper.getURIInfo(job.getApp()));
+    } else {
+      q.bind("app", job.getApp());
+      q.bind("app_hash", (String) null);
+    }
+  }
+
   public static class JobMapper implements ResultSetMapper<Job> {
     public Job map(int index, ResultSet r, StatementContext ctx) throws SQLException {
       UUID id = r.getObject("id", UUID.class);
       UUID root_id = r.getObject("root_id", UUID.class);
       UUID parent_id = r.getObject("parent_id", UUID.class);
       String name = r.getString("name");
-      String app = r.getString("app");
+      String app = readApp(r);
       Job.JobStatus status = Job.JobStatus.valueOf(r.getString("status"));
       String message = r.getString("message");
-      String inputsJson = new String(r.getBytes("inputs"));
-      String outputsJson = new String(r.getBytes("outputs"));
+      byte[] inputsJson = r.getBytes("inputs");
+      byte[] outputsJson = r.getBytes("outputs");
       String resourcesStr = r.getString("resources");
       String configJson = r.getString("config");
       Resources res = JSONHelper.readObject(resourcesStr, Resources.class);
@@ -126,7 +150,7 @@ public interface JDBIJobRepository extends JobRepository {
       Map<String, Object> outputs = (Map<String, Object>) FileValue.deserialize(JSONHelper.readMap(outputsJson));
       Map<String, Object> config = JSONHelper.readMap(configJson);
 
-      return new Job(id, parent_id, root_id, name, app, status, message, inputs, outputs, config, res, Collections.emptySet());
+      return new Job(id, parent_id, root_id, name, app, status, message, inputs, outputs, config, res, Collections.emptySet(), r.getObject("priority", Long.class));
     }
   }
 
@@ -138,12 +162,12 @@ public interface JDBIJobRepository extends JobRepository {
       UUID backendId = r.getObject("backend_id", UUID.class);
       UUID parentId = r.getObject("parent_id", UUID.class);
       String name = r.getString("name");
-      String app = r.getString("app");
+      String app = readApp(r);
       String producedByNode = r.getString("produced_by_node");
       Job.JobStatus status = Job.JobStatus.valueOf(r.getString("status"));
       String message = r.getString("message");
-      String inputsJson = new String(r.getBytes("inputs"));
-      String outputsJson = new String(r.getBytes("outputs"));
+      byte[] inputsJson = r.getBytes("inputs");
+      byte[] outputsJson = r.getBytes("outputs");
       String configJson = r.getString("config");
       String resourcesStr = r.getString("resources");
       Resources res = JSONHelper.readObject(resourcesStr, Resources.class);
@@ -153,7 +177,7 @@ public interface JDBIJobRepository extends JobRepository {
       Map<String, Object> outputs = (Map<String, Object>) FileValue.deserialize(JSONHelper.readMap(outputsJson));
       Map<String, Object> config = JSONHelper.readMap(configJson);
 
-      Job job = new Job(id, parentId, root_id, name, app, status, message, inputs, outputs, config, res, Collections.emptySet());
+      Job job = new Job(id, parentId, root_id, name, app, status, message, inputs, outputs, config, res, Collections.emptySet(), r.getObject("priority", Long.class));
       return new JobEntity(job, groupId, producedByNode, backendId);
     }
   }
@@ -179,11 +203,12 @@ public interface JDBIJobRepository extends JobRepository {
             q.bind("parent_id", job.getParentId());
             q.bind("status", job.getStatus().toString());
             q.bind("message", job.getMessage());
-            q.bind("inputs", JSONHelper.writeObject(job.getInputs()).getBytes());
-            q.bind("outputs", JSONHelper.writeObject(job.getOutputs()).getBytes());
-            q.bind("app", job.getApp());
-            q.bind("resources", JSONHelper.writeObject(job.getResources()));
-            q.bind("config", JSONHelper.writeObject(job.getConfig()));
+            q.bind("inputs", JSONHelper.writeCompactBytes(job.getInputs()));
+            q.bind("outputs", JSONHelper.writeCompactBytes(job.getOutputs()));
+            bindApp(q, job);
+            q.bind("resources", JSONHelper.writeCompact(job.getResources()));
+            q.bind("config", JSONHelper.writeCompact(job.getConfig()));
+            q.bind("priority", job.getPriority());
           }
         };
       }
@@ -206,11 +231,11 @@ public interface JDBIJobRepository extends JobRepository {
               q.bind("parent_id", job.getParentId());
               q.bind("status", job.getStatus().toString());
               q.bind("message", job.getMessage());
-              q.bind("inputs", JSONHelper.writeObject(job.getInputs()).getBytes());
-              q.bind("outputs", JSONHelper.writeObject(job.getOutputs()).getBytes());
-              q.bind("app", job.getApp());
-              q.bind("resources", JSONHelper.writeObject(job.getResources()));
-              q.bind("config", JSONHelper.writeObject(job.getConfig()));
+              q.bind("inputs", JSONHelper.writeCompactBytes(job.getInputs()));
+              q.bind("outputs", JSONHelper.writeCompactBytes(job.getOutputs()));
+              bindApp(q, job);
+              q.bind("resources", JSONHelper.writeCompact(job.getResources()));
+              q.bind("config", JSONHelper.writeCompact(job.getConfig()));
             }
             q.bind("group_id", entity.getGroupId());
             q.bind("produced_by_node", entity.getProducedByNode());
@@ -0,0 +1,159 @@
+package org.rabix.engine.store.postgres.jdbi.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.store.repository.JobStatusFeed;
+import org.skife.jdbi.v2.DBI;
+import org.skife.jdbi.v2.Handle;
+import org.skife.jdbi.v2.util.StringColumnMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listens on the channel the job table triggers notify for roots, see dbinit.sql. The listening connection is taken
+ * from the pool when the first subscriber arrives and returned when the last one leaves.
+ *
+ * Notifications are read from the connection's socket without a round trip, so waiting for them doesn't load the
+ * database. The connection is validated with a query every once in a while and replaced when it breaks.
+ */
+public class JDBIJobStatusFeed implements JobStatusFeed {
+
+  private static final Logger logger = LoggerFactory.getLogger(JDBIJobStatusFeed.class);
+
+  public static final String CHANNEL = "job_status";
+
+  private static final long RECONNECT_DELAY = 5000;
+
+  private final DBI dbi;
+  private final long checkInterval;
+  private final long validateInterval;
+
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private Thread listener;
+
+  public JDBIJobStatusFeed(DBI dbi, long checkInterval, long validateInterval) {
+    this.dbi = dbi;
+    this.checkInterval = checkInterval;
+    this.validateInterval = validateInterval;
+  }
+
+  @Override
+  public synchronized void subscribe(Subscriber subscriber) {
+    subscribers.add(subscriber);
+    if (listener == null) {
+      listener = new Thread(this::listen, "job-status-feed");
+      listener.setDaemon(true);
+      listener.start();
+    }
+  }
+
+  @Override
+  public synchronized void unsubscribe(Subscriber subscriber) {
+    subscribers.remove(subscriber);
+    if (subscribers.isEmpty() && listener != null) {
+      listener.interrupt();
+      listener = null;
+    }
+  }
+
+  private void listen() {
+    boolean listened = false;
+    while (!Thread.currentThread().isInterrupted()) {
+      try (Handle handle = dbi.open()) {
+        try {
+          handle.execute("LISTEN " + CHANNEL);
+          String origin = handle.createQuery("SELECT current_setting('application_name')").map(StringColumnMapper.INSTANCE).first();
+          PGConnection connection = handle.getConnection().unwrap(PGConnection.class);
+          if (listened) {
+            logger.info("Listening on {} again", CHANNEL);
+            subscribers.forEach(this::reconnected);
+          }
+          listened = true;
+          receive(handle, connection, origin);
+        } finally {
+          // a pooled connection which keeps listening would queue notifications on the server
+          unlisten(handle);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (Exception e) {
+        logger.warn("Lost the connection listening on {}, reconnecting in {} ms", CHANNEL, RECONNECT_DELAY, e);
+        try {
+          Thread.sleep(RECONNECT_DELAY);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  private void receive(Handle handle, PGConnection connection, String origin) throws Exception {
+    long validated = System.currentTimeMillis();
+    while (!Thread.currentThread().isInterrupted()) {
+      PGNotification[] notifications = connection.getNotifications();
+      if (notifications != null && notifications.length > 0) {
+        for (PGNotification notification : notifications) {
+          deliver(notification.getParameter(), origin, subscribers);
+        }
+        continue;
+      }
+      if (System.currentTimeMillis() - validated > validateInterval) {
+        handle.select("SELECT 1");
+        validated = System.currentTimeMillis();
+        continue;
+      }
+      Thread.sleep(checkInterval);
+    }
+  }
+
+  /**
+   * Sends a notification to the subscribers, changes made by a connection with the given application name are local
+   */
+  static void deliver(String payload, String origin, List<Subscriber> subscribers) {
+    UUID id;
+    UUID rootId;
+    JobStatus status;
+    boolean local;
+    try {
+      Map<String, Object> change = JSONHelper.readMap(payload);
+      id = UUID.fromString((String) change.get("id"));
+      rootId = change.get("rootId") != null ? UUID.fromString((String) change.get("rootId")) : id;
+      status = JobStatus.valueOf((String) change.get("status"));
+      local = origin != null && origin.equals(change.get("origin"));
+    } catch (RuntimeException e) {
+      logger.warn("Ignoring malformed {} notification {}", CHANNEL, payload);
+      return;
+    }
+    for (Subscriber subscriber : subscribers) {
+      try {
+        subscriber.onJobStatusChanged(id, rootId, status, local);
+      } catch (Exception e) {
+        logger.error("Job status subscriber failed for job {}", id, e);
+      }
+    }
+  }
+
+  private void reconnected(Subscriber subscriber) {
+    try {
+      subscriber.onReconnected();
+    } catch (Exception e) {
+      logger.error("Job status subscriber failed to handle reconnect", e);
+    }
+  }
+
+  private void unlisten(Handle handle) {
+    try {
+      handle.execute("UNLISTEN " + CHANNEL);
+    } catch (Exception e) {
+      logger.debug("Failed to stop listening on {}", CHANNEL, e);
+    }
+  }
+
+}
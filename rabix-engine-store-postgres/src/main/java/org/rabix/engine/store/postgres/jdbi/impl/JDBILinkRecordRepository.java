@@ -4,6 +4,7 @@ import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
 import org.rabix.engine.store.model.LinkRecord;
 import org.rabix.engine.store.postgres.jdbi.impl.JDBILinkRecordRepository.LinkRecordMapper;
 import org.rabix.engine.store.repository.LinkRecordRepository;
+import org.rabix.engine.store.postgres.jdbi.bindings.BindArray;
 import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.sqlobject.*;
@@ -17,6 +18,7 @@ import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @RegisterMapper(LinkRecordMapper.class)
@@ -50,6 +52,10 @@ public abstract class JDBILinkRecordRepository extends LinkRecordRepository {
   @SqlUpdate("delete from link_record where context_id=:root_id and (destination_job_id=:id or source_job_id=:id)")
   public abstract void delete(@Bind("id") String jobId, @Bind("root_id") UUID rootId);
 
+  @Override
+  @SqlUpdate("delete from link_record where context_id=:root_id and (destination_job_id = ANY(:ids) or source_job_id = ANY(:ids))")
+  public abstract void delete(@BindArray(value = "ids", type = "text") Set<String> jobIds, @Bind("root_id") UUID rootId);
+
   @Override
   @SqlQuery("select * from link_record where source_job_id=:source_job_id and source_job_port_id=:source_job_port_id and context_id=:context_id")
   public abstract List<LinkRecord> getBySource(@Bind("source_job_id") String sourceJobId, @Bind("source_job_port_id") String sourceJobPortId, @Bind("context_id") UUID rootId);
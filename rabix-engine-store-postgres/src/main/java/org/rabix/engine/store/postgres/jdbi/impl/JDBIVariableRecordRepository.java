@@ -6,8 +6,10 @@ import org.rabix.bindings.model.LinkMerge;
 import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
 import org.rabix.common.helper.JSONHelper;
 import org.rabix.engine.store.model.VariableRecord;
+import org.rabix.engine.store.postgres.jdbi.impl.JDBIVariableRecordRepository.VariableElementMapper;
 import org.rabix.engine.store.postgres.jdbi.impl.JDBIVariableRecordRepository.VariableRecordMapper;
 import org.rabix.engine.store.repository.VariableRecordRepository;
+import org.rabix.engine.store.postgres.jdbi.bindings.BindArray;
 import org.skife.jdbi.v2.SQLStatement;
 import org.skife.jdbi.v2.StatementContext;
 import org.skife.jdbi.v2.sqlobject.*;
@@ -19,48 +21,167 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
-@RegisterMapper(VariableRecordMapper.class)
+@RegisterMapper({ VariableRecordMapper.class, VariableElementMapper.class })
 public abstract class JDBIVariableRecordRepository extends VariableRecordRepository {
 
   @Override
-  @SqlUpdate("insert into variable_record (job_id,value,port_id,type,link_merge,is_wrapped,globals_count,times_updated_count,context_id,is_default,transform,created_at,modified_at) values (:job_id,:value,:port_id,:type::port_type,:link_merge::link_merge_type,:is_wrapped,:globals_count,:times_updated_count,:context_id,:is_default,:transform,:created_at,:modified_at)")
-  public abstract int insert(@BindVariableRecord VariableRecord jobRecord);
+  public int insert(VariableRecord variableRecord) {
+    int count = insertRecord(variableRecord);
+    storeElements(variableRecord);
+    return count;
+  }
+
+  @Override
+  public int update(VariableRecord variableRecord) {
+    int count = updateRecord(variableRecord);
+    storeElements(variableRecord);
+    return count;
+  }
+
+  @Override
+  public void insertBatch(Iterator<VariableRecord> records) {
+    List<VariableRecord> recordList = toList(records);
+    insertRecords(recordList.iterator());
+    recordList.forEach(this::storeElements);
+  }
 
   @Override
-  @SqlUpdate("update variable_record set value=:value,link_merge=:link_merge::link_merge_type,is_wrapped=:is_wrapped,globals_count=:globals_count,times_updated_count=:times_updated_count,is_default=:is_default,transform=:transform,modified_at='now' where port_id=:port_id and context_id=:context_id and job_id=:job_id and type=:type::port_type")
-  public abstract int update(@BindVariableRecord VariableRecord jobRecord);
+  public void updateBatch(Iterator<VariableRecord> records) {
+    List<VariableRecord> recordList = toList(records);
+    updateRecords(recordList.iterator());
+    recordList.forEach(this::storeElements);
+  }
 
   @Override
-  @SqlBatch("insert into variable_record (job_id,value,port_id,type,link_merge,is_wrapped,globals_count,times_updated_count,context_id,is_default,transform,created_at,modified_at) values (:job_id,:value,:port_id,:type::port_type,:link_merge::link_merge_type,:is_wrapped,:globals_count,:times_updated_count,:context_id,:is_default,:transform,:created_at,:modified_at)")
-  public abstract void insertBatch(@BindVariableRecord Iterator<VariableRecord> records);
+  public VariableRecord get(String jobId, String portId, LinkPortType type, UUID rootId) {
+    return load(getRecord(jobId, portId, type, rootId));
+  }
 
   @Override
-  @SqlBatch("update variable_record set value=:value,link_merge=:link_merge::link_merge_type,is_wrapped=:is_wrapped,globals_count=:globals_count,times_updated_count=:times_updated_count,is_default=:is_default,transform=:transform,modified_at='now' where port_id=:port_id and context_id=:context_id and job_id=:job_id and type=:type::port_type")
-  public abstract void updateBatch(@BindVariableRecord Iterator<VariableRecord> records);
+  public List<VariableRecord> getByType(String jobId, LinkPortType type, UUID rootId) {
+    return load(getRecordsByType(jobId, type, rootId));
+  }
+
+  @Override
+  public List<VariableRecord> getByPort(String jobId, String portId, UUID rootId) {
+    return load(getRecordsByPort(jobId, portId, rootId));
+  }
+
+  /**
+   * Wrapped (gathered) values are kept in variable_record_element, one row per position. Only elements set since the
+   * record was last written are stored, unless the whole value changed.
+   */
+  @SuppressWarnings("unchecked")
+  private void storeElements(VariableRecord variableRecord) {
+    if (!variableRecord.isWrapped()) {
+      return;
+    }
+    Map<Integer, Object> elements = variableRecord.drainElements();
+    if (elements == null) {
+      deleteElements(variableRecord.getJobId(), variableRecord.getPortId(), variableRecord.getType(), variableRecord.getRootId());
+      List<Object> value = (List<Object>) variableRecord.getValue();
+      if (value == null || value.isEmpty()) {
+        return;
+      }
+      List<Integer> positions = new ArrayList<>();
+      List<byte[]> values = new ArrayList<>();
+      for (int i = 0; i < value.size(); i++) {
+        positions.add(i + 1);
+        values.add(JSONHelper.writeCompactBytes(value.get(i)));
+      }
+      upsertElements(variableRecord.getJobId(), variableRecord.getPortId(), variableRecord.getType(), variableRecord.getRootId(), positions, values);
+    } else if (!elements.isEmpty()) {
+      List<byte[]> values = new ArrayList<>();
+      elements.values().forEach(element -> values.add(JSONHelper.writeCompactBytes(element)));
+      upsertElements(variableRecord.getJobId(), variableRecord.getPortId(), variableRecord.getType(), variableRecord.getRootId(), new ArrayList<>(elements.keySet()), values);
+    }
+  }
+
+  /**
+   * Elements of wrapped values are read on first use
+   */
+  private VariableRecord load(StoredVariableRecord stored) {
+    if (stored == null) {
+      return null;
+    }
+    VariableRecord variableRecord = stored.variableRecord;
+    if (stored.elements) {
+      variableRecord.restoreElements(() -> loadElements(variableRecord.getJobId(), variableRecord.getPortId(), variableRecord.getType(), variableRecord.getRootId()));
+    }
+    return variableRecord;
+  }
+
+  private List<VariableRecord> load(List<StoredVariableRecord> stored) {
+    List<VariableRecord> variableRecords = new ArrayList<>(stored.size());
+    stored.forEach(record -> variableRecords.add(load(record)));
+    return variableRecords;
+  }
+
+  private List<Object> loadElements(String jobId, String portId, LinkPortType type, UUID rootId) {
+    List<Object> value = new ArrayList<>();
+    for (VariableElement element : getElements(jobId, portId, type, rootId)) {
+      while (value.size() < element.position) {
+        value.add(null);
+      }
+      value.set(element.position - 1, element.value);
+    }
+    return value;
+  }
+
+  private static List<VariableRecord> toList(Iterator<VariableRecord> records) {
+    List<VariableRecord> recordList = new ArrayList<>();
+    records.forEachRemaining(recordList::add);
+    return recordList;
+  }
+
+  @SqlBatch("insert into variable_record_element (job_id,port_id,type,context_id,position,value) values (:job_id,:port_id,:type::port_type,:context_id,:position,:value) on conflict (job_id,port_id,type,context_id,position) do update set value=excluded.value")
+  public abstract void upsertElements(@Bind("job_id") String jobId, @Bind("port_id") String portId, @Bind("type") LinkPortType type, @Bind("context_id") UUID rootId, @Bind("position") List<Integer> positions, @Bind("value") List<byte[]> values);
+
+  @SqlUpdate("delete from variable_record_element where job_id=:job_id and port_id=:port_id and type=:type::port_type and context_id=:context_id")
+  public abstract void deleteElements(@Bind("job_id") String jobId, @Bind("port_id") String portId, @Bind("type") LinkPortType type, @Bind("context_id") UUID rootId);
+
+  @SqlQuery("select position,value from variable_record_element where job_id=:job_id and port_id=:port_id and type=:type::port_type and context_id=:context_id order by position")
+  public abstract List<VariableElement> getElements(@Bind("job_id") String jobId, @Bind("port_id") String portId, @Bind("type") LinkPortType type, @Bind("context_id") UUID rootId);
+
+  @SqlUpdate("insert into variable_record (job_id,value,port_id,type,link_merge,is_wrapped,globals_count,times_updated_count,context_id,is_default,transform,elements,created_at,modified_at) values (:job_id,:value,:port_id,:type::port_type,:link_merge::link_merge_type,:is_wrapped,:globals_count,:times_updated_count,:context_id,:is_default,:transform,:elements,:created_at,:modified_at)")
+  public abstract int insertRecord(@BindVariableRecord VariableRecord variableRecord);
+
+  @SqlUpdate("update variable_record set value=:value,link_merge=:link_merge::link_merge_type,is_wrapped=:is_wrapped,globals_count=:globals_count,times_updated_count=:times_updated_count,is_default=:is_default,transform=:transform,elements=:elements,modified_at='now' where port_id=:port_id and context_id=:context_id and job_id=:job_id and type=:type::port_type")
+  public abstract int updateRecord(@BindVariableRecord VariableRecord variableRecord);
+
+  @SqlBatch("insert into variable_record (job_id,value,port_id,type,link_merge,is_wrapped,globals_count,times_updated_count,context_id,is_default,transform,elements,created_at,modified_at) values (:job_id,:value,:port_id,:type::port_type,:link_merge::link_merge_type,:is_wrapped,:globals_count,:times_updated_count,:context_id,:is_default,:transform,:elements,:created_at,:modified_at)")
+  public abstract void insertRecords(@BindVariableRecord Iterator<VariableRecord> records);
+
+  @SqlBatch("update variable_record set value=:value,link_merge=:link_merge::link_merge_type,is_wrapped=:is_wrapped,globals_count=:globals_count,times_updated_count=:times_updated_count,is_default=:is_default,transform=:transform,elements=:elements,modified_at='now' where port_id=:port_id and context_id=:context_id and job_id=:job_id and type=:type::port_type")
+  public abstract void updateRecords(@BindVariableRecord Iterator<VariableRecord> records);
 
   @Override
   @SqlBatch("delete from variable_record where job_id=:id and context_id=:root_id")
   public abstract void delete(@Bind("id") String id, @Bind("root_id") UUID rootId);
 
+  @Override
+  @SqlUpdate("delete from variable_record where context_id=:root_id and job_id = ANY(:ids)")
+  public abstract void delete(@BindArray(value = "ids", type = "text") Set<String> ids, @Bind("root_id") UUID rootId);
+
   @Override
   @SqlUpdate("delete from variable_record where context_id=:root_id")
   public abstract void deleteByRootId(@Bind("root_id") UUID rootId);
 
-  @Override
   @SqlQuery("select * from variable_record where job_id=:job_id and port_id=:port_id and type=:type::port_type and context_id=:context_id")
-  public abstract VariableRecord get(@Bind("job_id") String jobId, @Bind("port_id") String portId, @Bind("type") LinkPortType type, @Bind("context_id") UUID rootId);
+  public abstract StoredVariableRecord getRecord(@Bind("job_id") String jobId, @Bind("port_id") String portId, @Bind("type") LinkPortType type, @Bind("context_id") UUID rootId);
 
-  @Override
   @SqlQuery("select * from variable_record where job_id=:job_id and type=:type::port_type and context_id=:context_id")
-  public abstract List<VariableRecord> getByType(@Bind("job_id") String jobId, @Bind("type") LinkPortType type, @Bind("context_id") UUID rootId);
+  public abstract List<StoredVariableRecord> getRecordsByType(@Bind("job_id") String jobId, @Bind("type") LinkPortType type, @Bind("context_id") UUID rootId);
 
-  @Override
   @SqlQuery("select * from variable_record where job_id=:job_id and port_id=:port_id and context_id=:context_id")
-  public abstract List<VariableRecord> getByPort(@Bind("job_id") String jobId, @Bind("port_id") String portId, @Bind("context_id") UUID rootId);
+  public abstract List<StoredVariableRecord> getRecordsByPort(@Bind("job_id") String jobId, @Bind("port_id") String portId, @Bind("context_id") UUID rootId);
 
   @BindingAnnotation(BindVariableRecord.VariableBinderFactory.class)
   @Retention(RetentionPolicy.RUNTIME)
@@ -71,11 +192,13 @@ public abstract class JDBIVariableRecordRepository extends VariableRecordReposit
         return new Binder<BindVariableRecord, VariableRecord>() {
           public void bind(SQLStatement<?> q, BindVariableRecord bind, VariableRecord variableRecord) {
             q.bind("job_id", variableRecord.getJobId());
-            q.bind("value", JSONHelper.writeObject(variableRecord.getValue()).getBytes());
+            // elements of wrapped values are kept in variable_record_element
+            q.bind("value", variableRecord.isWrapped() ? null : JSONHelper.writeCompactBytes(variableRecord.getValue()));
+            q.bind("elements", variableRecord.isWrapped());
             try {
               PGobject data = new PGobject();
               data.setType("jsonb");
-              data.setValue(JSONHelper.writeObject(variableRecord.getTransform()));
+              data.setValue(JSONHelper.writeCompact(variableRecord.getTransform()));
               q.bind("transform", data);
             } catch (SQLException ex) {
               throw new IllegalStateException("Error Binding value", ex);
@@ -97,10 +220,24 @@ public abstract class JDBIVariableRecordRepository extends VariableRecordReposit
     }
   }
 
-  public static class VariableRecordMapper implements ResultSetMapper<VariableRecord> {
-    public VariableRecord map(int index, ResultSet resultSet, StatementContext ctx) throws SQLException {
+  /**
+   * Mapped row of variable_record, the value is kept in variable_record_element when the flag is set
+   */
+  public static class StoredVariableRecord {
+    final VariableRecord variableRecord;
+    final boolean elements;
+
+    StoredVariableRecord(VariableRecord variableRecord, boolean elements) {
+      this.variableRecord = variableRecord;
+      this.elements = elements;
+    }
+  }
+
+  public static class VariableRecordMapper implements ResultSetMapper<StoredVariableRecord> {
+    public StoredVariableRecord map(int index, ResultSet resultSet, StatementContext ctx) throws SQLException {
       String jobId = resultSet.getString("job_id");
-      String value = new String(resultSet.getBytes("value"));
+      byte[] value = resultSet.getBytes("value");
+      Boolean elements = resultSet.getBoolean("elements");
       String transform = resultSet.getString("transform");
       String portId = resultSet.getString("port_id");
       String type = resultSet.getString("type");
@@ -111,9 +248,9 @@ public abstract class JDBIVariableRecordRepository extends VariableRecordReposit
       UUID rootId = resultSet.getObject("context_id", UUID.class);
       Boolean isDefault = resultSet.getBoolean("is_default");
 
-      Object valueObject = FileValue.deserialize(JSONHelper.transform(JSONHelper.readJsonNode(value), false));
+      Object valueObject = elements ? null : readValue(value);
 
-      Object transformObject = JSONHelper.transform(JSONHelper.readJsonNode(transform), false);
+      Object transformObject = JSONHelper.readObject(transform, Object.class);
 
       LocalDateTime createdAt = resultSet.getTimestamp("created_at").toLocalDateTime();
       LocalDateTime modifiedAt = resultSet.getTimestamp("modified_at").toLocalDateTime();
@@ -124,8 +261,28 @@ public abstract class JDBIVariableRecordRepository extends VariableRecordReposit
       variableRecord.setNumberOfTimesUpdated(timesUpdatedCount);
       variableRecord.setDefault(isDefault);
       variableRecord.setTransform(transformObject);
-      return variableRecord;
+      return new StoredVariableRecord(variableRecord, elements);
+    }
+  }
+
+  public static class VariableElement {
+    private final int position;
+    private final Object value;
+
+    public VariableElement(int position, Object value) {
+      this.position = position;
+      this.value = value;
     }
   }
 
+  public static class VariableElementMapper implements ResultSetMapper<VariableElement> {
+    public VariableElement map(int index, ResultSet resultSet, StatementContext ctx) throws SQLException {
+      return new VariableElement(resultSet.getInt("position"), readValue(resultSet.getBytes("value")));
+    }
+  }
+
+  private static Object readValue(byte[] value) {
+    return FileValue.deserialize(JSONHelper.readObject(value, Object.class));
+  }
+
 }
@@ -0,0 +1,57 @@
+package org.rabix.engine.store.postgres.jdbi.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.rabix.engine.store.repository.JobStatusFeed.Subscriber;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Reads notification payloads the way job_status_notify() in dbinit.sql builds them, runs without Postgres
+ */
+@Test(groups = { "functional" })
+public class JDBIJobStatusFeedDeliveryTest {
+
+  private final UUID id = UUID.randomUUID();
+
+  @Test
+  public void testDelivery() {
+    List<String> changes = new ArrayList<>();
+    Subscriber subscriber = (id, rootId, status, local) -> changes.add(id + " " + rootId + " " + status + (local ? " local" : ""));
+
+    JDBIJobStatusFeed.deliver(payload(id, "COMPLETED", "engine-1"), "engine-1", Arrays.asList(subscriber));
+    JDBIJobStatusFeed.deliver(payload(id, "FAILED", "engine-2"), "engine-1", Arrays.asList(subscriber));
+    Assert.assertEquals(changes, Arrays.asList(id + " " + id + " COMPLETED local", id + " " + id + " FAILED"));
+  }
+
+  @Test
+  public void testFailingSubscriber() {
+    List<String> changes = new ArrayList<>();
+    Subscriber failing = (id, rootId, status, local) -> {
+      throw new IllegalStateException("failed");
+    };
+    Subscriber subscriber = (id, rootId, status, local) -> changes.add(status.toString());
+
+    JDBIJobStatusFeed.deliver(payload(id, "RUNNING", "engine-1"), null, Arrays.asList(failing, subscriber));
+    Assert.assertEquals(changes, Arrays.asList("RUNNING"));
+  }
+
+  @Test
+  public void testMalformedPayloads() {
+    List<String> changes = new ArrayList<>();
+    Subscriber subscriber = (id, rootId, status, local) -> changes.add(status.toString());
+
+    JDBIJobStatusFeed.deliver("not json", "engine-1", Arrays.asList(subscriber));
+    JDBIJobStatusFeed.deliver(payload(id, "UNKNOWN", "engine-1"), "engine-1", Arrays.asList(subscriber));
+    JDBIJobStatusFeed.deliver("{\"id\": \"1\", \"status\": \"READY\"}", "engine-1", Arrays.asList(subscriber));
+    Assert.assertTrue(changes.isEmpty());
+  }
+
+  private static String payload(UUID id, String status, String origin) {
+    return "{\"id\": \"" + id + "\", \"rootId\": \"" + id + "\", \"status\": \"" + status + "\", \"origin\": \"" + origin + "\"}";
+  }
+
+}
@@ -2,12 +2,9 @@ package org.rabix.engine.store.lru.dag;
 
 import com.google.inject.Inject;
 import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.helper.DAGHashHelper;
 import org.rabix.bindings.model.dag.DAGContainer;
 import org.rabix.bindings.model.dag.DAGNode;
-import org.rabix.common.helper.ChecksumHelper;
-import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
-import org.rabix.common.helper.JSONHelper;
-import org.rabix.common.json.BeanSerializer;
 import org.rabix.engine.store.lru.LRUCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,10 +57,7 @@ public class DAGCache extends LRUCache<String, DAGNode> {
   }
 
   public static String hashDagNode(DAGNode dagNode) {
-    String dagText = BeanSerializer.serializeFull(dagNode);
-    String cachedSortedDAGText = JSONHelper.writeSortedWithoutIdentation(JSONHelper.readJsonNode(dagText));
-    String cachedDAGHash = ChecksumHelper.checksum(cachedSortedDAGText, HashAlgorithm.SHA1);
-    return cachedDAGHash;
+    return DAGHashHelper.hash(dagNode);
   }
 
 }
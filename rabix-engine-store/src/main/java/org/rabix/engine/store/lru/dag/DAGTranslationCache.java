@@ -0,0 +1,39 @@
+package org.rabix.engine.store.lru.dag;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.engine.store.lru.LRUCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+
+/**
+ * Translated and validated root DAGs keyed by the content hash of the raw application.
+ * Applications of the cached DAGs are already stored, so the DAG nodes carry only application hashes.
+ * The cache keeps its own copies and hands out copies, every root gets a DAG of its own to prioritize and store.
+ */
+public class DAGTranslationCache extends LRUCache<String, DAGNode> {
+
+  private final Logger logger = LoggerFactory.getLogger(DAGTranslationCache.class);
+  public static final String CACHE_NAME = "DAGTranslationCache";
+  private static int DEFAULT_CACHE_SIZE = 64;
+
+  @Inject
+  public DAGTranslationCache(Configuration configuration) {
+    super(CACHE_NAME, configuration.getInteger("cache.dag_translation.size", DEFAULT_CACHE_SIZE));
+    logger.debug("{} initialized with size={}", CACHE_NAME, getCacheSize());
+  }
+
+  @Override
+  public DAGNode get(String key) {
+    DAGNode node = super.get(key);
+    return node != null ? node.deepCopy() : null;
+  }
+
+  @Override
+  public void put(String key, DAGNode node) {
+    super.put(key, node.deepCopy());
+  }
+
+}
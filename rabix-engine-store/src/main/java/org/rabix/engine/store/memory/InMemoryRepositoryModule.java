@@ -77,4 +77,10 @@ public class InMemoryRepositoryModule extends AbstractModule {
     return new InMemoryIntermediaryFilesRepository();
   }
 
+  @Provides
+  @Singleton
+  public JobStatusFeed provideJobStatusFeed() {
+    return new InMemoryJobStatusFeed();
+  }
+
 }
@@ -54,6 +54,19 @@ public class InMemoryIntermediaryFilesRepository implements IntermediaryFilesRep
     intermediaryFilesRepository.getOrDefault(rootId, new ConcurrentHashMap<>()).remove(filename);
   }
 
+  @Override
+  public void delete(UUID rootId, Set<String> filenames) {
+    intermediaryFilesRepository.getOrDefault(rootId, new ConcurrentHashMap<>()).keySet().removeAll(filenames);
+  }
+
+  @Override
+  public void upsert(Iterator<IntermediaryFileEntity> entities) {
+    while (entities.hasNext()) {
+      IntermediaryFileEntity entity = entities.next();
+      update(entity.getRootId(), entity.getFilename(), entity.getCount());
+    }
+  }
+
   @Override
   public void delete(UUID rootId) {
     intermediaryFilesRepository.remove(rootId);
@@ -79,6 +79,19 @@ public class InMemoryJobRecordRepository extends JobRecordRepository {
     }
   }
 
+  @Override
+  public void delete(Set<UUID> ids, UUID rootId) {
+    for (UUID id : ids) {
+      delete(id, rootId);
+    }
+  }
+
+  @Override
+  public void deleteByRootId(UUID rootId) {
+    jobRecordsPerRootByExternalId.remove(rootId);
+    jobRecordsPerRootById.remove(rootId);
+  }
+
   @Override
   public List<JobRecord> get(UUID rootId) {
     Map<UUID, JobRecord> recordsPerRoot = jobRecordsPerRootByExternalId.get(rootId);
@@ -163,4 +176,13 @@ public class InMemoryJobRecordRepository extends JobRecordRepository {
     return jobs.values().stream().filter(p -> states.contains(p.getState())).collect(Collectors.toList());
   }
 
+  @Override
+  public List<JobRecord> getNotScattered(UUID rootId, Set<JobRecord.JobState> states) {
+    Map<UUID, JobRecord> jobs = jobRecordsPerRootByExternalId.get(rootId);
+    if (jobs == null) {
+      return Collections.emptyList();
+    }
+    return jobs.values().stream().filter(p -> !p.isScattered() && states.contains(p.getState())).collect(Collectors.toList());
+  }
+
 }
@@ -0,0 +1,19 @@
+package org.rabix.engine.store.memory.impl;
+
+import org.rabix.engine.store.repository.JobStatusFeed;
+
+/**
+ * In-memory store isn't shared with other processes and local changes are reported by the engine status callback,
+ * so there is nothing to deliver
+ */
+public class InMemoryJobStatusFeed implements JobStatusFeed {
+
+  @Override
+  public void subscribe(Subscriber subscriber) {
+  }
+
+  @Override
+  public void unsubscribe(Subscriber subscriber) {
+  }
+
+}
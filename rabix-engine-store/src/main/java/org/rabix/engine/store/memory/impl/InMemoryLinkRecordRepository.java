@@ -48,6 +48,15 @@ public class InMemoryLinkRecordRepository extends LinkRecordRepository {
     }
   }
 
+  @Override
+  public void delete(Set<String> jobIds, UUID rootId) {
+    Collection<LinkRecord> linkRecords = linkRecordRepository.get(rootId);
+    if (linkRecords != null) {
+      linkRecords.removeIf(linkRecord ->
+              jobIds.contains(linkRecord.getDestinationJobId()) || jobIds.contains(linkRecord.getSourceJobId()));
+    }
+  }
+
   @Override
   public int insert(LinkRecord linkRecord) {
     insertLinkRecord(linkRecord);
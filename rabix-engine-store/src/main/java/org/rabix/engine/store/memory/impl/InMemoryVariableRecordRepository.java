@@ -114,6 +114,13 @@ public class InMemoryVariableRecordRepository extends VariableRecordRepository {
     getVariableRecordsWithId(rootId, id).clear();
   }
 
+  @Override
+  public void delete(Set<String> ids, UUID rootId) {
+    for (String id : ids) {
+      delete(id, rootId);
+    }
+  }
+
   @Override
   public void deleteByRootId(UUID rootId) {
     variableRecordsPerContext.remove(rootId);
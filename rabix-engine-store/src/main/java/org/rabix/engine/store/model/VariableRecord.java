@@ -1,7 +1,12 @@
 package org.rabix.engine.store.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.rabix.bindings.model.LinkMerge;
 import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
@@ -26,6 +31,11 @@ public class VariableRecord extends TimestampedModel {
   private boolean isDefault = true;
   private Object transform;
 
+  // wrapped values can be stored element by element, see drainElements()
+  private boolean elementsStored;
+  private Supplier<List<Object>> elementLoader;
+  private Map<Integer, Object> changedElements = new LinkedHashMap<>();
+
   public VariableRecord(UUID rootId, String jobId, String portId, LinkPortType type, Object value, LinkMerge linkMerge) {
     this(rootId, jobId, portId, type, value, linkMerge, LocalDateTime.now(), LocalDateTime.now());
   }
@@ -83,6 +93,56 @@ public class VariableRecord extends TimestampedModel {
 
   public void setValue(Object value) {
     this.value = value;
+    this.elementsStored = false;
+    this.elementLoader = null;
+    this.changedElements.clear();
+  }
+
+  /**
+   * Sets an element of a wrapped value. Elements of a value restored with {@link #restoreElements(Supplier)} aren't loaded.
+   */
+  @SuppressWarnings("unchecked")
+  public void setElement(int position, Object element) {
+    if (elementLoader == null) {
+      if (value == null) {
+        value = new ArrayList<>();
+      }
+      set((List<Object>) value, position, element);
+    }
+    if (elementsStored) {
+      changedElements.put(position, element);
+    }
+  }
+
+  /**
+   * Returns elements of a wrapped value set since the last call by position, or null if the whole value has to be
+   * stored
+   */
+  public Map<Integer, Object> drainElements() {
+    if (!elementsStored) {
+      elementsStored = true;
+      changedElements.clear();
+      return null;
+    }
+    Map<Integer, Object> result = new LinkedHashMap<>(changedElements);
+    changedElements.clear();
+    return result;
+  }
+
+  /**
+   * Marks a wrapped value as stored element by element, elements are loaded when the value is needed
+   */
+  public void restoreElements(Supplier<List<Object>> elementLoader) {
+    this.value = null;
+    this.elementsStored = true;
+    this.elementLoader = elementLoader;
+  }
+
+  private static void set(List<Object> elements, int position, Object element) {
+    while (elements.size() < position) {
+      elements.add(null);
+    }
+    elements.set(position - 1, element);
   }
 
   public boolean isWrapped() {
@@ -118,6 +178,12 @@ public class VariableRecord extends TimestampedModel {
   }
 
   public Object getValue() {
+    if (elementLoader != null) {
+      List<Object> elements = elementLoader.get();
+      elementLoader = null;
+      changedElements.forEach((position, element) -> set(elements, position, element));
+      value = elements;
+    }
     return value;
   }
 
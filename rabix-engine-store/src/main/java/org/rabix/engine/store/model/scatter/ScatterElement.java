@@ -0,0 +1,76 @@
+package org.rabix.engine.store.model.scatter;
+
+import java.util.List;
+
+/**
+ * One piece of the per-element state of a {@link ScatterStrategy}: a value enabled on a port or a combination of
+ * values. Stores can keep these apart from the rest of the strategy and persist only the ones which changed.
+ */
+public class ScatterElement {
+
+  public enum Type {
+    VALUE,
+    COMBINATION
+  }
+
+  private final Type type;
+  private final String portId;
+  private final int position;
+  private final Object value;
+  private final List<Integer> indexes;
+  private final boolean enabled;
+
+  private ScatterElement(Type type, String portId, int position, Object value, List<Integer> indexes, boolean enabled) {
+    this.type = type;
+    this.portId = portId;
+    this.position = position;
+    this.value = value;
+    this.indexes = indexes;
+    this.enabled = enabled;
+  }
+
+  public static ScatterElement value(String portId, int position, Object value) {
+    return new ScatterElement(Type.VALUE, portId, position, value, null, false);
+  }
+
+  public static ScatterElement combination(int position, List<Integer> indexes, boolean enabled) {
+    return new ScatterElement(Type.COMBINATION, null, position, null, indexes, enabled);
+  }
+
+  /**
+   * Key of the state this element overwrites
+   */
+  public String key() {
+    return type == Type.VALUE ? type + ":" + portId + ":" + position : type + ":" + position;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getPortId() {
+    return portId;
+  }
+
+  public int getPosition() {
+    return position;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public List<Integer> getIndexes() {
+    return indexes;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public String toString() {
+    return "ScatterElement [type=" + type + ", portId=" + portId + ", position=" + position + ", value=" + value + ", indexes=" + indexes + ", enabled=" + enabled + "]";
+  }
+
+}
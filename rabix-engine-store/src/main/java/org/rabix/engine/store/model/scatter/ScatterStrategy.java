@@ -2,6 +2,7 @@ package org.rabix.engine.store.model.scatter;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -37,6 +38,23 @@ public interface ScatterStrategy {
   
   boolean skipScatter();
 
+  /**
+   * Returns the values and combinations changed since the last call. The first call on a strategy which wasn't restored
+   * from elements returns all of them.
+   */
+  List<ScatterElement> drainElements();
+
+  /**
+   * Copy of this strategy without values and combinations, size of what's left doesn't depend on the number of
+   * scattered elements
+   */
+  ScatterStrategy withoutElements();
+
+  /**
+   * Marks a strategy read {@link #withoutElements()} as stored, elements are loaded on first use
+   */
+  void restoreElements(Supplier<List<ScatterElement>> loader);
+
   public class JobPortPair {
     private String jobId;
     private String portId;
@@ -4,11 +4,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.model.ScatterMethod;
@@ -17,10 +20,12 @@ import org.rabix.bindings.model.dag.DAGNode;
 import org.rabix.common.helper.InternalSchemaHelper;
 import org.rabix.engine.store.model.scatter.PortMapping;
 import org.rabix.engine.store.model.scatter.RowMapping;
+import org.rabix.engine.store.model.scatter.ScatterElement;
 import org.rabix.engine.store.model.scatter.ScatterStrategy;
 import org.rabix.engine.store.model.scatter.ScatterStrategyException;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class ScatterCartesianStrategy implements ScatterStrategy {
@@ -43,6 +48,13 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
   
   @JsonProperty("skipScatter")
   private Boolean skipScatter;
+
+  @JsonIgnore
+  private boolean stored;
+  @JsonIgnore
+  private Supplier<List<ScatterElement>> loader;
+  @JsonIgnore
+  private Map<String, ScatterElement> changes = new LinkedHashMap<>();
   
   @JsonCreator
   public ScatterCartesianStrategy(@JsonProperty("combinations") LinkedList<Combination> combinations,
@@ -88,6 +100,7 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
 
   @Override
   public synchronized void enable(String port, Object value, Integer position, Integer sizePerPort) throws ScatterStrategyException {
+    load();
     LinkedList<Integer> positionList = positions.get(port);
     positionList = expand(positionList, position);
     positionList.set(position - 1, position);
@@ -98,11 +111,13 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
     valueList.set(position - 1, value);
     values.put(port, valueList);
     this.sizePerPort.put(port, sizePerPort);
+    change(ScatterElement.value(port, position, value));
   }
 
   @Override
   @SuppressWarnings("unchecked")
-  public List<Object> valueStructure(String jobId, String portId, UUID rootId) {
+  public synchronized List<Object> valueStructure(String jobId, String portId, UUID rootId) {
+    load();
     if (emptyListDetected) {
       return (List<Object>) generateOutputsForEmptyList();
     }
@@ -180,10 +195,12 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
 
   @Override
   public synchronized void commit(List<RowMapping> mappings) {
+    load();
     for (RowMapping mapping : mappings) {
       for (Combination combination : combinations) {
         if (combination.position == mapping.getIndex()) {
           combination.enabled = true;
+          change(ScatterElement.combination(combination.position, combination.indexes, true));
         }
       }
     }
@@ -200,6 +217,7 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
 
   @Override
   public synchronized List<RowMapping> enabled() throws ScatterStrategyException {
+    load();
     List<RowMapping> result = new LinkedList<>();
     LinkedList<LinkedList<Integer>> mapping = new LinkedList<>();
     for (Entry<String, LinkedList<Integer>> positionEntry : positions.entrySet()) {
@@ -216,6 +234,7 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
           if (combination == null) {
             combination = new Combination(combinations.size() + 1, false, indexes);
             combinations.add(combination);
+            change(ScatterElement.combination(combination.position, indexes, false));
           }
           if (!combination.enabled) {
             List<PortMapping> portMappings = new LinkedList<>();
@@ -285,7 +304,8 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
   }
 
   @Override
-  public boolean isHanging() {
+  public synchronized boolean isHanging() {
+    load();
     for (String port : values.keySet()) {
       if (values.get(port) == null || (values.get(port) instanceof List<?> && ((List<?>)values.get(port)).isEmpty())) {
         return true;
@@ -295,7 +315,8 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
   }
 
   @Override
-  public Object generateOutputsForEmptyList() {
+  public synchronized Object generateOutputsForEmptyList() {
+    load();
     if (scatterMethod.equals(ScatterMethod.flat_crossproduct)) {
       return new ArrayList<>();  
     }
@@ -328,4 +349,86 @@ public class ScatterCartesianStrategy implements ScatterStrategy {
     return skipScatter;
   }
 
+  @Override
+  public synchronized List<ScatterElement> drainElements() {
+    if (!stored) {
+      stored = true;
+      return elements();
+    }
+    List<ScatterElement> result = new ArrayList<>(changes.values());
+    changes.clear();
+    return result;
+  }
+
+  @Override
+  public ScatterStrategy withoutElements() {
+    Map<String, LinkedList<Object>> emptyValues = new LinkedHashMap<>();
+    Map<String, LinkedList<Integer>> emptyPositions = new LinkedHashMap<>();
+    for (String port : values.keySet()) {
+      emptyValues.put(port, new LinkedList<>());
+      emptyPositions.put(port, new LinkedList<>());
+    }
+    return new ScatterCartesianStrategy(new LinkedList<>(), emptyValues, emptyPositions, scatterMethod, new HashMap<>(sizePerPort), emptyListDetected, skipScatter);
+  }
+
+  @Override
+  public synchronized void restoreElements(Supplier<List<ScatterElement>> loader) {
+    this.loader = loader;
+    this.stored = true;
+  }
+
+  private void change(ScatterElement element) {
+    if (stored) {
+      changes.put(element.key(), element);
+    }
+  }
+
+  private void load() {
+    if (loader == null) {
+      return;
+    }
+    Supplier<List<ScatterElement>> elements = loader;
+    loader = null;
+    Map<String, List<Object>> loadedValues = new HashMap<>();
+    Map<String, List<Integer>> loadedPositions = new HashMap<>();
+    Map<Integer, Combination> loaded = new LinkedHashMap<>();
+    for (ScatterElement element : elements.get()) {
+      if (element.getType() == ScatterElement.Type.VALUE) {
+        // lists are filled as array lists, setting by index is linear on the linked ones
+        List<Object> valueList = loadedValues.computeIfAbsent(element.getPortId(), port -> new ArrayList<>());
+        List<Integer> positionList = loadedPositions.computeIfAbsent(element.getPortId(), port -> new ArrayList<>());
+        while (valueList.size() < element.getPosition()) {
+          valueList.add(null);
+          positionList.add(null);
+        }
+        valueList.set(element.getPosition() - 1, element.getValue());
+        positionList.set(element.getPosition() - 1, element.getPosition());
+      } else {
+        loaded.put(element.getPosition(), new Combination(element.getPosition(), element.isEnabled(), element.getIndexes()));
+      }
+    }
+    for (Entry<String, List<Object>> entry : loadedValues.entrySet()) {
+      values.put(entry.getKey(), new LinkedList<>(entry.getValue()));
+      positions.put(entry.getKey(), new LinkedList<>(loadedPositions.get(entry.getKey())));
+    }
+    combinations.addAll(loaded.values());
+  }
+
+  private List<ScatterElement> elements() {
+    List<ScatterElement> result = new ArrayList<>();
+    for (Entry<String, LinkedList<Integer>> entry : positions.entrySet()) {
+      Iterator<Object> valueIterator = values.get(entry.getKey()).iterator();
+      for (Integer position : entry.getValue()) {
+        Object value = valueIterator.next();
+        if (position != null) {
+          result.add(ScatterElement.value(entry.getKey(), position, value));
+        }
+      }
+    }
+    for (Combination combination : combinations) {
+      result.add(ScatterElement.combination(combination.position, combination.indexes, combination.enabled));
+    }
+    return result;
+  }
+
 }
@@ -4,21 +4,25 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.rabix.bindings.model.ScatterMethod;
 import org.rabix.bindings.model.dag.DAGLinkPort;
 import org.rabix.bindings.model.dag.DAGNode;
 import org.rabix.common.helper.InternalSchemaHelper;
 import org.rabix.engine.store.model.scatter.RowMapping;
+import org.rabix.engine.store.model.scatter.ScatterElement;
 import org.rabix.engine.store.model.scatter.ScatterStrategyException;
 import org.rabix.engine.store.model.scatter.PortMapping;
 import org.rabix.engine.store.model.scatter.ScatterStrategy;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 
@@ -40,6 +44,13 @@ public class ScatterZipStrategy implements ScatterStrategy {
   
   @JsonProperty("skipScatter")
   private Boolean skipScatter;
+
+  @JsonIgnore
+  private boolean stored;
+  @JsonIgnore
+  private Supplier<List<ScatterElement>> loader;
+  @JsonIgnore
+  private Map<String, ScatterElement> changes = new LinkedHashMap<>();
   
   @JsonCreator
   public ScatterZipStrategy(@JsonProperty("combinations") List<Combination> combinations,
@@ -79,7 +90,12 @@ public class ScatterZipStrategy implements ScatterStrategy {
   public void enable(String port, Object value, Integer position, Integer sizePerPort) throws ScatterStrategyException {
     Preconditions.checkNotNull(port);
     Preconditions.checkNotNull(position);
-    
+    load();
+    set(port, value, position);
+    change(ScatterElement.value(port, position, value));
+  }
+
+  private void set(String port, Object value, Integer position) {
     List<Object> valueList = values.get(port);
     List<Boolean> indexList = indexes.get(port);
 
@@ -105,6 +121,7 @@ public class ScatterZipStrategy implements ScatterStrategy {
 
   @Override
   public List<RowMapping> enabled() {
+    load();
     List<RowMapping> result = new ArrayList<>();
 
     List<String> ports = new ArrayList<>();
@@ -115,6 +132,11 @@ public class ScatterZipStrategy implements ScatterStrategy {
       indexLists.add(entry.getValue());
     }
 
+    Map<Integer, Combination> combinationsByPosition = new HashMap<>();
+    for (Combination combination : combinations) {
+      combinationsByPosition.put(combination.position, combination);
+    }
+
     List<Boolean> first = indexLists.get(0);
     for (int i = 0; i < first.size(); i++) {
       if (first.get(i) == null) {
@@ -130,18 +152,12 @@ public class ScatterZipStrategy implements ScatterStrategy {
       if (!exists) {
         break;
       } else {
-        Combination combination = null;
-        for (int index = 0; index < combinations.size(); index++) {
-          Combination c = combinations.get(index);
-
-          if (c.position == i + 1) {
-            combination = c;
-            break;
-          }
-        }
+        Combination combination = combinationsByPosition.get(i + 1);
         if (combination == null) {
           combination = new Combination(i + 1, false);
           combinations.add(combination);
+          combinationsByPosition.put(combination.position, combination);
+          change(ScatterElement.combination(combination.position, null, false));
         }
 
         if (!combination.enabled) {
@@ -160,18 +176,26 @@ public class ScatterZipStrategy implements ScatterStrategy {
 
   @Override
   public void commit(List<RowMapping> mappings) {
+    load();
+    if (mappings.isEmpty()) {
+      return;
+    }
+    Map<Integer, Combination> combinationsByPosition = new HashMap<>();
+    for (Combination combination : combinations) {
+      combinationsByPosition.put(combination.position, combination);
+    }
     for (RowMapping mapping : mappings) {
-      for (Combination combination : combinations) {
-        if (combination.position == mapping.getIndex()) {
-          combination.enabled = true;
-          break;
-        }
+      Combination combination = combinationsByPosition.get(mapping.getIndex());
+      if (combination != null) {
+        combination.enabled = true;
+        change(ScatterElement.combination(combination.position, null, true));
       }
     }
   }
   
   @Override
   public int enabledCount() {
+    load();
     return combinations.size();
   }
 
@@ -195,6 +219,7 @@ public class ScatterZipStrategy implements ScatterStrategy {
 
   @Override
   public List<Object> valueStructure(String jobId, String portId, UUID rootId) {
+    load();
     if (combinations.isEmpty()) {
       return new ArrayList<>();
     }
@@ -215,6 +240,7 @@ public class ScatterZipStrategy implements ScatterStrategy {
   
   @Override
   public boolean isHanging() {
+    load();
     for (String port : values.keySet()) {
       if (values.get(port) == null || (values.get(port) instanceof List<?> && ((List<?>)values.get(port)).isEmpty())) {
         return true;
@@ -248,4 +274,71 @@ public class ScatterZipStrategy implements ScatterStrategy {
     this.skipScatter = skip;
   }
 
+  @Override
+  public synchronized List<ScatterElement> drainElements() {
+    if (!stored) {
+      stored = true;
+      return elements();
+    }
+    List<ScatterElement> result = new ArrayList<>(changes.values());
+    changes.clear();
+    return result;
+  }
+
+  @Override
+  public ScatterStrategy withoutElements() {
+    Map<String, List<Object>> emptyValues = new HashMap<>();
+    Map<String, List<Boolean>> emptyIndexes = new HashMap<>();
+    for (String port : indexes.keySet()) {
+      emptyValues.put(port, new ArrayList<>());
+      emptyIndexes.put(port, new ArrayList<>());
+    }
+    return new ScatterZipStrategy(new ArrayList<>(), emptyValues, emptyIndexes, scatterMethod, emptyListDetected, skipScatter);
+  }
+
+  @Override
+  public synchronized void restoreElements(Supplier<List<ScatterElement>> loader) {
+    this.loader = loader;
+    this.stored = true;
+  }
+
+  private void change(ScatterElement element) {
+    if (stored) {
+      changes.put(element.key(), element);
+    }
+  }
+
+  private synchronized void load() {
+    if (loader == null) {
+      return;
+    }
+    Supplier<List<ScatterElement>> elements = loader;
+    loader = null;
+    Map<Integer, Combination> loaded = new LinkedHashMap<>();
+    for (ScatterElement element : elements.get()) {
+      if (element.getType() == ScatterElement.Type.VALUE) {
+        set(element.getPortId(), element.getValue(), element.getPosition());
+      } else {
+        loaded.put(element.getPosition(), new Combination(element.getPosition(), element.isEnabled()));
+      }
+    }
+    combinations.addAll(loaded.values());
+  }
+
+  private List<ScatterElement> elements() {
+    List<ScatterElement> result = new ArrayList<>();
+    for (Entry<String, List<Boolean>> entry : indexes.entrySet()) {
+      List<Object> valueList = values.get(entry.getKey());
+      for (int i = 0; i < entry.getValue().size(); i++) {
+        if (entry.getValue().get(i) != null) {
+          result.add(ScatterElement.value(entry.getKey(), i + 1, valueList.get(i)));
+        }
+      }
+    }
+    for (Combination combination : combinations) {
+      result.add(ScatterElement.combination(combination.position, null, combination.enabled));
+    }
+    return result;
+  }
+
 }
@@ -1,5 +1,6 @@
 package org.rabix.engine.store.repository;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -14,6 +15,10 @@ public interface IntermediaryFilesRepository {
 
   void delete(UUID rootId, String filename);
 
+  void delete(UUID rootId, Set<String> filenames);
+
+  void upsert(Iterator<IntermediaryFileEntity> entities);
+
   void delete(UUID rootId);
 
   void deleteByRootIds(Set<UUID> rootIds);
@@ -19,6 +19,10 @@ public abstract class JobRecordRepository {
 
   public abstract void delete(UUID externalId, UUID rootId);
 
+  public abstract void delete(Set<UUID> externalIds, UUID rootId);
+
+  public abstract void deleteByRootId(UUID rootId);
+
   public abstract List<JobRecord> get(UUID rootId);
 
   public abstract JobRecord getRoot(UUID rootId);
@@ -35,4 +39,9 @@ public abstract class JobRecordRepository {
 
   public abstract List<JobRecord> get(UUID rootId, Set<JobRecord.JobState> states);
 
+  /**
+   * Returns records in the given states except scattered jobs, which go together with their scatter wrappers
+   */
+  public abstract List<JobRecord> getNotScattered(UUID rootId, Set<JobRecord.JobState> states);
+
 }
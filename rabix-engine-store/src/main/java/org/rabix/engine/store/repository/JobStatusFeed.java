@@ -0,0 +1,32 @@
+package org.rabix.engine.store.repository;
+
+import java.util.UUID;
+
+import org.rabix.bindings.model.Job.JobStatus;
+
+/**
+ * Job status changes committed to the store, including those made by other engine processes sharing it.
+ * Subscribers are called on the feed's thread and shouldn't block it.
+ */
+public interface JobStatusFeed {
+
+  void subscribe(Subscriber subscriber);
+
+  void unsubscribe(Subscriber subscriber);
+
+  @FunctionalInterface
+  public static interface Subscriber {
+
+    /**
+     * Called for every inserted root and every status change of a root, local is true when this process made the change
+     */
+    void onJobStatusChanged(UUID id, UUID rootId, JobStatus status, boolean local);
+
+    /**
+     * Called after the feed lost its connection to the store and listens again, changes made meanwhile weren't delivered
+     */
+    default void onReconnected() {
+    }
+  }
+
+}
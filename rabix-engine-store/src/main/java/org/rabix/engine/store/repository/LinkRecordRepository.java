@@ -5,6 +5,7 @@ import org.rabix.engine.store.model.LinkRecord;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public abstract class LinkRecordRepository {
@@ -17,6 +18,8 @@ public abstract class LinkRecordRepository {
 
   public abstract void delete(String jobId, UUID rootId);
 
+  public abstract void delete(Set<String> jobIds, UUID rootId);
+
   public abstract int insert(LinkRecord linkRecord);
 
   public abstract int update(LinkRecord linkRecord);
@@ -5,6 +5,7 @@ import org.rabix.engine.store.model.VariableRecord;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public abstract class VariableRecordRepository {
@@ -19,6 +20,8 @@ public abstract class VariableRecordRepository {
 
   public abstract void delete(String id, UUID rootId);
 
+  public abstract void delete(Set<String> ids, UUID rootId);
+
   public abstract void deleteByRootId(UUID rootId);
 
   public abstract VariableRecord get(String jobId, String portId, LinkPortType type, UUID rootId);
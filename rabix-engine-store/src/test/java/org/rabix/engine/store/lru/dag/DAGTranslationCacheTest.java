@@ -0,0 +1,111 @@
+package org.rabix.engine.store.lru.dag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.rabix.bindings.helper.DAGHashHelper;
+import org.rabix.bindings.helper.DAGPriorityHelper;
+import org.rabix.bindings.model.dag.DAGContainer;
+import org.rabix.bindings.model.dag.DAGLink;
+import org.rabix.bindings.model.dag.DAGLinkPort;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class DAGTranslationCacheTest {
+
+  private static final String KEY = "app";
+
+  @Test
+  public void testRootsGetTheirOwnDAG() {
+    DAGTranslationCache cache = new DAGTranslationCache(new BaseConfiguration());
+    DAGContainer translated = workflow();
+    String hash = DAGHashHelper.hash(translated);
+    cache.put(KEY, translated);
+
+    // the translating root keeps changing its DAG after it's cached
+    DAGPriorityHelper.prioritize(translated, node -> 1000);
+    translated.getChildren().get(0).getInputPorts().get(0).setDefaultValue("changed");
+
+    DAGContainer first = (DAGContainer) cache.get(KEY);
+    DAGContainer second = (DAGContainer) cache.get(KEY);
+    Assert.assertNotSame(first, second);
+    Assert.assertNotSame(first.getChildren().get(0), second.getChildren().get(0));
+    Assert.assertNull(first.getPriority());
+    Assert.assertEquals(first.getChildren().get(0).getInputPorts().get(0).getDefaultValue(), "default");
+    Assert.assertEquals(first.getHash(), hash);
+    Assert.assertEquals(first.getChildren().get(1).getAppHash(), "second-app");
+
+    DAGPriorityHelper.prioritize(first, node -> 10);
+    DAGPriorityHelper.prioritize(second, node -> 20);
+    Assert.assertEquals(first.getPriority().longValue(), 20);
+    Assert.assertEquals(second.getPriority().longValue(), 40);
+    Assert.assertNull(cache.get(KEY).getPriority());
+    // copies are hashed the same, priorities aren't part of the content
+    Assert.assertEquals(DAGHashHelper.hash(first.deepCopy()), hash);
+  }
+
+  @Test
+  public void testConcurrentRoots() throws Exception {
+    DAGTranslationCache cache = new DAGTranslationCache(new BaseConfiguration());
+    cache.put(KEY, workflow());
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        final long estimate = i;
+        results.add(executor.submit((Callable<Boolean>) () -> {
+          DAGNode node = cache.get(KEY);
+          DAGPriorityHelper.prioritize(node, child -> estimate);
+          Thread.yield();
+          return node.getPriority() == 2 * estimate && ((DAGContainer) node).getChildren().get(1).getPriority() == estimate;
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private DAGContainer workflow() {
+    DAGNode first = node("first", "first-app");
+    DAGNode second = node("second", "second-app");
+    List<DAGLink> links = new ArrayList<>();
+    links.add(new DAGLink(port("first", "out", LinkPortType.OUTPUT), port("second", "in", LinkPortType.INPUT), null, 1));
+    List<DAGNode> children = new ArrayList<>();
+    children.add(first);
+    children.add(second);
+    Map<String, Object> defaults = new HashMap<>();
+    defaults.put("in", Collections.singletonList(UUID.randomUUID().toString()));
+    return new DAGContainer("root", new ArrayList<>(), new ArrayList<>(), null, null, links, children, defaults, null);
+  }
+
+  private DAGNode node(String id, String appHash) {
+    List<DAGLinkPort> inputs = new ArrayList<>();
+    inputs.add(new DAGLinkPort("in", id, LinkPortType.INPUT, null, false, "default", null));
+    List<DAGLinkPort> outputs = new ArrayList<>();
+    outputs.add(port(id, "out", LinkPortType.OUTPUT));
+    DAGNode node = new DAGNode(id, inputs, outputs, null, null, null, null);
+    node.setAppHash(appHash);
+    return node;
+  }
+
+  private DAGLinkPort port(String nodeId, String id, LinkPortType type) {
+    return new DAGLinkPort(id, nodeId, type, null, false, null, null);
+  }
+
+}
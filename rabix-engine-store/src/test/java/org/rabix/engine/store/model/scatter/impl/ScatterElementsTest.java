@@ -0,0 +1,149 @@
+package org.rabix.engine.store.model.scatter.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rabix.bindings.model.ScatterMethod;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.store.model.scatter.RowMapping;
+import org.rabix.engine.store.model.scatter.ScatterElement;
+import org.rabix.engine.store.model.scatter.ScatterStrategy;
+import org.rabix.engine.store.model.scatter.ScatterStrategyException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Strategies stored as {@link ScatterStrategy#withoutElements()} plus their {@link ScatterElement}s, the way the
+ * Postgres store keeps scatter wrappers
+ */
+@Test(groups = { "functional" })
+public class ScatterElementsTest {
+
+  @DataProvider
+  public Object[][] strategies() {
+    return new Object[][] { { "zip" }, { "cartesian" } };
+  }
+
+  @Test(dataProvider = "strategies")
+  public void testRestoreElements(String type) throws ScatterStrategyException {
+    ScatterStrategy strategy = strategy(type);
+    List<ScatterElement> stored = new ArrayList<>(strategy.drainElements());
+    enable(strategy, 1, 2);
+    stored.addAll(strategy.drainElements());
+
+    AtomicInteger loads = new AtomicInteger();
+    ScatterStrategy restored = restore(strategy, stored, loads);
+    // completions only check these, they don't load the elements
+    restored.isBlocking();
+    restored.isEmptyListDetected();
+    Assert.assertEquals(loads.get(), 0);
+
+    Assert.assertTrue(restored.enabled().isEmpty());
+    Assert.assertEquals(loads.get(), 1);
+    Assert.assertEquals(restored.enabledCount(), strategy.enabledCount());
+    Assert.assertEquals(JSONHelper.writeObject(restored.valueStructure("step", "output", null)), JSONHelper.writeObject(strategy.valueStructure("step", "output", null)));
+    Assert.assertEquals(write(restored), write(strategy));
+    Assert.assertTrue(restored.drainElements().isEmpty());
+    Assert.assertEquals(loads.get(), 1);
+  }
+
+  @Test(dataProvider = "strategies")
+  public void testOnlyChangesAreDrained(String type) throws ScatterStrategyException {
+    ScatterStrategy strategy = strategy(type);
+    List<ScatterElement> stored = new ArrayList<>(strategy.drainElements());
+    enable(strategy, 1, 2);
+    stored.addAll(strategy.drainElements());
+
+    ScatterStrategy restored = restore(strategy, stored, new AtomicInteger());
+    enable(restored, 3, 3);
+    enable(strategy, 3, 3);
+    List<ScatterElement> changes = restored.drainElements();
+    Assert.assertFalse(changes.isEmpty());
+    for (ScatterElement change : changes) {
+      Assert.assertTrue(change.getType() == ScatterElement.Type.COMBINATION || change.getPosition() == 3, change.toString());
+    }
+
+    stored.addAll(changes);
+    Assert.assertEquals(write(restore(strategy, stored, new AtomicInteger())), write(strategy));
+  }
+
+  /**
+   * A later element of the same key is written over the earlier one and keeps its place, the way the store upserts them
+   */
+  @Test(dataProvider = "strategies")
+  public void testOverwrittenElements(String type) throws ScatterStrategyException {
+    ScatterStrategy strategy = strategy(type);
+    List<ScatterElement> stored = new ArrayList<>(strategy.drainElements());
+    for (int position = 1; position <= 3; position++) {
+      enableValues(strategy, position, position);
+      // combinations are stored when they're found and again when they're committed
+      List<RowMapping> rows = strategy.enabled();
+      stored.addAll(strategy.drainElements());
+      strategy.commit(rows);
+      stored.addAll(strategy.drainElements());
+    }
+
+    Map<String, ScatterElement> overwritten = new LinkedHashMap<>();
+    for (ScatterElement element : stored) {
+      overwritten.put(element.key(), element);
+    }
+    Assert.assertTrue(overwritten.size() < stored.size());
+    Assert.assertEquals(write(restore(strategy, new ArrayList<>(overwritten.values()), new AtomicInteger())), write(strategy));
+  }
+
+  private ScatterStrategy restore(ScatterStrategy strategy, List<ScatterElement> stored, AtomicInteger loads) {
+    ScatterStrategy restored = JSONHelper.readObject(JSONHelper.writeObject(strategy.withoutElements()), ScatterStrategy.class);
+    List<ScatterElement> elements = new ArrayList<>(stored);
+    restored.restoreElements(() -> {
+      loads.incrementAndGet();
+      return elements;
+    });
+    return restored;
+  }
+
+  private String write(ScatterStrategy strategy) {
+    strategy.isHanging();
+    return JSONHelper.writeObject(strategy);
+  }
+
+  /**
+   * Enables values on positions from start to end, then commits the combinations which became available
+   */
+  private void enable(ScatterStrategy strategy, int start, int end) throws ScatterStrategyException {
+    enableValues(strategy, start, end);
+    strategy.commit(strategy.enabled());
+  }
+
+  private void enableValues(ScatterStrategy strategy, int start, int end) throws ScatterStrategyException {
+    for (int position = start; position <= end; position++) {
+      strategy.enable("first", "a" + position, position, 3);
+      if (strategy instanceof ScatterCartesianStrategy) {
+        strategy.enable("second", "b" + position, position, 3);
+      }
+    }
+  }
+
+  private ScatterStrategy strategy(String type) {
+    if (type.equals("zip")) {
+      Map<String, List<Object>> values = new HashMap<>();
+      values.put("first", new ArrayList<>());
+      Map<String, List<Boolean>> indexes = new HashMap<>();
+      indexes.put("first", new ArrayList<>());
+      return new ScatterZipStrategy(new ArrayList<>(), values, indexes, ScatterMethod.dotproduct, false, false);
+    }
+    Map<String, LinkedList<Object>> values = new LinkedHashMap<>();
+    values.put("first", new LinkedList<>());
+    values.put("second", new LinkedList<>());
+    Map<String, LinkedList<Integer>> positions = new LinkedHashMap<>();
+    positions.put("first", new LinkedList<>());
+    positions.put("second", new LinkedList<>());
+    return new ScatterCartesianStrategy(new LinkedList<>(), values, positions, ScatterMethod.nested_crossproduct, new HashMap<>(), false, false);
+  }
+
+}
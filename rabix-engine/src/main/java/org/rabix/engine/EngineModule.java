@@ -20,6 +20,7 @@ import org.rabix.engine.service.GarbageCollectionService;
 import org.rabix.engine.service.IntermediaryFilesService;
 import org.rabix.engine.service.JobRecordService;
 import org.rabix.engine.service.JobStatsRecordService;
+import org.rabix.engine.service.RuntimeEstimateService;
 import org.rabix.engine.service.LinkRecordService;
 import org.rabix.engine.service.VariableRecordService;
 import org.rabix.engine.service.impl.AppServiceImpl;
@@ -29,13 +30,14 @@ import org.rabix.engine.service.impl.GarbageCollectionServiceImpl;
 import org.rabix.engine.service.impl.IntermediaryFilesServiceImpl;
 import org.rabix.engine.service.impl.JobRecordServiceImpl;
 import org.rabix.engine.service.impl.JobStatsRecordServiceImpl;
+import org.rabix.engine.service.impl.RuntimeEstimateServiceImpl;
 import org.rabix.engine.service.impl.LinkRecordServiceImpl;
 import org.rabix.engine.service.impl.VariableRecordServiceImpl;
 import org.rabix.engine.storage.EventSourcingModule;
 import org.rabix.engine.store.lru.app.AppCache;
 import org.rabix.engine.store.lru.context.ContextRecordCache;
 import org.rabix.engine.store.lru.dag.DAGCache;
-import org.rabix.engine.store.lru.stats.JobStatsRecordCache;
+import org.rabix.engine.store.lru.dag.DAGTranslationCache;
 import org.rabix.engine.store.memory.InMemoryRepositoryModule;
 import org.rabix.engine.store.memory.InMemoryRepositoryRegistry;
 import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryModule;
@@ -72,9 +74,9 @@ public class EngineModule extends AbstractModule {
     bind(IntermediaryFilesService.class).to(IntermediaryFilesServiceImpl.class).in(Scopes.SINGLETON);
 
     bind(DAGCache.class).in(Scopes.SINGLETON);
+    bind(DAGTranslationCache.class).in(Scopes.SINGLETON);
     bind(AppCache.class).in(Scopes.SINGLETON);
     bind(ContextRecordCache.class).in(Scopes.SINGLETON);
-    bind(JobStatsRecordCache.class).in(Scopes.SINGLETON);
     bind(DAGNodeService.class).to(DAGNodeServiceImpl.class).in(Scopes.SINGLETON);
     bind(AppService.class).to(AppServiceImpl.class).in(Scopes.SINGLETON);
     bind(JobRecordService.class).to(JobRecordServiceImpl.class).in(Scopes.SINGLETON);
@@ -82,9 +84,11 @@ public class EngineModule extends AbstractModule {
     bind(LinkRecordService.class).to(LinkRecordServiceImpl.class).in(Scopes.SINGLETON);
     bind(ContextRecordService.class).to(ContextRecordServiceImpl.class).in(Scopes.SINGLETON);
     bind(JobStatsRecordService.class).to(JobStatsRecordServiceImpl.class).in(Scopes.SINGLETON);
+    bind(RuntimeEstimateService.class).to(RuntimeEstimateServiceImpl.class).in(Scopes.SINGLETON);
     bind(GarbageCollectionService.class).to(GarbageCollectionServiceImpl.class).in(Scopes.SINGLETON);
     bindConstant().annotatedWith(Names.named(InputEventHandler.TREAT_ROOT)).to(configuration.getBoolean("engine.treat_inputs_as_intermediary", false));
     bind(JobHelper.class).in(Scopes.SINGLETON);
+    bind(ReadyJobCollector.class).in(Scopes.SINGLETON);
     bind(ScatterHandler.class).in(Scopes.SINGLETON);
     bind(InitEventHandler.class).in(Scopes.SINGLETON);
     bind(InputEventHandler.class).in(Scopes.SINGLETON);
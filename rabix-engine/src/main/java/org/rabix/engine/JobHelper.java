@@ -8,6 +8,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
+import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.BindingException;
 import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
@@ -39,6 +40,10 @@ import com.google.inject.Inject;
 
 public class JobHelper {
 
+  public static final String APP_BY_REFERENCE_KEY = "engine.job.app_by_reference";
+
+  @Inject
+  private Configuration configuration;
   @Inject
   private JobRecordService jobRecordService;
   @Inject
@@ -159,18 +164,29 @@ public class JobHelper {
     }
 
     ContextRecord contextRecord = contextRecordService.find(job.getRootId());
-    String encodedApp = URIHelper.createDataURI(JSONHelper.writeObject(appService.get(node.getAppHash())));
+    String app = isAppByReference(job) ? URIHelper.createAppURI(node.getAppHash()) : encodeApp(node);
 
-    Job newJob = new Job(job.getExternalId(), job.getParentId(), job.getRootId(), job.getId(), encodedApp, status, null, preprocesedInputs, null, contextRecord.getConfig(), null, null);
+    Job newJob = new Job(job.getExternalId(), job.getParentId(), job.getRootId(), job.getId(), app, status, null, preprocesedInputs, null, contextRecord.getConfig(), null, null);
     if (processVariables) {
-      inputs = processVariables(node, inputVariables, encodedApp, newJob);
+      inputs = processVariables(node, inputVariables, newJob);
     } else {
       inputs = preprocesedInputs;
     }
-    return new Job(job.getExternalId(), job.getParentId(), job.getRootId(), job.getId(), encodedApp, status, null, inputs, null, contextRecord.getConfig(), null, null);
+    return new Job(job.getExternalId(), job.getParentId(), job.getRootId(), job.getId(), app, status, null, inputs, null, contextRecord.getConfig(), null, null, node.getPriority());
+  }
+
+  /**
+   * Root jobs always carry the inlined application because clients read it back from the repository
+   */
+  private boolean isAppByReference(JobRecord job) {
+    return !job.isRoot() && configuration.getBoolean(APP_BY_REFERENCE_KEY, true);
+  }
+
+  private String encodeApp(DAGNode node) {
+    return URIHelper.createDataURI(JSONHelper.writeCompact(appService.get(node.getAppHash())));
   }
 
-  private Map<String, Object> processVariables(DAGNode node, List<VariableRecord> inputVariables, String encodedApp, Job newJob) throws BindingException {
+  private Map<String, Object> processVariables(DAGNode node, List<VariableRecord> inputVariables, Job newJob) throws BindingException {
 
     boolean autoBoxingEnabled = false;   // get from configuration
 
@@ -178,7 +194,8 @@ public class JobHelper {
 
     Map<String, Object> inputs = new HashMap<>();
     try {
-        Bindings bindings = BindingsFactory.create(encodedApp);
+        Bindings bindings = null;
+        Job transformJob = null;
 
         for (VariableRecord inputVariable : inputVariables) {
           Object value = CloneHelper.deepCopy(variableRecordService.getValue(inputVariable));
@@ -194,7 +211,13 @@ public class JobHelper {
               if (p.getTransform() != null) {
                 Object transform = p.getTransform();
                 if (transform != null) {
-                  value = bindings.transformInputs(value, newJob, transform);
+                  if (bindings == null) {
+                    // expressions need the whole application so it is inlined only when there is something to transform
+                    String encodedApp = URIHelper.isApp(newJob.getApp()) ? encodeApp(node) : newJob.getApp();
+                    transformJob = Job.cloneWithApp(newJob, encodedApp, newJob.getAppHash());
+                    bindings = BindingsFactory.create(encodedApp);
+                  }
+                  value = bindings.transformInputs(value, transformJob, transform);
                 }
               }
             }
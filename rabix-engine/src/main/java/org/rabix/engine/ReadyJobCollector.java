@@ -0,0 +1,35 @@
+package org.rabix.engine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.rabix.bindings.model.Job;
+
+/**
+ * Jobs which became READY in the running transaction, grouped by root and event group. The event processor dispatches
+ * them after the transaction commits, so the store isn't queried for ready jobs after every event.
+ * <p>
+ * A root is handled by one event processor thread at a time, so only the map of roots is shared between threads.
+ */
+public class ReadyJobCollector {
+
+  private final Map<UUID, Map<UUID, Map<UUID, Job>>> readyJobs = new ConcurrentHashMap<>();
+
+  public void add(Job job, UUID groupId) {
+    readyJobs.computeIfAbsent(job.getRootId(), rootId -> new LinkedHashMap<>())
+        .computeIfAbsent(groupId, id -> new LinkedHashMap<>())
+        .put(job.getId(), job);
+  }
+
+  /**
+   * Removes and returns ready jobs of the root by event group
+   */
+  public Map<UUID, Map<UUID, Job>> drain(UUID rootId) {
+    Map<UUID, Map<UUID, Job>> jobs = readyJobs.remove(rootId);
+    return jobs != null ? jobs : Collections.emptyMap();
+  }
+
+}
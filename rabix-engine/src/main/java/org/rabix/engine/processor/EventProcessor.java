@@ -22,6 +22,11 @@ public interface EventProcessor {
 
   void addToExternalQueue(Event event, Runnable onProcessed);
 
+  /**
+   * Returns false if the engine is too far behind to accept a new root in time
+   */
+  boolean admit(UUID rootId) throws InterruptedException;
+
   void persist(Event event);
 
   boolean hasWork();
@@ -32,6 +37,8 @@ public interface EventProcessor {
 
   int eventsQueueSize();
 
+  int externalQueueSize();
+
   class EventProcessorDispatcher {
 
     public static int dispatch(UUID rootId, int numberOfEventProcessors) {
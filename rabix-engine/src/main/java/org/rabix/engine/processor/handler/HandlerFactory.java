@@ -50,4 +50,25 @@ public class HandlerFactory {
     }
   }
 
+  /**
+   * Called before an event is handled, writes the output updates held back which the event may read
+   */
+  public void beforeHandle(Event event) {
+    outputEventHandler.flushBefore(event);
+  }
+
+  /**
+   * Called before the transaction of the handled events commits
+   */
+  public void beforeCommit() {
+    outputEventHandler.flush();
+  }
+
+  /**
+   * Called after the transaction of the handled events rolled back
+   */
+  public void afterRollback() {
+    outputEventHandler.discard();
+  }
+
 }
@@ -18,7 +18,6 @@ import org.rabix.engine.service.*;
 import org.rabix.engine.store.model.ContextRecord;
 import org.rabix.engine.store.model.ContextRecord.ContextStatus;
 import org.rabix.engine.store.model.JobRecord;
-import org.rabix.engine.store.model.JobStatsRecord;
 import org.rabix.engine.store.model.VariableRecord;
 
 import java.util.Map;
@@ -57,13 +56,11 @@ public class InitEventHandler implements EventHandler<InitEvent> {
 
     jobRecordService.create(job);
     if (job.isRoot() && mode != EventHandlingMode.REPLAY) {
-      JobStatsRecord jobStatsRecord = jobStatsRecordService.findOrCreate(job.getRootId());
       if (node instanceof DAGContainer) {
-        jobStatsRecord.setTotal(((DAGContainer) node).getChildren().size());
+        jobStatsRecordService.setTotal(job.getRootId(), ((DAGContainer) node).getChildren().size());
       } else {
-        jobStatsRecord.setTotal(1);
+        jobStatsRecordService.setTotal(job.getRootId(), 1);
       }
-      jobStatsRecordService.update(jobStatsRecord);
     }
 
     for (DAGLinkPort inputPort : node.getInputPorts()) {
@@ -19,6 +19,7 @@ import org.rabix.common.helper.CloneHelper;
 import org.rabix.common.helper.InternalSchemaHelper;
 import org.rabix.common.helper.JSONHelper;
 import org.rabix.engine.JobHelper;
+import org.rabix.engine.ReadyJobCollector;
 import org.rabix.engine.event.Event;
 import org.rabix.engine.event.impl.ContextStatusEvent;
 import org.rabix.engine.event.impl.InputUpdateEvent;
@@ -55,12 +56,14 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
   private final ContextRecordService contextRecordService;
   private final JobStatsRecordService jobStatsRecordService;
   private final IntermediaryFilesService intermediaryFilesService;
+  private final RuntimeEstimateService runtimeEstimateService;
 
   private final JobRepository jobRepository;
   private final JobService jobService;
 
   private final boolean setResources;
   private JobHelper jobHelper;
+  private final ReadyJobCollector readyJobCollector;
 
   @Inject
   public JobStatusEventHandler(final DAGNodeService dagNodeService, final AppService appService,
@@ -68,7 +71,8 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
       final VariableRecordService variableRecordService, final ContextRecordService contextRecordService,
       final EventProcessor eventProcessor, final ScatterHandler scatterHelper, final JobRepository jobRepository,
       final JobService jobService, final JobStatsRecordService jobStatsRecordService,
-      final Configuration configuration, final JobHelper jobHelper, final IntermediaryFilesService intermediaryFilesService) {
+      final Configuration configuration, final JobHelper jobHelper, final IntermediaryFilesService intermediaryFilesService,
+      final RuntimeEstimateService runtimeEstimateService, final ReadyJobCollector readyJobCollector) {
     this.dagNodeService = dagNodeService;
     this.scatterHelper = scatterHelper;
     this.eventProcessor = eventProcessor;
@@ -83,6 +87,8 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
     this.jobRepository = jobRepository;
     this.setResources = configuration.getBoolean("engine.set_resources", false);
     this.intermediaryFilesService = intermediaryFilesService;
+    this.runtimeEstimateService = runtimeEstimateService;
+    this.readyJobCollector = readyJobCollector;
   }
 
   @Override
@@ -93,10 +99,7 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
       return;
     }
 
-    JobStatsRecord jobStatsRecord = null;
-    if (mode != EventHandlingMode.REPLAY && jobRecord.isTopLevel()) {
-      jobStatsRecord = jobStatsRecordService.findOrCreate(jobRecord.getRootId());
-    }
+    boolean trackStats = mode != EventHandlingMode.REPLAY && jobRecord.isTopLevel();
 
     try {
       JobStateValidator.checkState(jobRecord, event.getState());
@@ -123,6 +126,7 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
           } else {
             jobRepository.update(job);
           }
+          readyJobCollector.add(job, event.getEventGroupId());
         } catch (BindingException e1) {
           // FIXME: is this really safe to ignore?
           logger.info("Failed to create job", e1);
@@ -143,13 +147,15 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
     case RUNNING:
       jobRecord.setState(JobRecord.JobState.RUNNING);
       jobRecordService.update(jobRecord);
-      if (jobStatsRecord != null) {
-        jobStatsRecord.increaseRunning();
-        jobStatsRecordService.update(jobStatsRecord);
+      if (trackStats) {
+        jobStatsRecordService.increaseRunning(jobRecord.getRootId());
+      }
+      if (!jobRecord.isContainer() && !jobRecord.isScatterWrapper()) {
+        runtimeEstimateService.started(jobRecord.getExternalId());
       }
       break;
     case COMPLETED:
-      updateJobStats(jobRecord, jobStatsRecord);
+      updateJobStats(jobRecord, trackStats);
 
       if ((!jobRecord.isScatterWrapper() || jobRecord.isRoot()) && !jobRecord.isContainer()) {
         for (PortCounter portCounter : jobRecord.getOutputCounters()) {
@@ -164,9 +170,13 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
       if (!jobRecord.isContainer() && !jobRecord.isScatterWrapper()) {
         Job job = jobRepository.get(event.getEventGroupId());
         intermediaryFilesService.decrementInputFilesReferences(event.getContextId(), job.getInputs());
+
+        DAGNode node = dagNodeService.get(InternalSchemaHelper.normalizeId(jobRecord.getId()), jobRecord.getRootId(), jobRecord.getDagHash());
+        runtimeEstimateService.completed(jobRecord.getExternalId(), node != null ? node.getAppHash() : null);
       }
 
       if (jobRecord.isRoot()) {
+        jobStatsRecordService.flush(jobRecord.getRootId());
         eventProcessor.send(new ContextStatusEvent(event.getContextId(), ContextStatus.COMPLETED));
         try {
           Job rootJob = jobHelper.createJob(jobRecord, JobStatus.COMPLETED, event.getResult());
@@ -207,12 +217,15 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
       ContextRecord contextRecord = contextRecordService.find(jobRecord.getRootId());
       contextRecord.setStatus(ContextStatus.ABORTED);
       contextRecordService.update(contextRecord);
+      jobStatsRecordService.flush(jobRecord.getRootId());
       break;
     case FAILED:
       jobRecord.setState(JobRecord.JobState.READY);
       jobRecordService.update(jobRecord);
+      runtimeEstimateService.failed(jobRecord.getExternalId());
 
       if (jobRecord.isRoot()) {
+        jobStatsRecordService.flush(jobRecord.getRootId());
         try {
           Job rootJob = jobHelper.createJob(jobRecord, JobStatus.FAILED, null);
           rootJob = Job.cloneWithMessage(rootJob, event.getMessage());
@@ -239,10 +252,9 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
     }
   }
 
-  private void updateJobStats(JobRecord jobRecord, JobStatsRecord jobStatsRecord) {
-    if (jobStatsRecord != null && !(jobRecord.isRoot() && jobRecord.isContainer())) {
-      jobStatsRecord.increaseCompleted();
-      jobStatsRecordService.update(jobStatsRecord);
+  private void updateJobStats(JobRecord jobRecord, boolean trackStats) {
+    if (trackStats && !(jobRecord.isRoot() && jobRecord.isContainer())) {
+      jobStatsRecordService.increaseCompleted(jobRecord.getRootId());
     }
   }
 
@@ -346,7 +358,7 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
       if (node.getProtocolType() != null) {
         bindings = BindingsFactory.create(node.getProtocolType());
       } else {
-        String encodedApp = URIHelper.createDataURI(JSONHelper.writeObject(appService.get(node.getAppHash())));
+        String encodedApp = URIHelper.createDataURI(JSONHelper.writeCompact(appService.get(node.getAppHash())));
         bindings = BindingsFactory.create(encodedApp);
       }
 
@@ -364,7 +376,7 @@ public class JobStatusEventHandler implements EventHandler<JobStatusEvent> {
             if (p.getTransform() != null) {
               Object transform = p.getTransform();
               if (transform != null) {
-                value = bindings.transformInputs(value, new Job(JSONHelper.writeObject(app), preprocesedInputs), transform);
+                value = bindings.transformInputs(value, new Job(JSONHelper.writeCompact(app), preprocesedInputs), transform);
                 inputVariable.setValue(value);
                 variableRecordService.update(inputVariable);
               }
@@ -27,33 +27,57 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Handles {@link OutputUpdateEvent} events.
  */
 public class OutputEventHandler implements EventHandler<OutputUpdateEvent> {
 
-  @Inject
   private JobRecordService jobRecordService;
-  @Inject
   private LinkRecordService linkService;
-  @Inject
   private VariableRecordService variableService;
-  @Inject
   private EventProcessor eventProcessor;
-  @Inject
-  private JobService jobService;
-  @Inject
   private JobHelper jobHelper;
-  @Inject
   private IntermediaryFilesService filesService;
 
   private Logger logger = LoggerFactory.getLogger(getClass());
 
+  /**
+   * Updates of a blocking scatter wrapper's port which don't make it ready have no effect downstream. They are applied
+   * to the records in memory, which are written once the port is ready or before an event which may read them, see
+   * {@link #flushBefore(Event)}. Every event processor handles its events on its own thread.
+   */
+  private final ThreadLocal<PendingGather> pending = new ThreadLocal<>();
+
+  @Inject
+  public OutputEventHandler(JobRecordService jobRecordService, LinkRecordService linkService, VariableRecordService variableService,
+      EventProcessor eventProcessor, JobHelper jobHelper, IntermediaryFilesService filesService) {
+    this.jobRecordService = jobRecordService;
+    this.linkService = linkService;
+    this.variableService = variableService;
+    this.eventProcessor = eventProcessor;
+    this.jobHelper = jobHelper;
+    this.filesService = filesService;
+  }
+
 
   public void handle(final OutputUpdateEvent event, EventHandlingMode mode) throws EventHandlerException {
     logger.debug(event.toString());
-    JobRecord sourceJob = jobRecordService.find(event.getJobId(), event.getContextId());
+    PendingGather gather = pending.get();
+    pending.remove();
+    JobRecord sourceJob;
+    VariableRecord sourceVariable = null;
+    if (gather != null && gather.isUpdatedBy(event)) {
+      sourceJob = gather.job;
+      sourceVariable = gather.variable;
+    } else {
+      if (gather != null) {
+        write(gather);
+        gather = null;
+      }
+      sourceJob = jobRecordService.find(event.getJobId(), event.getContextId());
+    }
 
     if (sourceJob == null) {
       logger.info("Possible stale message. Job {} for root {} doesn't exist.", event.getJobId(), event.getContextId());
@@ -68,11 +92,21 @@ public class OutputEventHandler implements EventHandler<OutputUpdateEvent> {
 
     Boolean isScatterWrapper = sourceJob.isScatterWrapper();
 
-    VariableRecord sourceVariable = variableService.find(event.getJobId(), event.getPortId(), LinkPortType.OUTPUT, event.getContextId());
+    if (sourceVariable == null) {
+      sourceVariable = variableService.find(event.getJobId(), event.getPortId(), LinkPortType.OUTPUT, event.getContextId());
+    }
     jobRecordService.decrementPortCounter(sourceJob, event.getPortId(), LinkPortType.OUTPUT);
     variableService.addValue(sourceVariable, event.getValue(), event.getPosition(), isScatterWrapper && !sourceJob.getScatterStrategy().isEmptyListDetected());
+    if (isBlockingScatterWrapper(sourceJob) && !sourceJob.isOutputPortReady(event.getPortId())) {
+      // nothing is sent before all scattered outputs arrive, the records are written later
+      pending.set(new PendingGather(event, sourceJob, sourceVariable, gather != null ? gather.updates + 1 : 1));
+      return;
+    }
     variableService.update(sourceVariable); // TODO wha?
     jobRecordService.update(sourceJob);
+    if (gather != null) {
+      logger.debug("Wrote {} updates of {}.{} at once", gather.updates + 1, event.getJobId(), event.getPortId());
+    }
 
     if (sourceJob.isCompleted()) {
       if(sourceJob.getOutputCounter(sourceVariable.getPortId()) != null) {
@@ -84,25 +118,27 @@ public class OutputEventHandler implements EventHandler<OutputUpdateEvent> {
       }
     }
 
-    Object value = variableService.getValue(sourceVariable);
     PortCounter outputCounter = sourceJob.getOutputCounter(event.getPortId());
     Integer numberOfScattered = outputCounter == null ? 0 : outputCounter.getGlobalCounter();
-
     if (isScatterWrapper) {
       numberOfScattered = sourceJob.getNumberOfGlobalOutputs();
-      ScatterStrategy scatterStrategy = sourceJob.getScatterStrategy();
-      if (scatterStrategy.isBlocking() || scatterStrategy.isEmptyListDetected()) {
-        if (sourceJob.isOutputPortReady(event.getPortId())) {
-          List<Object> valueStructure = scatterStrategy.valueStructure(sourceJob.getId(), event.getPortId(), event.getContextId());
-          value = Recursive.make(jp -> {
-            JobPortPair jobPair = (JobPortPair) jp;
-            VariableRecord variableRecord = variableService.find(jobPair.getJobId(), jobPair.getPortId(), LinkPortType.OUTPUT, event.getContextId());
-            return variableService.getValue(variableRecord);
-          }).apply(valueStructure);
-        } else {
-          return;
-        }
+    }
+
+    Object value;
+    ScatterStrategy scatterStrategy = sourceJob.getScatterStrategy();
+    if (isScatterWrapper && (scatterStrategy.isBlocking() || scatterStrategy.isEmptyListDetected())) {
+      if (!sourceJob.isOutputPortReady(event.getPortId())) {
+        // nothing is sent before all scattered outputs arrive, gathered value isn't needed yet
+        return;
       }
+      List<Object> valueStructure = scatterStrategy.valueStructure(sourceJob.getId(), event.getPortId(), event.getContextId());
+      value = Recursive.make(jp -> {
+        JobPortPair jobPair = (JobPortPair) jp;
+        VariableRecord variableRecord = variableService.find(jobPair.getJobId(), jobPair.getPortId(), LinkPortType.OUTPUT, event.getContextId());
+        return variableService.getValue(variableRecord);
+      }).apply(valueStructure);
+    } else {
+      value = variableService.getValue(sourceVariable);
     }
 
     List<LinkRecord> links =
@@ -122,6 +158,58 @@ public class OutputEventHandler implements EventHandler<OutputUpdateEvent> {
   }
 
 
+  /**
+   * Writes the pending updates of a scatter wrapper's port before an event which may read its records. Other updates
+   * of the same port and completions and output updates of other jobs leave them alone.
+   */
+  public void flushBefore(Event event) {
+    PendingGather gather = pending.get();
+    if (gather == null) {
+      return;
+    }
+    if (event instanceof OutputUpdateEvent) {
+      OutputUpdateEvent update = (OutputUpdateEvent) event;
+      if (gather.isUpdatedBy(update) || (update.getContextId().equals(gather.rootId) && !update.getJobId().equals(gather.job.getId()))) {
+        return;
+      }
+    }
+    if (event instanceof JobStatusEvent) {
+      JobStatusEvent status = (JobStatusEvent) event;
+      if (status.getState() == JobState.COMPLETED && status.getContextId().equals(gather.rootId) && !status.getJobId().equals(gather.job.getId())) {
+        return;
+      }
+    }
+    flush();
+  }
+
+  /**
+   * Writes the pending updates, called before the transaction commits
+   */
+  public void flush() {
+    PendingGather gather = pending.get();
+    pending.remove();
+    if (gather != null) {
+      write(gather);
+    }
+  }
+
+  /**
+   * Drops the pending updates of a rolled back transaction
+   */
+  public void discard() {
+    pending.remove();
+  }
+
+  private void write(PendingGather gather) {
+    variableService.update(gather.variable);
+    jobRecordService.update(gather.job);
+    logger.debug("Wrote {} updates of {}.{} at once", gather.updates, gather.job.getId(), gather.portId);
+  }
+
+  private boolean isBlockingScatterWrapper(JobRecord job) {
+    return job.isScatterWrapper() && (job.getScatterStrategy().isBlocking() || job.getScatterStrategy().isEmptyListDetected());
+  }
+
   private Event createChildEvent(final OutputUpdateEvent event, JobRecord sourceJob, Integer numberOfScattered, LinkRecord link, Object tempValue) {
     switch (link.getDestinationVarType()) {
       case INPUT:
@@ -155,6 +243,27 @@ public class OutputEventHandler implements EventHandler<OutputUpdateEvent> {
     return null;
   }
 
+  private static class PendingGather {
+
+    private final UUID rootId;
+    private final String portId;
+    private final JobRecord job;
+    private final VariableRecord variable;
+    private final int updates;
+
+    private PendingGather(OutputUpdateEvent event, JobRecord job, VariableRecord variable, int updates) {
+      this.rootId = event.getContextId();
+      this.portId = event.getPortId();
+      this.job = job;
+      this.variable = variable;
+      this.updates = updates;
+    }
+
+    private boolean isUpdatedBy(OutputUpdateEvent event) {
+      return rootId.equals(event.getContextId()) && job.getId().equals(event.getJobId()) && portId.equals(event.getPortId());
+    }
+  }
+
   private Job createJob(JobRecord record, JobStatus status){
     try {
       return jobHelper.createJob(record, status);
@@ -1,8 +1,10 @@
 package org.rabix.engine.processor.impl;
 
 import com.google.inject.Inject;
+import org.apache.commons.configuration.Configuration;
 import org.rabix.bindings.model.Job;
 import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.ReadyJobCollector;
 import org.rabix.engine.event.Event;
 import org.rabix.engine.event.Event.EventType;
 import org.rabix.engine.event.impl.ContextStatusEvent;
@@ -14,7 +16,9 @@ import org.rabix.engine.processor.handler.EventHandlerException;
 import org.rabix.engine.processor.handler.HandlerFactory;
 import org.rabix.engine.service.ContextRecordService;
 import org.rabix.engine.service.GarbageCollectionService;
+import org.rabix.engine.service.IntermediaryFilesService;
 import org.rabix.engine.service.JobService;
+import org.rabix.engine.service.JobStatsRecordService;
 import org.rabix.engine.store.model.ContextRecord;
 import org.rabix.engine.store.model.ContextRecord.ContextStatus;
 import org.rabix.engine.store.model.EventRecord;
@@ -26,14 +30,22 @@ import org.rabix.engine.store.repository.TransactionHelper.TransactionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Event processor implementation
@@ -43,7 +55,7 @@ public class EventProcessorImpl implements EventProcessor {
   private static final Logger logger = LoggerFactory.getLogger(EventProcessorImpl.class);
 
   private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
-  private final BlockingQueue<ExternalEvent> externalEvents = new LinkedBlockingQueue<>();
+  private final BlockingQueue<ExternalEvent> externalEvents;
 
   private final ExecutorService executorService =
           Executors.newSingleThreadExecutor((Runnable r) -> new Thread(r, "EventProcessorThread" + r.hashCode()));
@@ -52,6 +64,10 @@ public class EventProcessorImpl implements EventProcessor {
   private final AtomicBoolean running = new AtomicBoolean(false);
   private final AtomicReference<EventHandlingMode> mode = new AtomicReference<>();
 
+  private final Lock admissionLock = new ReentrantLock();
+  private final Condition drained = admissionLock.newCondition();
+  private final AtomicInteger admissionWaiters = new AtomicInteger();
+
   private final HandlerFactory handlerFactory;
 
   private final TransactionHelper transactionHelper;
@@ -61,6 +77,14 @@ public class EventProcessorImpl implements EventProcessor {
   private final MetricsHelper metricsHelper;
   private final GarbageCollectionService garbageCollectionService;
   private final ContextRecordService contextRecordService;
+  private final IntermediaryFilesService intermediaryFilesService;
+  private final JobStatsRecordService jobStatsRecordService;
+  private final ReadyJobCollector readyJobCollector;
+
+  private final int admissionHighWatermark;
+  private final int admissionLowWatermark;
+  private final long admissionTimeout;
+  private final int maxBatchSize;
 
   @Inject
   public EventProcessorImpl(HandlerFactory handlerFactory,
@@ -70,7 +94,11 @@ public class EventProcessorImpl implements EventProcessor {
                             JobService jobService,
                             MetricsHelper metricsHelper,
                             GarbageCollectionService garbageCollectionService,
-                            ContextRecordService contextRecordService) {
+                            ContextRecordService contextRecordService,
+                            IntermediaryFilesService intermediaryFilesService,
+                            JobStatsRecordService jobStatsRecordService,
+                            ReadyJobCollector readyJobCollector,
+                            Configuration configuration) {
     this.handlerFactory = handlerFactory;
     this.transactionHelper = transactionHelper;
     this.eventRepository = eventRepository;
@@ -79,6 +107,16 @@ public class EventProcessorImpl implements EventProcessor {
     this.metricsHelper = metricsHelper;
     this.garbageCollectionService = garbageCollectionService;
     this.contextRecordService = contextRecordService;
+    this.intermediaryFilesService = intermediaryFilesService;
+    this.jobStatsRecordService = jobStatsRecordService;
+    this.readyJobCollector = readyJobCollector;
+
+    int capacity = configuration.getInt("engine.event_processor.external_queue.capacity", 10000);
+    this.externalEvents = new LinkedBlockingQueue<>(capacity);
+    this.admissionHighWatermark = configuration.getInt("engine.admission.high_watermark", capacity * 8 / 10);
+    this.admissionLowWatermark = configuration.getInt("engine.admission.low_watermark", capacity / 2);
+    this.admissionTimeout = configuration.getLong("engine.admission.timeout_ms", 30000);
+    this.maxBatchSize = configuration.getInt("engine.event_processor.batch.size", 64);
   }
 
   public void start() {
@@ -87,8 +125,10 @@ public class EventProcessorImpl implements EventProcessor {
         try {
           ExternalEvent externalEvent = externalEvents.take();
           running.set(true);
+          signalIfDrained();
 
-          metricsHelper.time(() -> doProcessEvent(externalEvent), "EventProcessorImpl.processEvent");
+          List<ExternalEvent> batch = collectBatch(externalEvent);
+          metricsHelper.time(() -> doProcessEvents(batch), "EventProcessorImpl.processEvent");
         } catch (InterruptedException e) {
           Thread.currentThread().interrupt();
         }
@@ -96,8 +136,33 @@ public class EventProcessorImpl implements EventProcessor {
     });
   }
 
-  private void doProcessEvent(final ExternalEvent externalEvent) {
-    final Event event = externalEvent.event;
+  /**
+   * Completions of jobs of the same root which are next to each other in the queue are processed one after another in
+   * one transaction, which saves a commit per completion
+   */
+  private List<ExternalEvent> collectBatch(ExternalEvent first) {
+    List<ExternalEvent> batch = new ArrayList<>();
+    batch.add(first);
+    if (!isCompletion(first.event)) {
+      return batch;
+    }
+    while (batch.size() < maxBatchSize) {
+      ExternalEvent next = externalEvents.peek();
+      if (next == null || !isCompletion(next.event) || !next.event.getContextId().equals(first.event.getContextId())) {
+        break;
+      }
+      batch.add(externalEvents.poll());
+    }
+    signalIfDrained();
+    return batch;
+  }
+
+  private boolean isCompletion(Event event) {
+    return event != null && event.getType() == EventType.JOB_STATUS_UPDATE && ((JobStatusEvent) event).getState() == JobState.COMPLETED;
+  }
+
+  private void doProcessEvents(final List<ExternalEvent> batch) {
+    final Event event = batch.get(0).event;
     try {
       if (!checkContextPrecondition(event)) {
         logger.warn("Context {} is not active. Discarding {} event for {}", event.getContextId(), event.getType(), event.getEventGroupId());
@@ -105,18 +170,35 @@ public class EventProcessorImpl implements EventProcessor {
       }
 
       transactionHelper.doInTransaction((TransactionHelper.TransactionCallback<Void>) () -> {
-        if (!handle(event, mode.get())) {
-          eventRepository.deleteGroup(event.getEventGroupId());
-          return null;
+        List<Event> handled = new ArrayList<>();
+        for (ExternalEvent externalEvent : batch) {
+          Event next = externalEvent.event;
+          if (next != event && !checkContextPrecondition(next)) {
+            logger.warn("Context {} is not active. Discarding {} event for {}", next.getContextId(), next.getType(), next.getEventGroupId());
+            continue;
+          }
+          handle(next, mode.get());
+          handled.add(next);
         }
+        handlerFactory.beforeCommit();
 
-        processReadyJobs(event);
-        if (event.getType() != EventType.INIT) {
-          persist(event);
+        for (Event handledEvent : handled) {
+          if (handledEvent.getType() != EventType.INIT) {
+            persist(handledEvent);
+          }
         }
+        intermediaryFilesService.flush(event.getContextId());
         return null;
       });
+      intermediaryFilesService.commit(event.getContextId());
+      jobStatsRecordService.commit();
+      evictIfFinished(event.getContextId());
+      processReadyJobs(event.getContextId());
     } catch (Exception e) {
+      handlerFactory.afterRollback();
+      readyJobCollector.drain(event.getContextId());
+      intermediaryFilesService.rollback(event.getContextId());
+      jobStatsRecordService.rollback();
       logger.error("EventProcessor failed to process event {}.", event, e);
       try {
         Job job = jobRepository.get(event.getContextId());
@@ -124,15 +206,18 @@ public class EventProcessorImpl implements EventProcessor {
         jobRepository.update(job);
         jobService.handleJobRootFailed(job);
         invalidateContext(event.getContextId());
+        intermediaryFilesService.evict(event.getContextId());
       } catch (Exception ex) {
         logger.error("Failed to call jobFailed handler for job after event {} failed.", e, ex);
         jobService.handleJobRootFailed(event.getContextId(), ex.getMessage());
       }
     } finally {
-      triggerGC(event);
+      for (ExternalEvent externalEvent : batch) {
+        triggerGC(externalEvent.event);
 
-      if (externalEvent.callback != null) {
-        externalEvent.callback.run();
+        if (externalEvent.callback != null) {
+          externalEvent.callback.run();
+        }
       }
     }
   }
@@ -146,6 +231,16 @@ public class EventProcessorImpl implements EventProcessor {
     return contextRecord != null && contextRecord.isRunning();
   }
 
+  /**
+   * Reference counts of finished roots aren't needed in memory anymore, the GC deletes them from the repository
+   */
+  private void evictIfFinished(UUID contextId) {
+    ContextRecord contextRecord = contextRecordService.find(contextId);
+    if (contextRecord == null || !contextRecord.isRunning()) {
+      intermediaryFilesService.evict(contextId);
+    }
+  }
+
   private void triggerGC(Event event) {
     if (event.getType() != EventType.JOB_STATUS_UPDATE || mode.get() == EventHandlingMode.REPLAY) {
       return;
@@ -157,30 +252,34 @@ public class EventProcessorImpl implements EventProcessor {
     }
   }
 
-  private void processReadyJobs(Event event) {
-    if (!shouldProcessReadyJobs(event) || isReplayMode()) {
+  /**
+   * Sends jobs which became ready in the committed transaction, without querying the store again. Jobs which were
+   * committed but not sent (e.g. the engine stopped in between) are picked up by the bootstrap.
+   */
+  private void processReadyJobs(UUID contextId) {
+    Map<UUID, Map<UUID, Job>> readyJobs = readyJobCollector.drain(contextId);
+    if (isReplayMode()) {
       return;
     }
-
-    Set<Job> readyJobs = jobRepository.getReadyJobsByGroupId(event.getEventGroupId());
-    jobService.handleJobsReady(readyJobs, event.getContextId(), event.getEventGroupId());
+    readyJobs.forEach((groupId, jobs) -> jobService.handleJobsReady(new LinkedHashSet<>(jobs.values()), contextId, groupId));
   }
 
-  private boolean shouldProcessReadyJobs(Event event) {
-    return (event.getType() == EventType.INIT || (event.getType() == EventType.JOB_STATUS_UPDATE && ((JobStatusEvent) event).getState().equals(JobState.COMPLETED)));
-  }
-
-  private boolean handle(Event event, EventHandlingMode mode) throws TransactionException {
+  private void handle(Event event, EventHandlingMode mode) throws TransactionException {
     try {
-      while (event != null) {
-        handlerFactory.get(event.getType()).handle(event, mode);
-        event = events.poll();
-      }
+      handlerFactory.beforeHandle(event);
+      handlerFactory.get(event.getType()).handle(event, mode);
+      handleQueued(mode);
     } catch (EventHandlerException e) {
       throw new TransactionException(e);
     }
+  }
 
-    return true;
+  private void handleQueued(EventHandlingMode mode) throws EventHandlerException {
+    Event event;
+    while ((event = events.poll()) != null) {
+      handlerFactory.beforeHandle(event);
+      handlerFactory.get(event.getType()).handle(event, mode);
+    }
   }
 
   /**
@@ -194,6 +293,7 @@ public class EventProcessorImpl implements EventProcessor {
   public void stop() {
     stop.set(true);
     running.set(false);
+    executorService.shutdownNow();
   }
 
   public boolean isRunning() {
@@ -208,6 +308,7 @@ public class EventProcessorImpl implements EventProcessor {
       addToQueue(event);
       return;
     }
+    handlerFactory.beforeHandle(event);
     handlerFactory.get(event.getType()).handle(event, mode.get());
   }
 
@@ -223,12 +324,64 @@ public class EventProcessorImpl implements EventProcessor {
     addToExternalQueue(event, null);
   }
 
+  /**
+   * Waits while the external queue is full, which holds back the transport thread delivering the event
+   */
   @Override
   public void addToExternalQueue(Event event, Runnable onProcessed) {
     if (stop.get()) {
       return;
     }
-    this.externalEvents.add(new ExternalEvent(event, onProcessed));
+    try {
+      this.externalEvents.put(new ExternalEvent(event, onProcessed));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while adding " + event + " to the external queue", e);
+    }
+  }
+
+  /**
+   * Once the external queue reaches the high watermark, new roots wait until it drains to the low watermark
+   */
+  @Override
+  public boolean admit(UUID rootId) throws InterruptedException {
+    if (externalEvents.size() < admissionHighWatermark) {
+      return true;
+    }
+    long remaining = TimeUnit.MILLISECONDS.toNanos(admissionTimeout);
+    admissionLock.lock();
+    admissionWaiters.incrementAndGet();
+    try {
+      while (externalEvents.size() > admissionLowWatermark) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = drained.awaitNanos(remaining);
+      }
+      return true;
+    } finally {
+      admissionWaiters.decrementAndGet();
+      admissionLock.unlock();
+    }
+  }
+
+  /**
+   * Wakes up roots waiting for admission. Waiters are counted before they check the queue, so none is missed.
+   */
+  private void signalIfDrained() {
+    if (admissionWaiters.get() > 0 && externalEvents.size() <= admissionLowWatermark) {
+      admissionLock.lock();
+      try {
+        drained.signalAll();
+      } finally {
+        admissionLock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public int externalQueueSize() {
+    return externalEvents.size();
   }
 
   @Override
@@ -36,6 +36,7 @@ public class MultiEventProcessorImpl implements EventProcessor {
     }
 
     metricsHelper.gauge(this::eventsQueueSize, "EventProcessorImpl.events.queue.size");
+    metricsHelper.gauge(this::externalQueueSize, "EventProcessorImpl.external.queue.size");
   }
 
   @Override
@@ -90,6 +91,11 @@ public class MultiEventProcessorImpl implements EventProcessor {
     return eventProcessors.values().stream().mapToInt(EventProcessor::eventsQueueSize).sum();
   }
 
+  @Override
+  public int externalQueueSize() {
+    return eventProcessors.values().stream().mapToInt(EventProcessor::externalQueueSize).sum();
+  }
+
   @Override
   public void addToExternalQueue(Event event) {
     addToExternalQueue(event, null);
@@ -100,6 +106,11 @@ public class MultiEventProcessorImpl implements EventProcessor {
     getEventProcessor(event.getContextId()).addToExternalQueue(event, onProcessed);
   }
 
+  @Override
+  public boolean admit(UUID rootId) throws InterruptedException {
+    return getEventProcessor(rootId).admit(rootId);
+  }
+
   @Override
   public boolean isRunning() {
     return isRunning;
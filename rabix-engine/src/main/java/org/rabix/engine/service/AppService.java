@@ -1,6 +1,7 @@
 package org.rabix.engine.service;
 
 import org.rabix.bindings.model.Application;
+import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.dag.DAGNode;
 
 public interface AppService {
@@ -11,4 +12,6 @@ public interface AppService {
   
   void loadApp(DAGNode node);
   
+  Job inlineApp(Job job);
+  
 }
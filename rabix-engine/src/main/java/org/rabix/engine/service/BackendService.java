@@ -15,6 +15,11 @@ public interface BackendService {
   static String BACKEND_TYPES_KEY = "backend.embedded.types";
   
   void scanEmbedded();
+
+  /**
+   * Stops workers started by {@link #scanEmbedded()} and the receivers of their backends
+   */
+  void stopEmbedded();
   
   boolean isEnabled(String type);
   
@@ -38,4 +43,9 @@ public interface BackendService {
   
   public void sendToExecution(Job job);
 
+  /**
+   * Frees dispatch slots and drops queued jobs of a finished root
+   */
+  void releaseRoot(UUID rootId);
+
 }
@@ -6,4 +6,9 @@ public interface BootstrapService {
   
   void replay() throws BootstrapServiceException;
 
+  /**
+   * Stops processing events and writes what is kept in memory
+   */
+  void stop();
+
 }
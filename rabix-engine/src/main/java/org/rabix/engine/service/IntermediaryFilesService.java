@@ -17,5 +17,25 @@ public interface IntermediaryFilesService {
   void incrementInputFilesReferences(UUID rootId, Object inputs);
 
   void freeze(UUID rootId, Object value);
+
+  void flush(UUID rootId);
+
+  /**
+   * Keeps reference count changes the calling thread made to the root, called once its transaction is committed
+   */
+  void commit(UUID rootId);
+
+  /**
+   * Reverts reference count changes the calling thread made to the root since the last commit, called when its
+   * transaction is rolled back
+   */
+  void rollback(UUID rootId);
+
+  /**
+   * Drops the root's reference counts kept in memory, called once the root finished and its last transaction is over
+   */
+  void evict(UUID rootId);
+
+  void delete(UUID rootId);
 }
 
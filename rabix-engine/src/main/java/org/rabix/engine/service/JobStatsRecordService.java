@@ -4,15 +4,50 @@ import org.rabix.engine.store.model.JobStatsRecord;
 
 import java.util.UUID;
 
+/**
+ * Progress counters of root jobs. Counters are kept in memory and written to the repository periodically and when the
+ * root finishes. Changes made in an event transaction count once the transaction is committed.
+ */
 public interface JobStatsRecordService {
 
-  void create(JobStatsRecord jobStatsRecord);
-  
-  void update(JobStatsRecord jobStatsRecord);
+  /**
+   * Starts writing changed counters periodically
+   */
+  void start();
+
+  /**
+   * Stops the periodic writes and writes the counters which changed since
+   */
+  void stop();
+
+  void setTotal(UUID rootId, int total);
+
+  void increaseRunning(UUID rootId);
+
+  void increaseCompleted(UUID rootId);
 
   JobStatsRecord find(UUID rootId);
 
-  JobStatsRecord findOrCreate(UUID rootId);
+  /**
+   * Writes the root's counters to the repository, in the calling thread's transaction. The root isn't tracked in memory
+   * once the transaction is committed.
+   */
+  void flush(UUID rootId);
+
+  /**
+   * Writes counters of all roots which changed since the last flush
+   */
+  void flush();
+
+  /**
+   * Applies the changes the calling thread made, called once its transaction is committed
+   */
+  void commit();
+
+  /**
+   * Discards the changes the calling thread made since the last commit, called when its transaction is rolled back
+   */
+  void rollback();
 
   void delete(UUID rootId);
 }
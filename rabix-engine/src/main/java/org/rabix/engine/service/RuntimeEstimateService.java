@@ -0,0 +1,31 @@
+package org.rabix.engine.service;
+
+import java.util.UUID;
+
+import org.rabix.bindings.model.dag.DAGNode;
+
+/**
+ * Run time estimates of applications, learned from jobs which completed on this engine.
+ *
+ * Estimates are kept in memory only. They steer the order in which ready jobs are sent, not what runs, and a restarted
+ * engine relearns them from the first completions while it uses the default in the meantime.
+ */
+public interface RuntimeEstimateService {
+
+  void started(UUID jobId);
+
+  void completed(UUID jobId, String appHash);
+
+  void failed(UUID jobId);
+
+  /**
+   * Estimated run time in milliseconds. Applications which never completed get the configured default.
+   */
+  long estimate(String appHash);
+
+  /**
+   * Sets critical path priorities of the DAG nodes using current estimates. The DAG must belong to a single root.
+   */
+  void prioritize(DAGNode node);
+
+}
@@ -1,10 +1,14 @@
 package org.rabix.engine.service.impl;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import org.rabix.bindings.helper.DAGHashHelper;
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.model.Application;
+import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.dag.DAGContainer;
 import org.rabix.bindings.model.dag.DAGNode;
-import org.rabix.common.helper.ChecksumHelper;
-import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
 import org.rabix.common.helper.JSONHelper;
 import org.rabix.common.json.BeanSerializer;
 import org.rabix.engine.service.AppService;
@@ -28,12 +32,29 @@ public class AppServiceImpl implements AppService {
   public Application get(String id) {
     Application app = appCache.get(id);
     if(app == null) {
-      app = BeanSerializer.deserialize(appRepository.get(id), Application.class);
+      String appText = appRepository.get(id);
+      if (appText == null) {
+        return null;
+      }
+      app = BeanSerializer.deserialize(appText, Application.class);
       appCache.put(id, app);
     }
     return app;
   }
   
+  @Override
+  public Job inlineApp(Job job) {
+    if (!URIHelper.isApp(job.getApp())) {
+      return job;
+    }
+    String appHash = URIHelper.getURIInfo(job.getApp());
+    Application app = get(appHash);
+    if (app == null) {
+      return job;
+    }
+    return Job.cloneWithApp(job, URIHelper.createDataURI(JSONHelper.writeCompact(app)), appHash);
+  }
+  
   @Override
   public void loadDB(DAGNode node) {
     loadApp(node);
@@ -41,21 +62,29 @@ public class AppServiceImpl implements AppService {
   
   @Override
   public void loadApp(DAGNode node) {
-    String id = hashDagNode(node.getApp());
-    appRepository.insert(id, JSONHelper.writeSortedWithoutIdentation(JSONHelper.convertToJsonNode(node.getApp())));
+    loadApp(node, new HashSet<String>());
+  }
+  
+  /**
+   * Identical applications (same hash) are serialized and stored only once
+   */
+  private void loadApp(DAGNode node, Set<String> loaded) {
+    String id = node.getAppHash() != null ? node.getAppHash() : hashDagNode(node.getApp());
+    if (loaded.add(id) && appCache.get(id) == null) {
+      appRepository.insert(id, JSONHelper.writeSortedWithoutIdentation(JSONHelper.convertToJsonNode(node.getApp())));
+      appCache.put(id, node.getApp());
+    }
     node.setAppHash(id);
     node.setApp(null);
     if(node instanceof DAGContainer) {
       for (DAGNode child : ((DAGContainer) node).getChildren()) {
-        loadApp(child);
+        loadApp(child, loaded);
       }
     }
   }
   
   public static String hashDagNode(Application app) {
-    String cachedSortedAppText = JSONHelper.writeSortedWithoutIdentation(JSONHelper.convertToJsonNode(app));
-    String cachedAppHash = ChecksumHelper.checksum(cachedSortedAppText, HashAlgorithm.SHA1);
-    return cachedAppHash;
+    return DAGHashHelper.hashApp(app);
   }
 
 }
@@ -6,13 +6,15 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.backend.api.WorkerService;
 import org.rabix.bindings.model.Job;
 import org.rabix.common.json.BeanSerializer;
-import org.rabix.common.jvm.ClasspathScanner;
+import org.rabix.common.jvm.PluginIndex;
 import org.rabix.engine.service.BackendService;
 import org.rabix.engine.service.BackendServiceException;
 import org.rabix.engine.store.model.BackendRecord;
@@ -42,7 +44,13 @@ public class BackendServiceImpl implements BackendService {
 
   private final static Logger logger = LoggerFactory.getLogger(BackendServiceImpl.class);
 
+  /**
+   * Local queues are shared by the whole JVM, so embedded backends of engines in the same process need distinct names
+   */
+  private final static AtomicInteger embeddedBackends = new AtomicInteger();
+
   private Set<BackendStub> backendStubs;
+  private final List<WorkerService> embeddedWorkers = new CopyOnWriteArrayList<>();
 
   private final BackendStubFactory backendStubFactory;
   private final TransactionHelper transactionHelper;
@@ -54,6 +62,8 @@ public class BackendServiceImpl implements BackendService {
 
   private ReceiveCallback<Job> jobReceiver;
   private ErrorCallback errorCallback;
+
+  private final FairShareDispatcher dispatcher;
   
   @Inject
   public BackendServiceImpl(BackendStubFactory backendStubFactory,
@@ -68,22 +78,36 @@ public class BackendServiceImpl implements BackendService {
     this.errorCallback = (Exception e)->{
       
     };
+    if (configuration.getBoolean("engine.fairshare.enabled", false)) {
+      this.dispatcher = new FairShareDispatcher(configuration.getInt("engine.fairshare.max_running", 1000),
+          configuration.getInt("engine.fairshare.max_running_per_root", 100),
+          tag -> configuration.getInt("engine.fairshare.tag_weight." + tag, 1), this::send);
+      this.jobReceiver = (job, onHandled) -> {
+        try {
+          jobReceiver.handleReceive(job, onHandled);
+        } finally {
+          dispatcher.release(job);
+        }
+      };
+    } else {
+      this.dispatcher = null;
+    }
   }
   
   @Override
   public void scanEmbedded() {
-    Set<Class<WorkerService>> clazzes = ClasspathScanner.<WorkerService>scanInterfaceImplementations(WorkerService.class);
+    Set<Class<WorkerService>> clazzes = PluginIndex.load(WorkerService.class);
 
-    int prefix = 1;
     for (Class<WorkerService> clazz : clazzes) {
       try {
         WorkerService backendAPI = clazz.newInstance();
         if (isEnabled(backendAPI.getType())) {
           injector.injectMembers(backendAPI);
-          BackendLocal backendLocal = new BackendLocal(Integer.toString(prefix++));
+          BackendLocal backendLocal = new BackendLocal(Integer.toString(embeddedBackends.incrementAndGet()));
           create(backendLocal);
           startBackend(backendLocal);
           backendAPI.start(backendLocal);
+          embeddedWorkers.add(backendAPI);
         }
       } catch (InstantiationException | IllegalAccessException | BackendServiceException e) {
         logger.error("Failed to register backend " + clazz, e);
@@ -91,6 +115,21 @@ public class BackendServiceImpl implements BackendService {
     }
   }
   
+  @Override
+  public void stopEmbedded() {
+    for (WorkerService worker : embeddedWorkers) {
+      worker.stop();
+    }
+    embeddedWorkers.clear();
+    synchronized (backendStubs) {
+      for (BackendStub<?, ?, ?> backendStub : backendStubs) {
+        if (backendStub.getBackend() instanceof BackendLocal) {
+          backendStub.stop();
+        }
+      }
+    }
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public <T extends Backend> T create(T backend) throws BackendServiceException {
@@ -254,6 +293,21 @@ public class BackendServiceImpl implements BackendService {
 
   @Override
   public void sendToExecution(Job job) {
+    if (dispatcher != null) {
+      dispatcher.submit(job);
+    } else {
+      send(job);
+    }
+  }
+
+  @Override
+  public void releaseRoot(UUID rootId) {
+    if (dispatcher != null) {
+      dispatcher.remove(rootId);
+    }
+  }
+
+  private void send(Job job) {
     synchronized (backendStubs) {
       backendStubs.iterator().next().send(job);
     }
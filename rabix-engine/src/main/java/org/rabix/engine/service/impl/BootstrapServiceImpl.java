@@ -8,6 +8,8 @@ import org.rabix.engine.service.BackendService;
 import org.rabix.engine.service.BootstrapService;
 import org.rabix.engine.service.BootstrapServiceException;
 import org.rabix.engine.service.GarbageCollectionService;
+import org.rabix.engine.service.JobService;
+import org.rabix.engine.service.JobStatsRecordService;
 import org.rabix.engine.store.repository.EventRepository;
 import org.rabix.engine.store.repository.TransactionHelper;
 import org.rabix.transport.backend.Backend;
@@ -21,6 +23,8 @@ public class BootstrapServiceImpl implements BootstrapService {
 
   private final BackendService backendService;
   private final GarbageCollectionService garbageCollectionService;
+  private final JobService jobService;
+  private final JobStatsRecordService jobStatsRecordService;
 
   private final EventRepository eventRepository;
   private final TransactionHelper transactionHelper;
@@ -30,17 +34,21 @@ public class BootstrapServiceImpl implements BootstrapService {
 
   @Inject
   public BootstrapServiceImpl(TransactionHelper transactionHelper, EventRepository eventRepository,
-      EventProcessor eventProcessor, BackendService backendService, GarbageCollectionService garbageCollectionService) {
+      EventProcessor eventProcessor, BackendService backendService, GarbageCollectionService garbageCollectionService,
+      JobService jobService, JobStatsRecordService jobStatsRecordService) {
     this.backendService = backendService;
     this.eventProcessor = eventProcessor;
     this.eventRepository = eventRepository;
     this.transactionHelper = transactionHelper;
     this.garbageCollectionService = garbageCollectionService;
+    this.jobService = jobService;
+    this.jobStatsRecordService = jobStatsRecordService;
   }
 
   @Override
   public void start() throws BootstrapServiceException {
     try {
+      jobStatsRecordService.start();
       eventProcessor.start();
       backendService.scanEmbedded();
     } catch (Exception e) {
@@ -48,32 +56,41 @@ public class BootstrapServiceImpl implements BootstrapService {
     }
   }
 
+  @Override
+  public void stop() {
+    eventProcessor.stop();
+    jobStatsRecordService.stop();
+  }
+
   @Override
   public void replay() throws BootstrapServiceException {
+    List<Event> events;
     try {
-      transactionHelper.doInTransaction(() -> {
+      events = transactionHelper.doInTransaction(() -> {
         List<Backend> activeBackends = backendService.getActiveRemoteBackends();
 
         for (Backend backend : activeBackends) {
           logger.debug("Awakening backend: " + backend.getId());
         }
-        replayEvents();
-        return null;
+        // ready jobs are sent after their transaction commits, the ones committed but never sent are sent now
+        jobService.handlePendingReadyJobs();
+        return pendingEvents();
       });
     } catch (Exception e) {
       throw new BootstrapServiceException(e);
     }
+    // the external queue is bounded and the event processor needs the store to drain it, so events are queued only
+    // once the transaction is over
+    for (Event event : events) {
+      eventProcessor.addToExternalQueue(event);
+    }
   }
 
-  private void replayEvents() {
-    List<Event> events = eventRepository
+  private List<Event> pendingEvents() {
+    return eventRepository
             .getPendingEvents()
             .stream()
             .map(eventRecord -> JSONHelper.convertToObject(eventRecord.getEvent(), Event.class))
             .collect(Collectors.toList());
-
-    for (Event event : events) {
-      eventProcessor.addToExternalQueue(event);
-    }
   }
 }
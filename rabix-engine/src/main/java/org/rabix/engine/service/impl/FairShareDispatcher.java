@@ -0,0 +1,242 @@
+package org.rabix.engine.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+import org.rabix.bindings.model.Job;
+
+/**
+ * Fair-share dispatch of ready jobs to backends. Jobs wait in one queue per root and roots are grouped by tag. At most
+ * {@code maxRunning} jobs are dispatched and not finished at any time, at most {@code maxRunningPerRoot} of them from
+ * the same root. Free slots go to tags and then to roots within the tag by smooth weighted round-robin, so a root with a
+ * huge scatter can't starve roots submitted after it.
+ * <p>
+ * The tag and the weight of a root are read from the root's config ({@link #TAG_KEY}, {@link #WEIGHT_KEY}), tag weights
+ * are provided by the caller.
+ */
+public class FairShareDispatcher {
+
+  public final static String TAG_KEY = "fairshare.tag";
+  public final static String WEIGHT_KEY = "fairshare.weight";
+
+  private final static String DEFAULT_TAG = "default";
+
+  private final int maxRunning;
+  private final int maxRunningPerRoot;
+  private final ToIntFunction<String> tagWeights;
+  private final Consumer<Job> sink;
+
+  private final Map<String, TagQueue> tags = new LinkedHashMap<>();
+  private final Map<UUID, RootQueue> roots = new LinkedHashMap<>();
+  private int running;
+
+  /**
+   * @param maxRunning          limit of dispatched jobs which didn't finish yet, 0 for no limit
+   * @param maxRunningPerRoot   the same limit for every root, 0 for no limit
+   * @param sink                sends a job to a backend, called without holding the dispatcher lock
+   */
+  public FairShareDispatcher(int maxRunning, int maxRunningPerRoot, ToIntFunction<String> tagWeights, Consumer<Job> sink) {
+    this.maxRunning = maxRunning > 0 ? maxRunning : Integer.MAX_VALUE;
+    this.maxRunningPerRoot = maxRunningPerRoot > 0 ? maxRunningPerRoot : Integer.MAX_VALUE;
+    this.tagWeights = tagWeights;
+    this.sink = sink;
+  }
+
+  public void submit(Job job) {
+    List<Job> dispatched = new ArrayList<>();
+    synchronized (this) {
+      RootQueue root = roots.get(job.getRootId());
+      if (root == null) {
+        root = new RootQueue(job);
+        roots.put(root.rootId, root);
+        tags.computeIfAbsent(root.tag, tag -> new TagQueue(tagWeights.applyAsInt(tag))).roots.add(root);
+      }
+      if (root.running.contains(job.getId())) {
+        // sent again (e.g. after a backend went away), it already holds a slot
+        dispatched.add(job);
+      } else if (root.queued.add(job.getId())) {
+        root.queue.add(job);
+      }
+      drain(dispatched);
+    }
+    dispatched.forEach(sink);
+  }
+
+  /**
+   * Frees the slot of a job which finished on the backend
+   */
+  public void release(Job job) {
+    if (!Job.isFinished(job)) {
+      return;
+    }
+    List<Job> dispatched = new ArrayList<>();
+    synchronized (this) {
+      RootQueue root = roots.get(job.getRootId());
+      if (root == null || !root.running.remove(job.getId())) {
+        return;
+      }
+      running--;
+      removeIfEmpty(root);
+      drain(dispatched);
+    }
+    dispatched.forEach(sink);
+  }
+
+  /**
+   * Drops queued jobs and frees all slots of a finished root
+   */
+  public void remove(UUID rootId) {
+    List<Job> dispatched = new ArrayList<>();
+    synchronized (this) {
+      RootQueue root = roots.remove(rootId);
+      if (root == null) {
+        return;
+      }
+      running -= root.running.size();
+      removeFromTag(root);
+      drain(dispatched);
+    }
+    dispatched.forEach(sink);
+  }
+
+  public synchronized int running() {
+    return running;
+  }
+
+  public synchronized int queued() {
+    int queued = 0;
+    for (RootQueue root : roots.values()) {
+      queued += root.queue.size();
+    }
+    return queued;
+  }
+
+  private void drain(List<Job> dispatched) {
+    while (running < maxRunning) {
+      TagQueue tag = pick(tags.values());
+      if (tag == null) {
+        return;
+      }
+      RootQueue root = pick(tag.roots);
+      Job job = root.queue.poll();
+      root.queued.remove(job.getId());
+      root.running.add(job.getId());
+      running++;
+      dispatched.add(job);
+    }
+  }
+
+  private void removeIfEmpty(RootQueue root) {
+    if (root.queue.isEmpty() && root.running.isEmpty()) {
+      roots.remove(root.rootId);
+      removeFromTag(root);
+    }
+  }
+
+  private void removeFromTag(RootQueue root) {
+    TagQueue tag = tags.get(root.tag);
+    tag.roots.remove(root);
+    if (tag.roots.isEmpty()) {
+      tags.remove(root.tag);
+    }
+  }
+
+  /**
+   * Smooth weighted round-robin: every eligible candidate gains its weight, the one with the most credit wins and pays
+   * the sum of weights
+   */
+  private static <T extends Weighted> T pick(Collection<T> candidates) {
+    T best = null;
+    int total = 0;
+    for (T candidate : candidates) {
+      if (!candidate.isEligible()) {
+        continue;
+      }
+      candidate.credit += candidate.weight;
+      total += candidate.weight;
+      if (best == null || candidate.credit > best.credit) {
+        best = candidate;
+      }
+    }
+    if (best != null) {
+      best.credit -= total;
+    }
+    return best;
+  }
+
+  private static int weight(Object value) {
+    if (value == null) {
+      return 1;
+    }
+    try {
+      return Math.max(1, Integer.parseInt(value.toString()));
+    } catch (NumberFormatException e) {
+      return 1;
+    }
+  }
+
+  private abstract static class Weighted {
+    protected final int weight;
+    protected long credit;
+
+    Weighted(int weight) {
+      this.weight = Math.max(1, weight);
+    }
+
+    abstract boolean isEligible();
+  }
+
+  private class TagQueue extends Weighted {
+    private final List<RootQueue> roots = new ArrayList<>();
+
+    TagQueue(int weight) {
+      super(weight);
+    }
+
+    @Override
+    boolean isEligible() {
+      for (RootQueue root : roots) {
+        if (root.isEligible()) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private class RootQueue extends Weighted {
+    private final UUID rootId;
+    private final String tag;
+    private final Deque<Job> queue = new ArrayDeque<>();
+    private final Set<UUID> queued = new HashSet<>();
+    private final Set<UUID> running = new HashSet<>();
+
+    RootQueue(Job job) {
+      super(weight(config(job).get(WEIGHT_KEY)));
+      this.rootId = job.getRootId();
+      Object tag = config(job).get(TAG_KEY);
+      this.tag = tag != null ? tag.toString() : DEFAULT_TAG;
+    }
+
+    @Override
+    boolean isEligible() {
+      return !queue.isEmpty() && running.size() < maxRunningPerRoot;
+    }
+  }
+
+  private static Map<String, Object> config(Job job) {
+    return job.getConfig() != null ? job.getConfig() : Collections.emptyMap();
+  }
+
+}
@@ -34,13 +34,13 @@ public class GarbageCollectionServiceImpl implements GarbageCollectionService {
   private final LinkRecordRepository linkRecordRepository;
   private final DAGRepository dagRepository;
   private final ContextRecordRepository contextRecordRepository;
-  private final IntermediaryFilesRepository intermediaryFilesRepository;
   private final IntermediaryFilesService intermediaryFilesService;
 
   private final TransactionHelper transactionHelper;
   private final MetricsHelper metricsHelper;
   private final ExecutorService executorService;
   private final Set<UUID> pendingGCs;
+  private final Map<UUID, Examined> examined = new ConcurrentHashMap<>();
 
   private volatile boolean enabled;
   private final int numberOfGcThreads;
@@ -59,7 +59,6 @@ public class GarbageCollectionServiceImpl implements GarbageCollectionService {
                                       LinkRecordRepository linkRecordRepository,
                                       DAGRepository dagRepository,
                                       ContextRecordRepository contextRecordRepository,
-                                      IntermediaryFilesRepository intermediaryFilesRepository,
                                       IntermediaryFilesService intermediaryFilesService,
                                       TransactionHelper transactionHelper,
                                       MetricsHelper metricsHelper,
@@ -72,7 +71,6 @@ public class GarbageCollectionServiceImpl implements GarbageCollectionService {
     this.linkRecordRepository = linkRecordRepository;
     this.dagRepository = dagRepository;
     this.contextRecordRepository = contextRecordRepository;
-    this.intermediaryFilesRepository = intermediaryFilesRepository;
     this.intermediaryFilesService = intermediaryFilesService;
 
     this.transactionHelper = transactionHelper;
@@ -100,7 +98,7 @@ public class GarbageCollectionServiceImpl implements GarbageCollectionService {
     pendingGCs.add(rootId);
     Runnable gcRun = () -> {
       try {
-        metricsHelper.time(() -> inTransaction(() -> doGc(rootId)), "gc");
+        metricsHelper.time(() -> inTransaction(rootId, () -> doGc(rootId)), "gc");
       } finally {
         pendingGCs.remove(rootId);
       }
@@ -127,59 +125,69 @@ public class GarbageCollectionServiceImpl implements GarbageCollectionService {
     this.enabled = false;
   }
 
-  private void doGc(UUID rootId) {
+  void doGc(UUID rootId) {
     JobRecord root = jobRecordRepository.getRoot(rootId);
 
     if (root == null || isRootCompleted(root)) {
       flushAll(rootId);
-    } else {
-      List<JobRecord> jobRecords = jobRecordRepository
-              .get(rootId, terminalStates)
-              .stream()
-              .filter(jobRecord -> !jobRecord.isScattered())
-              .collect(Collectors.toList());
-      jobRecords.stream().filter(this::isGarbage).forEach(this::collect);
+      return;
     }
-  }
 
-  private void collect(JobRecord jobRecord) {
-    logger.info("Collecting garbage of {} with id {}", jobRecord.getId(), jobRecord.getExternalId());
-
-    UUID rootId = jobRecord.getRootId();
-    if (jobRecord.isRoot()) {
-      flushAll(rootId);
-    } else {
-      List<JobRecord> garbage = new ArrayList<>();
-      garbage.add(jobRecord);
+    Map<String, JobRecord> terminal = new HashMap<>();
+    // scattered jobs are collected with their wrappers, they aren't loaded on every pass
+    jobRecordRepository.getNotScattered(rootId, terminalStates).forEach(jobRecord -> terminal.put(jobRecord.getId(), jobRecord));
+    Examined examined = this.examined.computeIfAbsent(rootId, id -> new Examined());
 
-      if(jobRecord.isScatterWrapper() || jobRecord.isContainer()) {
-        garbage.addAll(jobRecordRepository.getByParent(jobRecord.getExternalId(), rootId));
+    Map<UUID, JobRecord> garbage = new LinkedHashMap<>();
+    for (JobRecord jobRecord : terminal.values()) {
+      if (garbage.containsKey(jobRecord.getExternalId()) || examined.isStillBlocked(jobRecord.getId(), terminal.keySet())) {
+        continue;
+      }
+      Set<String> blockers = blockers(jobRecord, terminal);
+      if (!blockers.isEmpty()) {
+        examined.block(jobRecord.getId(), blockers);
+        continue;
+      }
+      if (jobRecord.isRoot()) {
+        flushAll(rootId);
+        return;
+      }
+      logger.info("Collecting garbage of {} with id {}", jobRecord.getId(), jobRecord.getExternalId());
+      garbage.put(jobRecord.getExternalId(), jobRecord);
+      if (jobRecord.isScatterWrapper() || jobRecord.isContainer()) {
+        jobRecordRepository.getByParent(jobRecord.getExternalId(), rootId).forEach(child -> garbage.put(child.getExternalId(), child));
       }
-
-      flush(rootId, garbage);
     }
+    flush(rootId, garbage.values());
   }
 
-  private void flush(UUID rootId, List<JobRecord> garbage) {
-    garbage.forEach(record -> {
-      logger.debug("flush(rootId={}, job={})", rootId, record.getId());
-
-      Job job = jobRepository.get(record.getExternalId());
-      if (job != null) {
-        intermediaryFilesService.handleUnusedFilesIfAny(job);
-      } else {
-        logger.debug("Cannot check intermediary files. Unknown job {} of {}", record.getId(), record.getRootId());
-      }
+  /**
+   * Deletes records of the garbage jobs with one statement per table and releases files nobody uses anymore
+   */
+  private void flush(UUID rootId, Collection<JobRecord> garbage) {
+    if (garbage.isEmpty()) {
+      return;
+    }
+    logger.debug("flush(rootId={}, jobs={})", rootId, garbage.size());
 
-      jobRecordRepository.delete(record.getExternalId(), record.getRootId());
-      jobRepository.delete(record.getRootId(), new HashSet<>(Collections.singletonList(record.getExternalId())));
-      linkRecordRepository.delete(record.getId(), rootId);
-      variableRecordRepository.delete(record.getId(), rootId);
-    });
+    Job rootJob = jobRepository.get(rootId);
+    if (rootJob != null) {
+      intermediaryFilesService.handleUnusedFilesIfAny(rootJob);
+    } else {
+      logger.debug("Cannot check intermediary files. Unknown root {}", rootId);
+    }
 
-    Set<UUID> groupIds = garbage.stream().map(JobRecord::getExternalId).collect(Collectors.toSet());
-    if (!groupIds.isEmpty()) {
-      eventRepository.deleteByGroupIds(rootId, groupIds);
+    Set<UUID> externalIds = garbage.stream().map(JobRecord::getExternalId).collect(Collectors.toSet());
+    Set<String> ids = garbage.stream().map(JobRecord::getId).collect(Collectors.toSet());
+    jobRecordRepository.delete(externalIds, rootId);
+    jobRepository.delete(rootId, externalIds);
+    linkRecordRepository.delete(ids, rootId);
+    variableRecordRepository.delete(ids, rootId);
+    eventRepository.deleteByGroupIds(rootId, externalIds);
+
+    Examined examined = this.examined.get(rootId);
+    if (examined != null) {
+      examined.collected(ids);
     }
   }
 
@@ -192,40 +200,51 @@ public class GarbageCollectionServiceImpl implements GarbageCollectionService {
     variableRecordRepository.deleteByRootId(rootId);
     linkRecordRepository.deleteByRootId(rootId);
     contextRecordRepository.delete(rootId);
-    intermediaryFilesRepository.delete(rootId);
+    intermediaryFilesService.delete(rootId);
     jobRepository.deleteByRootIds(Sets.newHashSet(rootId));
-
-    List<JobRecord> all = jobRecordRepository.get(rootId);
-    flush(rootId, all);
+    jobRecordRepository.deleteByRootId(rootId);
+    examined.remove(rootId);
   }
 
-  private boolean isGarbage(JobRecord jobRecord) {
-    List<LinkRecord> outputLinks = linkRecordRepository.getBySource(jobRecord.getId(), jobRecord.getRootId());
-    List<JobRecord> outputJobRecords = outputLinks
-            .stream()
-            .map(link -> jobRecordRepository.get(link.getDestinationJobId(), link.getRootId()))
-            .filter(Objects::nonNull)
-            .collect(Collectors.toList());
-
-    return outputJobRecords.isEmpty() || outputJobRecords.stream().allMatch(outputJobRecord -> {
-      if (!outputJobRecord.isReady() || !inTerminalState(outputJobRecord)) {
-        return false;
+  /**
+   * Returns IDs of the jobs which still need outputs of the given one, an empty set if it is garbage
+   */
+  private Set<String> blockers(JobRecord jobRecord, Map<String, JobRecord> terminal) {
+    Set<String> blockers = new HashSet<>();
+    for (LinkRecord link : linkRecordRepository.getBySource(jobRecord.getId(), jobRecord.getRootId())) {
+      String destinationId = link.getDestinationJobId();
+      if (destinationId.equals(jobRecord.getId())) {
+        continue;
       }
-      return !outputJobRecord.isContainer() || isGarbage(outputJobRecord);
-    });
+      JobRecord destination = terminal.get(destinationId);
+      if (destination == null) {
+        destination = jobRecordRepository.get(destinationId, link.getRootId());
+      }
+      if (destination == null) {
+        continue;
+      }
+      if (!destination.isReady() || !inTerminalState(destination)) {
+        blockers.add(destinationId);
+      } else if (destination.isContainer()) {
+        blockers.addAll(blockers(destination, terminal));
+      }
+    }
+    return blockers;
   }
 
   private boolean inTerminalState(JobRecord jobRecord) {
     return jobRecord == null || terminalStates.contains(jobRecord.getState());
   }
 
-  private void inTransaction(Runnable runnable) {
+  private void inTransaction(UUID rootId, Runnable runnable) {
     try {
       transactionHelper.doInTransaction(() -> {
         runnable.run();
         return null;
       });
+      intermediaryFilesService.commit(rootId);
     } catch (Exception e) {
+      intermediaryFilesService.rollback(rootId);
       logger.warn("Exception in gc transaction.", e);
     }
   }
@@ -238,6 +257,39 @@ public class GarbageCollectionServiceImpl implements GarbageCollectionService {
     return contextRecord == null || contextRecord.getStatus() != ContextStatus.RUNNING;
   }
 
+  /**
+   * Terminal jobs of a root which weren't garbage on an earlier pass, with the jobs they waited for. They are examined
+   * again only after one of those jobs finished or was collected.
+   */
+  private static class Examined {
+
+    private final Map<String, Set<String>> blockedBy = new HashMap<>();
+    private final Set<String> collected = new HashSet<>();
+
+    boolean isStillBlocked(String id, Set<String> terminal) {
+      Set<String> blockers = blockedBy.get(id);
+      if (blockers == null) {
+        return false;
+      }
+      for (String blocker : blockers) {
+        if (terminal.contains(blocker) || collected.contains(blocker)) {
+          blockedBy.remove(id);
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void block(String id, Set<String> blockers) {
+      blockedBy.put(id, blockers);
+    }
+
+    void collected(Set<String> ids) {
+      collected.addAll(ids);
+      blockedBy.keySet().removeAll(ids);
+    }
+  }
+
   private ExecutorService buildExecutorService() {
     return Executors.newFixedThreadPool(numberOfGcThreads, new ThreadFactory() {
       int count;
@@ -1,13 +1,15 @@
 package org.rabix.engine.service.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import org.apache.commons.configuration.Configuration;
@@ -30,6 +32,8 @@ public class IntermediaryFilesServiceImpl implements IntermediaryFilesService {
   private IntermediaryFilesRepository intermediaryFilesRepository;
   private IntermediaryFilesHandler fileHandler;
 
+  private final Map<UUID, Ledger> ledgers = new ConcurrentHashMap<>();
+
   @Inject
   protected IntermediaryFilesServiceImpl(IntermediaryFilesHandler handler, IntermediaryFilesRepository intermediaryFilesRepository, Configuration config) {
     this.fileHandler = handler;
@@ -39,11 +43,14 @@ public class IntermediaryFilesServiceImpl implements IntermediaryFilesService {
   @Override
   @SuppressWarnings("unchecked")
   public void registerOutputFiles(UUID rootId, Object value) {
-    FileValueHelper
-            .getFilesFromValue(value)
-            .forEach(fileValue ->
-                    extractPathsFromFileValue(fileValue)
-                            .forEach(path -> intermediaryFilesRepository.insertIfNotExists(rootId, path, 0)));
+    Ledger ledger = ledger(rootId);
+    synchronized (ledger) {
+      FileValueHelper
+              .getFilesFromValue(value)
+              .forEach(fileValue ->
+                      extractPathsFromFileValue(fileValue)
+                              .forEach(path -> ledger.insertIfNotExists(path, 0)));
+    }
   }
 
   @Override
@@ -63,17 +70,23 @@ public class IntermediaryFilesServiceImpl implements IntermediaryFilesService {
   @Override
   public void incrementInputFilesReferences(UUID rootId, Object value) {
     logger.debug("incrementInputFilesReferences(rootId={}, value={})", rootId, value);
-    FileValueHelper.getFilesFromValue(value).forEach(fileValue -> addOrIncrement(rootId, fileValue));
+    Ledger ledger = ledger(rootId);
+    synchronized (ledger) {
+      FileValueHelper.getFilesFromValue(value).forEach(fileValue -> addOrIncrement(ledger, fileValue));
+    }
   }
   
   @Override
   public void freeze(UUID rootId, Object value) {
     logger.debug("incrementInputFilesReferences(rootId={}, value={})", rootId, value);
     List<FileValue> files = FileValueHelper.getFilesFromValue(value);
-    for(FileValue file: files) {
-      Set<String> paths = extractPathsFromFileValue(file);
-      for(String path: paths) {
-        intermediaryFilesRepository.insertIfNotExists(rootId, path, Integer.MAX_VALUE/2);
+    Ledger ledger = ledger(rootId);
+    synchronized (ledger) {
+      for(FileValue file: files) {
+        Set<String> paths = extractPathsFromFileValue(file);
+        for(String path: paths) {
+          ledger.insertIfNotExists(path, Integer.MAX_VALUE/2);
+        }
       }
     }
   }
@@ -85,21 +98,71 @@ public class IntermediaryFilesServiceImpl implements IntermediaryFilesService {
     decrement(rootId, (Map<String, Object>) value);
   }
 
-  private void decrement(UUID rootId, Map<String, Object> inputOutputMap) {
-    if (inputOutputMap == null) {
+  /**
+   * Writes reference counts changed since the last flush in one batch. Called at the end of the event transaction.
+   */
+  @Override
+  public void flush(UUID rootId) {
+    Ledger ledger = ledgers.get(rootId);
+    if (ledger == null) {
       return;
     }
+    List<IntermediaryFileEntity> changed;
+    synchronized (ledger) {
+      changed = ledger.drainChanged(rootId);
+    }
+    if (!changed.isEmpty()) {
+      intermediaryFilesRepository.upsert(changed.iterator());
+    }
+  }
 
-    forEachPath(inputOutputMap, path -> intermediaryFilesRepository.decrement(rootId, path));
+  @Override
+  public void commit(UUID rootId) {
+    Ledger ledger = ledgers.get(rootId);
+    if (ledger != null) {
+      synchronized (ledger) {
+        ledger.commit();
+      }
+    }
   }
 
+  @Override
+  public void rollback(UUID rootId) {
+    Ledger ledger = ledgers.get(rootId);
+    if (ledger != null) {
+      synchronized (ledger) {
+        ledger.rollback();
+      }
+    }
+  }
 
-  private Map<String, Integer> convertToMap(List<IntermediaryFileEntity> filesForRootId) {
-    Map<String, Integer> result = new HashMap<>();
-    for(IntermediaryFileEntity f: filesForRootId) {
-      result.put(f.getFilename(), f.getCount());
+  @Override
+  public void evict(UUID rootId) {
+    ledgers.remove(rootId);
+  }
+
+  @Override
+  public void delete(UUID rootId) {
+    ledgers.remove(rootId);
+    intermediaryFilesRepository.delete(rootId);
+  }
+
+  private void decrement(UUID rootId, Map<String, Object> inputOutputMap) {
+    if (inputOutputMap == null) {
+      return;
     }
-    return result;
+
+    Ledger ledger = ledger(rootId);
+    synchronized (ledger) {
+      forEachPath(inputOutputMap, ledger::decrement);
+    }
+  }
+
+  /**
+   * Ledger of a root is loaded from the repository on first use and kept in memory afterwards
+   */
+  private Ledger ledger(UUID rootId) {
+    return ledgers.computeIfAbsent(rootId, id -> new Ledger(intermediaryFilesRepository.get(id)));
   }
 
   private Set<String> extractPathsFromFileValue(FileValue file) {
@@ -118,28 +181,25 @@ public class IntermediaryFilesServiceImpl implements IntermediaryFilesService {
     return paths;
   }
 
-  private void addOrIncrement(UUID rootId, FileValue file) {
+  private void addOrIncrement(Ledger ledger, FileValue file) {
     if (file == null || file.getPath() == null) {
       return;
     }
 
     Set<String> paths = extractPathsFromFileValue(file);
     for(String path: paths) {
-        intermediaryFilesRepository.increment(rootId, path);
+      ledger.increment(path);
     }
   }
 
   private Set<String> getUnusedFiles(UUID rootId) {
-    List<IntermediaryFileEntity> filesForRootIdList = intermediaryFilesRepository.get(rootId);
-    Map<String, Integer> filesForRootId = convertToMap(filesForRootIdList);
-    Set<String> unusedFiles = new HashSet<String>();
-    for(Iterator<Map.Entry<String, Integer>> it = filesForRootId.entrySet().iterator(); it.hasNext();) {
-      Entry<String, Integer> entry = it.next();
-      if(entry.getValue() <= 0) {
-        unusedFiles.add(entry.getKey());
-        intermediaryFilesRepository.delete(rootId, entry.getKey());
-        it.remove();
-      }
+    Ledger ledger = ledger(rootId);
+    Set<String> unusedFiles;
+    synchronized (ledger) {
+      unusedFiles = ledger.drainUnused();
+    }
+    if (!unusedFiles.isEmpty()) {
+      intermediaryFilesRepository.delete(rootId, unusedFiles);
     }
     return unusedFiles;
   }
@@ -152,4 +212,123 @@ public class IntermediaryFilesServiceImpl implements IntermediaryFilesService {
                     extractPathsFromFileValue(fileValue)
                             .forEach(consumer));
   }
-}
\ No newline at end of file
+
+  /**
+   * Reference counts of one root with the paths changed since the last flush and the paths nobody references anymore.
+   * Each thread journals the counts it changed since its last commit, so a rolled back transaction leaves the ledger
+   * as the repository has it.
+   */
+  private static class Ledger {
+
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Set<String> changed = new HashSet<>();
+    private final Set<String> unused = new HashSet<>();
+    private final Map<Thread, Map<String, Change>> journals = new HashMap<>();
+
+    Ledger(List<IntermediaryFileEntity> entities) {
+      for (IntermediaryFileEntity entity : entities) {
+        set(entity.getFilename(), entity.getCount());
+      }
+      changed.clear();
+      journals.clear();
+    }
+
+    void commit() {
+      journals.remove(Thread.currentThread());
+    }
+
+    /**
+     * Restores counts the thread changed, unless another thread changed them afterwards
+     */
+    void rollback() {
+      Map<String, Change> journal = journals.remove(Thread.currentThread());
+      if (journal == null) {
+        return;
+      }
+      for (Entry<String, Change> entry : journal.entrySet()) {
+        String path = entry.getKey();
+        Change change = entry.getValue();
+        if (!Objects.equals(counts.get(path), change.written)) {
+          continue;
+        }
+        if (change.previous == null) {
+          counts.remove(path);
+          changed.remove(path);
+          unused.remove(path);
+        } else {
+          // the previous count may be another thread's change which isn't flushed yet
+          counts.put(path, change.previous);
+          changed.add(path);
+          markUnused(path, change.previous);
+        }
+      }
+    }
+
+    void insertIfNotExists(String path, int count) {
+      if (!counts.containsKey(path)) {
+        set(path, count);
+      }
+    }
+
+    void increment(String path) {
+      Integer count = counts.get(path);
+      set(path, count == null ? 1 : count + 1);
+    }
+
+    void decrement(String path) {
+      Integer count = counts.get(path);
+      if (count != null) {
+        set(path, count - 1);
+      }
+    }
+
+    List<IntermediaryFileEntity> drainChanged(UUID rootId) {
+      List<IntermediaryFileEntity> entities = new ArrayList<>(changed.size());
+      for (String path : changed) {
+        entities.add(new IntermediaryFileEntity(rootId, path, counts.get(path)));
+      }
+      changed.clear();
+      return entities;
+    }
+
+    Set<String> drainUnused() {
+      Set<String> result = new HashSet<>(unused);
+      for (String path : result) {
+        journal(path, null);
+        counts.remove(path);
+        changed.remove(path);
+      }
+      unused.clear();
+      return result;
+    }
+
+    private void set(String path, int count) {
+      journal(path, count);
+      counts.put(path, count);
+      changed.add(path);
+      markUnused(path, count);
+    }
+
+    private void markUnused(String path, int count) {
+      if (count <= 0) {
+        unused.add(path);
+      } else {
+        unused.remove(path);
+      }
+    }
+
+    private void journal(String path, Integer count) {
+      Map<String, Change> journal = journals.computeIfAbsent(Thread.currentThread(), thread -> new HashMap<>());
+      journal.computeIfAbsent(path, p -> new Change(counts.get(p))).written = count;
+    }
+  }
+
+  private static class Change {
+    private final Integer previous;
+    private Integer written;
+
+    Change(Integer previous) {
+      this.previous = previous;
+    }
+  }
+}
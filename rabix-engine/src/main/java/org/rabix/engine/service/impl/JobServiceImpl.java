@@ -3,11 +3,15 @@ package org.rabix.engine.service.impl;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.BindingException;
 import org.rabix.bindings.Bindings;
 import org.rabix.bindings.BindingsFactory;
+import org.rabix.bindings.helper.URIHelper;
 import org.rabix.bindings.model.Job;
 import org.rabix.bindings.model.Job.JobStatus;
 import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.common.helper.ChecksumHelper;
+import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
 import org.rabix.common.helper.InternalSchemaHelper;
 import org.rabix.engine.JobHelper;
 import org.rabix.engine.event.Event;
@@ -18,6 +22,7 @@ import org.rabix.engine.processor.EventProcessor;
 import org.rabix.engine.service.*;
 import org.rabix.engine.status.EngineStatusCallback;
 import org.rabix.engine.status.EngineStatusCallbackException;
+import org.rabix.engine.store.lru.dag.DAGTranslationCache;
 import org.rabix.engine.store.model.JobRecord;
 import org.rabix.engine.store.repository.JobRepository;
 import org.rabix.engine.store.repository.JobRepository.JobEntity;
@@ -58,6 +63,10 @@ public class JobServiceImpl implements JobService {
 
   private JobHelper jobHelper;
 
+  private final DAGTranslationCache dagTranslationCache;
+  private final boolean dagTranslationCacheEnabled;
+  private final RuntimeEstimateService runtimeEstimateService;
+
   @Inject
   public JobServiceImpl(EventProcessor eventProcessor,
                         DAGNodeService dagNodeService,
@@ -69,7 +78,9 @@ public class JobServiceImpl implements JobService {
                         IntermediaryFilesService intermediaryFilesService,
                         JobHelper jobHelper,
                         MetricsHelper metricsHelper,
-                        GarbageCollectionService garbageCollectionService) {
+                        GarbageCollectionService garbageCollectionService,
+                        DAGTranslationCache dagTranslationCache,
+                        RuntimeEstimateService runtimeEstimateService) {
     this.dagNodeService = dagNodeService;
     this.appService = appService;
     this.eventProcessor = eventProcessor;
@@ -80,8 +91,12 @@ public class JobServiceImpl implements JobService {
     this.jobHelper = jobHelper;
     this.metricsHelper = metricsHelper;
     this.garbageCollectionService = garbageCollectionService;
+    this.dagTranslationCache = dagTranslationCache;
+    this.runtimeEstimateService = runtimeEstimateService;
 
     setResources = configuration.getBoolean("engine.set_resources", false);
+    dagTranslationCacheEnabled = configuration.getBoolean("engine.dag_translation_cache.enabled", true);
+    metricsHelper.gauge(this::dagTranslationCacheHitRate, "DAGTranslationCache.hit_rate");
   }
 
   @Override
@@ -97,7 +112,8 @@ public class JobServiceImpl implements JobService {
   private void doUpdate(Job job, Runnable onUpdatedCallback) {
 //    logger.debug("Update job id:{}, name:{}, root:{}", job.getId(), job.getName(), job.getRootId());
     try {
-      transactionHelper.doInTransaction((TransactionHelper.TransactionCallback<Void>) () -> {
+      // events are queued outside of the transaction, a full external queue must not hold a connection
+      JobStatusEvent event = transactionHelper.doInTransaction((TransactionHelper.TransactionCallback<JobStatusEvent>) () -> {
         JobStatusEvent statusEvent = null;
         JobStatus status = job.getStatus();
 
@@ -119,9 +135,9 @@ public class JobServiceImpl implements JobService {
           default:
             break;
         }
-        eventProcessor.addToExternalQueue(statusEvent, onUpdatedCallback);
-        return null;
+        return statusEvent;
       });
+      eventProcessor.addToExternalQueue(event, onUpdatedCallback);
     } catch (Exception e) {
       // TODO handle exception
       logger.error("Failed to update Job " + job.getName() + " and root ID " + job.getRootId(), e);
@@ -131,24 +147,20 @@ public class JobServiceImpl implements JobService {
   @Override
   public Job start(final Job job, Map<String, Object> config) throws JobServiceException {
     logger.debug("Start Job {}", job);
+    final UUID rootId = job.getRootId() != null ? job.getRootId() : UUID.randomUUID();
+    admit(job, rootId);
     try {
       final AtomicReference<Job> jobWrapper = new AtomicReference<>(job);
       final AtomicReference<Event> eventWrapper = new AtomicReference<>(null);
 
+      final AtomicReference<DAGNode> translatedWrapper = new AtomicReference<>(null);
+
       final AtomicBoolean isSuccessful = new AtomicBoolean(false);
       transactionHelper.doInTransaction((TransactionHelper.TransactionCallback<Void>) () -> {
-        UUID rootId = job.getRootId();
-        if (rootId == null)
-          rootId = UUID.randomUUID();
-
         Job updatedJob = Job.cloneWithIds(job, rootId, rootId);
         updatedJob = Job.cloneWithName(updatedJob, InternalSchemaHelper.ROOT_NAME);
 
-        Bindings bindings = null;
-        bindings = BindingsFactory.create(updatedJob);
-
-        DAGNode node = bindings.translateToDAG(updatedJob);
-        appService.loadDB(node);
+        DAGNode node = translate(updatedJob, translatedWrapper);
         String dagHash = dagNodeService.put(node, rootId);
 
         updatedJob = Job.cloneWithStatus(updatedJob, JobStatus.PENDING);
@@ -165,6 +177,10 @@ public class JobServiceImpl implements JobService {
       });
       logger.info("Job {} rootId: {} started", job.getName(), job.getRootId());
       if (isSuccessful.get()) {
+        if (translatedWrapper.get() != null) {
+          // applications are stored only now, when the transaction is committed
+          dagTranslationCache.put(translationKey(job), translatedWrapper.get());
+        }
         eventProcessor.addToExternalQueue(eventWrapper.get());
         return jobWrapper.get();
       }
@@ -174,6 +190,70 @@ public class JobServiceImpl implements JobService {
     }
   }
 
+  /**
+   * Holds back new roots while the event processor is behind and refuses them if it doesn't catch up in time
+   */
+  private void admit(Job job, UUID rootId) throws JobServiceException {
+    try {
+      if (!eventProcessor.admit(rootId)) {
+        metricsHelper.counter("JobServiceImpl.start.rejected").inc();
+        throw new JobServiceException("Engine is overloaded, Job " + job.getName() + " was not started", null);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new JobServiceException("Interrupted while starting Job " + job.getName(), e);
+    }
+  }
+
+  /**
+   * Translates the root application into a DAG and stores its applications. Root DAGs of applications submitted as
+   * data URIs are translated without inputs and reused for later submissions of the same application.
+   * Root inputs are applied by the InitEvent anyway. The returned DAG belongs to the root and is prioritized with the
+   * current run time estimates.
+   */
+  private DAGNode translate(Job job, AtomicReference<DAGNode> translatedWrapper) throws BindingException {
+    String key = translationKey(job);
+    if (key != null) {
+      DAGNode node = dagTranslationCache.get(key);
+      if (node != null) {
+        metricsHelper.counter("DAGTranslationCache.hit").inc();
+        runtimeEstimateService.prioritize(node);
+        return node;
+      }
+      metricsHelper.counter("DAGTranslationCache.miss").inc();
+    }
+    Bindings bindings = BindingsFactory.create(job);
+
+    DAGNode node = null;
+    if (key != null) {
+      try {
+        node = bindings.translateToDAG(Job.cloneWithInputs(job, Collections.emptyMap()));
+        translatedWrapper.set(node);
+      } catch (BindingException e) {
+        logger.debug("Failed to translate application without inputs. It won't be cached.", e);
+      }
+    }
+    if (node == null) {
+      node = bindings.translateToDAG(job);
+    }
+    appService.loadDB(node);
+    runtimeEstimateService.prioritize(node);
+    return node;
+  }
+
+  private String translationKey(Job job) {
+    if (!dagTranslationCacheEnabled || !URIHelper.isData(job.getApp())) {
+      return null;
+    }
+    return ChecksumHelper.checksum(job.getApp(), HashAlgorithm.SHA1);
+  }
+
+  private int dagTranslationCacheHitRate() {
+    long hits = metricsHelper.counter("DAGTranslationCache.hit").getCount();
+    long total = hits + metricsHelper.counter("DAGTranslationCache.miss").getCount();
+    return total == 0 ? 0 : (int) (hits * 100 / total);
+  }
+
   public void stop(Job job) throws JobServiceException {
     logger.debug("Stop Job {}", job.getId());
 
@@ -238,6 +318,7 @@ public class JobServiceImpl implements JobService {
   @Override
   public void handleJobsReady(Set<Job> jobs, UUID rootId, UUID producedByNode) {
     logger.debug("handleJobsReady(jobs={}, rootId={})", jobs.stream().map(Job::getName).collect(Collectors.toList()), rootId);
+    jobs = byPriority(jobs);
     try {
       engineStatusCallback.onJobsReady(jobs, rootId, producedByNode);
     } catch (EngineStatusCallbackException e) {
@@ -245,6 +326,15 @@ public class JobServiceImpl implements JobService {
     }
   }
 
+  /**
+   * Jobs on the longest remaining path go first
+   */
+  private Set<Job> byPriority(Set<Job> jobs) {
+    return jobs.stream()
+        .sorted(Comparator.comparing((Job job) -> job.getPriority() != null ? job.getPriority() : 0L).reversed())
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+  }
+
   @Override
   public void handlePendingReadyJobs() {
     readyJobsByRootId().forEach((rootId, readyJobs) -> {
@@ -372,7 +462,7 @@ public class JobServiceImpl implements JobService {
 
   private Map<UUID, List<JobEntity>> readyJobsByRootId() {
     return jobRepository
-            .getByStatus(Job.JobStatus.READY)
+            .getReadyFree()
             .stream()
             .collect(groupingBy(jobEntity -> jobEntity.getJob().getRootId()));
   }
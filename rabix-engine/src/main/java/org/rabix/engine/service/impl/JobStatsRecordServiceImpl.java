@@ -1,65 +1,255 @@
 package org.rabix.engine.service.impl;
 
 import com.google.inject.Inject;
+import org.apache.commons.configuration.Configuration;
 import org.rabix.engine.service.JobStatsRecordService;
-import org.rabix.engine.store.lru.stats.JobStatsRecordCache;
 import org.rabix.engine.store.model.JobStatsRecord;
 import org.rabix.engine.store.repository.JobStatsRecordRepository;
+import org.rabix.engine.store.repository.TransactionHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JobStatsRecordServiceImpl implements JobStatsRecordService {
 
-  private JobStatsRecordRepository jobStatsRecordRepository;
+  private final static Logger logger = LoggerFactory.getLogger(JobStatsRecordServiceImpl.class);
 
-  private JobStatsRecordCache jobStatsRecordCache;
+  private final static long DEFAULT_FLUSH_INTERVAL_MS = 5000;
+
+  private final JobStatsRecordRepository jobStatsRecordRepository;
+  private final TransactionHelper transactionHelper;
+
+  private final Map<UUID, Counters> counters = new ConcurrentHashMap<>();
+  private final ThreadLocal<Map<UUID, Changes>> changes = ThreadLocal.withInitial(HashMap::new);
+
+  private final long flushInterval;
+  private ScheduledExecutorService executor;
 
   @Inject
-  public JobStatsRecordServiceImpl(JobStatsRecordRepository jobStatsRecordRepository,
-                                   JobStatsRecordCache jobStatsRecordCache) {
+  public JobStatsRecordServiceImpl(JobStatsRecordRepository jobStatsRecordRepository, TransactionHelper transactionHelper,
+      Configuration configuration) {
     this.jobStatsRecordRepository = jobStatsRecordRepository;
-    this.jobStatsRecordCache = jobStatsRecordCache;
+    this.transactionHelper = transactionHelper;
+    this.flushInterval = configuration.getLong("engine.job_stats.flush_interval_ms", DEFAULT_FLUSH_INTERVAL_MS);
   }
 
-  public void create(JobStatsRecord jobStatsRecord) {
-    int inserted = jobStatsRecordRepository.insert(jobStatsRecord);
-    if (inserted > 0) {
-      jobStatsRecordCache.put(jobStatsRecord.getRootId(), jobStatsRecord);
+  @Override
+  public synchronized void start() {
+    if (executor != null || flushInterval <= 0) {
+      return;
     }
+    executor = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+      Thread thread = new Thread(r, "JobStatsFlushThread");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
   }
 
-  public void update(JobStatsRecord jobStatsRecord) {
-    int updated = jobStatsRecordRepository.update(jobStatsRecord);
-    if (updated > 0) {
-      jobStatsRecordCache.put(jobStatsRecord.getRootId(), jobStatsRecord);
+  @Override
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        // a flush in progress holds the lock of its root until it commits
+        executor.awaitTermination(flushInterval, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      executor = null;
     }
+    flush();
+  }
+
+  @Override
+  public void setTotal(UUID rootId, int total) {
+    changes(rootId).total = total;
   }
 
+  @Override
+  public void increaseRunning(UUID rootId) {
+    changes(rootId).running++;
+  }
+
+  @Override
+  public void increaseCompleted(UUID rootId) {
+    changes(rootId).completed++;
+  }
+
+  /**
+   * Committed counters, with the changes the calling thread made since
+   */
+  @Override
   public JobStatsRecord find(UUID rootId) {
-    JobStatsRecord jobStatsRecord = jobStatsRecordCache.get(rootId);
-    if (jobStatsRecord == null) {
-      jobStatsRecord = jobStatsRecordRepository.get(rootId);
+    Counters rootCounters = counters.get(rootId);
+    JobStatsRecord jobStatsRecord = rootCounters != null ? rootCounters.toRecord(rootId) : jobStatsRecordRepository.get(rootId);
+    Changes rootChanges = changes.get().get(rootId);
+    if (rootChanges == null) {
+      return jobStatsRecord;
+    }
+    return rootChanges.apply(jobStatsRecord != null ? jobStatsRecord : new JobStatsRecord(rootId, 0, 0, 0));
+  }
+
+  @Override
+  public void flush(UUID rootId) {
+    Changes rootChanges = changes.get().get(rootId);
+    Counters rootCounters = rootChanges != null ? counters(rootId) : counters.get(rootId);
+    if (rootCounters == null) {
+      return;
+    }
+    if (rootChanges == null) {
+      rootChanges = changes(rootId);
     }
+    synchronized (rootCounters) {
+      if (!rootChanges.isEmpty()) {
+        rootCounters.dirty.set(true);
+      }
+      write(rootId, rootCounters, rootChanges);
+    }
+    rootChanges.flushed = true;
+  }
 
-    if (jobStatsRecord != null) {
-      jobStatsRecordCache.put(rootId, jobStatsRecord);
+  @Override
+  public void commit() {
+    Map<UUID, Changes> committed = changes.get();
+    changes.remove();
+    for (Map.Entry<UUID, Changes> entry : committed.entrySet()) {
+      Changes rootChanges = entry.getValue();
+      if (rootChanges.flushed) {
+        // the final write included the changes
+        counters.remove(entry.getKey());
+      } else if (!rootChanges.isEmpty()) {
+        Counters rootCounters = counters(entry.getKey());
+        rootChanges.applyTo(rootCounters);
+        rootCounters.dirty.set(true);
+      }
     }
+  }
 
-    return jobStatsRecord;
+  @Override
+  public void rollback() {
+    Map<UUID, Changes> rolledBack = changes.get();
+    changes.remove();
+    for (Map.Entry<UUID, Changes> entry : rolledBack.entrySet()) {
+      Counters rootCounters = counters.get(entry.getKey());
+      if (entry.getValue().flushed && rootCounters != null) {
+        // the final write is undone, the committed counters are written again
+        rootCounters.dirty.set(true);
+      }
+    }
   }
 
-  @Override public JobStatsRecord findOrCreate(UUID rootId) {
-    JobStatsRecord jobStatsRecord = find(rootId);
-    if (jobStatsRecord == null) {
-      jobStatsRecord = new JobStatsRecord(rootId, 0, 0, 0);
-      create(jobStatsRecord);
+  @Override
+  public void flush() {
+    for (Map.Entry<UUID, Counters> entry : counters.entrySet()) {
+      Counters rootCounters = entry.getValue();
+      if (!rootCounters.dirty.get()) {
+        continue;
+      }
+      // the lock is held until the transaction commits, so older values can't overwrite the final flush of a root
+      synchronized (rootCounters) {
+        try {
+          transactionHelper.doInTransaction(() -> {
+            write(entry.getKey(), rootCounters, null);
+            return null;
+          });
+        } catch (Exception e) {
+          logger.warn("Failed to flush job stats for root {}", entry.getKey(), e);
+        }
+      }
     }
-    return jobStatsRecord;
   }
 
+  @Override
   public void delete(UUID rootId) {
+    counters.remove(rootId);
     jobStatsRecordRepository.delete(rootId);
-    jobStatsRecordCache.remove(rootId);
+  }
+
+  private Counters counters(UUID rootId) {
+    return counters.computeIfAbsent(rootId, id -> {
+      JobStatsRecord stored = jobStatsRecordRepository.get(id);
+      return stored != null ? new Counters(stored, true) : new Counters(new JobStatsRecord(id, 0, 0, 0), false);
+    });
+  }
+
+  private Changes changes(UUID rootId) {
+    return changes.get().computeIfAbsent(rootId, id -> new Changes());
+  }
+
+  private void write(UUID rootId, Counters rootCounters, Changes rootChanges) {
+    if (!rootCounters.dirty.getAndSet(false)) {
+      return;
+    }
+    try {
+      JobStatsRecord jobStatsRecord = rootCounters.toRecord(rootId);
+      if (rootChanges != null) {
+        jobStatsRecord = rootChanges.apply(jobStatsRecord);
+      }
+      if (!rootCounters.persisted || jobStatsRecordRepository.update(jobStatsRecord) == 0) {
+        jobStatsRecordRepository.insert(jobStatsRecord);
+        rootCounters.persisted = true;
+      }
+    } catch (RuntimeException e) {
+      rootCounters.dirty.set(true);
+      throw e;
+    }
+  }
+
+  private static class Counters {
+    private final AtomicInteger completed;
+    private final AtomicInteger running;
+    private final AtomicInteger total;
+    private final AtomicBoolean dirty;
+    private volatile boolean persisted;
+
+    Counters(JobStatsRecord jobStatsRecord, boolean persisted) {
+      this.completed = new AtomicInteger(jobStatsRecord.getCompleted());
+      this.running = new AtomicInteger(jobStatsRecord.getRunning());
+      this.total = new AtomicInteger(jobStatsRecord.getTotal());
+      this.dirty = new AtomicBoolean(!persisted);
+      this.persisted = persisted;
+    }
+
+    JobStatsRecord toRecord(UUID rootId) {
+      return new JobStatsRecord(rootId, completed.get(), running.get(), total.get());
+    }
+  }
+
+  /**
+   * Changes of one root made in the current transaction
+   */
+  private static class Changes {
+    private int completed;
+    private int running;
+    private Integer total;
+    private boolean flushed;
+
+    boolean isEmpty() {
+      return completed == 0 && running == 0 && total == null;
+    }
+
+    JobStatsRecord apply(JobStatsRecord jobStatsRecord) {
+      return new JobStatsRecord(jobStatsRecord.getRootId(), jobStatsRecord.getCompleted() + completed, jobStatsRecord.getRunning() + running,
+          total != null ? total : jobStatsRecord.getTotal());
+    }
+
+    void applyTo(Counters rootCounters) {
+      rootCounters.completed.addAndGet(completed);
+      rootCounters.running.addAndGet(running);
+      if (total != null) {
+        rootCounters.total.set(total);
+      }
+    }
   }
 
 }
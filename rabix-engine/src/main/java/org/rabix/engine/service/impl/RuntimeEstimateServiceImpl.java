@@ -0,0 +1,69 @@
+package org.rabix.engine.service.impl;
+
+import java.util.UUID;
+
+import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.helper.DAGPriorityHelper;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.rabix.engine.service.RuntimeEstimateService;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+
+public class RuntimeEstimateServiceImpl implements RuntimeEstimateService {
+
+  private final static long DEFAULT_RUNTIME_MS = 60000;
+  private final static int DEFAULT_CACHE_SIZE = 100000;
+
+  /**
+   * Weight of the latest run in the moving average
+   */
+  private final static double SMOOTHING = 0.3;
+
+  private final long defaultRuntime;
+
+  private final Cache<UUID, Long> startTimes;
+  private final Cache<String, Long> estimates;
+
+  @Inject
+  public RuntimeEstimateServiceImpl(Configuration configuration) {
+    this.defaultRuntime = configuration.getLong("engine.priority.default_runtime_ms", DEFAULT_RUNTIME_MS);
+    int cacheSize = configuration.getInt("engine.priority.cache.size", DEFAULT_CACHE_SIZE);
+    this.startTimes = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    this.estimates = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+  }
+
+  @Override
+  public void started(UUID jobId) {
+    startTimes.put(jobId, System.currentTimeMillis());
+  }
+
+  @Override
+  public void completed(UUID jobId, String appHash) {
+    Long start = startTimes.getIfPresent(jobId);
+    if (start == null || appHash == null) {
+      return;
+    }
+    startTimes.invalidate(jobId);
+    long runtime = System.currentTimeMillis() - start;
+    estimates.asMap().merge(appHash, runtime, (previous, latest) -> Math.round(previous + SMOOTHING * (latest - previous)));
+  }
+
+  @Override
+  public void failed(UUID jobId) {
+    startTimes.invalidate(jobId);
+  }
+
+  @Override
+  public long estimate(String appHash) {
+    Long estimate = appHash != null ? estimates.getIfPresent(appHash) : null;
+    return estimate != null ? estimate : defaultRuntime;
+  }
+
+  @Override
+  public void prioritize(DAGNode node) {
+    DAGPriorityHelper.prioritize(node, child -> estimate(child.getAppHash()));
+  }
+
+}
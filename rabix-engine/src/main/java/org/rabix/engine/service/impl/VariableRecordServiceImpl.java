@@ -49,7 +49,10 @@ public class VariableRecordServiceImpl implements VariableRecordService {
       variableRecord.setValue(null);
       variableRecord.setDefault(false);
     }
-    if (variableRecord.getValue() == null) {
+    if (variableRecord.isWrapped()) {
+      // doesn't need the other elements, a gathered value can be stored element by element
+      variableRecord.setElement(position, value);
+    } else if (variableRecord.getValue() == null) {
       if (position == 1) {
         if (wrap) {
           variableRecord.setWrapped(true);
@@ -66,17 +69,12 @@ public class VariableRecordServiceImpl implements VariableRecordService {
         variableRecord.setWrapped(true);
       }
     } else {
-      if (variableRecord.isWrapped()) {
-        expand((List<Object>) variableRecord.getValue(), position);
-        ((List<Object>) variableRecord.getValue()).set(position - 1, value);
-      } else {
-        List<Object> valueList = new ArrayList<>();
-        valueList.add(variableRecord.getValue());
-        expand(valueList, position);
-        valueList.set(position - 1, value);
-        variableRecord.setValue(valueList);
-        variableRecord.setWrapped(true);
-      }
+      List<Object> valueList = new ArrayList<>();
+      valueList.add(variableRecord.getValue());
+      expand(valueList, position);
+      valueList.set(position - 1, value);
+      variableRecord.setValue(valueList);
+      variableRecord.setWrapped(true);
     }
   }
 
@@ -49,6 +49,7 @@ public class DefaultEngineStatusCallback implements EngineStatusCallback {
   @Override
   public void onJobRootCompleted(UUID rootId) throws EngineStatusCallbackException {
     logger.debug("onJobRootCompleted(jobId={})", rootId);
+    backendService.releaseRoot(rootId);
   }
 
   @Override
@@ -59,11 +60,13 @@ public class DefaultEngineStatusCallback implements EngineStatusCallback {
   @Override
   public void onJobRootFailed(UUID rootId, String message) throws EngineStatusCallbackException {
     logger.debug("onJobFailed(jobId={})", rootId);
+    backendService.releaseRoot(rootId);
   }
 
   @Override
   public void onJobRootAborted(UUID rootId) throws EngineStatusCallbackException {
     logger.debug("onJobAborted(jobId={})", rootId);
+    backendService.releaseRoot(rootId);
   }
 
   @Override
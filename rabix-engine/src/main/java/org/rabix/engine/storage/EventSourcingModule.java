@@ -7,6 +7,7 @@ import org.apache.commons.configuration.Configuration;
 import org.rabix.engine.store.memory.InMemoryRepositoryModule;
 import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryModule;
 import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryRegistry;
+import org.rabix.engine.store.postgres.jdbi.impl.EventCodec;
 import org.rabix.engine.store.repository.*;
 import org.skife.jdbi.v2.DBI;
 
@@ -24,8 +25,14 @@ public class EventSourcingModule extends AbstractModule {
 
     @Singleton
     @Provides
-    public DBI provideDBI(Configuration configuration) {
-        return jdbiRepositoryModule.provideDBI(configuration);
+    public EventCodec provideEventCodec(Configuration configuration) {
+        return jdbiRepositoryModule.provideEventCodec(configuration);
+    }
+
+    @Singleton
+    @Provides
+    public DBI provideDBI(Configuration configuration, EventCodec eventCodec) {
+        return jdbiRepositoryModule.provideDBI(configuration, eventCodec);
     }
 
     @Provides
@@ -98,6 +105,12 @@ public class EventSourcingModule extends AbstractModule {
         return inMemoryRepositoryModule.provideIntermediaryFilesRepository();
     }
 
+    @Provides
+    @Singleton
+    public JobStatusFeed provideJobStatusFeed() {
+        return inMemoryRepositoryModule.provideJobStatusFeed();
+    }
+
     @Override
     protected void configure() {}
 }
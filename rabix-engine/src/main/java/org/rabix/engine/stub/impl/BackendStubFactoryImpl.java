@@ -1,6 +1,7 @@
 package org.rabix.engine.stub.impl;
 
 import org.apache.commons.configuration.Configuration;
+import org.rabix.engine.service.AppService;
 import org.rabix.engine.service.JobService;
 import org.rabix.engine.stub.BackendStub;
 import org.rabix.engine.stub.BackendStubFactory;
@@ -16,10 +17,12 @@ public class BackendStubFactoryImpl implements BackendStubFactory {
 
   private Configuration configuration;
   private JobService jobService;
+  private AppService appService;
 
   @Inject
-  public BackendStubFactoryImpl(JobService jobService,Configuration configuration) {
+  public BackendStubFactoryImpl(JobService jobService, AppService appService, Configuration configuration) {
     this.jobService = jobService;
+    this.appService = appService;
     this.configuration = configuration;
   }
 
@@ -32,7 +35,7 @@ public class BackendStubFactoryImpl implements BackendStubFactory {
     case ACTIVE_MQ:
       return new BackendStubActiveMQ(jobService, configuration, (BackendActiveMQ) backend);
     case LOCAL:
-      return new BackendStubLocal(jobService, configuration, (BackendLocal) backend);
+      return new BackendStubLocal(jobService, appService, configuration, (BackendLocal) backend);
     case RABBIT_MQ:
       return new BackendStubRabbitMQ(jobService, (BackendRabbitMQ) backend, configuration);
     default:
@@ -1,6 +1,8 @@
 package org.rabix.engine.stub.impl;
 
 import org.apache.commons.configuration.Configuration;
+import org.rabix.bindings.model.Job;
+import org.rabix.engine.service.AppService;
 import org.rabix.engine.service.JobService;
 import org.rabix.engine.stub.BackendStub;
 import org.rabix.transport.backend.impl.BackendLocal;
@@ -10,10 +12,14 @@ import org.rabix.transport.mechanism.impl.local.TransportQueueLocal;
 
 public class BackendStubLocal extends BackendStub<TransportQueueLocal, BackendLocal, TransportPluginLocal> {
 
-  public BackendStubLocal(JobService jobService, Configuration configuration, BackendLocal backendLocal) throws TransportPluginException {
+  private final AppService appService;
+
+  public BackendStubLocal(JobService jobService, AppService appService, Configuration configuration, BackendLocal backendLocal) throws TransportPluginException {
     this.jobService = jobService;
+    this.appService = appService;
     this.backend = backendLocal;
     this.transportPlugin = new TransportPluginLocal(configuration);
+    this.transportPlugin.partitionBy(Job.class, Job::getRootId);
 
     this.sendToBackendQueue = new TransportQueueLocal(backendLocal.getToBackendQueue());
     this.sendToBackendControlQueue = new TransportQueueLocal(backendLocal.getToBackendControlQueue());
@@ -21,6 +27,15 @@ public class BackendStubLocal extends BackendStub<TransportQueueLocal, BackendLo
     this.receiveFromBackendHeartbeatQueue = new TransportQueueLocal(backendLocal.getFromBackendHeartbeatQueue());
     
     this.enableControlMessages = configuration.getBoolean("engine.enable_backend_control_messages", true);
+    this.cleanup = true;
+  }
+
+  /**
+   * Embedded workers share the engine's application store, so referenced apps are inlined without a fetch
+   */
+  @Override
+  public void send(Job job) {
+    super.send(appService.inlineApp(job));
   }
 
 }
@@ -58,6 +58,7 @@ public class BackendStubRabbitMQ extends BackendStub<TransportQueueRabbitMQ, Bac
       if(enableControlMessages)
         transportPlugin.deleteQueue(sendToBackendControlQueue.getQueueName());
     }
+    transportPlugin.stop();
   }
 
 }
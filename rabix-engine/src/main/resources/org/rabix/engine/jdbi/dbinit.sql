@@ -469,4 +469,73 @@ DROP INDEX IF EXISTS context_record_status_index;
 
 --changeset bunny:1487849040814-77 dbms:postgresql
 CREATE UNIQUE INDEX intermediary_files_index ON intermediary_files USING btree (root_id, filename);
---rollback DROP INDEX intermediary_files_index;
\ No newline at end of file
+--rollback DROP INDEX intermediary_files_index;
+
+--changeset bunny:1487849040814-78 dbms:postgresql
+ALTER TABLE job ADD COLUMN app_hash text;
+--rollback ALTER TABLE job DROP COLUMN app_hash;
+
+--changeset bunny:1487849040814-79 dbms:postgresql
+UPDATE job SET app_hash = substring(app from 5), app = NULL WHERE app LIKE 'app:%';
+--rollback UPDATE job SET app = 'app:' || app_hash, app_hash = NULL WHERE app_hash IS NOT NULL;
+
+--changeset bunny:1487849040814-80 dbms:postgresql
+ALTER TABLE ONLY job
+    ADD CONSTRAINT job_app_hash_fkey FOREIGN KEY (app_hash) REFERENCES application(hash);
+--rollback ALTER TABLE ONLY job DROP CONSTRAINT job_app_hash_fkey;
+
+--changeset bunny:1487849040814-81 dbms:postgresql
+ALTER TABLE job ADD COLUMN priority bigint;
+--rollback ALTER TABLE job DROP COLUMN priority;
+
+--changeset bunny:1487849040814-82 dbms:postgresql
+CREATE TABLE job_record_scatter (
+    external_id uuid NOT NULL REFERENCES job_record(external_id) ON DELETE CASCADE,
+    seq bigserial NOT NULL,
+    element_type text NOT NULL,
+    port_id text,
+    "position" integer NOT NULL,
+    value jsonb,
+    indexes jsonb,
+    enabled boolean NOT NULL DEFAULT false
+);
+--rollback DROP TABLE job_record_scatter;
+
+--changeset bunny:1487849040814-83 dbms:postgresql
+CREATE UNIQUE INDEX job_record_scatter_index ON job_record_scatter USING btree (external_id, element_type, coalesce(port_id, ''), "position");
+--rollback DROP INDEX job_record_scatter_index;
+
+--changeset bunny:1487849040814-84 dbms:postgresql
+ALTER TABLE job_record ADD COLUMN scatter_elements boolean NOT NULL DEFAULT false;
+--rollback ALTER TABLE job_record DROP COLUMN scatter_elements;
+
+--changeset bunny:1487849040814-85 dbms:postgresql
+CREATE TABLE variable_record_element (
+    job_id text NOT NULL,
+    port_id text NOT NULL,
+    type port_type NOT NULL,
+    context_id uuid NOT NULL,
+    "position" integer NOT NULL,
+    value bytea,
+    PRIMARY KEY (job_id, port_id, type, context_id, "position"),
+    FOREIGN KEY (job_id, port_id, type, context_id) REFERENCES variable_record(job_id, port_id, type, context_id) ON DELETE CASCADE
+);
+--rollback DROP TABLE variable_record_element;
+
+--changeset bunny:1487849040814-86 dbms:postgresql
+ALTER TABLE variable_record ADD COLUMN elements boolean NOT NULL DEFAULT false;
+--rollback ALTER TABLE variable_record DROP COLUMN elements;
+
+--changeset bunny:1487849040814-87 dbms:postgresql splitStatements:false
+CREATE OR REPLACE FUNCTION job_status_notify() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('job_status', json_build_object('id', NEW.id, 'rootId', NEW.root_id, 'status', NEW.status, 'origin', current_setting('application_name'))::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+--rollback DROP FUNCTION job_status_notify();
+
+--changeset bunny:1487849040814-88 dbms:postgresql
+CREATE TRIGGER job_status_insert_notify AFTER INSERT ON job FOR EACH ROW WHEN (NEW.id = NEW.root_id) EXECUTE PROCEDURE job_status_notify();
+CREATE TRIGGER job_status_update_notify AFTER UPDATE OF status ON job FOR EACH ROW WHEN (NEW.id = NEW.root_id AND OLD.status IS DISTINCT FROM NEW.status) EXECUTE PROCEDURE job_status_notify();
+--rollback DROP TRIGGER job_status_insert_notify ON job; DROP TRIGGER job_status_update_notify ON job;
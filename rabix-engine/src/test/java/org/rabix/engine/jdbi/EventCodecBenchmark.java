@@ -0,0 +1,100 @@
+package org.rabix.engine.jdbi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.event.Event;
+import org.rabix.engine.event.impl.JobStatusEvent;
+import org.rabix.engine.store.model.JobRecord.JobState;
+import org.rabix.engine.store.postgres.jdbi.impl.EventCodec;
+import org.rabix.engine.store.postgres.jdbi.impl.EventCodec.Format;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Compares encode/decode time and row size of events stored as JSON text, Smile and deflated Smile. Doesn't need a
+ * database, the codec is the part of the event table write/read path which is measured.
+ */
+@Test(groups = { "benchmark" })
+public class EventCodecBenchmark {
+
+  private static final int EVENTS = 500;
+  private static final int ITERATIONS = 5;
+  private static final int FILES = 50;
+
+  @Test
+  public void benchmarkCodecs() {
+    List<Map<String, Object>> events = new ArrayList<>();
+    for (int i = 0; i < EVENTS; i++) {
+      events.add(JSONHelper.convertToMap(completedEvent(i)));
+    }
+
+    long json = measure(events, Format.JSON, false);
+    long smile = measure(events, Format.SMILE, false);
+    long deflated = measure(events, Format.SMILE, true);
+
+    Assert.assertTrue(smile < json, "smile " + smile + " bytes, json " + json + " bytes");
+    Assert.assertTrue(deflated < smile, "deflated " + deflated + " bytes, smile " + smile + " bytes");
+  }
+
+  /**
+   * Returns the average encoded size
+   */
+  private long measure(List<Map<String, Object>> events, Format format, boolean compress) {
+    EventCodec codec = new EventCodec(format, compress);
+    List<byte[]> encoded = new ArrayList<>();
+    long size = 0;
+    long encodeTime = 0;
+    long decodeTime = 0;
+    for (int i = 0; i <= ITERATIONS; i++) {
+      encoded.clear();
+      size = 0;
+      long start = System.nanoTime();
+      for (Map<String, Object> event : events) {
+        byte[] bytes = codec.encode(event);
+        encoded.add(bytes);
+        size += bytes.length;
+      }
+      long encodeEnd = System.nanoTime();
+      for (byte[] bytes : encoded) {
+        codec.decode(bytes);
+      }
+      // the first round warms up
+      if (i > 0) {
+        encodeTime += encodeEnd - start;
+        decodeTime += System.nanoTime() - encodeEnd;
+      }
+    }
+    long count = (long) events.size() * ITERATIONS;
+    System.out.println(String.format("%s%s: %d bytes/event, encode %.1f us/event, decode %.1f us/event", format, compress ? " (deflate)" : "",
+        size / events.size(), encodeTime / 1e3 / count, decodeTime / 1e3 / count));
+    return size / events.size();
+  }
+
+  private static Event completedEvent(int index) {
+    List<Map<String, Object>> files = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      Map<String, Object> file = new HashMap<>();
+      file.put("class", "File");
+      file.put("path", "/data/workdir/root/step_" + index + "/shard_" + i + "/output.bam");
+      file.put("size", 1024L * 1024 * 1024 + i);
+      file.put("checksum", "sha1$" + UUID.randomUUID().toString().replace("-", ""));
+      Map<String, Object> secondaryFile = new HashMap<>();
+      secondaryFile.put("class", "File");
+      secondaryFile.put("path", "/data/workdir/root/step_" + index + "/shard_" + i + "/output.bam.bai");
+      List<Map<String, Object>> secondaryFiles = new ArrayList<>();
+      secondaryFiles.add(secondaryFile);
+      file.put("secondaryFiles", secondaryFiles);
+      files.add(file);
+    }
+    Map<String, Object> result = new HashMap<>();
+    result.put("aligned", files);
+    result.put("count", FILES);
+    return new JobStatusEvent("root.step_" + index, UUID.randomUUID(), JobState.COMPLETED, result, UUID.randomUUID(), "root.step_" + index);
+  }
+
+}
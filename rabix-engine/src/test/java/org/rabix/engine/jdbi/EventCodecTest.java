@@ -0,0 +1,141 @@
+package org.rabix.engine.jdbi;
+
+import static org.rabix.engine.test.Stubs.stub;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.configuration.MapConfiguration;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.event.Event;
+import org.rabix.engine.event.impl.JobStatusEvent;
+import org.rabix.engine.store.model.EventRecord;
+import org.rabix.engine.store.model.JobRecord.JobState;
+import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryModule;
+import org.rabix.engine.store.postgres.jdbi.impl.EventCodec;
+import org.rabix.engine.store.postgres.jdbi.impl.EventCodec.Format;
+import org.rabix.engine.store.postgres.jdbi.impl.JDBIEventRepository;
+import org.rabix.engine.test.Stubs;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class EventCodecTest {
+
+  private static final EventCodec JSON = new EventCodec(Format.JSON, false);
+  private static final EventCodec SMILE = new EventCodec(Format.SMILE, false);
+  private static final EventCodec DEFLATED_SMILE = new EventCodec(Format.SMILE, true);
+
+  @Test
+  public void testRoundTrip() {
+    for (int files : new int[] { 0, 1, 50 }) {
+      JobStatusEvent event = completedEvent(files);
+      Map<String, Object> map = JSONHelper.convertToMap(event);
+      Map<String, Object> expected = JSONHelper.readMap(JSONHelper.writeObject(map));
+
+      for (EventCodec codec : new EventCodec[] { JSON, SMILE, DEFLATED_SMILE }) {
+        Map<String, Object> decoded = codec.decode(codec.encode(map));
+        Assert.assertEquals(decoded, expected);
+        JobStatusEvent decodedEvent = (JobStatusEvent) JSONHelper.convertToObject(decoded, Event.class);
+        Assert.assertEquals(decodedEvent.getJobId(), event.getJobId());
+        Assert.assertEquals(decodedEvent.getResult(), ((JobStatusEvent) JSONHelper.convertToObject(expected, Event.class)).getResult());
+      }
+    }
+  }
+
+  @Test
+  public void testLegacyRows() {
+    Map<String, Object> event = JSONHelper.convertToMap(completedEvent(3));
+    Map<String, Object> expected = JSONHelper.readMap(JSONHelper.writeObject(event));
+
+    // rows written before the codec existed hold the JSON text
+    byte[] legacy = JSONHelper.writeObject(event).getBytes(StandardCharsets.UTF_8);
+    for (EventCodec codec : new EventCodec[] { JSON, SMILE, DEFLATED_SMILE }) {
+      Assert.assertEquals(codec.decode(legacy), expected);
+    }
+    // rows of every format are read whatever the codec writes
+    Assert.assertEquals(JSON.decode(DEFLATED_SMILE.encode(event)), expected);
+    Assert.assertEquals(DEFLATED_SMILE.decode(JSON.encode(event)), expected);
+  }
+
+  @Test
+  public void testCompression() {
+    Map<String, Object> small = JSONHelper.convertToMap(completedEvent(0));
+    Map<String, Object> large = JSONHelper.convertToMap(completedEvent(50));
+
+    // small events aren't worth deflating
+    Assert.assertEquals(DEFLATED_SMILE.encode(small), SMILE.encode(small));
+    Assert.assertTrue(DEFLATED_SMILE.encode(large).length < SMILE.encode(large).length);
+    Assert.assertTrue(SMILE.encode(large).length < JSON.encode(large).length);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testUnsupportedVersion() {
+    SMILE.decode(new byte[] { 0, 9, 0, 1 });
+  }
+
+  @Test
+  public void testConfiguredCodec() {
+    JDBIRepositoryModule module = new JDBIRepositoryModule();
+    Map<String, Object> event = JSONHelper.convertToMap(completedEvent(1));
+
+    EventCodec defaultCodec = module.provideEventCodec(new MapConfiguration(new HashMap<>()));
+    Assert.assertEquals(defaultCodec.encode(event)[0], 0);
+
+    EventCodec jsonCodec = module.provideEventCodec(new MapConfiguration(Collections.singletonMap("postgres.event.format", "json")));
+    Assert.assertEquals(jsonCodec.encode(event)[0], '{');
+  }
+
+  @Test
+  public void testEventRowsUseTheStoreCodec() throws Exception {
+    EventRecord record = new EventRecord(UUID.randomUUID(), UUID.randomUUID(), EventRecord.Status.UNPROCESSED, JSONHelper.convertToMap(completedEvent(1)));
+
+    JDBIEventRepository.EventArgumentFactory argumentFactory = new JDBIEventRepository.EventArgumentFactory(JSON);
+    Assert.assertTrue(argumentFactory.accepts(Object.class, record, null));
+    Assert.assertFalse(argumentFactory.accepts(Object.class, record.getEvent(), null));
+    AtomicReference<byte[]> bound = new AtomicReference<>();
+    PreparedStatement statement = stub(PreparedStatement.class, (proxy, method, args) -> {
+      if (method.getName().equals("setBytes")) {
+        bound.set((byte[]) args[1]);
+      }
+      return Stubs.EMPTY;
+    });
+    argumentFactory.build(Object.class, record, null).apply(1, statement, null);
+    Assert.assertEquals(bound.get(), JSON.encode(record.getEvent()));
+
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", record.getGroupId().toString());
+    row.put("root_id", record.getRootId().toString());
+    row.put("status", "UNPROCESSED");
+    row.put("event", bound.get());
+    ResultSet resultSet = stub(ResultSet.class, (proxy, method, args) -> row.containsKey(args[0]) ? row.get(args[0]) : Stubs.EMPTY);
+    EventRecord mapped = new JDBIEventRepository.EventMapper(SMILE).map(0, resultSet, null);
+    Assert.assertEquals(mapped.getGroupId(), record.getGroupId());
+    Assert.assertEquals(mapped.getRootId(), record.getRootId());
+    Assert.assertEquals(mapped.getEvent(), JSONHelper.readMap(JSONHelper.writeObject(record.getEvent())));
+  }
+
+  private static JobStatusEvent completedEvent(int fileCount) {
+    List<Map<String, Object>> files = new ArrayList<>();
+    for (int i = 0; i < fileCount; i++) {
+      Map<String, Object> file = new HashMap<>();
+      file.put("class", "File");
+      file.put("path", "/data/workdir/root/step/shard_" + i + "/output.bam");
+      file.put("size", 1024L * 1024 * 1024 + i);
+      files.add(file);
+    }
+    Map<String, Object> result = new HashMap<>();
+    result.put("aligned", files);
+    result.put("count", fileCount);
+    return new JobStatusEvent("root.step", UUID.randomUUID(), JobState.COMPLETED, result, UUID.randomUUID(), "root.step");
+  }
+
+}
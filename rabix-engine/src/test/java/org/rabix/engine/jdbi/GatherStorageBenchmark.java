@@ -0,0 +1,52 @@
+package org.rabix.engine.jdbi;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import org.rabix.bindings.model.FileValue;
+import org.rabix.bindings.model.LinkMerge;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.service.impl.VariableRecordServiceImpl;
+import org.rabix.engine.store.model.VariableRecord;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Compares bytes written for a gathered output port when the whole array is rewritten on every arriving element with
+ * the element rows written for variable records stored element by element. Doesn't need a database.
+ */
+@Test(groups = { "benchmark" })
+public class GatherStorageBenchmark {
+
+  private static final int ELEMENTS = 50000;
+  private static final int SAMPLE = 1000;
+
+  @Test
+  public void benchmarkWrittenBytes() {
+    VariableRecordServiceImpl variableRecordService = new VariableRecordServiceImpl(null);
+    VariableRecord variableRecord = new VariableRecord(UUID.randomUUID(), "root.step", "aligned", LinkPortType.OUTPUT, null, LinkMerge.merge_nested);
+
+    long legacy = 0;
+    long elements = 0;
+    for (int position = 1; position <= ELEMENTS; position++) {
+      variableRecordService.addValue(variableRecord, file(position), position, true);
+      Map<Integer, Object> changed = variableRecord.drainElements();
+      elements += JSONHelper.writeObject(changed == null ? variableRecord.getValue() : changed.values()).length();
+      // the whole value is serialized only every SAMPLE elements, each sample stands for the ones in between
+      if (position % SAMPLE == 0) {
+        legacy += (long) JSONHelper.writeObject(variableRecord.getValue()).length() * SAMPLE;
+      }
+    }
+    System.out.println(String.format("%d elements: whole value %d MB written, elements %d MB written", ELEMENTS, legacy >> 20, elements >> 20));
+    Assert.assertTrue(elements * 1000 < legacy);
+  }
+
+  private static FileValue file(int position) {
+    String path = "/data/workdir/root/step_" + position + "/output.bam";
+    FileValue index = new FileValue(null, path + ".bai", null, null, null, null, null);
+    return new FileValue(1024L * 1024 * 1024, path, null, "sha1$" + UUID.randomUUID().toString().replace("-", ""), Collections.singletonList(index), null, null);
+  }
+
+}
@@ -0,0 +1,99 @@
+package org.rabix.engine.jdbi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.rabix.bindings.helper.URIHelper;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.common.helper.ChecksumHelper;
+import org.rabix.common.helper.ChecksumHelper.HashAlgorithm;
+import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryModule;
+import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryRegistry;
+import org.rabix.engine.store.repository.JobRepository;
+import org.skife.jdbi.v2.DBI;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Compares read throughput of jobs that keep the application inline with jobs that reference the application table.
+ * Runs only against a locally started Postgres, e.g. -Dpostgres.server=localhost -Dpostgres.port=5432 -Dpostgres.database=bunny_benchmark
+ */
+@Test(groups = { "benchmark" })
+public class JDBIJobRepositoryBenchmark {
+
+  private static final int JOBS = 2000;
+  private static final int ITERATIONS = 20;
+  private static final int APP_SIZE = 20000;
+
+  private JDBIRepositoryRegistry repositoryRegistry;
+
+  @BeforeClass
+  public void setUp() {
+    if (System.getProperty("postgres.server") == null) {
+      throw new SkipException("postgres.server is not set");
+    }
+    Map<String, Object> config = new HashMap<>();
+    config.put("postgres.server", System.getProperty("postgres.server"));
+    config.put("postgres.port", System.getProperty("postgres.port", "5432"));
+    config.put("postgres.database", System.getProperty("postgres.database", "bunny"));
+    config.put("postgres.user", System.getProperty("postgres.user", "postgres"));
+    config.put("postgres.password", System.getProperty("postgres.password", "postgres"));
+    config.put("postgres.ssl", System.getProperty("postgres.ssl", "false"));
+    config.put("postgres.pool_max_connections", "4");
+    Configuration configuration = new MapConfiguration(config);
+
+    JDBIRepositoryModule module = new JDBIRepositoryModule();
+    DBI dbi = module.provideDBI(configuration, module.provideEventCodec(configuration));
+    repositoryRegistry = module.provideJDBIRepositoryRegistry(dbi);
+  }
+
+  @Test
+  public void benchmarkReadyJobs() {
+    StringBuilder appBuilder = new StringBuilder("{\"class\":\"CommandLineTool\",\"doc\":\"");
+    while (appBuilder.length() < APP_SIZE) {
+      appBuilder.append(UUID.randomUUID().toString());
+    }
+    String app = appBuilder.append("\"}").toString();
+    String appHash = ChecksumHelper.checksum(app, HashAlgorithm.SHA1);
+    repositoryRegistry.applicationRepository().insert(appHash, app);
+
+    UUID inlineGroup = insertJobs(URIHelper.createDataURI(app));
+    UUID referencedGroup = insertJobs(URIHelper.createAppURI(appHash));
+
+    System.out.println(String.format("inline app: %.1f jobs/s", measure(inlineGroup)));
+    System.out.println(String.format("referenced app: %.1f jobs/s", measure(referencedGroup)));
+  }
+
+  private UUID insertJobs(String app) {
+    JobRepository jobRepository = repositoryRegistry.jobRepository();
+    UUID rootId = UUID.randomUUID();
+    UUID groupId = UUID.randomUUID();
+    Map<String, Object> inputs = Collections.singletonMap("input", "value");
+    for (int i = 0; i < JOBS; i++) {
+      Job job = new Job(UUID.randomUUID(), rootId, rootId, "root.step_" + i, app, JobStatus.READY, null, inputs, Collections.emptyMap(), Collections.emptyMap(), null, null);
+      jobRepository.insert(job, groupId, null);
+    }
+    return groupId;
+  }
+
+  private double measure(UUID groupId) {
+    JobRepository jobRepository = repositoryRegistry.jobRepository();
+    jobRepository.getReadyJobsByGroupId(groupId);
+    long start = System.nanoTime();
+    Set<Job> jobs = new HashSet<>();
+    for (int i = 0; i < ITERATIONS; i++) {
+      jobs = jobRepository.getReadyJobsByGroupId(groupId);
+    }
+    long elapsed = System.nanoTime() - start;
+    return (double) jobs.size() * ITERATIONS / (elapsed / 1e9);
+  }
+
+}
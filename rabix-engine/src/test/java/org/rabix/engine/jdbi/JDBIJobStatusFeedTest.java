@@ -0,0 +1,102 @@
+package org.rabix.engine.jdbi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.rabix.bindings.helper.URIHelper;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryModule;
+import org.rabix.engine.store.repository.JobRepository;
+import org.rabix.engine.store.repository.JobStatusFeed;
+import org.rabix.engine.store.repository.JobStatusFeed.Subscriber;
+import org.skife.jdbi.v2.DBI;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Runs only against a locally started Postgres, e.g. -Dpostgres.server=localhost -Dpostgres.port=5432 -Dpostgres.database=bunny_test
+ */
+public class JDBIJobStatusFeedTest {
+
+  private static final long TIMEOUT = 10;
+
+  private JobRepository jobRepository;
+  private JobRepository otherJobRepository;
+  private JobStatusFeed jobStatusFeed;
+
+  private final BlockingQueue<String> changes = new LinkedBlockingQueue<>();
+  private final Subscriber subscriber = (id, rootId, status, local) -> changes.add(id + " " + status + (local ? " local" : ""));
+
+  @BeforeClass
+  public void setUp() throws InterruptedException {
+    if (System.getProperty("postgres.server") == null) {
+      throw new SkipException("postgres.server is not set");
+    }
+    Map<String, Object> config = new HashMap<>();
+    config.put("postgres.server", System.getProperty("postgres.server"));
+    config.put("postgres.port", System.getProperty("postgres.port", "5432"));
+    config.put("postgres.database", System.getProperty("postgres.database", "bunny"));
+    config.put("postgres.user", System.getProperty("postgres.user", "postgres"));
+    config.put("postgres.password", System.getProperty("postgres.password", "postgres"));
+    config.put("postgres.ssl", System.getProperty("postgres.ssl", "false"));
+    config.put("postgres.pool_max_connections", "4");
+    Configuration configuration = new MapConfiguration(config);
+
+    JDBIRepositoryModule module = new JDBIRepositoryModule();
+    DBI dbi = module.provideDBI(configuration, module.provideEventCodec(configuration));
+    jobRepository = module.provideJDBIRepositoryRegistry(dbi).jobRepository();
+    jobStatusFeed = module.provideJobStatusFeed(dbi, configuration);
+    // a second store stands in for another engine process
+    otherJobRepository = module.provideJDBIRepositoryRegistry(module.provideDBI(configuration, module.provideEventCodec(configuration))).jobRepository();
+
+    jobStatusFeed.subscribe(subscriber);
+    // LISTEN is issued by the feed's thread
+    Thread.sleep(1000);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    if (jobStatusFeed != null) {
+      jobStatusFeed.unsubscribe(subscriber);
+    }
+  }
+
+  @Test
+  public void testLocalChanges() throws InterruptedException {
+    UUID rootId = insertRoot(jobRepository);
+    Assert.assertEquals(changes.poll(TIMEOUT, TimeUnit.SECONDS), rootId + " READY local");
+
+    jobRepository.updateStatus(rootId, JobStatus.COMPLETED, Collections.singleton(JobStatus.READY));
+    Assert.assertEquals(changes.poll(TIMEOUT, TimeUnit.SECONDS), rootId + " COMPLETED local");
+  }
+
+  @Test
+  public void testOtherProcessChanges() throws InterruptedException {
+    UUID rootId = insertRoot(otherJobRepository);
+    Assert.assertEquals(changes.poll(TIMEOUT, TimeUnit.SECONDS), rootId + " READY");
+
+    // an update which doesn't change the status isn't reported
+    otherJobRepository.updateStatus(rootId, JobStatus.READY, Collections.singleton(JobStatus.READY));
+    otherJobRepository.updateStatus(rootId, JobStatus.FAILED, Collections.singleton(JobStatus.READY));
+    Assert.assertEquals(changes.poll(TIMEOUT, TimeUnit.SECONDS), rootId + " FAILED");
+  }
+
+  private UUID insertRoot(JobRepository repository) {
+    UUID rootId = UUID.randomUUID();
+    Job root = new Job(rootId, null, rootId, "root", URIHelper.createDataURI("{}"), JobStatus.READY, null, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), null, null);
+    repository.insert(root, null, null);
+    return rootId;
+  }
+
+}
@@ -0,0 +1,134 @@
+package org.rabix.engine.jdbi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.rabix.bindings.model.FileValue;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.event.Event;
+import org.rabix.engine.event.impl.JobStatusEvent;
+import org.rabix.engine.store.model.JobRecord.JobState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the tree-first read path and indented writes with direct binding and compact writes, for the payloads the
+ * engine stores and sends: jobs, job status events and maps of file values.
+ */
+@Test(groups = { "benchmark" })
+public class JSONHelperBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(JSONHelperBenchmark.class);
+
+  private static final int PAYLOADS = 200;
+  private static final int ITERATIONS = 20;
+  private static final int FILES = 50;
+
+  @Test
+  public void benchmarkJobs() {
+    List<Job> jobs = new ArrayList<>();
+    for (int i = 0; i < PAYLOADS; i++) {
+      jobs.add(job(i));
+    }
+    compare("job", jobs, Job.class);
+  }
+
+  @Test
+  public void benchmarkEvents() {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < PAYLOADS; i++) {
+      events.add(completedEvent(i));
+    }
+    compare("event", events, Event.class);
+  }
+
+  @Test
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void benchmarkFileMaps() {
+    List<Map> maps = new ArrayList<>();
+    for (int i = 0; i < PAYLOADS; i++) {
+      maps.add(JSONHelper.convertToMap(files(i)));
+    }
+    compare("file map", maps, Map.class);
+  }
+
+  private <T> void compare(String name, List<? extends T> payloads, Class<T> clazz) {
+    List<String> indented = new ArrayList<>();
+    List<String> compact = new ArrayList<>();
+    for (T payload : payloads) {
+      indented.add(JSONHelper.writeObject(payload));
+      compact.add(JSONHelper.writeCompact(payload));
+    }
+    for (int i = 0; i < payloads.size(); i++) {
+      T tree = JSONHelper.readObject(JSONHelper.readJsonNode(indented.get(i)), clazz);
+      T direct = JSONHelper.readObject(compact.get(i), clazz);
+      Assert.assertEquals(JSONHelper.writeObject(direct), JSONHelper.writeObject(tree));
+    }
+
+    long tree = measure(payloads, indented, JSONHelper::writeObject, json -> JSONHelper.readObject(JSONHelper.readJsonNode(json), clazz));
+    // direct reads go through the reader bound to the type
+    long direct = measure(payloads, compact, JSONHelper::writeCompact, json -> JSONHelper.readObject(json, clazz));
+
+    logger.info("{}: tree {} us, direct {} us, {} -> {} bytes", name, tree / 1000 / payloads.size(), direct / 1000 / payloads.size(),
+        indented.get(0).length(), compact.get(0).length());
+  }
+
+  /**
+   * Returns the best write and read round time
+   */
+  private <T> long measure(List<? extends T> payloads, List<String> encoded, Function<Object, String> writer, Function<String, T> reader) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i <= ITERATIONS; i++) {
+      long start = System.nanoTime();
+      for (T payload : payloads) {
+        writer.apply(payload);
+      }
+      for (String json : encoded) {
+        reader.apply(json);
+      }
+      // the first round warms up
+      if (i > 0) {
+        best = Math.min(best, System.nanoTime() - start);
+      }
+    }
+    return best;
+  }
+
+  private static Job job(int index) {
+    Map<String, Object> inputs = new HashMap<>();
+    inputs.put("reads", files(index).get("aligned"));
+    inputs.put("threads", 8);
+    inputs.put("sample", "sample_" + index);
+    Map<String, Object> config = Collections.singletonMap("allocatedResources", Collections.singletonMap("cpu", 8));
+    return new Job(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), "root.step_" + index, "app://" + UUID.randomUUID(),
+        JobStatus.READY, null, inputs, null, new HashMap<>(config), null, null);
+  }
+
+  private static Event completedEvent(int index) {
+    return new JobStatusEvent("root.step_" + index, UUID.randomUUID(), JobState.COMPLETED, files(index), UUID.randomUUID(), "root.step_" + index);
+  }
+
+  private static Map<String, Object> files(int index) {
+    List<FileValue> files = new ArrayList<>();
+    for (int i = 0; i < FILES; i++) {
+      String path = "/data/workdir/root/step_" + index + "/shard_" + i + "/output.bam";
+      FileValue secondary = new FileValue(null, path + ".bai", null, null, null, null, null);
+      files.add(new FileValue(1024L * 1024 * 1024 + i, path, null, "sha1$" + UUID.randomUUID().toString().replace("-", ""),
+          Collections.singletonList(secondary), null, null));
+    }
+    Map<String, Object> result = new HashMap<>();
+    result.put("aligned", files);
+    result.put("count", FILES);
+    return result;
+  }
+
+}
@@ -0,0 +1,200 @@
+package org.rabix.engine.jdbi;
+
+import static org.rabix.engine.test.Stubs.stub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.rabix.bindings.model.ScatterMethod;
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.metrics.impl.MetricsHelperImpl;
+import org.rabix.engine.service.GarbageCollectionService;
+import org.rabix.engine.service.IntermediaryFilesService;
+import org.rabix.engine.service.impl.GarbageCollectionServiceImpl;
+import org.rabix.engine.store.model.ContextRecord;
+import org.rabix.engine.store.model.ContextRecord.ContextStatus;
+import org.rabix.engine.store.model.JobRecord;
+import org.rabix.engine.store.model.JobRecord.JobState;
+import org.rabix.engine.store.model.scatter.RowMapping;
+import org.rabix.engine.store.model.scatter.ScatterElement;
+import org.rabix.engine.store.model.scatter.ScatterStrategy;
+import org.rabix.engine.store.model.scatter.ScatterStrategyException;
+import org.rabix.engine.store.model.scatter.impl.ScatterZipStrategy;
+import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryModule;
+import org.rabix.engine.store.postgres.jdbi.JDBIRepositoryRegistry;
+import org.rabix.engine.store.repository.JobRecordRepository;
+import org.rabix.engine.store.repository.TransactionHelper;
+import org.skife.jdbi.v2.DBI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Compares what is written for a scatter wrapper's job record when the whole scatter strategy is kept in the row with
+ * the O(1) header plus changed elements. The Postgres part runs only against a locally started database, e.g.
+ * -Dpostgres.server=localhost -Dpostgres.port=5432 -Dpostgres.database=bunny_benchmark
+ */
+@Test(groups = { "benchmark" })
+public class ScatterStrategyStorageBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(ScatterStrategyStorageBenchmark.class);
+
+  private static final int ELEMENTS = 100000;
+  private static final int SAMPLE = 1000;
+  private static final String PORT = "input";
+
+  /**
+   * Values arrive in batches of {@link #SAMPLE} and the wrapper is written after each, then every scattered job
+   * completes and the wrapper is written again
+   */
+  @Test
+  public void benchmarkWrittenBytes() throws ScatterStrategyException {
+    ScatterStrategy strategy = strategy();
+    strategy.drainElements();
+
+    long legacy = 0;
+    long elements = 0;
+    long first = 0;
+    long last = 0;
+    for (int i = 1; i <= ELEMENTS; i += SAMPLE) {
+      enable(strategy, i, i + SAMPLE);
+      long written = size(strategy.withoutElements()) + size(strategy.drainElements());
+      first = first == 0 ? written : first;
+      last = written;
+      elements += written;
+      legacy += size(strategy);
+    }
+    long completion = size(strategy.withoutElements()) + size(strategy.drainElements());
+    elements += completion * ELEMENTS;
+    legacy += size(strategy) * ELEMENTS;
+
+    logger.info("{} elements: whole strategy {} MB written, header and elements {} MB written, {} bytes per completion", ELEMENTS, legacy >> 20,
+        elements >> 20, completion);
+    Assert.assertTrue(last < 2 * first, "first batch " + first + " bytes, last batch " + last + " bytes");
+    Assert.assertTrue(elements * 100 < legacy);
+  }
+
+  /**
+   * Times the last {@link #SAMPLE} completions of scatters of growing width the way the engine writes them: the
+   * scattered job's record, the wrapper with its changed elements, then a garbage collection pass of the root
+   */
+  @Test
+  public void benchmarkCompletions() throws Exception {
+    if (System.getProperty("postgres.server") == null) {
+      throw new SkipException("postgres.server is not set");
+    }
+    Map<String, Object> config = new HashMap<>();
+    config.put("postgres.server", System.getProperty("postgres.server"));
+    config.put("postgres.port", System.getProperty("postgres.port", "5432"));
+    config.put("postgres.database", System.getProperty("postgres.database", "bunny"));
+    config.put("postgres.user", System.getProperty("postgres.user", "postgres"));
+    config.put("postgres.password", System.getProperty("postgres.password", "postgres"));
+    config.put("postgres.ssl", System.getProperty("postgres.ssl", "false"));
+    config.put("postgres.pool_max_connections", "4");
+    config.put("gc.threads.number", 1);
+    Configuration configuration = new MapConfiguration(config);
+
+    JDBIRepositoryModule module = new JDBIRepositoryModule();
+    DBI dbi = module.provideDBI(configuration, module.provideEventCodec(configuration));
+    JDBIRepositoryRegistry registry = module.provideJDBIRepositoryRegistry(dbi);
+    JobRecordRepository jobRecordRepository = registry.jobRecordRepository();
+    // passes run on the collector's thread, each one is waited for
+    Semaphore passes = new Semaphore(0);
+    TransactionHelper transactionHelper = new TransactionHelper() {
+      @Override
+      public <Result> Result doInTransaction(TransactionCallback<Result> callback) throws Exception {
+        try {
+          return registry.doInTransaction(callback);
+        } finally {
+          passes.release();
+        }
+      }
+    };
+    GarbageCollectionService garbageCollectionService = new GarbageCollectionServiceImpl(registry.jobRepository(), jobRecordRepository,
+        registry.jobStatsRecordRepository(), registry.eventRepository(), registry.variableRecordRepository(), registry.linkRecordRepository(),
+        registry.dagRepository(), registry.contextRecordRepository(), stub(IntermediaryFilesService.class), transactionHelper,
+        new MetricsHelperImpl(new MetricRegistry()), configuration);
+
+    for (int elements = 1000; elements <= ELEMENTS; elements *= 10) {
+      UUID rootId = UUID.randomUUID();
+      registry.contextRecordRepository().insert(new ContextRecord(rootId, null, ContextStatus.RUNNING));
+      jobRecordRepository.insert(new JobRecord(rootId, "root", rootId, null, JobState.RUNNING, true, false, true, false, null));
+      UUID wrapperId = UUID.randomUUID();
+      JobRecord wrapper = new JobRecord(rootId, "root.step", wrapperId, rootId, JobState.RUNNING, false, false, false, false, null);
+      wrapper.setScatterWrapper(true);
+      ScatterStrategy strategy = strategy();
+      enable(strategy, 1, elements - SAMPLE + 1);
+      wrapper.setScatterStrategy(strategy);
+      jobRecordRepository.insert(wrapper);
+
+      long start = System.nanoTime();
+      for (int position = elements - SAMPLE + 1; position <= elements; position++) {
+        int completed = position;
+        registry.doInTransaction(() -> {
+          jobRecordRepository.insert(new JobRecord(rootId, "root.step." + completed, UUID.randomUUID(), wrapperId, JobState.COMPLETED, false, true, false, false, null));
+          JobRecord stored = jobRecordRepository.get("root.step", rootId);
+          enable(stored.getScatterStrategy(), completed, completed + 1);
+          jobRecordRepository.update(stored);
+          return null;
+        });
+        // a pass which is still finishing turns the request down, it's made again then
+        do {
+          garbageCollectionService.gc(rootId);
+        } while (!passes.tryAcquire(10, TimeUnit.MILLISECONDS));
+      }
+      logger.info("{} elements: {} us per completion", elements, (System.nanoTime() - start) / 1000 / SAMPLE);
+
+      JobRecord loaded = jobRecordRepository.get("root.step", rootId);
+      Assert.assertEquals(loaded.getScatterStrategy().enabledCount(), elements);
+      garbageCollectionService.forceGc(rootId);
+    }
+  }
+
+  private static ScatterStrategy strategy() {
+    Map<String, List<Object>> values = new HashMap<>();
+    values.put(PORT, new ArrayList<>());
+    Map<String, List<Boolean>> indexes = new HashMap<>();
+    indexes.put(PORT, new ArrayList<>());
+    return new ScatterZipStrategy(new ArrayList<>(), values, indexes, ScatterMethod.dotproduct, false, false);
+  }
+
+  /**
+   * Enables values on positions from start (inclusive) to end (exclusive), then the combinations which became available
+   */
+  private static void enable(ScatterStrategy strategy, int start, int end) throws ScatterStrategyException {
+    for (int position = start; position < end; position++) {
+      Map<String, Object> file = new HashMap<>();
+      file.put("class", "File");
+      file.put("path", "/data/workdir/root/shard_" + position + "/input.bam");
+      strategy.enable(PORT, file, position, ELEMENTS);
+    }
+    List<RowMapping> mappings = strategy.enabled();
+    strategy.commit(mappings);
+  }
+
+  private static long size(ScatterStrategy strategy) {
+    return JSONHelper.writeObject(strategy).getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  private static long size(List<ScatterElement> elements) {
+    long size = 0;
+    for (ScatterElement element : elements) {
+      size += element.getType() == ScatterElement.Type.VALUE ? JSONHelper.writeObject(element.getValue()).length() : 0;
+      size += element.getIndexes() != null ? JSONHelper.writeObject(element.getIndexes()).length() : 0;
+    }
+    return size;
+  }
+
+}
@@ -0,0 +1,232 @@
+package org.rabix.engine.processor.handler.impl;
+
+import static org.rabix.engine.test.Stubs.stub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rabix.bindings.model.LinkMerge;
+import org.rabix.bindings.model.ScatterMethod;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.engine.JobHelper;
+import org.rabix.engine.event.Event;
+import org.rabix.engine.event.impl.InputUpdateEvent;
+import org.rabix.engine.event.impl.JobStatusEvent;
+import org.rabix.engine.event.impl.OutputUpdateEvent;
+import org.rabix.engine.processor.EventProcessor;
+import org.rabix.engine.processor.handler.EventHandler.EventHandlingMode;
+import org.rabix.engine.service.IntermediaryFilesService;
+import org.rabix.engine.service.JobRecordService;
+import org.rabix.engine.service.LinkRecordService;
+import org.rabix.engine.service.VariableRecordService;
+import org.rabix.engine.service.impl.JobRecordServiceImpl;
+import org.rabix.engine.service.impl.LinkRecordServiceImpl;
+import org.rabix.engine.service.impl.VariableRecordServiceImpl;
+import org.rabix.engine.store.memory.impl.InMemoryJobRecordRepository;
+import org.rabix.engine.store.memory.impl.InMemoryLinkRecordRepository;
+import org.rabix.engine.store.memory.impl.InMemoryVariableRecordRepository;
+import org.rabix.engine.store.model.JobRecord;
+import org.rabix.engine.store.model.JobRecord.JobState;
+import org.rabix.engine.store.model.JobRecord.PortCounter;
+import org.rabix.engine.store.model.LinkRecord;
+import org.rabix.engine.store.model.VariableRecord;
+import org.rabix.engine.store.model.scatter.impl.ScatterCartesianStrategy;
+import org.rabix.engine.store.model.scatter.impl.ScatterCartesianStrategy.Combination;
+import org.rabix.engine.test.Stubs;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class OutputEventHandlerTest {
+
+  private final UUID rootId = UUID.randomUUID();
+
+  private List<Event> sent;
+  private AtomicInteger gatheredLoads;
+  private Map<String, AtomicInteger> jobWrites;
+  private Map<String, AtomicInteger> variableWrites;
+  private Map<String, AtomicInteger> linkLookups;
+  private JobRecordService jobRecordService;
+  private LinkRecordService linkRecordService;
+  private VariableRecordService variableRecordService;
+  private OutputEventHandler handler;
+
+  @BeforeMethod
+  public void setUp() {
+    sent = new ArrayList<>();
+    EventProcessor eventProcessor = stub(EventProcessor.class, (proxy, method, args) -> {
+      if (method.getName().equals("send") || method.getName().equals("addToQueue")) {
+        sent.add((Event) args[0]);
+      }
+      return Stubs.EMPTY;
+    });
+    jobWrites = new HashMap<>();
+    variableWrites = new HashMap<>();
+    linkLookups = new HashMap<>();
+    jobRecordService = new JobRecordServiceImpl(new InMemoryJobRecordRepository() {
+      @Override
+      public int update(JobRecord jobRecord) {
+        count(jobWrites, jobRecord.getId());
+        return super.update(jobRecord);
+      }
+    });
+    linkRecordService = new LinkRecordServiceImpl(new InMemoryLinkRecordRepository() {
+      @Override
+      public List<LinkRecord> getBySourceAndSourceType(String sourceJobId, String sourceJobPortId, LinkPortType sourceType, UUID rootId) {
+        count(linkLookups, sourceJobId);
+        return super.getBySourceAndSourceType(sourceJobId, sourceJobPortId, sourceType, rootId);
+      }
+    });
+    variableRecordService = new VariableRecordServiceImpl(new InMemoryVariableRecordRepository() {
+      @Override
+      public int update(VariableRecord variableRecord) {
+        count(variableWrites, variableRecord.getJobId());
+        return super.update(variableRecord);
+      }
+    });
+
+    handler = new OutputEventHandler(jobRecordService, linkRecordService, variableRecordService, eventProcessor, new JobHelper(),
+        stub(IntermediaryFilesService.class));
+
+    // a blocking scatter wrapper with two scattered jobs, its output goes to the next step
+    Map<String, LinkedList<Object>> values = new LinkedHashMap<>();
+    values.put("first", new LinkedList<>(Arrays.asList("x", "y")));
+    values.put("second", new LinkedList<>(Collections.singletonList("z")));
+    Map<String, LinkedList<Integer>> positions = new LinkedHashMap<>();
+    positions.put("first", new LinkedList<>(Arrays.asList(1, 2)));
+    positions.put("second", new LinkedList<>(Collections.singletonList(1)));
+    LinkedList<Combination> combinations = new LinkedList<>(Arrays.asList(new Combination(1, true, Arrays.asList(1, 1)), new Combination(2, true, Arrays.asList(2, 1))));
+
+    JobRecord wrapper = new JobRecord(rootId, "step", UUID.randomUUID(), rootId, JobState.RUNNING, false, false, false, false, null);
+    wrapper.setScatterWrapper(true);
+    wrapper.setScatterStrategy(new ScatterCartesianStrategy(combinations, values, positions, ScatterMethod.flat_crossproduct, new LinkedHashMap<>(), false, false));
+    wrapper.setNumberOfGlobalOutputs(2);
+    // the other output keeps the wrapper running
+    wrapper.setOutputCounters(new ArrayList<>(Arrays.asList(new PortCounter("out", 2, false, 0, 0, 2), new PortCounter("log", 2, false, 0, 0, 2))));
+    jobRecordService.create(wrapper);
+    jobRecordService.create(new JobRecord(rootId, "next", UUID.randomUUID(), rootId, JobState.PENDING, false, false, false, false, null));
+    linkRecordService.create(new LinkRecord(rootId, "step", "out", LinkPortType.OUTPUT, "next", "in", LinkPortType.INPUT, 1));
+
+    for (int position = 1; position <= 2; position++) {
+      variableRecordService.create(new VariableRecord(rootId, "step." + position, "out", LinkPortType.OUTPUT, "out" + position, null));
+    }
+    VariableRecord gathered = new VariableRecord(rootId, "step", "out", LinkPortType.OUTPUT, null, LinkMerge.merge_nested);
+    gathered.setWrapped(true);
+    gatheredLoads = new AtomicInteger();
+    gathered.restoreElements(() -> {
+      gatheredLoads.incrementAndGet();
+      return new ArrayList<>();
+    });
+    variableRecordService.create(gathered);
+  }
+
+  /**
+   * Adjacent updates of a blocking wrapper's port are written once and checked downstream once, when the port is ready
+   */
+  @Test
+  public void testAdjacentUpdatesAreWrittenOnce() throws Exception {
+    int scattered = 4;
+    wrapper("wide", scattered);
+    for (int position = 1; position < scattered; position++) {
+      handler.handle(new OutputUpdateEvent(rootId, "wide", "out", "out" + position, scattered, position, rootId, "wide." + position), EventHandlingMode.NORMAL);
+      // completions of the scattered jobs come in between
+      handler.flushBefore(new JobStatusEvent("wide." + (position + 1), rootId, JobState.COMPLETED, Collections.emptyMap(), rootId, "wide." + (position + 1)));
+    }
+    Assert.assertNull(jobWrites.get("wide"));
+    Assert.assertNull(variableWrites.get("wide"));
+    Assert.assertNull(linkLookups.get("wide"));
+    Assert.assertTrue(sent.isEmpty());
+
+    handler.handle(new OutputUpdateEvent(rootId, "wide", "out", "out" + scattered, scattered, scattered, rootId, "wide." + scattered), EventHandlingMode.NORMAL);
+    Assert.assertEquals(jobWrites.get("wide").get(), 1);
+    Assert.assertEquals(variableWrites.get("wide").get(), 1);
+    Assert.assertEquals(linkLookups.get("wide").get(), 1);
+    Assert.assertEquals(sent.size(), 1);
+    Assert.assertEquals(((InputUpdateEvent) sent.get(0)).getValue(), Arrays.asList("out1", "out2", "out3", "out4"));
+  }
+
+  @Test
+  public void testPendingUpdatesAreWrittenBeforeOtherEvents() throws Exception {
+    wrapper("wide", 4);
+    handler.handle(new OutputUpdateEvent(rootId, "wide", "out", "out1", 4, 1, rootId, "wide.1"), EventHandlingMode.NORMAL);
+    handler.handle(new OutputUpdateEvent(rootId, "wide", "out", "out2", 4, 2, rootId, "wide.2"), EventHandlingMode.NORMAL);
+    Assert.assertNull(jobWrites.get("wide"));
+
+    // the wrapper itself is about to be read
+    handler.flushBefore(new JobStatusEvent("wide", rootId, JobState.RUNNING, rootId, "wide"));
+    Assert.assertEquals(jobWrites.get("wide").get(), 1);
+    Assert.assertEquals(variableWrites.get("wide").get(), 1);
+    Assert.assertEquals(jobRecordService.find("wide", rootId).getOutputCounter("out").counter, 2);
+
+    // a rolled back transaction leaves nothing behind
+    handler.handle(new OutputUpdateEvent(rootId, "wide", "out", "out3", 4, 3, rootId, "wide.3"), EventHandlingMode.NORMAL);
+    handler.discard();
+    handler.flush();
+    Assert.assertEquals(jobWrites.get("wide").get(), 1);
+  }
+
+  @Test
+  public void testGatheredValueIsReadWhenPortIsReady() throws Exception {
+    handler.handle(new OutputUpdateEvent(rootId, "step", "out", "out1", 2, 1, rootId, "step.1"), EventHandlingMode.NORMAL);
+    Assert.assertTrue(sent.isEmpty());
+    Assert.assertEquals(gatheredLoads.get(), 0);
+
+    handler.handle(new OutputUpdateEvent(rootId, "step", "out", "out2", 2, 2, rootId, "step.2"), EventHandlingMode.NORMAL);
+    Assert.assertEquals(sent.size(), 1);
+    InputUpdateEvent update = (InputUpdateEvent) sent.get(0);
+    Assert.assertEquals(update.getJobId(), "next");
+    Assert.assertEquals(update.getPortId(), "in");
+    Assert.assertEquals(update.getValue(), Arrays.asList("out1", "out2"));
+    // the value sent is assembled from the scattered jobs, elements stored on the wrapper aren't read
+    Assert.assertEquals(gatheredLoads.get(), 0);
+  }
+
+  /**
+   * A blocking scatter wrapper whose output goes to the next step, kept running by its other output
+   */
+  private void wrapper(String id, int scattered) {
+    Map<String, LinkedList<Object>> values = new LinkedHashMap<>();
+    values.put("first", new LinkedList<>());
+    values.put("second", new LinkedList<>(Collections.singletonList("z")));
+    Map<String, LinkedList<Integer>> positions = new LinkedHashMap<>();
+    positions.put("first", new LinkedList<>());
+    positions.put("second", new LinkedList<>(Collections.singletonList(1)));
+    LinkedList<Combination> combinations = new LinkedList<>();
+    for (int position = 1; position <= scattered; position++) {
+      values.get("first").add("x" + position);
+      positions.get("first").add(position);
+      combinations.add(new Combination(position, true, Arrays.asList(position, 1)));
+    }
+
+    JobRecord wrapper = new JobRecord(rootId, id, UUID.randomUUID(), rootId, JobState.RUNNING, false, false, false, false, null);
+    wrapper.setScatterWrapper(true);
+    wrapper.setScatterStrategy(new ScatterCartesianStrategy(combinations, values, positions, ScatterMethod.flat_crossproduct, new LinkedHashMap<>(), false, false));
+    wrapper.setNumberOfGlobalOutputs(scattered);
+    wrapper.setOutputCounters(new ArrayList<>(Arrays.asList(new PortCounter("out", scattered, false, 0, 0, scattered), new PortCounter("log", scattered, false, 0, 0, scattered))));
+    jobRecordService.create(wrapper);
+    linkRecordService.create(new LinkRecord(rootId, id, "out", LinkPortType.OUTPUT, "next", "in", LinkPortType.INPUT, 1));
+    for (int position = 1; position <= scattered; position++) {
+      variableRecordService.create(new VariableRecord(rootId, id + "." + position, "out", LinkPortType.OUTPUT, "out" + position, null));
+    }
+    VariableRecord gathered = new VariableRecord(rootId, id, "out", LinkPortType.OUTPUT, null, LinkMerge.merge_nested);
+    gathered.setWrapped(true);
+    variableRecordService.create(gathered);
+    // creating records counts as writes in memory
+    jobWrites.clear();
+    variableWrites.clear();
+  }
+
+  private static void count(Map<String, AtomicInteger> counts, String id) {
+    counts.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+  }
+
+}
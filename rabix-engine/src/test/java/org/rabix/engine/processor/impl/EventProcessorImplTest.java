@@ -0,0 +1,289 @@
+package org.rabix.engine.processor.impl;
+
+import static org.rabix.engine.test.Stubs.stub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.configuration.MapConfiguration;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.engine.ReadyJobCollector;
+import org.rabix.engine.event.Event;
+import org.rabix.engine.event.Event.EventType;
+import org.rabix.engine.event.impl.JobStatusEvent;
+import org.rabix.engine.event.impl.OutputUpdateEvent;
+import org.rabix.engine.metrics.impl.MetricsHelperImpl;
+import org.rabix.engine.processor.handler.EventHandler;
+import org.rabix.engine.processor.handler.EventHandler.EventHandlingMode;
+import org.rabix.engine.processor.handler.EventHandlerException;
+import org.rabix.engine.processor.handler.HandlerFactory;
+import org.rabix.engine.service.ContextRecordService;
+import org.rabix.engine.service.GarbageCollectionService;
+import org.rabix.engine.service.IntermediaryFilesService;
+import org.rabix.engine.service.JobService;
+import org.rabix.engine.service.JobStatsRecordService;
+import org.rabix.engine.store.model.ContextRecord;
+import org.rabix.engine.store.model.ContextRecord.ContextStatus;
+import org.rabix.engine.store.model.JobRecord.JobState;
+import org.rabix.engine.store.repository.EventRepository;
+import org.rabix.engine.store.repository.JobRepository;
+import org.rabix.engine.store.repository.TransactionHelper;
+import org.rabix.engine.test.Stubs;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+@Test(groups = { "functional" })
+public class EventProcessorImplTest {
+
+  private EventProcessorImpl eventProcessor;
+  private ExecutorService executor;
+
+  @BeforeMethod
+  public void setUp() {
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    if (eventProcessor != null) {
+      eventProcessor.stop();
+    }
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testAdmissionWaitsForTheQueueToDrain() throws Exception {
+    eventProcessor = eventProcessor(10000);
+    Assert.assertTrue(eventProcessor.admit(UUID.randomUUID()));
+    fill(15);
+
+    Future<Boolean> admitted = executor.submit(() -> eventProcessor.admit(UUID.randomUUID()));
+    Thread.sleep(200);
+    Assert.assertFalse(admitted.isDone());
+
+    eventProcessor.start();
+    Assert.assertTrue(admitted.get(5, TimeUnit.SECONDS));
+    Assert.assertTrue(eventProcessor.externalQueueSize() <= 5);
+  }
+
+  @Test
+  public void testAdmissionTimesOut() throws Exception {
+    eventProcessor = eventProcessor(300);
+    fill(15);
+    long start = System.currentTimeMillis();
+    Assert.assertFalse(eventProcessor.admit(UUID.randomUUID()));
+    Assert.assertTrue(System.currentTimeMillis() - start >= 300);
+  }
+
+  @Test
+  public void testBatchedCompletionsKeepTheirOrder() throws Exception {
+    UUID rootId = UUID.randomUUID();
+    List<String> handled = new ArrayList<>();
+    AtomicInteger transactions = new AtomicInteger();
+    // a completion sends an output update of the job like the status handler does
+    eventProcessor = eventProcessor(rootId, handlers((event, mode) -> {
+      if (event instanceof JobStatusEvent) {
+        String jobId = ((JobStatusEvent) event).getJobId();
+        handled.add(jobId);
+        eventProcessor.send(new OutputUpdateEvent(rootId, jobId, "out", null, 1, 1, event.getEventGroupId(), jobId));
+      } else {
+        handled.add(((OutputUpdateEvent) event).getJobId() + ".out");
+      }
+    }), new TransactionHelper() {
+      @Override
+      public <Result> Result doInTransaction(TransactionCallback<Result> callback) throws Exception {
+        transactions.incrementAndGet();
+        return callback.call();
+      }
+    }, stub(JobService.class), new ReadyJobCollector());
+
+    CountDownLatch processed = new CountDownLatch(3);
+    for (String jobId : Arrays.asList("a", "b", "c")) {
+      eventProcessor.addToExternalQueue(new JobStatusEvent(jobId, rootId, JobState.COMPLETED, rootId, jobId), processed::countDown);
+    }
+    eventProcessor.start();
+    Assert.assertTrue(processed.await(5, TimeUnit.SECONDS));
+
+    // the output updates a completion sends are handled before the next completion
+    Assert.assertEquals(handled, Arrays.asList("a", "a.out", "b", "b.out", "c", "c.out"));
+    Assert.assertEquals(transactions.get(), 1);
+  }
+
+  @Test
+  public void testReadyJobsAreDispatchedAfterCommit() throws Exception {
+    UUID rootId = UUID.randomUUID();
+    ReadyJobCollector readyJobCollector = new ReadyJobCollector();
+    AtomicBoolean committed = new AtomicBoolean();
+    List<String> dispatched = new ArrayList<>();
+
+    eventProcessor = eventProcessor(rootId, handlers((event, mode) -> readyJobCollector.add(job(rootId, "step"), event.getEventGroupId())),
+        new TransactionHelper() {
+          @Override
+          public <Result> Result doInTransaction(TransactionCallback<Result> callback) throws Exception {
+            Result result = callback.call();
+            committed.set(true);
+            return result;
+          }
+        }, readyJobsRecorder(dispatched, committed), readyJobCollector);
+
+    process(new JobStatusEvent("step", rootId, JobState.COMPLETED, rootId, "step"));
+    Assert.assertEquals(dispatched, Collections.singletonList("step committed"));
+    Assert.assertTrue(readyJobCollector.drain(rootId).isEmpty());
+  }
+
+  @Test
+  public void testReadyJobsAreDroppedOnRollback() throws Exception {
+    UUID rootId = UUID.randomUUID();
+    ReadyJobCollector readyJobCollector = new ReadyJobCollector();
+    List<String> dispatched = new ArrayList<>();
+
+    // the second event of the batch fails after the first one made a job ready
+    eventProcessor = eventProcessor(rootId, handlers((event, mode) -> {
+      if (((JobStatusEvent) event).getJobId().equals("failing")) {
+        throw new EventHandlerException("failed");
+      }
+      readyJobCollector.add(job(rootId, "step"), event.getEventGroupId());
+    }), new TransactionHelper() {}, readyJobsRecorder(dispatched, new AtomicBoolean()), readyJobCollector);
+
+    eventProcessor.addToExternalQueue(new JobStatusEvent("step", rootId, JobState.COMPLETED, rootId, "step"));
+    process(new JobStatusEvent("failing", rootId, JobState.COMPLETED, rootId, "failing"));
+    Assert.assertEquals(dispatched, Collections.singletonList("root failed"));
+    Assert.assertTrue(readyJobCollector.drain(rootId).isEmpty());
+  }
+
+  @Test
+  public void testLedgerIsEvictedWhenTheRootFinishes() throws Exception {
+    UUID rootId = UUID.randomUUID();
+    AtomicReference<ContextStatus> status = new AtomicReference<>(ContextStatus.RUNNING);
+    List<String> calls = new ArrayList<>();
+    ContextRecordService contextRecordService = stub(ContextRecordService.class, (proxy, method, args) -> {
+      if (method.getName().equals("find") && rootId.equals(args[0])) {
+        return new ContextRecord(rootId, null, status.get());
+      }
+      return Stubs.EMPTY;
+    });
+    IntermediaryFilesService intermediaryFilesService = stub(IntermediaryFilesService.class, (proxy, method, args) -> {
+      calls.add(method.getName());
+      return Stubs.EMPTY;
+    });
+
+    // the root job completes, and the context with it
+    eventProcessor = eventProcessor(handlers((event, mode) -> status.set(ContextStatus.COMPLETED)), new TransactionHelper() {},
+        stub(JobService.class), contextRecordService, intermediaryFilesService, new ReadyJobCollector());
+    process(new JobStatusEvent("root", rootId, JobState.COMPLETED, rootId, "root"));
+    Assert.assertEquals(calls, Arrays.asList("flush", "commit", "evict"));
+  }
+
+  /**
+   * Events of unknown contexts are discarded, so the processor drains the queue without handlers or a store
+   */
+  private EventProcessorImpl eventProcessor(long admissionTimeout) {
+    Map<String, Object> config = new HashMap<>();
+    config.put("engine.event_processor.external_queue.capacity", 20);
+    config.put("engine.admission.high_watermark", 10);
+    config.put("engine.admission.low_watermark", 5);
+    config.put("engine.admission.timeout_ms", admissionTimeout);
+    return new EventProcessorImpl(null, new TransactionHelper() {}, stub(EventRepository.class), stub(JobRepository.class),
+        stub(JobService.class), new MetricsHelperImpl(new MetricRegistry()), stub(GarbageCollectionService.class), stub(ContextRecordService.class),
+        stub(IntermediaryFilesService.class), stub(JobStatsRecordService.class), new ReadyJobCollector(), new MapConfiguration(config));
+  }
+
+  private EventProcessorImpl eventProcessor(UUID rootId, HandlerFactory handlerFactory, TransactionHelper transactionHelper,
+      JobService jobService, ReadyJobCollector readyJobCollector) {
+    ContextRecordService contextRecordService = stub(ContextRecordService.class, (proxy, method, args) -> {
+      if (method.getName().equals("find") && rootId.equals(args[0])) {
+        return new ContextRecord(rootId, null, ContextStatus.RUNNING);
+      }
+      return Stubs.EMPTY;
+    });
+    return eventProcessor(handlerFactory, transactionHelper, jobService, contextRecordService, stub(IntermediaryFilesService.class), readyJobCollector);
+  }
+
+  private EventProcessorImpl eventProcessor(HandlerFactory handlerFactory, TransactionHelper transactionHelper, JobService jobService,
+      ContextRecordService contextRecordService, IntermediaryFilesService intermediaryFilesService, ReadyJobCollector readyJobCollector) {
+    EventProcessorImpl eventProcessor = new EventProcessorImpl(handlerFactory, transactionHelper, stub(EventRepository.class), stub(JobRepository.class),
+        jobService, new MetricsHelperImpl(new MetricRegistry()), stub(GarbageCollectionService.class), contextRecordService,
+        intermediaryFilesService, stub(JobStatsRecordService.class), readyJobCollector, new MapConfiguration(new HashMap<>()));
+    eventProcessor.setEventHandlingMode(EventHandlingMode.NORMAL);
+    return eventProcessor;
+  }
+
+  /**
+   * Records jobs handed over as ready, and whether the transaction was committed by then
+   */
+  private JobService readyJobsRecorder(List<String> dispatched, AtomicBoolean committed) {
+    return stub(JobService.class, (proxy, method, args) -> {
+      if (method.getName().equals("handleJobsReady")) {
+        for (Object job : (Set<?>) args[0]) {
+          dispatched.add(((Job) job).getName() + (committed.get() ? " committed" : " uncommitted"));
+        }
+      }
+      if (method.getName().equals("handleJobRootFailed")) {
+        dispatched.add("root failed");
+      }
+      return Stubs.EMPTY;
+    });
+  }
+
+  /**
+   * Starts the processor and waits until the event is processed
+   */
+  private void process(Event event) throws InterruptedException {
+    CountDownLatch processed = new CountDownLatch(1);
+    eventProcessor.addToExternalQueue(event, processed::countDown);
+    eventProcessor.start();
+    Assert.assertTrue(processed.await(5, TimeUnit.SECONDS));
+  }
+
+  private HandlerFactory handlers(EventHandler<Event> handler) {
+    return new HandlerFactory(null, null, null, null, null, null) {
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T extends Event> EventHandler<T> get(EventType eventType) {
+        return (EventHandler<T>) handler;
+      }
+
+      @Override
+      public void beforeHandle(Event event) {
+      }
+
+      @Override
+      public void beforeCommit() {
+      }
+
+      @Override
+      public void afterRollback() {
+      }
+    };
+  }
+
+  private Job job(UUID rootId, String name) {
+    return new Job(UUID.randomUUID(), null, rootId, name, null, JobStatus.READY, null, Collections.emptyMap(), null, null, null, null);
+  }
+
+  private void fill(int count) {
+    for (int i = 0; i < count; i++) {
+      eventProcessor.addToExternalQueue(stub(Event.class));
+    }
+  }
+
+}
@@ -0,0 +1,67 @@
+package org.rabix.engine.service.impl;
+
+import static org.rabix.engine.test.Stubs.stub;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.rabix.common.helper.JSONHelper;
+import org.rabix.engine.event.impl.InitEvent;
+import org.rabix.engine.processor.EventProcessor;
+import org.rabix.engine.service.BackendService;
+import org.rabix.engine.service.GarbageCollectionService;
+import org.rabix.engine.service.JobService;
+import org.rabix.engine.service.JobStatsRecordService;
+import org.rabix.engine.store.model.EventRecord;
+import org.rabix.engine.store.repository.EventRepository;
+import org.rabix.engine.store.repository.TransactionHelper;
+import org.rabix.engine.test.Stubs;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class BootstrapServiceImplTest {
+
+  @Test
+  public void testEventsAreReplayedAfterTheTransaction() throws Exception {
+    AtomicBoolean inTransaction = new AtomicBoolean();
+    TransactionHelper transactionHelper = new TransactionHelper() {
+      @Override
+      public <Result> Result doInTransaction(TransactionCallback<Result> callback) throws Exception {
+        inTransaction.set(true);
+        try {
+          return callback.call();
+        } finally {
+          inTransaction.set(false);
+        }
+      }
+    };
+
+    List<EventRecord> pending = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      UUID rootId = UUID.randomUUID();
+      InitEvent event = new InitEvent(rootId, Collections.emptyMap(), rootId, Collections.emptyMap(), "hash", "root");
+      pending.add(new EventRecord(rootId, rootId, EventRecord.Status.UNPROCESSED, JSONHelper.convertToMap(event)));
+    }
+    EventRepository eventRepository = stub(EventRepository.class, (proxy, method, args) -> method.getName().equals("getPendingEvents") ? pending : Stubs.EMPTY);
+
+    AtomicInteger queued = new AtomicInteger();
+    EventProcessor eventProcessor = stub(EventProcessor.class, (proxy, method, args) -> {
+      if (method.getName().equals("addToExternalQueue")) {
+        // a blocking put on the bounded queue inside the transaction could wait for the processor forever
+        Assert.assertFalse(inTransaction.get());
+        queued.incrementAndGet();
+      }
+      return Stubs.EMPTY;
+    });
+
+    new BootstrapServiceImpl(transactionHelper, eventRepository, eventProcessor, stub(BackendService.class), stub(GarbageCollectionService.class), stub(JobService.class),
+        stub(JobStatsRecordService.class)).replay();
+    Assert.assertEquals(queued.get(), 3);
+  }
+
+}
@@ -0,0 +1,248 @@
+package org.rabix.engine.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class FairShareDispatcherTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(FairShareDispatcherTest.class);
+
+  private static final int SLOTS = 100;
+  private static final long DURATION = 10;
+
+  /**
+   * One root floods the backend with 10000 jobs, then 20 small roots with 5 jobs each arrive. The big root may use every
+   * slot, still small roots should finish within a few job durations with fair-share dispatch, while with a single FIFO
+   * queue they wait for the whole flood. Both keep every slot busy.
+   */
+  @Test
+  public void testSmallRootLatencyUnderContention() {
+    List<Arrival> arrivals = new ArrayList<>();
+    arrivals.add(new Arrival(0, root(null, null), 10000));
+    for (int i = 0; i < 20; i++) {
+      arrivals.add(new Arrival(100 + 5 * i, root(null, null), 5));
+    }
+
+    Simulation fifo = new Simulation(arrivals);
+    fifo.run(sink -> new FifoDispatcher(SLOTS, sink));
+    Simulation fair = new Simulation(arrivals);
+    fair.run(sink -> new FairShareDispatcher(SLOTS, SLOTS, tag -> 1, sink));
+
+    List<UUID> smallRoots = new ArrayList<>();
+    for (int i = 1; i < arrivals.size(); i++) {
+      smallRoots.add(arrivals.get(i).rootId);
+    }
+    long fifoLatency = fifo.maxLatency(smallRoots);
+    long fairLatency = fair.maxLatency(smallRoots);
+    logger.info("Max small root latency: FIFO {}, fair-share {}. Makespan: FIFO {}, fair-share {}", fifoLatency, fairLatency, fifo.time, fair.time);
+
+    Assert.assertTrue(fairLatency <= 3 * DURATION, "small roots waited " + fairLatency);
+    Assert.assertTrue(fifoLatency > 10 * fairLatency);
+    Assert.assertEquals(fair.time, fifo.time);
+  }
+
+  @Test
+  public void testPerRootCap() {
+    List<Arrival> arrivals = new ArrayList<>();
+    arrivals.add(new Arrival(0, root(null, null), 1000));
+    Simulation simulation = new Simulation(arrivals);
+    simulation.run(sink -> new FairShareDispatcher(SLOTS, 10, tag -> 1, sink));
+
+    Assert.assertEquals(simulation.maxRunning, 10);
+    Assert.assertEquals(simulation.time, 1000 / 10 * DURATION);
+  }
+
+  @Test
+  public void testWeightedShares() {
+    List<Arrival> arrivals = new ArrayList<>();
+    arrivals.add(new Arrival(0, root("gold", null), 4000));
+    arrivals.add(new Arrival(0, root("bronze", null), 4000));
+    arrivals.add(new Arrival(0, root("bronze", "3"), 4000));
+    Map<String, Integer> tagWeights = new HashMap<>();
+    tagWeights.put("gold", 3);
+    tagWeights.put("bronze", 1);
+
+    Simulation simulation = new Simulation(arrivals);
+    simulation.stopAt = 200;
+    simulation.run(sink -> new FairShareDispatcher(SLOTS, 0, tagWeights::get, sink));
+
+    // the first root takes every slot before the others arrive, so shares are measured after the first round
+    long gold = simulation.completedAfter(arrivals.get(0).rootId, DURATION);
+    long bronze = simulation.completedAfter(arrivals.get(1).rootId, DURATION);
+    long bronzeHeavy = simulation.completedAfter(arrivals.get(2).rootId, DURATION);
+    logger.info("Completed in (10, 200]: gold {}, bronze {}, bronze (weight 3) {}", gold, bronze, bronzeHeavy);
+
+    Assert.assertEquals(gold, 3 * (bronze + bronzeHeavy), 2 * SLOTS / 4);
+    Assert.assertEquals(bronzeHeavy, 3 * bronze, 2 * SLOTS / 4);
+  }
+
+  private static Map<String, Object> root(String tag, String weight) {
+    Map<String, Object> config = new HashMap<>();
+    if (tag != null) {
+      config.put(FairShareDispatcher.TAG_KEY, tag);
+    }
+    if (weight != null) {
+      config.put(FairShareDispatcher.WEIGHT_KEY, weight);
+    }
+    return config;
+  }
+
+  private interface Dispatcher {
+    void submit(Job job);
+
+    void release(Job job);
+  }
+
+  private interface DispatcherFactory {
+    Object create(Consumer<Job> sink);
+  }
+
+  private static class Arrival {
+    private final long time;
+    private final UUID rootId = UUID.randomUUID();
+    private final Map<String, Object> config;
+    private final int jobs;
+
+    Arrival(long time, Map<String, Object> config, int jobs) {
+      this.time = time;
+      this.config = config;
+      this.jobs = jobs;
+    }
+  }
+
+  /**
+   * Discrete event simulation of a backend with unlimited workers. Every job runs for {@link #DURATION}, the dispatcher
+   * decides when it starts.
+   */
+  private static class Simulation {
+    private final List<Arrival> arrivals;
+    private final PriorityQueue<Object[]> running = new PriorityQueue<>(Comparator.comparingLong((Object[] run) -> (Long) run[0]));
+    private final Map<UUID, Long> submitted = new HashMap<>();
+    private final Map<UUID, Long> finished = new HashMap<>();
+    private final Map<UUID, Integer> remaining = new HashMap<>();
+    private final List<Object[]> completions = new ArrayList<>();
+    private long time;
+    private long stopAt = Long.MAX_VALUE;
+    private int maxRunning;
+
+    Simulation(List<Arrival> arrivals) {
+      this.arrivals = new ArrayList<>(arrivals);
+      this.arrivals.sort(Comparator.comparingLong((Arrival arrival) -> arrival.time));
+    }
+
+    void run(DispatcherFactory factory) {
+      Object created = factory.create(job -> {
+        running.add(new Object[] { time + DURATION, job });
+        maxRunning = Math.max(maxRunning, running.size());
+      });
+      Dispatcher dispatcher = adapt(created);
+      Deque<Arrival> pending = new ArrayDeque<>(arrivals);
+      while (!pending.isEmpty() || !running.isEmpty()) {
+        long nextArrival = pending.isEmpty() ? Long.MAX_VALUE : pending.peek().time;
+        long nextFinish = running.isEmpty() ? Long.MAX_VALUE : (Long) running.peek()[0];
+        if (Math.min(nextArrival, nextFinish) > stopAt) {
+          return;
+        }
+        time = Math.min(nextArrival, nextFinish);
+        if (nextArrival <= nextFinish) {
+          Arrival arrival = pending.poll();
+          submitted.put(arrival.rootId, time);
+          remaining.put(arrival.rootId, arrival.jobs);
+          for (int i = 0; i < arrival.jobs; i++) {
+            dispatcher.submit(new Job(UUID.randomUUID(), arrival.rootId, arrival.rootId, "step" + i, null, JobStatus.READY, null,
+                Collections.emptyMap(), null, arrival.config, null, null));
+          }
+        } else {
+          Job job = (Job) running.poll()[1];
+          completions.add(new Object[] { time, job.getRootId() });
+          if (remaining.merge(job.getRootId(), -1, Integer::sum) == 0) {
+            finished.put(job.getRootId(), time);
+          }
+          dispatcher.release(Job.cloneWithStatus(job, JobStatus.COMPLETED));
+        }
+      }
+    }
+
+    long maxLatency(List<UUID> rootIds) {
+      long max = 0;
+      for (UUID rootId : rootIds) {
+        max = Math.max(max, finished.get(rootId) - submitted.get(rootId) - DURATION);
+      }
+      return max;
+    }
+
+    long completedAfter(UUID rootId, long after) {
+      return completions.stream().filter(completion -> (Long) completion[0] > after && completion[1].equals(rootId)).count();
+    }
+
+    private static Dispatcher adapt(Object dispatcher) {
+      if (dispatcher instanceof Dispatcher) {
+        return (Dispatcher) dispatcher;
+      }
+      FairShareDispatcher fairShare = (FairShareDispatcher) dispatcher;
+      return new Dispatcher() {
+        @Override
+        public void submit(Job job) {
+          fairShare.submit(job);
+        }
+
+        @Override
+        public void release(Job job) {
+          fairShare.release(job);
+        }
+      };
+    }
+  }
+
+  /**
+   * Baseline: one queue in submission order with the same global limit
+   */
+  private static class FifoDispatcher implements Dispatcher {
+    private final int slots;
+    private final Consumer<Job> sink;
+    private final Deque<Job> queue = new ArrayDeque<>();
+    private int running;
+
+    FifoDispatcher(int slots, Consumer<Job> sink) {
+      this.slots = slots;
+      this.sink = sink;
+    }
+
+    @Override
+    public void submit(Job job) {
+      queue.add(job);
+      drain();
+    }
+
+    @Override
+    public void release(Job job) {
+      running--;
+      drain();
+    }
+
+    private void drain() {
+      while (running < slots && !queue.isEmpty()) {
+        running++;
+        sink.accept(queue.poll());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,169 @@
+package org.rabix.engine.service.impl;
+
+import static org.rabix.engine.test.Stubs.stub;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.MapConfiguration;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.engine.metrics.impl.MetricsHelperImpl;
+import org.rabix.engine.service.IntermediaryFilesService;
+import org.rabix.engine.store.memory.impl.InMemoryContextRecordRepository;
+import org.rabix.engine.store.memory.impl.InMemoryDAGRepository;
+import org.rabix.engine.store.memory.impl.InMemoryEventRepository;
+import org.rabix.engine.store.memory.impl.InMemoryJobRecordRepository;
+import org.rabix.engine.store.memory.impl.InMemoryJobRepository;
+import org.rabix.engine.store.memory.impl.InMemoryJobStatsRecordRepository;
+import org.rabix.engine.store.memory.impl.InMemoryLinkRecordRepository;
+import org.rabix.engine.store.memory.impl.InMemoryVariableRecordRepository;
+import org.rabix.engine.store.model.ContextRecord;
+import org.rabix.engine.store.model.ContextRecord.ContextStatus;
+import org.rabix.engine.store.model.EventRecord;
+import org.rabix.engine.store.model.JobRecord;
+import org.rabix.engine.store.model.JobRecord.JobState;
+import org.rabix.engine.store.model.LinkRecord;
+import org.rabix.engine.store.model.VariableRecord;
+import org.rabix.engine.store.repository.TransactionHelper;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+@Test(groups = { "functional" })
+public class GarbageCollectionServiceImplTest {
+
+  private final UUID rootId = UUID.randomUUID();
+
+  private InMemoryJobRepository jobRepository;
+  private InMemoryJobRecordRepository jobRecordRepository;
+  private InMemoryEventRepository eventRepository;
+  private InMemoryVariableRecordRepository variableRecordRepository;
+  private InMemoryContextRecordRepository contextRecordRepository;
+  private AtomicInteger linkLookups;
+
+  private GarbageCollectionServiceImpl garbageCollectionService;
+
+  @BeforeMethod
+  public void setUp() {
+    jobRepository = new InMemoryJobRepository();
+    jobRecordRepository = new InMemoryJobRecordRepository();
+    eventRepository = new InMemoryEventRepository();
+    variableRecordRepository = new InMemoryVariableRecordRepository();
+    contextRecordRepository = new InMemoryContextRecordRepository();
+    linkLookups = new AtomicInteger();
+    InMemoryLinkRecordRepository linkRecordRepository = new InMemoryLinkRecordRepository() {
+      @Override
+      public List<LinkRecord> getBySource(String sourceJobId, UUID rootId) {
+        linkLookups.incrementAndGet();
+        return super.getBySource(sourceJobId, rootId);
+      }
+    };
+
+    garbageCollectionService = new GarbageCollectionServiceImpl(jobRepository, jobRecordRepository, new InMemoryJobStatsRecordRepository(),
+        eventRepository, variableRecordRepository, linkRecordRepository, new InMemoryDAGRepository(), contextRecordRepository,
+        stub(IntermediaryFilesService.class), new TransactionHelper() {}, new MetricsHelperImpl(new MetricRegistry()),
+        new MapConfiguration(Collections.singletonMap("gc.threads.number", 1)));
+
+    contextRecordRepository.insert(new ContextRecord(rootId, null, ContextStatus.RUNNING));
+    record("root", rootId, null, JobState.RUNNING, true);
+    // a completed step which a running step still needs
+    UUID producer = record("producer", null, rootId, JobState.COMPLETED, false);
+    UUID consumer = record("consumer", null, rootId, JobState.RUNNING, false);
+    linkRecordRepository.insert(new LinkRecord(rootId, "producer", "out", LinkPortType.OUTPUT, "consumer", "in", LinkPortType.INPUT, 1));
+    // a completed container nobody needs anymore
+    UUID container = record("container", null, rootId, JobState.COMPLETED, true);
+    UUID first = record("container.first", null, container, JobState.COMPLETED, false);
+    UUID second = record("container.second", null, container, JobState.COMPLETED, false);
+    linkRecordRepository.insert(new LinkRecord(rootId, "container.first", "out", LinkPortType.OUTPUT, "container.second", "in", LinkPortType.INPUT, 1));
+
+    for (UUID id : new UUID[] { producer, consumer, container, first, second }) {
+      jobRepository.insert(new Job(id, null, rootId, "job", null, JobStatus.COMPLETED, null, Collections.emptyMap(), null, null, null, null), id, null);
+      eventRepository.insert(new EventRecord(rootId, id, EventRecord.Status.PROCESSED, Collections.emptyMap()));
+    }
+    for (String id : new String[] { "producer", "container", "container.first" }) {
+      variableRecordRepository.insert(new VariableRecord(rootId, id, "out", LinkPortType.OUTPUT, "value", null));
+    }
+  }
+
+  @Test
+  public void testBlockedRecordsAndCollectedContainers() {
+    garbageCollectionService.doGc(rootId);
+
+    Assert.assertNotNull(jobRecordRepository.get("producer", rootId));
+    Assert.assertNotNull(jobRecordRepository.get("consumer", rootId));
+    for (String id : new String[] { "container", "container.first", "container.second" }) {
+      Assert.assertNull(jobRecordRepository.get(id, rootId), id);
+      Assert.assertTrue(variableRecordRepository.getVariableRecordsWithId(rootId, id).isEmpty(), id);
+    }
+    Assert.assertEquals(jobRepository.getByRootId(rootId).size(), 2);
+    Assert.assertEquals(eventRepository.getPendingEvents().size(), 2);
+    Assert.assertEquals(variableRecordRepository.getVariableRecordsWithId(rootId, "producer").size(), 1);
+
+    // the producer waits for the consumer, it isn't examined again before the consumer finishes
+    int lookups = linkLookups.get();
+    garbageCollectionService.doGc(rootId);
+    Assert.assertEquals(linkLookups.get(), lookups);
+    Assert.assertNotNull(jobRecordRepository.get("producer", rootId));
+
+    JobRecord consumer = jobRecordRepository.get("consumer", rootId);
+    consumer.setState(JobState.COMPLETED);
+    jobRecordRepository.update(consumer);
+    garbageCollectionService.doGc(rootId);
+    Assert.assertNull(jobRecordRepository.get("producer", rootId));
+    Assert.assertNull(jobRecordRepository.get("consumer", rootId));
+    Assert.assertNotNull(jobRecordRepository.getRoot(rootId));
+    Assert.assertTrue(jobRepository.getByRootId(rootId).isEmpty());
+    Assert.assertTrue(eventRepository.getPendingEvents().isEmpty());
+  }
+
+  @Test
+  public void testScatteredJobsAreCollectedWithTheirWrapper() {
+    UUID wrapper = UUID.randomUUID();
+    UUID running = UUID.randomUUID();
+    for (JobRecord record : new JobRecord[] { new JobRecord(rootId, "scatter", wrapper, rootId, JobState.COMPLETED, false, false, false, false, null),
+        new JobRecord(rootId, "running", running, rootId, JobState.RUNNING, false, false, false, false, null) }) {
+      record.setScatterWrapper(true);
+      jobRecordRepository.insert(record);
+    }
+    for (int position = 1; position <= 2; position++) {
+      jobRecordRepository.insert(new JobRecord(rootId, "scatter." + position, UUID.randomUUID(), wrapper, JobState.COMPLETED, false, true, false, false, null));
+      // scattered jobs aren't examined themselves, the ones of a running wrapper stay
+      jobRecordRepository.insert(new JobRecord(rootId, "running." + position, UUID.randomUUID(), running, JobState.COMPLETED, false, true, false, false, null));
+    }
+
+    garbageCollectionService.doGc(rootId);
+    Assert.assertNull(jobRecordRepository.get("scatter", rootId));
+    Assert.assertNull(jobRecordRepository.get("scatter.1", rootId));
+    Assert.assertNull(jobRecordRepository.get("scatter.2", rootId));
+    Assert.assertNotNull(jobRecordRepository.get("running.1", rootId));
+    Assert.assertNotNull(jobRecordRepository.get("running.2", rootId));
+  }
+
+  @Test
+  public void testFinishedRootIsCollected() {
+    JobRecord root = jobRecordRepository.getRoot(rootId);
+    root.setState(JobState.COMPLETED);
+    jobRecordRepository.update(root);
+
+    garbageCollectionService.doGc(rootId);
+    Assert.assertNull(jobRecordRepository.getRoot(rootId));
+    Assert.assertTrue(jobRecordRepository.get(rootId).isEmpty());
+    Assert.assertTrue(jobRepository.get().isEmpty());
+    Assert.assertTrue(eventRepository.getPendingEvents().isEmpty());
+    Assert.assertTrue(variableRecordRepository.find(rootId).isEmpty());
+    Assert.assertNull(contextRecordRepository.get(rootId));
+  }
+
+  private UUID record(String id, UUID externalId, UUID parentId, JobState state, boolean container) {
+    UUID uniqueId = externalId != null ? externalId : UUID.randomUUID();
+    jobRecordRepository.insert(new JobRecord(rootId, id, uniqueId, parentId, state, container, false, false, false, null));
+    return uniqueId;
+  }
+
+}
@@ -0,0 +1,123 @@
+package org.rabix.engine.service.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.rabix.bindings.helper.URIHelper;
+import org.rabix.bindings.model.FileValue;
+import org.rabix.bindings.model.Job;
+import org.rabix.bindings.model.Job.JobStatus;
+import org.rabix.engine.store.memory.impl.InMemoryIntermediaryFilesRepository;
+import org.rabix.engine.store.repository.IntermediaryFilesRepository.IntermediaryFileEntity;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class IntermediaryFilesServiceImplTest {
+
+  private UUID rootId;
+  private Job root;
+  private InMemoryIntermediaryFilesRepository repository;
+  private Set<String> handled;
+  private IntermediaryFilesServiceImpl service;
+
+  @BeforeMethod
+  public void setUp() {
+    rootId = UUID.randomUUID();
+    root = new Job(rootId, null, rootId, "root", URIHelper.createDataURI("{}"), JobStatus.RUNNING, null, Collections.emptyMap(), null, null, null, null);
+    repository = new InMemoryIntermediaryFilesRepository();
+    handled = new HashSet<>();
+    service = new IntermediaryFilesServiceImpl((job, unusedFiles) -> handled.addAll(unusedFiles), repository, new BaseConfiguration());
+  }
+
+  @Test
+  public void testRollbackRestoresCounts() {
+    service.incrementInputFilesReferences(rootId, file("a"));
+    service.incrementInputFilesReferences(rootId, file("a"));
+    service.flush(rootId);
+    service.commit(rootId);
+    Assert.assertEquals(counts(), Collections.singletonMap("a", 2));
+
+    // a failed transaction releases a and references b
+    service.decrementInputFilesReferences(rootId, inputs(file("a")));
+    service.decrementInputFilesReferences(rootId, inputs(file("a")));
+    service.incrementInputFilesReferences(rootId, file("b"));
+    service.rollback(rootId);
+
+    service.handleUnusedFilesIfAny(root);
+    Assert.assertTrue(handled.isEmpty());
+    service.flush(rootId);
+    Assert.assertEquals(counts(), Collections.singletonMap("a", 2));
+
+    // the same changes committed
+    service.decrementInputFilesReferences(rootId, inputs(file("a")));
+    service.decrementInputFilesReferences(rootId, inputs(file("a")));
+    service.flush(rootId);
+    service.commit(rootId);
+    service.handleUnusedFilesIfAny(root);
+    Assert.assertEquals(handled, Collections.singleton("a"));
+    Assert.assertTrue(counts().isEmpty());
+  }
+
+  @Test
+  public void testRolledBackCollectionIsRepeated() {
+    service.registerOutputFiles(rootId, file("a"));
+    service.flush(rootId);
+    service.commit(rootId);
+
+    // the collecting transaction fails after the unused file was drained
+    service.handleUnusedFilesIfAny(root);
+    Assert.assertEquals(handled, Collections.singleton("a"));
+    service.rollback(rootId);
+
+    handled.clear();
+    service.handleUnusedFilesIfAny(root);
+    Assert.assertEquals(handled, Collections.singleton("a"));
+    service.commit(rootId);
+  }
+
+  @Test
+  public void testRollbackKeepsChangesOfOtherThreads() throws InterruptedException {
+    service.incrementInputFilesReferences(rootId, file("a"));
+    service.flush(rootId);
+    service.commit(rootId);
+
+    Thread other = new Thread(() -> {
+      service.incrementInputFilesReferences(rootId, file("a"));
+      service.incrementInputFilesReferences(rootId, file("b"));
+    });
+    other.start();
+    other.join();
+
+    service.incrementInputFilesReferences(rootId, file("b"));
+    service.rollback(rootId);
+    service.flush(rootId);
+    Map<String, Integer> expected = new HashMap<>();
+    expected.put("a", 2);
+    expected.put("b", 1);
+    Assert.assertEquals(counts(), expected);
+  }
+
+  private Map<String, Integer> counts() {
+    Map<String, Integer> counts = new HashMap<>();
+    for (IntermediaryFileEntity entity : repository.get(rootId)) {
+      counts.put(entity.getFilename(), entity.getCount());
+    }
+    return counts;
+  }
+
+  private FileValue file(String path) {
+    return new FileValue(null, path, null, null, null, null, null);
+  }
+
+  private Map<String, Object> inputs(FileValue file) {
+    return Collections.singletonMap("input", file);
+  }
+
+}
@@ -0,0 +1,99 @@
+package org.rabix.engine.service.impl;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import org.apache.commons.configuration.MapConfiguration;
+import org.rabix.engine.store.memory.impl.InMemoryJobStatsRecordRepository;
+import org.rabix.engine.store.model.JobStatsRecord;
+import org.rabix.engine.store.repository.JobStatsRecordRepository;
+import org.rabix.engine.store.repository.TransactionHelper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class JobStatsRecordServiceImplTest {
+
+  @Test
+  public void testStopFlushesPendingCounters() {
+    JobStatsRecordRepository repository = new InMemoryJobStatsRecordRepository();
+    // the periodic flush doesn't get a chance to run
+    JobStatsRecordServiceImpl service = new JobStatsRecordServiceImpl(repository, new TransactionHelper() {},
+        new MapConfiguration(Collections.singletonMap("engine.job_stats.flush_interval_ms", 60000)));
+    Assert.assertFalse(isFlushThreadAlive());
+
+    service.start();
+    Assert.assertTrue(isFlushThreadAlive());
+
+    UUID rootId = UUID.randomUUID();
+    service.setTotal(rootId, 3);
+    service.increaseRunning(rootId);
+    service.increaseCompleted(rootId);
+    service.commit();
+    Assert.assertNull(repository.get(rootId));
+
+    service.stop();
+    Assert.assertFalse(isFlushThreadAlive());
+    JobStatsRecord stored = repository.get(rootId);
+    Assert.assertEquals(stored.getTotal(), 3);
+    Assert.assertEquals(stored.getRunning(), 1);
+    Assert.assertEquals(stored.getCompleted(), 1);
+  }
+
+  @Test
+  public void testRolledBackChangesAreDiscarded() {
+    JobStatsRecordRepository repository = new InMemoryJobStatsRecordRepository();
+    JobStatsRecordServiceImpl service = service(repository);
+    UUID rootId = UUID.randomUUID();
+    service.setTotal(rootId, 3);
+    service.increaseRunning(rootId);
+    service.commit();
+
+    service.increaseRunning(rootId);
+    service.increaseCompleted(rootId);
+    Assert.assertEquals(service.find(rootId).getCompleted(), 1);
+    service.rollback();
+
+    service.flush();
+    JobStatsRecord stored = repository.get(rootId);
+    Assert.assertEquals(stored.getRunning(), 1);
+    Assert.assertEquals(stored.getCompleted(), 0);
+  }
+
+  @Test
+  public void testFinalFlushIsKeptUntilCommit() {
+    JobStatsRecordRepository repository = new InMemoryJobStatsRecordRepository();
+    JobStatsRecordServiceImpl service = service(repository);
+    UUID rootId = UUID.randomUUID();
+    service.setTotal(rootId, 1);
+    service.increaseRunning(rootId);
+    service.commit();
+
+    // the root's last transaction fails after the final flush, the repository doesn't keep the write
+    service.increaseCompleted(rootId);
+    service.flush(rootId);
+    repository.delete(rootId);
+    service.rollback();
+    service.flush();
+    Assert.assertEquals(repository.get(rootId).getCompleted(), 0);
+
+    service.increaseCompleted(rootId);
+    service.flush(rootId);
+    service.commit();
+    Assert.assertEquals(repository.get(rootId).getCompleted(), 1);
+    repository.delete(rootId);
+    // the root isn't tracked anymore, so nothing is written again
+    service.flush();
+    Assert.assertNull(repository.get(rootId));
+  }
+
+  private JobStatsRecordServiceImpl service(JobStatsRecordRepository repository) {
+    return new JobStatsRecordServiceImpl(repository, new TransactionHelper() {},
+        new MapConfiguration(Collections.singletonMap("engine.job_stats.flush_interval_ms", 0)));
+  }
+
+  private boolean isFlushThreadAlive() {
+    return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals("JobStatsFlushThread") && thread.isAlive());
+  }
+
+}
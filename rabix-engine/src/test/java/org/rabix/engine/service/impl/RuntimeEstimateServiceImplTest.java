@@ -0,0 +1,88 @@
+package org.rabix.engine.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.rabix.bindings.model.dag.DAGContainer;
+import org.rabix.bindings.model.dag.DAGLink;
+import org.rabix.bindings.model.dag.DAGLinkPort;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.bindings.model.dag.DAGNode;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class RuntimeEstimateServiceImplTest {
+
+  private static final long DEFAULT_RUNTIME = 1000;
+
+  @Test
+  public void testEstimates() throws InterruptedException {
+    RuntimeEstimateServiceImpl service = service();
+    Assert.assertEquals(service.estimate("app"), DEFAULT_RUNTIME);
+    Assert.assertEquals(service.estimate(null), DEFAULT_RUNTIME);
+
+    UUID jobId = UUID.randomUUID();
+    service.started(jobId);
+    Thread.sleep(20);
+    service.completed(jobId, "app");
+    long first = service.estimate("app");
+    Assert.assertTrue(first >= 20 && first < DEFAULT_RUNTIME, "estimate " + first);
+
+    // a completion which wasn't seen starting, or was reported twice, isn't measured
+    service.completed(jobId, "app");
+    service.completed(UUID.randomUUID(), "app");
+    Assert.assertEquals(service.estimate("app"), first);
+
+    UUID failedId = UUID.randomUUID();
+    service.started(failedId);
+    service.failed(failedId);
+    service.completed(failedId, "app");
+    Assert.assertEquals(service.estimate("app"), first);
+
+    // the latest run moves the estimate only part of the way
+    UUID quickId = UUID.randomUUID();
+    service.started(quickId);
+    service.completed(quickId, "app");
+    long second = service.estimate("app");
+    Assert.assertTrue(second < first && second > first / 2, "estimate " + second + " after " + first);
+  }
+
+  @Test
+  public void testPrioritize() throws InterruptedException {
+    RuntimeEstimateServiceImpl service = service();
+    UUID jobId = UUID.randomUUID();
+    service.started(jobId);
+    service.completed(jobId, "quick");
+
+    DAGNode quick = node("quick");
+    DAGNode slow = node("slow");
+    List<DAGLink> links = new ArrayList<>();
+    links.add(new DAGLink(new DAGLinkPort("out", "quick", LinkPortType.OUTPUT, null, false, null, null), new DAGLinkPort("in", "slow", LinkPortType.INPUT, null, false, null, null), null, 1));
+    List<DAGNode> children = new ArrayList<>();
+    children.add(quick);
+    children.add(slow);
+    DAGContainer root = new DAGContainer("root", new ArrayList<>(), new ArrayList<>(), null, null, links, children, null, null);
+
+    service.prioritize(root);
+    long quickEstimate = service.estimate("quick");
+    Assert.assertEquals(slow.getPriority().longValue(), DEFAULT_RUNTIME);
+    Assert.assertEquals(quick.getPriority().longValue(), DEFAULT_RUNTIME + quickEstimate);
+    Assert.assertEquals(root.getPriority().longValue(), DEFAULT_RUNTIME + quickEstimate);
+  }
+
+  private RuntimeEstimateServiceImpl service() {
+    BaseConfiguration configuration = new BaseConfiguration();
+    configuration.setProperty("engine.priority.default_runtime_ms", DEFAULT_RUNTIME);
+    return new RuntimeEstimateServiceImpl(configuration);
+  }
+
+  private DAGNode node(String id) {
+    DAGNode node = new DAGNode(id, new ArrayList<>(), new ArrayList<>(), null, null, null, null);
+    node.setAppHash(id);
+    return node;
+  }
+
+}
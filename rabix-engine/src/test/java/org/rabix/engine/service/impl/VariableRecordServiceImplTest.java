@@ -0,0 +1,41 @@
+package org.rabix.engine.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.rabix.bindings.model.LinkMerge;
+import org.rabix.bindings.model.dag.DAGLinkPort.LinkPortType;
+import org.rabix.engine.store.model.VariableRecord;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test(groups = { "functional" })
+public class VariableRecordServiceImplTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRestoreElements() {
+    VariableRecordServiceImpl variableRecordService = new VariableRecordServiceImpl(null);
+    VariableRecord variableRecord = new VariableRecord(UUID.randomUUID(), "root.step", "aligned", LinkPortType.OUTPUT, null, LinkMerge.merge_nested);
+    variableRecordService.addValue(variableRecord, "first", 1, true);
+    Assert.assertNull(variableRecord.drainElements());
+
+    List<Object> stored = new ArrayList<>(Arrays.asList("first", null));
+    int[] loads = new int[1];
+    variableRecord.restoreElements(() -> {
+      loads[0]++;
+      return new ArrayList<>(stored);
+    });
+    variableRecordService.addValue(variableRecord, "third", 3, true);
+    variableRecordService.addValue(variableRecord, "second", 2, true);
+    Assert.assertEquals(loads[0], 0);
+
+    Assert.assertEquals((List<Object>) variableRecordService.getValue(variableRecord), Arrays.asList("first", "second", "third"));
+    Assert.assertEquals(loads[0], 1);
+    Assert.assertEquals(new ArrayList<>(variableRecord.drainElements().keySet()), Arrays.asList(3, 2));
+    Assert.assertTrue(variableRecord.drainElements().isEmpty());
+  }
+
+}
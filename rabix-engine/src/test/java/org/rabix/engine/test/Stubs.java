@@ -0,0 +1,72 @@
+package org.rabix.engine.test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interface stubs for tests, methods which aren't implemented return empty values
+ */
+public class Stubs {
+
+  private Stubs() {
+  }
+
+  public static <T> T stub(Class<T> type) {
+    return stub(type, (proxy, method, args) -> empty(method));
+  }
+
+  /**
+   * Calls the handler, which returns {@link #EMPTY} for methods it doesn't implement
+   */
+  public static <T> T stub(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+      if (method.getDeclaringClass() == Object.class) {
+        return objectMethod(proxy, method, args);
+      }
+      Object result = handler.invoke(proxy, method, args);
+      return result == EMPTY ? empty(method) : result;
+    }));
+  }
+
+  public static final Object EMPTY = new Object();
+
+  private static Object empty(Method method) {
+    Class<?> returnType = method.getReturnType();
+    if (returnType == boolean.class) {
+      return false;
+    }
+    if (returnType == int.class) {
+      return 0;
+    }
+    if (returnType == long.class) {
+      return 0L;
+    }
+    if (returnType == List.class) {
+      return Collections.emptyList();
+    }
+    if (returnType == Set.class) {
+      return Collections.emptySet();
+    }
+    if (returnType == Map.class) {
+      return Collections.emptyMap();
+    }
+    return null;
+  }
+
+  private static Object objectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+    case "equals":
+      return proxy == args[0];
+    case "hashCode":
+      return System.identityHashCode(proxy);
+    default:
+      return "stub";
+    }
+  }
+
+}
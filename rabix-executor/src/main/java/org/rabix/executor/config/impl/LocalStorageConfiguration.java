@@ -8,6 +8,8 @@ import org.apache.commons.configuration.Configuration;
 
 public class LocalStorageConfiguration extends DefaultStorageConfiguration {
 
+  public static final String ROOT_DIR_NAME = "backend.execution.directory.name";
+
   private String rootDir;
 
   public LocalStorageConfiguration(Configuration configuration, String rootDir) {
@@ -20,11 +22,16 @@ public class LocalStorageConfiguration extends DefaultStorageConfiguration {
   }
 
   /**
-   * Returns root dir name, ignores rootId param
+   * Returns root dir name, ignores rootId param. A root started with its own directory name in the config gets that
+   * directory, so several roots of one run don't share it.
    */
   @Override
   public File getRootDir(UUID rootId, Map<String, Object> config) {
-    File contextDir = new File(getPhysicalExecutionBaseDir(), rootDir);
+    String name = rootDir;
+    if (config != null && config.get(ROOT_DIR_NAME) != null) {
+      name = config.get(ROOT_DIR_NAME).toString();
+    }
+    File contextDir = new File(getPhysicalExecutionBaseDir(), name);
     if (!contextDir.exists()) {
       contextDir.mkdirs();
     }
@@ -72,6 +72,14 @@ public class JobHandlerCommandDispatcher {
     }
   }
 
+  /**
+   * Stops the cleaner, running job handlers finish on their own
+   */
+  public void stop() {
+    jobHandlerThreadCleanExecutor.shutdownNow();
+    jobHandlerThreadExecutor.shutdown();
+  }
+
   private Map<UUID, JobHandlerRunnable> getJobs(UUID rootId) {
     synchronized (jobHandlerRunnables) {
       Map<UUID, JobHandlerRunnable> jobList = jobHandlerRunnables.get(rootId);
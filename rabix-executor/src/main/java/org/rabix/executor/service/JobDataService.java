@@ -19,4 +19,6 @@ public interface JobDataService {
 
   public List<JobData> find(JobDataStatus... statuses);
 
+  void stop();
+
 }
@@ -2,6 +2,7 @@ package org.rabix.executor.service.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +33,13 @@ public class JobDataServiceImpl implements JobDataService {
 
   private final static Logger logger = LoggerFactory.getLogger(JobDataServiceImpl.class);
 
+  /**
+   * Jobs on the longest remaining path of their workflow are started first
+   */
+  private final static Comparator<JobData> PRIORITY_ORDER = Comparator
+      .comparing((JobData jobData) -> jobData.getJob().getPriority() != null ? jobData.getJob().getPriority() : 0L)
+      .reversed();
+
   private final Map<UUID, Map<UUID, JobData>> jobDataMap = new HashMap<>();
 
   private Provider<StopCommand> stopCommandProvider;
@@ -62,6 +70,12 @@ public class JobDataServiceImpl implements JobDataService {
     this.engineStub = engineStub;
     this.starter.scheduleAtFixedRate(new JobStatusHandler(), 0, 100, TimeUnit.MILLISECONDS);
   }
+
+  @Override
+  public void stop() {
+    starter.shutdown();
+    jobHandlerCommandDispatcher.stop();
+  }
   
   @Override
   public JobData find(UUID id, UUID contextId) {
@@ -129,6 +143,7 @@ public class JobDataServiceImpl implements JobDataService {
         }
 
         List<JobData> pending = find(JobDataStatus.PENDING);
+        pending.sort(PRIORITY_ORDER);
 
         JobData jobData = null;
         for (int i = 0; i < pending.size(); i++) {
@@ -161,6 +161,14 @@ public class WorkerServiceImpl implements WorkerService {
     }
   }
 
+  @Override
+  public void stop() {
+    if (engineStub != null) {
+      engineStub.stop();
+    }
+    jobDataService.stop();
+  }
+
   @Override
   public boolean isStopped() {
     return stopped.get();
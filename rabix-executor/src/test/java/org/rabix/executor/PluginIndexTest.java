@@ -0,0 +1,44 @@
+package org.rabix.executor;
+
+import java.util.Set;
+
+import org.rabix.backend.api.BackendModule;
+import org.rabix.backend.api.WorkerService;
+import org.rabix.common.jvm.PluginIndex;
+import org.rabix.executor.service.impl.MockWorkerServiceImpl;
+import org.rabix.executor.service.impl.WorkerServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * The packaged index has to list the same backend modules and worker services classpath scanning finds. The index is
+ * read first, so the scan doesn't warm up class loading for it.
+ */
+@Test(groups = { "functional" })
+public class PluginIndexTest {
+
+  private final static Logger logger = LoggerFactory.getLogger(PluginIndexTest.class);
+
+  @Test
+  public void testIndexMatchesScan() {
+    long start = System.nanoTime();
+    Set<Class<BackendModule>> indexedModules = PluginIndex.index(BackendModule.class);
+    Set<Class<WorkerService>> indexedWorkers = PluginIndex.index(WorkerService.class);
+    long indexed = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    Set<Class<BackendModule>> scannedModules = PluginIndex.scan(BackendModule.class);
+    Set<Class<WorkerService>> scannedWorkers = PluginIndex.scan(WorkerService.class);
+    long scanned = System.nanoTime() - start;
+    logger.info("Plugins found with the index in {} ms, with classpath scan in {} ms", indexed / 1000000, scanned / 1000000);
+
+    Assert.assertTrue(indexedModules.contains(ExecutorModule.class));
+    Assert.assertTrue(indexedWorkers.contains(WorkerServiceImpl.class));
+    Assert.assertTrue(indexedWorkers.contains(MockWorkerServiceImpl.class));
+    Assert.assertEquals(indexedModules, scannedModules);
+    Assert.assertEquals(indexedWorkers, scannedWorkers);
+  }
+
+}
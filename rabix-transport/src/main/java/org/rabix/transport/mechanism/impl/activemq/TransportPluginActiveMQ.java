@@ -49,7 +49,7 @@ public class TransportPluginActiveMQ implements TransportPlugin<TransportQueueAc
       MessageProducer producer = session.createProducer(destination);
       producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
 
-      String payload = BeanSerializer.serializeFull(entity);
+      String payload = BeanSerializer.serializeCompact(entity);
       TextMessage message = session.createTextMessage(payload);
       producer.send(message);
       return ResultPair.<T> success();
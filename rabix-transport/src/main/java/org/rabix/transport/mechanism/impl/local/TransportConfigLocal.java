@@ -0,0 +1,18 @@
+package org.rabix.transport.mechanism.impl.local;
+
+import org.apache.commons.configuration.Configuration;
+
+public class TransportConfigLocal {
+
+  public static int getQueueCapacity(Configuration configuration) {
+    return configuration.getInt("local.queue.capacity", 10000);
+  }
+
+  public static boolean rejectWhenFull(Configuration configuration) {
+    return "reject".equalsIgnoreCase(configuration.getString("local.queue.backpressure", "block"));
+  }
+
+  public static int getReceiverThreads(Configuration configuration) {
+    return configuration.getInt("local.receiver.threads", 1);
+  }
+}
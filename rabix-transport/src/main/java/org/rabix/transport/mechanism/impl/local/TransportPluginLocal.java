@@ -2,7 +2,7 @@ package org.rabix.transport.mechanism.impl.local;
 
 import org.apache.commons.configuration.Configuration;
 import org.rabix.common.VMQueues;
-import org.rabix.common.json.BeanSerializer;
+import org.rabix.common.engine.control.EngineControlMessage;
 import org.rabix.common.json.processor.BeanProcessorException;
 import org.rabix.transport.mechanism.TransportPlugin;
 import org.rabix.transport.mechanism.TransportPluginException;
@@ -10,26 +10,64 @@ import org.rabix.transport.mechanism.TransportPluginType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * In-JVM transport. Messages are handed over by reference through bounded {@link VMQueues}. When a queue is full,
+ * senders either wait or get a failed result, depending on {@code local.queue.backpressure}.
+ * <p>
+ * With {@code local.receiver.threads} greater than one, a receiver spreads messages over that many consumer threads.
+ * Messages with the same partition key (the root id for jobs and control messages) always go to the same thread, so
+ * they are handled in the order they were sent.
+ */
 public class TransportPluginLocal implements TransportPlugin<TransportQueueLocal> {
 
   private static final Logger logger = LoggerFactory.getLogger(TransportPluginLocal.class);
 
   private ConcurrentMap<TransportQueueLocal, Receiver<?>> receivers = new ConcurrentHashMap<>();
 
+  private ConcurrentMap<Class<?>, Function<Object, ?>> partitionKeys = new ConcurrentHashMap<>();
+
   private ExecutorService receiverThreadPool = Executors.newCachedThreadPool();
 
+  private final int capacity;
+  private final boolean rejectWhenFull;
+  private final int receiverThreads;
+
   public TransportPluginLocal(Configuration configuration) throws TransportPluginException {
+    this.capacity = TransportConfigLocal.getQueueCapacity(configuration);
+    this.rejectWhenFull = TransportConfigLocal.rejectWhenFull(configuration);
+    this.receiverThreads = TransportConfigLocal.getReceiverThreads(configuration);
+    partitionBy(EngineControlMessage.class, EngineControlMessage::getRootId);
+  }
+
+  /**
+   * Registers the key which keeps messages of the given type in order when the receiver uses more than one thread.
+   * Must be called before {@link #startReceiver}.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void partitionBy(Class<T> clazz, Function<T, ?> partitionKey) {
+    partitionKeys.put(clazz, (Function<Object, ?>) partitionKey);
   }
 
   @Override
   public <T> ResultPair<T> send(TransportQueueLocal queue, T entity) {
     try {
-      VMQueues.getQueue(queue.getQueue()).put(entity);
+      BlockingQueue<T> vmQueue = VMQueues.getQueue(queue.getQueue(), capacity);
+      if (!rejectWhenFull) {
+        vmQueue.put(entity);
+      } else if (!vmQueue.offer(entity)) {
+        return ResultPair.<T>fail("Queue " + queue.getQueue() + " is full", null);
+      }
       return ResultPair.<T> success();
     } catch (InterruptedException e) {
       logger.error("Failed to send a message to " + queue, e);
@@ -46,7 +84,7 @@ public class TransportPluginLocal implements TransportPlugin<TransportQueueLocal
   public <T> void startReceiver(TransportQueueLocal sourceQueue, Class<T> clazz, ReceiveCallback<T> receiveCallback, ErrorCallback errorCallback) {
     final Receiver<T> receiver = new Receiver<>(clazz, receiveCallback, errorCallback, sourceQueue);
     receivers.put(sourceQueue, receiver);
-    receiverThreadPool.submit(new Runnable() {
+    receiver.submit(new Runnable() {
       @Override
       public void run() {
         receiver.start();
@@ -72,22 +110,54 @@ public class TransportPluginLocal implements TransportPlugin<TransportQueueLocal
     private TransportQueueLocal queue;
 
     private volatile boolean isStopped = false;
+    private final List<Future<?>> threads = new ArrayList<>();
 
     public Receiver(Class<T> clazz, ReceiveCallback<T> callback, ErrorCallback errorCallback, TransportQueueLocal queue) {
       this.clazz = clazz;
       this.callback = callback;
+      this.errorCallback = errorCallback;
       this.queue = queue;
     }
 
     void start() {
+      BlockingQueue<T> source = VMQueues.getQueue(queue.getQueue(), capacity);
+      if (receiverThreads <= 1) {
+        consume(source);
+        return;
+      }
+      Function<Object, ?> partitionKey = partitionKeys.get(clazz);
+      List<BlockingQueue<T>> partitions = new ArrayList<>();
+      for (int i = 0; i < receiverThreads; i++) {
+        BlockingQueue<T> partition = new LinkedBlockingQueue<>(capacity);
+        partitions.add(partition);
+        submit(() -> consume(partition));
+      }
+      try {
+        while (!isStopped) {
+          T payload = source.take();
+          Object key = partitionKey != null ? partitionKey.apply(payload) : null;
+          int index = key != null ? (key.hashCode() & Integer.MAX_VALUE) % receiverThreads : 0;
+          partitions.get(index).put(payload);
+        }
+      } catch (InterruptedException e) {
+        if (!isStopped) {
+          logger.error("Failed to receive a message from " + queue, e);
+          errorCallback.handleError(e);
+        }
+      }
+    }
+
+    private void consume(BlockingQueue<T> source) {
       try {
         while (!isStopped) {
-          T payload = VMQueues.<T> getQueue(queue.getQueue()).take();
+          T payload = source.take();
           callback.handleReceive(payload, () -> {});
         }
       } catch (InterruptedException e) {
-        logger.error("Failed to receive a message from " + queue, e);
-        errorCallback.handleError(e);
+        if (!isStopped) {
+          logger.error("Failed to receive a message from " + queue, e);
+          errorCallback.handleError(e);
+        }
       } catch (BeanProcessorException e) {
         logger.error("Failed to deserialize message payload", e);
         errorCallback.handleError(e);
@@ -97,8 +167,20 @@ public class TransportPluginLocal implements TransportPlugin<TransportQueueLocal
       }
     }
 
-    void stop() {
+    synchronized void submit(Runnable runnable) {
+      if (!isStopped) {
+        threads.add(receiverThreadPool.submit(runnable));
+      }
+    }
+
+    /**
+     * Threads waiting for messages are interrupted, a message being handled is finished first
+     */
+    synchronized void stop() {
       isStopped = true;
+      for (Future<?> thread : threads) {
+        thread.cancel(true);
+      }
     }
 
   }
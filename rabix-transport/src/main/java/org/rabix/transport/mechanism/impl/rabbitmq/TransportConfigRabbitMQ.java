@@ -75,4 +75,12 @@ public class TransportConfigRabbitMQ {
   public static int consumersThreadPoolSize(Configuration configuration) {
     return configuration.getInt("rabbitmq.consumers.thread.pool.size", Runtime.getRuntime().availableProcessors() * 2);
   }
+
+  public static boolean publisherConfirms(Configuration configuration) {
+    return configuration.getBoolean("rabbitmq.publisher.confirms", true);
+  }
+
+  public static int publisherWindow(Configuration configuration) {
+    return configuration.getInt("rabbitmq.publisher.window", 1024);
+  }
 }
@@ -33,6 +33,8 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
 
   private boolean durable;
 
+  private TransportPublisherRabbitMQ publisher;
+
   public TransportPluginRabbitMQ(Configuration configuration) throws TransportPluginException {
     this.configuration = configuration;
 
@@ -51,6 +53,9 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
         // Ignore
       }
     }
+    if (TransportConfigRabbitMQ.publisherConfirms(configuration)) {
+      publisher = new TransportPublisherRabbitMQ(this::createPublisherChannel, TransportConfigRabbitMQ.publisherWindow(configuration), RETRY_TIMEOUT * 1000);
+    }
   }
 
   public void initConnection() throws TransportPluginException {
@@ -101,6 +106,13 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
     return channel;
   }
 
+  private synchronized Channel createPublisherChannel() throws Exception {
+    if (!connection.isOpen()) {
+      initConnection();
+    }
+    return connection.createChannel();
+  }
+
   /**
    * {@link TransportPluginRabbitMQ} extension for Exchange initialization
    */
@@ -175,7 +187,18 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
 
   @Override
   public <T> ResultPair<T> send(TransportQueueRabbitMQ queue, T entity) {
-    String payload = BeanSerializer.serializeFull(entity);
+    String payload = BeanSerializer.serializeCompact(entity);
+    if (publisher != null) {
+      try {
+        publisher.publish(queue.getExchange(), queue.getRoutingKey(), payload.getBytes(DEFAULT_ENCODING));
+        return ResultPair.success();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return ResultPair.fail("Interrupted while sending a message to " + queue, e);
+      } catch (IOException e) {
+        return ResultPair.fail("Failed to send a message to " + queue, e);
+      }
+    }
     while (true) {
       try {
         getChannel().basicPublish(queue.getExchange(), queue.getRoutingKey(), MessageProperties.PERSISTENT_TEXT_PLAIN, payload.getBytes(DEFAULT_ENCODING));
@@ -202,6 +225,15 @@ public class TransportPluginRabbitMQ implements TransportPlugin<TransportQueueRa
     }
   }
 
+  /**
+   * Closes the publisher, waiting sends fail. Receivers are stopped with {@link #stopReceiver(TransportQueueRabbitMQ)}.
+   */
+  public void stop() {
+    if (publisher != null) {
+      publisher.close();
+    }
+  }
+
   @Override
   public TransportPluginType getType() {
     return TransportPluginType.RABBIT_MQ;
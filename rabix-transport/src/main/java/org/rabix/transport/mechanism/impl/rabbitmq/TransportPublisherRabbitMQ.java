@@ -0,0 +1,265 @@
+package org.rabix.transport.mechanism.impl.rabbitmq;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.MessageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Asynchronous publisher built on publisher confirms. At most {@code window} messages are unconfirmed at any time,
+ * the broker confirms them in batches and nacked messages are published again.
+ * <p>
+ * A message is handed to a channel before publishing returns, so while there is no channel publishing waits for the
+ * background reconnect. Messages which were not confirmed when a channel went down are published again on the next
+ * one, so receivers can see a message more than once and in a different order.
+ */
+public class TransportPublisherRabbitMQ {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransportPublisherRabbitMQ.class);
+
+  @FunctionalInterface
+  public interface ChannelFactory {
+    Channel create() throws Exception;
+  }
+
+  private final ChannelFactory channelFactory;
+  private final int windowSize;
+  private final Semaphore window;
+  private final long retryTimeoutMillis;
+
+  private final Deque<Message> resend = new ConcurrentLinkedDeque<>();
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+    Thread thread = new Thread(r, "TransportPublisherRabbitMQThread");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicBoolean reconnecting = new AtomicBoolean(false);
+
+  private final Object lock = new Object();
+  private volatile ChannelState current;
+  private volatile boolean closed;
+
+  public TransportPublisherRabbitMQ(ChannelFactory channelFactory, int window, long retryTimeoutMillis) {
+    this.channelFactory = channelFactory;
+    this.windowSize = window;
+    this.window = new Semaphore(window);
+    this.retryTimeoutMillis = retryTimeoutMillis;
+    scheduleReconnect(0);
+  }
+
+  /**
+   * Publishes a persistent message. Blocks while the window of unconfirmed messages is full and while there is no
+   * channel to publish to, fails once the publisher is closed.
+   */
+  public void publish(String exchange, String routingKey, byte[] body) throws InterruptedException, IOException {
+    window.acquire();
+    Message message = new Message(exchange, routingKey, body);
+    synchronized (lock) {
+      try {
+        awaitChannel();
+      } catch (InterruptedException | IOException e) {
+        window.release();
+        throw e;
+      }
+      // messages waiting to be published again go first
+      resend.add(message);
+      drainResend(current);
+      // the channel broke meanwhile, the message is published again on the next one
+      awaitChannel();
+    }
+  }
+
+  /**
+   * Waits until every published message is confirmed by the broker
+   */
+  public boolean awaitConfirms(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (unconfirmed() > 0) {
+      if (System.nanoTime() > deadline) {
+        return false;
+      }
+      Thread.sleep(1);
+    }
+    return true;
+  }
+
+  public int unconfirmed() {
+    return windowSize - window.availablePermits();
+  }
+
+  public void close() {
+    executor.shutdownNow();
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+      if (current != null) {
+        try {
+          current.channel.close();
+        } catch (Exception ignore) {
+        }
+        current = null;
+      }
+    }
+  }
+
+  private void awaitChannel() throws InterruptedException, IOException {
+    while (current == null) {
+      if (closed) {
+        throw new IOException("Publisher is closed");
+      }
+      lock.wait();
+    }
+  }
+
+  private void publish(ChannelState state, Message message) {
+    long sequence = state.channel.getNextPublishSeqNo();
+    state.outstanding.put(sequence, message);
+    try {
+      state.channel.basicPublish(message.exchange, message.routingKey, MessageProperties.PERSISTENT_TEXT_PLAIN, message.body);
+    } catch (Exception e) {
+      logger.error("Failed to publish a message to {}", message.exchange, e);
+      disconnect(state);
+    }
+  }
+
+  private void disconnect(ChannelState state) {
+    synchronized (lock) {
+      if (current != state) {
+        return;
+      }
+      current = null;
+      Map.Entry<Long, Message> unconfirmed;
+      while ((unconfirmed = state.outstanding.pollLastEntry()) != null) {
+        resend.addFirst(unconfirmed.getValue());
+      }
+    }
+    try {
+      state.channel.abort();
+    } catch (Exception ignore) {
+    }
+    scheduleReconnect(retryTimeoutMillis);
+  }
+
+  private void scheduleReconnect(long delay) {
+    if (reconnecting.compareAndSet(false, true)) {
+      executor.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void reconnect() {
+    ChannelState state;
+    try {
+      Channel channel = channelFactory.create();
+      channel.confirmSelect();
+      state = new ChannelState(channel);
+      channel.addConfirmListener(state);
+      channel.addShutdownListener(cause -> {
+        if (!cause.isInitiatedByApplication()) {
+          logger.info("Publisher channel closed: {}", cause.getMessage());
+          disconnect(state);
+        }
+      });
+    } catch (Exception e) {
+      logger.info("Publisher reconnect failed. Trying again in {} ms.", retryTimeoutMillis);
+      executor.schedule(this::reconnect, retryTimeoutMillis, TimeUnit.MILLISECONDS);
+      return;
+    }
+    synchronized (lock) {
+      if (closed) {
+        try {
+          state.channel.close();
+        } catch (Exception ignore) {
+        }
+        return;
+      }
+      current = state;
+      reconnecting.set(false);
+      drainResend(state);
+      lock.notifyAll();
+    }
+  }
+
+  private void drainResend(ChannelState state) {
+    Message message;
+    while (current == state && (message = resend.poll()) != null) {
+      publish(state, message);
+    }
+  }
+
+  private class ChannelState implements ConfirmListener {
+
+    private final Channel channel;
+    private final ConcurrentNavigableMap<Long, Message> outstanding = new ConcurrentSkipListMap<>();
+
+    ChannelState(Channel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void handleAck(long deliveryTag, boolean multiple) {
+      window.release(remove(deliveryTag, multiple).size());
+    }
+
+    @Override
+    public void handleNack(long deliveryTag, boolean multiple) {
+      List<Message> nacked = remove(deliveryTag, multiple);
+      if (nacked.isEmpty()) {
+        return;
+      }
+      logger.warn("Broker rejected {} message(s). Publishing them again.", nacked.size());
+      resend.addAll(nacked);
+      executor.execute(() -> {
+        synchronized (lock) {
+          if (current == this) {
+            drainResend(this);
+          }
+        }
+      });
+    }
+
+    private List<Message> remove(long deliveryTag, boolean multiple) {
+      List<Message> removed = new ArrayList<>();
+      if (multiple) {
+        Map.Entry<Long, Message> entry;
+        while ((entry = outstanding.firstEntry()) != null && entry.getKey() <= deliveryTag) {
+          if (outstanding.remove(entry.getKey(), entry.getValue())) {
+            removed.add(entry.getValue());
+          }
+        }
+      } else {
+        Message message = outstanding.remove(deliveryTag);
+        if (message != null) {
+          removed.add(message);
+        }
+      }
+      return removed;
+    }
+  }
+
+  private static class Message {
+    private final String exchange;
+    private final String routingKey;
+    private final byte[] body;
+
+    Message(String exchange, String routingKey, byte[] body) {
+      this.exchange = exchange;
+      this.routingKey = routingKey;
+      this.body = body;
+    }
+  }
+}
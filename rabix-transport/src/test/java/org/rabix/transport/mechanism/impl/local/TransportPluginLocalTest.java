@@ -0,0 +1,102 @@
+package org.rabix.transport.mechanism.impl.local;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.rabix.transport.mechanism.TransportPlugin.ResultPair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Test(groups = { "functional" })
+public class TransportPluginLocalTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransportPluginLocalTest.class);
+
+  private static final int ROOTS = 64;
+  private static final int MESSAGES = 50000;
+
+  @Test
+  public void testRejectWhenFull() throws Exception {
+    Configuration configuration = new BaseConfiguration();
+    configuration.setProperty("local.queue.capacity", 2);
+    configuration.setProperty("local.queue.backpressure", "reject");
+    TransportPluginLocal plugin = new TransportPluginLocal(configuration);
+    TransportQueueLocal queue = new TransportQueueLocal("reject_" + UUID.randomUUID());
+
+    Assert.assertTrue(plugin.send(queue, "first").isSuccess());
+    Assert.assertTrue(plugin.send(queue, "second").isSuccess());
+    ResultPair<String> result = plugin.send(queue, "third");
+    Assert.assertFalse(result.isSuccess());
+  }
+
+  @Test
+  public void testThroughput() throws Exception {
+    double single = run(1);
+    double pooled = run(4);
+    logger.info("Local transport throughput: 1 consumer {} msg/s, 4 consumers {} msg/s", (long) single, (long) pooled);
+  }
+
+  /**
+   * Sends messages for {@link #ROOTS} roots through a small bounded queue to a consumer which spends ~10µs per message,
+   * checks that messages of every root arrive in order and returns messages per second
+   */
+  private double run(int threads) throws Exception {
+    Configuration configuration = new BaseConfiguration();
+    configuration.setProperty("local.queue.capacity", 256);
+    configuration.setProperty("local.receiver.threads", threads);
+    TransportPluginLocal plugin = new TransportPluginLocal(configuration);
+    plugin.partitionBy(Message.class, Message::getRootId);
+    TransportQueueLocal queue = new TransportQueueLocal("throughput_" + UUID.randomUUID());
+
+    UUID[] roots = new UUID[ROOTS];
+    for (int i = 0; i < ROOTS; i++) {
+      roots[i] = UUID.randomUUID();
+    }
+    Map<UUID, Integer> lastSequence = new ConcurrentHashMap<>();
+    AtomicBoolean ordered = new AtomicBoolean(true);
+    CountDownLatch received = new CountDownLatch(MESSAGES);
+
+    plugin.startReceiver(queue, Message.class, (message, onHandled) -> {
+      Integer last = lastSequence.put(message.rootId, message.sequence);
+      if (last != null && last >= message.sequence) {
+        ordered.set(false);
+      }
+      long until = System.nanoTime() + 10000;
+      while (System.nanoTime() < until);
+      received.countDown();
+    }, error -> logger.error("Failed to receive message.", error));
+
+    long start = System.nanoTime();
+    for (int i = 0; i < MESSAGES; i++) {
+      Assert.assertTrue(plugin.send(queue, new Message(roots[i % ROOTS], i)).isSuccess());
+    }
+    Assert.assertTrue(received.await(60, TimeUnit.SECONDS));
+    long elapsed = System.nanoTime() - start;
+
+    plugin.stopReceiver(queue);
+    Assert.assertTrue(ordered.get(), "messages of a root were reordered");
+    return MESSAGES * 1e9 / elapsed;
+  }
+
+  private static class Message {
+    private final UUID rootId;
+    private final int sequence;
+
+    Message(UUID rootId, int sequence) {
+      this.rootId = rootId;
+      this.sequence = sequence;
+    }
+
+    UUID getRootId() {
+      return rootId;
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package org.rabix.transport.mechanism.impl.rabbitmq;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Test(groups = { "functional" })
+public class TransportPublisherRabbitMQTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(TransportPublisherRabbitMQTest.class);
+
+  private static final int MESSAGES = 20000;
+
+  @Test
+  public void testBatchConfirms() throws Exception {
+    Broker broker = new Broker(-1, -1);
+    TransportPublisherRabbitMQ publisher = new TransportPublisherRabbitMQ(broker::newChannel, 256, 10);
+    try {
+      long start = System.nanoTime();
+      for (int i = 0; i < MESSAGES; i++) {
+        publisher.publish("exchange", "key", Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+      }
+      Assert.assertTrue(publisher.awaitConfirms(10, TimeUnit.SECONDS));
+      long elapsed = System.nanoTime() - start;
+      logger.info("Published {} messages in {} ms ({} msg/s)", MESSAGES, TimeUnit.NANOSECONDS.toMillis(elapsed), MESSAGES * 1000000000L / elapsed);
+
+      Assert.assertEquals(broker.delivered.size(), MESSAGES);
+      Assert.assertTrue(broker.maxOutstanding.get() <= 256);
+    } finally {
+      publisher.close();
+      broker.close();
+    }
+  }
+
+  @Test
+  public void testNackedMessagesArePublishedAgain() throws Exception {
+    Broker broker = new Broker(7, -1);
+    TransportPublisherRabbitMQ publisher = new TransportPublisherRabbitMQ(broker::newChannel, 64, 10);
+    try {
+      for (int i = 0; i < 1000; i++) {
+        publisher.publish("exchange", "key", Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+      }
+      Assert.assertTrue(publisher.awaitConfirms(10, TimeUnit.SECONDS));
+      Assert.assertEquals(broker.delivered.size(), 1000);
+      Assert.assertTrue(broker.nacked.get() >= 10);
+    } finally {
+      publisher.close();
+      broker.close();
+    }
+  }
+
+  @Test
+  public void testPublishWaitsForReconnect() throws Exception {
+    Broker broker = new Broker(-1, 500);
+    TransportPublisherRabbitMQ publisher = new TransportPublisherRabbitMQ(broker::newChannel, 4096, 50);
+    try {
+      long maxLatency = 0;
+      for (int i = 0; i < 2000; i++) {
+        long start = System.nanoTime();
+        publisher.publish("exchange", "key", Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+        maxLatency = Math.max(maxLatency, System.nanoTime() - start);
+      }
+      Assert.assertTrue(publisher.awaitConfirms(10, TimeUnit.SECONDS));
+      Assert.assertEquals(broker.delivered.size(), 2000);
+      Assert.assertTrue(broker.channels.get() > 1);
+      Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(maxLatency) >= 25, "publish didn't wait for reconnect");
+    } finally {
+      publisher.close();
+      broker.close();
+    }
+  }
+
+  @Test
+  public void testClosedPublisherFails() throws Exception {
+    TransportPublisherRabbitMQ publisher = new TransportPublisherRabbitMQ(() -> {
+      throw new IOException("Connection refused");
+    }, 16, 10);
+    Thread closer = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        return;
+      }
+      publisher.close();
+    });
+    closer.start();
+    try {
+      publisher.publish("exchange", "key", new byte[0]);
+      Assert.fail("message without a channel was reported as published");
+    } catch (IOException e) {
+      Assert.assertEquals(publisher.unconfirmed(), 0);
+    }
+    closer.join();
+  }
+
+  /**
+   * Broker stand-in which confirms everything published since the previous tick with one multiple ack, nacks every n-th
+   * message (at most ten times) and breaks each of the first three channels after n publishes
+   */
+  private static class Broker {
+
+    private final int nackEvery;
+    private final int failAfter;
+
+    private final Set<String> delivered = Collections.synchronizedSet(new HashSet<>());
+    private final AtomicInteger nacked = new AtomicInteger();
+    private final AtomicInteger channels = new AtomicInteger();
+    private final AtomicInteger maxOutstanding = new AtomicInteger();
+
+    private final ScheduledExecutorService confirms = Executors.newSingleThreadScheduledExecutor();
+
+    Broker(int nackEvery, int failAfter) {
+      this.nackEvery = nackEvery;
+      this.failAfter = failAfter;
+    }
+
+    Channel newChannel() {
+      channels.incrementAndGet();
+      StandInChannel channel = new StandInChannel(channels.get() <= 3 ? failAfter : -1);
+      confirms.scheduleWithFixedDelay(channel::confirm, 1, 1, TimeUnit.MILLISECONDS);
+      return (Channel) Proxy.newProxyInstance(Channel.class.getClassLoader(), new Class<?>[] { Channel.class }, (proxy, method, args) -> {
+        switch (method.getName()) {
+        case "getNextPublishSeqNo":
+          return channel.nextSequence();
+        case "addConfirmListener":
+          channel.listener = (ConfirmListener) args[0];
+          return null;
+        case "basicPublish":
+          channel.publish((byte[]) args[args.length - 1]);
+          return null;
+        case "isOpen":
+          return !channel.broken;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        default:
+          return null;
+        }
+      });
+    }
+
+    void close() {
+      confirms.shutdownNow();
+    }
+
+    private class StandInChannel {
+
+      private volatile ConfirmListener listener;
+      private volatile boolean broken;
+
+      private final int failAfter;
+      private int published;
+
+      private long sequence = 1;
+      private long lastConfirmed = 0;
+      private final Map<Long, String> pending = new TreeMap<>();
+      private final Set<Long> toNack = new HashSet<>();
+
+      StandInChannel(int failAfter) {
+        this.failAfter = failAfter;
+      }
+
+      synchronized long nextSequence() {
+        return sequence;
+      }
+
+      synchronized void publish(byte[] body) throws IOException {
+        if (broken || ++published == failAfter) {
+          broken = true;
+          throw new IOException("Channel is closed");
+        }
+        long tag = sequence++;
+        pending.put(tag, new String(body, StandardCharsets.UTF_8));
+        if (nackEvery > 0 && tag % nackEvery == 0 && nacked.incrementAndGet() <= 10) {
+          toNack.add(tag);
+        }
+        maxOutstanding.accumulateAndGet((int) (tag - lastConfirmed), Math::max);
+      }
+
+      synchronized void confirm() {
+        if (broken || pending.isEmpty()) {
+          return;
+        }
+        try {
+          long last = 0;
+          for (Map.Entry<Long, String> entry : pending.entrySet()) {
+            last = entry.getKey();
+            if (toNack.remove(last)) {
+              listener.handleNack(last, false);
+            } else {
+              delivered.add(entry.getValue());
+            }
+          }
+          pending.clear();
+          lastConfirmed = last;
+          listener.handleAck(last, true);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    }
+  }
+}